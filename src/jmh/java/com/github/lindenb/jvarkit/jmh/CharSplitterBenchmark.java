@@ -0,0 +1,99 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.jmh;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.lindenb.jvarkit.lang.CharSplitter;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+
+/** split BED and VCF lines on tabulations */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CharSplitterBenchmark {
+	@Param({"bed","vcf"})
+	public String format;
+	private List<String> lines;
+	
+	@Setup
+	public void setup() {
+		final SyntheticData data = new SyntheticData();
+		final SAMSequenceDictionary dict = data.createDictionary(25, 10_000_000);
+		if(this.format.equals("bed")) {
+			this.lines = data.createBedLines(dict, 100_000);
+			}
+		else
+			{
+			this.lines = data.createVcfLines(dict, data.createSamples(50), 10_000);
+			}
+		}
+	
+	@Benchmark
+	public void split(final Blackhole bh) {
+		for(final String line: this.lines) {
+			bh.consume(CharSplitter.TAB.split(line));
+			}
+		}
+	
+	@Benchmark
+	public void splitMaxTokens(final Blackhole bh) {
+		for(final String line: this.lines) {
+			bh.consume(CharSplitter.TAB.split(line, 4));
+			}
+		}
+	
+	@Benchmark
+	public void countTokens(final Blackhole bh) {
+		for(final String line: this.lines) {
+			bh.consume(CharSplitter.TAB.countTokens(line));
+			}
+		}
+	
+	/** reference: java.lang.String.split */
+	@Benchmark
+	public void stringSplit(final Blackhole bh) {
+		for(final String line: this.lines) {
+			bh.consume(line.split("\t"));
+			}
+		}
+	}
@@ -0,0 +1,90 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.lindenb.jvarkit.util.bio.fasta.ContigNameConverter;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+
+/** convert contig names 'chr1' / '1' / 'chrM' / unknown contigs */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContigNameConverterBenchmark {
+	private final List<String> queries = new ArrayList<>();
+	private ContigNameConverter fromDictionary;
+	private ContigNameConverter toEnsembl;
+	
+	@Setup
+	public void setup() {
+		final SyntheticData data = new SyntheticData();
+		final SAMSequenceDictionary dict = data.createDictionary(25, 1_000);
+		this.fromDictionary = ContigNameConverter.fromOneDictionary(dict);
+		this.toEnsembl = ContigNameConverter.createConvertToEnsembl();
+		final Random rand = new Random(SyntheticData.DEFAULT_SEED);
+		for(int i=0;i< 100_000;i++) {
+			final int n = 1 + rand.nextInt(26);
+			switch(rand.nextInt(4)) {
+				case 0: this.queries.add("chr"+n); break;
+				case 1: this.queries.add(String.valueOf(n)); break;
+				case 2: this.queries.add(rand.nextBoolean()?"chrM":"MT"); break;
+				default: this.queries.add("chrUn_"+n+"v1"); break;
+				}
+			}
+		}
+	
+	@Benchmark
+	public void fromOneDictionary(final Blackhole bh) {
+		for(final String q: this.queries) {
+			bh.consume(this.fromDictionary.apply(q));
+			}
+		}
+	
+	@Benchmark
+	public void convertToEnsembl(final Blackhole bh) {
+		for(final String q: this.queries) {
+			bh.consume(this.toEnsembl.apply(q));
+			}
+		}
+	}
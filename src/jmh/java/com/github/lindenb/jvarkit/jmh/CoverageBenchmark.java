@@ -0,0 +1,108 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.jmh;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.lindenb.jvarkit.samtools.CoverageFactory;
+import com.github.lindenb.jvarkit.samtools.DepthAccumulator;
+import com.github.lindenb.jvarkit.samtools.SAMRecordDefaultFilter;
+import com.github.lindenb.jvarkit.samtools.util.SimpleInterval;
+
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMRecordIterator;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
+import htsjdk.samtools.ValidationStringency;
+
+/** depth of coverage of a synthetic BAM */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CoverageBenchmark {
+	private static final int CONTIG_LENGTH = 2_000_000;
+	private Path tmpDir;
+	private SamReader samReader;
+	
+	@Setup
+	public void setup() throws IOException {
+		final SyntheticData data = new SyntheticData();
+		final SAMSequenceDictionary dict = data.createDictionary(2, CONTIG_LENGTH);
+		this.tmpDir = Files.createTempDirectory("jmh.");
+		final Path bam = data.createBam(this.tmpDir, dict, "S1", 200_000, 150);
+		this.samReader = SamReaderFactory.makeDefault().
+				validationStringency(ValidationStringency.LENIENT).
+				open(bam);
+		}
+	
+	@TearDown
+	public void tearDown() throws IOException {
+		this.samReader.close();
+		SyntheticData.delete(this.tmpDir);
+		}
+	
+	/** CoverageFactory over a 100kb interval */
+	@Benchmark
+	public void simpleCoverage(final Blackhole bh) {
+		final CoverageFactory.SimpleCoverage cov = new CoverageFactory().
+				setMappingQuality(1).
+				getSimpleCoverage(this.samReader, new SimpleInterval("chr1", 500_000, 600_000), null);
+		bh.consume(cov.getMedian());
+		}
+	
+	/** depth of a whole contig */
+	@Benchmark
+	public void contigDepth(final Blackhole bh) {
+		final DepthAccumulator depth = new DepthAccumulator().
+				reset("chr1", 1, CONTIG_LENGTH).
+				setRecordFilter(R->SAMRecordDefaultFilter.accept(R, 1));
+		try(SAMRecordIterator iter = this.samReader.query("chr1", 0, 0, false)) {
+			while(iter.hasNext()) {
+				final SAMRecord rec = iter.next();
+				depth.add(rec);
+				}
+			}
+		bh.consume(depth.getDepthArray());
+		}
+	}
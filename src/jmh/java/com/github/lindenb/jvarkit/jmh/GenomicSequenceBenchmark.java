@@ -0,0 +1,102 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.jmh;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.lindenb.jvarkit.util.picard.GenomicSequence;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.reference.ReferenceSequenceFile;
+import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
+
+/** random access to the bases of a GenomicSequence */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenomicSequenceBenchmark {
+	private static final int N_QUERIES = 100_000;
+	private Path tmpDir;
+	private ReferenceSequenceFile reference;
+	private GenomicSequence genomicSequence;
+	
+	@Setup
+	public void setup() throws IOException {
+		final SyntheticData data = new SyntheticData();
+		final SAMSequenceDictionary dict = data.createDictionary(2, 5_000_000);
+		this.tmpDir = Files.createTempDirectory("jmh.");
+		final Path fasta = data.createReference(this.tmpDir, dict);
+		this.reference = ReferenceSequenceFileFactory.getReferenceSequenceFile(fasta);
+		this.genomicSequence = new GenomicSequence(this.reference, "chr1");
+		}
+	
+	@TearDown
+	public void tearDown() throws IOException {
+		this.reference.close();
+		SyntheticData.delete(this.tmpDir);
+		}
+	
+	@Benchmark
+	public void charAtSequential(final Blackhole bh) {
+		final int len = this.genomicSequence.length();
+		for(int i=0;i< N_QUERIES;i++) {
+			bh.consume(this.genomicSequence.charAt(i % len));
+			}
+		}
+	
+	@Benchmark
+	public void charAtRandom(final Blackhole bh) {
+		final int len = this.genomicSequence.length();
+		for(int i=0;i< N_QUERIES;i++) {
+			bh.consume(this.genomicSequence.charAt((int)((i * 7_919L) % len)));
+			}
+		}
+	
+	@Benchmark
+	public void gcPercent(final Blackhole bh) {
+		final int len = this.genomicSequence.length();
+		for(int i=0;i + 1_000 < len;i+=500) {
+			bh.consume(this.genomicSequence.getGCPercent(i, i + 1_000).getGCPercent());
+			}
+		}
+	}
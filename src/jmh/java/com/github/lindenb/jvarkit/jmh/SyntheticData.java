@@ -0,0 +1,239 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.jmh;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMFileWriter;
+import htsjdk.samtools.SAMFileWriterFactory;
+import htsjdk.samtools.SAMReadGroupRecord;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.TextCigarCodec;
+import htsjdk.samtools.reference.FastaReferenceWriter;
+import htsjdk.samtools.reference.FastaReferenceWriterBuilder;
+import htsjdk.samtools.util.IOUtil;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderLineType;
+import htsjdk.variant.vcf.VCFFormatHeaderLine;
+import htsjdk.variant.vcf.VCFInfoHeaderLine;
+import htsjdk.variant.vcf.VCFHeaderLineCount;
+import htsjdk.variant.vcf.VCFStandardHeaderLines;
+import htsjdk.variant.vcf.VCFConstants;
+
+/**
+ * Generates the synthetic inputs (reference, BED, VCF, BAM) used by the benchmarks.
+ * A fixed seed is used so two runs, or two commits, are benchmarked on the very same data.
+ */
+public class SyntheticData {
+	public static final long DEFAULT_SEED = 20240825L;
+	private static final char[] ACGT = {'A','C','G','T'};
+	private final Random random;
+	
+	public SyntheticData() {
+		this(DEFAULT_SEED);
+		}
+	public SyntheticData(final long seed) {
+		this.random = new Random(seed);
+		}
+	
+	/** create a dictionary 'chr1', 'chr2', ... */
+	public SAMSequenceDictionary createDictionary(final int n_contigs,final int length) {
+		final List<SAMSequenceRecord> L = new ArrayList<>(n_contigs);
+		for(int i=0;i< n_contigs;i++) {
+			L.add(new SAMSequenceRecord("chr"+(i+1), length));
+			}
+		return new SAMSequenceDictionary(L);
+		}
+	
+	/** create random bases with a few stretches of N */
+	public byte[] createBases(final int length) {
+		final byte[] bases = new byte[length];
+		for(int i=0;i< length;i++) {
+			bases[i] = (byte)ACGT[this.random.nextInt(ACGT.length)];
+			}
+		for(int n=0;n< length/100_000;n++) {
+			final int p = this.random.nextInt(length);
+			Arrays.fill(bases, p, Math.min(length, p + 1_000), (byte)'N');
+			}
+		return bases;
+		}
+	
+	/** write an indexed fasta file (+.fai +.dict) in 'dir' for this dictionary */
+	public Path createReference(final Path dir,final SAMSequenceDictionary dict) throws IOException {
+		final Path fasta = dir.resolve("reference.fa");
+		try(FastaReferenceWriter w = new FastaReferenceWriterBuilder().
+				setFastaFile(fasta).
+				setMakeFaiOutput(true).
+				setMakeDictOutput(true).
+				build()) {
+			for(final SAMSequenceRecord ssr: dict.getSequences()) {
+				w.appendSequence(ssr.getSequenceName(), null, createBases(ssr.getSequenceLength()));
+				}
+			}
+		return fasta;
+		}
+	
+	/** create BED lines with 6 columns */
+	public List<String> createBedLines(final SAMSequenceDictionary dict,final int n) {
+		final List<String> L = new ArrayList<>(n);
+		final StringBuilder sb = new StringBuilder();
+		for(int i=0;i< n;i++) {
+			final SAMSequenceRecord ssr = dict.getSequence(this.random.nextInt(dict.size()));
+			final int start0 = this.random.nextInt(ssr.getSequenceLength()-1);
+			final int end0 = Math.min(ssr.getSequenceLength(), start0 + 1 + this.random.nextInt(5_000));
+			sb.setLength(0);
+			sb.append(ssr.getSequenceName()).append('\t').
+				append(start0).append('\t').
+				append(end0).append('\t').
+				append("feature").append(i).append('\t').
+				append(this.random.nextInt(1000)).append('\t').
+				append(this.random.nextBoolean()?'+':'-');
+			L.add(sb.toString());
+			}
+		return L;
+		}
+	
+	/** list of sample names 'S1', 'S2', ... */
+	public List<String> createSamples(final int n) {
+		final List<String> L = new ArrayList<>(n);
+		for(int i=0;i< n;i++) L.add("S"+(i+1));
+		return L;
+		}
+	
+	/** VCF header with INFO/AF, INFO/DP, FORMAT/GT, FORMAT/DP and FORMAT/GQ */
+	public VCFHeader createVcfHeader(final SAMSequenceDictionary dict,final List<String> samples) {
+		final VCFHeader header = new VCFHeader(new HashSet<>(), samples);
+		header.addMetaDataLine(new VCFInfoHeaderLine(VCFConstants.ALLELE_FREQUENCY_KEY, VCFHeaderLineCount.A, VCFHeaderLineType.Float, "Allele Frequency"));
+		header.addMetaDataLine(new VCFInfoHeaderLine(VCFConstants.DEPTH_KEY, 1, VCFHeaderLineType.Integer, "Depth"));
+		header.addMetaDataLine(VCFStandardHeaderLines.getFormatLine(VCFConstants.GENOTYPE_KEY));
+		header.addMetaDataLine(VCFStandardHeaderLines.getFormatLine(VCFConstants.DEPTH_KEY));
+		header.addMetaDataLine(new VCFFormatHeaderLine(VCFConstants.GENOTYPE_QUALITY_KEY, 1, VCFHeaderLineType.Integer, "GQ"));
+		header.setSequenceDictionary(dict);
+		return header;
+		}
+	
+	/** create sorted VCF data lines (without header) */
+	public List<String> createVcfLines(final SAMSequenceDictionary dict,final List<String> samples,final int n) {
+		final List<String> L = new ArrayList<>(n);
+		final StringBuilder sb = new StringBuilder();
+		final String[] gts = {"0/0","0/1","1/1","./."};
+		final int per_contig = Math.max(1, n / dict.size());
+		for(final SAMSequenceRecord ssr: dict.getSequences()) {
+			final int step = Math.max(1, ssr.getSequenceLength() / per_contig);
+			for(int pos=1;pos<= ssr.getSequenceLength() && L.size() < n;pos+=1+this.random.nextInt(step)) {
+				final int ref_idx = this.random.nextInt(ACGT.length);
+				final char ref = ACGT[ref_idx];
+				final char alt = ACGT[(ref_idx + 1 + this.random.nextInt(ACGT.length-1)) % ACGT.length];
+				sb.setLength(0);
+				sb.append(ssr.getSequenceName()).append('\t').
+					append(pos).append('\t').
+					append(this.random.nextInt(10)==0?"rs"+pos:".").append('\t').
+					append(ref).append('\t').
+					append(alt).append('\t').
+					append(this.random.nextInt(1000)).append('\t').
+					append(this.random.nextInt(10)==0?"LowQual":"PASS").append('\t').
+					append("AF=").append(this.random.nextInt(10_000)/10_000.0).
+					append(";DP=").append(this.random.nextInt(10_000)).append('\t').
+					append("GT:DP:GQ");
+				for(int i=0;i< samples.size();i++) {
+					sb.append('\t').
+						append(gts[this.random.nextInt(gts.length)]).append(':').
+						append(this.random.nextInt(100)).append(':').
+						append(this.random.nextInt(99));
+					}
+				L.add(sb.toString());
+				}
+			}
+		return L;
+		}
+	
+	/** write a sorted and indexed BAM file of paired reads in 'dir' */
+	public Path createBam(final Path dir,final SAMSequenceDictionary dict,final String sample,final int n_pairs,final int read_length) throws IOException {
+		final Path bam = dir.resolve(sample+".bam");
+		final SAMFileHeader header = new SAMFileHeader(dict);
+		header.setSortOrder(SAMFileHeader.SortOrder.coordinate);
+		final SAMReadGroupRecord rg = new SAMReadGroupRecord(sample);
+		rg.setSample(sample);
+		header.addReadGroup(rg);
+		final String[] cigars = {
+			read_length+"M",
+			read_length+"M",
+			read_length+"M",
+			"5S"+(read_length-5)+"M",
+			(read_length/2)+"M3D"+(read_length-read_length/2)+"M",
+			(read_length/2)+"M2I"+(read_length-read_length/2-2)+"M",
+			(read_length/2)+"M500N"+(read_length-read_length/2)+"M"
+			};
+		final byte[] bases = new byte[read_length];
+		Arrays.fill(bases, (byte)'A');
+		final byte[] quals = new byte[read_length];
+		Arrays.fill(quals, (byte)30);
+		final SAMFileWriterFactory swf = new SAMFileWriterFactory().setCreateIndex(true);
+		try(SAMFileWriter w = swf.makeBAMWriter(header, false, bam)) {
+			for(int i=0;i< n_pairs;i++) {
+				final SAMSequenceRecord ssr = dict.getSequence(this.random.nextInt(dict.size()));
+				final int fragment = read_length + this.random.nextInt(3 * read_length);
+				final int start1 = 1 + this.random.nextInt(Math.max(1, ssr.getSequenceLength() - fragment - 600));
+				final int mate1 = start1 + fragment - read_length;
+				final int mapq = this.random.nextInt(10)==0 ? 0 : 60;
+				for(int side=0;side<2;side++) {
+					final SAMRecord rec = new SAMRecord(header);
+					rec.setReadName("read"+i);
+					rec.setReadPairedFlag(true);
+					rec.setFirstOfPairFlag(side==0);
+					rec.setSecondOfPairFlag(side==1);
+					rec.setReferenceName(ssr.getSequenceName());
+					rec.setMateReferenceName(ssr.getSequenceName());
+					rec.setAlignmentStart(side==0?start1:mate1);
+					rec.setMateAlignmentStart(side==0?mate1:start1);
+					rec.setReadNegativeStrandFlag(side==1);
+					rec.setMateNegativeStrandFlag(side==0);
+					rec.setProperPairFlag(true);
+					rec.setMappingQuality(mapq);
+					rec.setCigar(TextCigarCodec.decode(cigars[this.random.nextInt(cigars.length)]));
+					rec.setReadBases(bases);
+					rec.setBaseQualities(quals);
+					rec.setAttribute("RG", sample);
+					rec.setInferredInsertSize(side==0?fragment:-fragment);
+					w.addAlignment(rec);
+					}
+				}
+			}
+		return bam;
+		}
+	
+	/** delete a directory created by the benchmark */
+	public static void delete(final Path dir) {
+		if(dir!=null) IOUtil.deleteDirectoryTree(dir.toFile());
+		}
+	}
@@ -0,0 +1,126 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.github.lindenb.jvarkit.util.log.ProgressFactory;
+
+/**
+ * Runs independent tasks on a work-stealing pool. All the tasks are queued at once,
+ * so a worker takes the next task as soon as it is free: a slow task doesn't stall the others.
+ * With one thread, the tasks are run in the calling thread.
+ * The executor can be re-used for several calls to {@link #invokeAll(Collection)}.
+ */
+public class TaskExecutor implements AutoCloseable {
+	private final ForkJoinPool pool;
+	private ProgressFactory progressFactory = null;
+
+	public TaskExecutor(final int nThreads) {
+		this.pool = nThreads > 1 ? new ForkJoinPool(nThreads) : null;
+		}
+
+	/** report the progress of the tasks using this factory. Default is no progress. */
+	public TaskExecutor progress(final ProgressFactory progressFactory) {
+		this.progressFactory = progressFactory;
+		return this;
+		}
+
+	public int getNumberOfThreads() {
+		return this.pool==null ? 1 : this.pool.getParallelism();
+		}
+
+	/**
+	 * run all the tasks and wait for their completion.
+	 * @return the results in the same order as the tasks
+	 * @throws ExecutionException the first exception thrown by a task. The other tasks are cancelled.
+	 */
+	public <T> List<T> invokeAll(final Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+		final List<T> results = new ArrayList<>(tasks.size());
+		try(ProgressFactory.TaskWatcher watcher = (this.progressFactory==null?
+				ProgressFactory.newInstance().setSilent(true):
+				this.progressFactory).buildTaskWatcher(tasks.size())) {
+			if(this.pool==null) {
+				for(final Callable<T> task: tasks) {
+					try {
+						results.add(task.call());
+						}
+					catch(final Exception err) {
+						throw new ExecutionException(err);
+						}
+					watcher.done();
+					}
+				return results;
+				}
+			final List<Future<T>> futures = new ArrayList<>(tasks.size());
+			for(final Callable<T> task: tasks) {
+				futures.add(this.pool.submit(()->{
+					final T t = task.call();
+					watcher.done();
+					return t;
+					}));
+				}
+			try {
+				for(final Future<T> f: futures) {
+					results.add(f.get());
+					}
+				}
+			finally {
+				for(final Future<T> f: futures) {
+					f.cancel(true);
+					}
+				}
+			}
+		return results;
+		}
+
+	/** run all the tasks and wait for their completion. See {@link #invokeAll(Collection)} */
+	public void runAll(final Collection<? extends Runnable> tasks) throws InterruptedException, ExecutionException {
+		final List<Callable<Object>> callables = new ArrayList<>(tasks.size());
+		for(final Runnable r: tasks) {
+			callables.add(Executors.callable(r));
+			}
+		invokeAll(callables);
+		}
+
+	@Override
+	public void close() {
+		if(this.pool==null) return;
+		this.pool.shutdown();
+		try {
+			this.pool.awaitTermination(365, TimeUnit.DAYS);
+			}
+		catch(final InterruptedException err) {
+			Thread.currentThread().interrupt();
+			}
+		}
+	}
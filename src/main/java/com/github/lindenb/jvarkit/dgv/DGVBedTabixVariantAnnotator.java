@@ -110,7 +110,7 @@ public class DGVBedTabixVariantAnnotator extends AbstractTabixVariantAnnotator {
 	public List<VariantContext> annotate(final VariantContext ctx)  throws IOException {
 		if(super.tabixReader==null || !hasContig(ctx)) return Collections.singletonList(ctx);
 		final Set<String> dgv_variants = new HashSet<>();
-		TabixReader.Iterator r = super.tabixReader.query(contig(ctx),ctx.getStart()-1, ctx.getEnd());
+		TabixReader.Iterator r = super.query(contig(ctx),ctx.getStart()-1, ctx.getEnd());
 		Double popmax_af = null;
 		for(;;) {
 			String line = r.next();
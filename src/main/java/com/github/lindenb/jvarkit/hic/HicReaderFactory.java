@@ -37,7 +37,11 @@ import htsjdk.samtools.seekablestream.SeekableStreamFactory;
  *
  */
 public class HicReaderFactory {
+	/** default max number of contacts kept in the block cache of a reader */
+	public static final long DEFAULT_BLOCK_CACHE_SIZE = 1_000_000L;
 	private ISeekableStreamFactory seekableStreamFactory= SeekableStreamFactory.getInstance();
+	private long blockCacheSize = DEFAULT_BLOCK_CACHE_SIZE;
+	private int nThreads = 1;
 	
 	public HicReaderFactory setSeekableStreamFactory(final ISeekableStreamFactory seekableStreamFactory) {
 		this.seekableStreamFactory = seekableStreamFactory;
@@ -48,9 +52,29 @@ public class HicReaderFactory {
 		return seekableStreamFactory;
 		}
 	
+	/** set the max number of decoded contacts kept in the block cache. 0 disables the cache */
+	public HicReaderFactory setBlockCacheSize(final long blockCacheSize) {
+		this.blockCacheSize = Math.max(0L, blockCacheSize);
+		return this;
+		}
+	
+	public long getBlockCacheSize() {
+		return blockCacheSize;
+		}
+	
+	/** set the number of threads used to inflate the blocks of a query */
+	public HicReaderFactory setThreads(final int nThreads) {
+		this.nThreads = Math.max(1, nThreads);
+		return this;
+		}
+	
+	public int getThreads() {
+		return nThreads;
+		}
+	
 	public HicReader open(final String pathOrUrl) throws IOException {
 		final SeekableStream sr = getSeekableStreamFactory().getStreamFor(pathOrUrl);
-		return new HicReaderImpl(pathOrUrl, sr);
+		return new HicReaderImpl(pathOrUrl, sr, getBlockCacheSize(), getThreads());
 		}
 	
 	}
@@ -53,8 +53,11 @@ package com.github.lindenb.jvarkit.hic;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -62,6 +65,12 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.zip.InflaterInputStream;
@@ -116,6 +125,12 @@ public class HicReaderImpl implements HicReader {
 	private final Set<Integer> basePairResolutions;
 	/** fragment resolutions */
 	private final Set<Integer> fragmentResolutions;
+	/** cache of the decoded blocks */
+	private final BlockCache blockCache;
+	/** executor used to inflate the blocks of a query, or null if single threaded */
+	private final ExecutorService executorService;
+	/** max number of blocks being inflated or waiting to be consumed */
+	private final int maxPendingBlocks;
 	
 	private static class ContactRecord
 		{
@@ -129,6 +144,32 @@ public class HicReaderImpl implements HicReader {
 			}
 		}
 	
+	/** LRU cache of the decoded blocks, bounded by the total number of cached contacts.
+	 * Blocks are keyed by their file position : a block belongs to only one (matrix,zoom,blockId) */
+	@SuppressWarnings("serial")
+	private static class BlockCache extends LinkedHashMap<Long, List<ContactRecord>> {
+		private final long maxRecords;
+		private long countRecords = 0L;
+		BlockCache(final long maxRecords) {
+			super(16, 0.75f, true);
+			this.maxRecords = maxRecords;
+			}
+		synchronized List<ContactRecord> getBlock(final long position) {
+			return super.get(position);
+			}
+		synchronized void putBlock(final long position,final List<ContactRecord> block) {
+			if(block.size() > this.maxRecords) return;
+			final List<ContactRecord> prev = super.put(position, block);
+			if(prev!=null) this.countRecords -= prev.size();
+			this.countRecords += block.size();
+			final Iterator<List<ContactRecord>> iter = super.values().iterator();
+			while(this.countRecords > this.maxRecords && iter.hasNext()) {
+				this.countRecords -= iter.next().size();
+				iter.remove();
+				}
+			}
+		}
+	
 	private LittleEndianInputStream streamToEndian() throws IOException  {
 		return new LittleEndianInputStream(new BufferedInputStream(this.seekableStream));
 		}
@@ -143,10 +184,18 @@ public class HicReaderImpl implements HicReader {
 		if(n2!=n) throw new IOException("Cannot skip "+n+" bytes (got "+n2+")");
 		}
 	
-	/** called by HicReaderFactory */
 	HicReaderImpl(final Object source,final SeekableStream seekableStream) throws IOException {
+		this(source,seekableStream,HicReaderFactory.DEFAULT_BLOCK_CACHE_SIZE,1);
+		}
+	
+	/** called by HicReaderFactory
+	 * @param maxCachedRecords max number of contacts kept in the block cache. 0 disables the cache.
+	 * @param nThreads number of threads used to inflate the blocks of a query
+	 */
+	HicReaderImpl(final Object source,final SeekableStream seekableStream,final long maxCachedRecords,final int nThreads) throws IOException {
 		this.source = source;
 		this.seekableStream = seekableStream;
+		this.blockCache = maxCachedRecords > 0L ? new BlockCache(maxCachedRecords) : null;
 		
 		@SuppressWarnings("resource")
 		LittleEndianInputStream lis = this.streamToEndian();
@@ -230,7 +279,19 @@ public class HicReaderImpl implements HicReader {
 			}
 		this.fragmentResolutions = Collections.unmodifiableSet(resFragSet);
 
-		// 
+		if(nThreads > 1) {
+			this.executorService = Executors.newFixedThreadPool(nThreads, R->{
+				final Thread t = new Thread(R, "hic-inflate");
+				t.setDaemon(true);
+				return t;
+				});
+			this.maxPendingBlocks = 2 * nThreads;
+			}
+		else
+			{
+			this.executorService = null;
+			this.maxPendingBlocks = 1;
+			}
 		
 		
 		}
@@ -248,6 +309,7 @@ public class HicReaderImpl implements HicReader {
 	
 	@Override
 	public void close() {
+		if(this.executorService!=null) this.executorService.shutdownNow();
 		CloserUtil.close(this.seekableStream);
 		}
 	
@@ -372,9 +434,9 @@ public class HicReaderImpl implements HicReader {
 			
 		 
 		  
-		  for (final Integer it:blockNumbers) {
+		  q.readBlockIds(blockNumbers, block->{
 		    // get contacts in this block
-		    for(final ContactRecord rec:q.readBlockId(it)) {     
+		    for(final ContactRecord rec:block) {     
 		      final int x = rec.binX * binsize;
 		      final int y = rec.binY * binsize;
 		      
@@ -395,7 +457,7 @@ public class HicReaderImpl implements HicReader {
 		    		 q.interval1.getContig(), x, x+binsize,
 		    		 q.interval2.getContig(), y, y+binsize, norm, unit, binsize, c);
 		    }
-		  }
+		  });
 			return false;
 			}
 		catch(final IOException err) {
@@ -518,22 +580,90 @@ public class HicReaderImpl implements HicReader {
 	
 	
 	
-	/**
-	https://github.com/igvteam/juicebox.js/blob/55bd6c7815f9abee74368c14a9d9403d2998313f/js/hicDataset.js#L95 	 
-	https://github.com/igvteam/hic-straw/blob/d428ee7e6df5488dd1295b33a81eeb06adbf7a51/src/hicFile.js#L307 */
-	private List<ContactRecord> readBlock(final IndexEntry indexEntry) throws IOException {
-		debug("read block " + indexEntry); 
-		if (indexEntry==null) {
-			 return Collections.emptyList();
-		 	}
-		 debug(indexEntry);
-		 if (indexEntry.size == 0) {
-			 return Collections.emptyList();
-		 }
+	/** read the compressed bytes of a block. Must be called sequentially as it moves the seekable stream */
+	private byte[] readCompressedBlock(final IndexEntry indexEntry) throws IOException {
 		 final byte compressedBytes[] = new byte[indexEntry.size];
-
 		 seekableStream.seek(indexEntry.position);
 		 seekableStream.readFully(compressedBytes);
+		 return compressedBytes;
+		 }
+	
+	/** read the blocks and give them to the consumer, in order. Blocks found in the cache are not read again
+	 * and, if there is an executor, the missing blocks are inflated concurrently, with at most
+	 * 'maxPendingBlocks' blocks in flight. */
+	private void readBlocks(final List<IndexEntry> indexEntries,final Consumer<List<ContactRecord>> consumer) throws IOException {
+		final Deque<Future<List<ContactRecord>>> pending = new ArrayDeque<>(this.maxPendingBlocks + 1);
+		try {
+			for(final IndexEntry indexEntry: indexEntries) {
+				debug("read block " + indexEntry); 
+				final List<ContactRecord> block;
+				if (indexEntry==null || indexEntry.size == 0) {
+					block = Collections.emptyList();
+					}
+				else
+					{
+					final List<ContactRecord> cached = this.blockCache==null ? null : this.blockCache.getBlock(indexEntry.position);
+					if(cached!=null) {
+						block = cached;
+						}
+					else
+						{
+						final byte compressedBytes[] = readCompressedBlock(indexEntry);
+						if(this.executorService==null) {
+							block = decodeBlock(indexEntry, compressedBytes);
+							}
+						else
+							{
+							pending.add(this.executorService.submit(()->decodeBlock(indexEntry, compressedBytes)));
+							block = null;
+							}
+						}
+					}
+				if(block!=null) {
+					if(pending.isEmpty()) {
+						consumer.accept(block);
+						continue;
+						}
+					/* keep the order: wait for the blocks still being inflated */
+					pending.add(CompletableFuture.completedFuture(block));
+					}
+				/* consume the blocks that are done, wait for the oldest one if the window is full */
+				while(!pending.isEmpty() && (pending.size() >= this.maxPendingBlocks || pending.peekFirst().isDone())) {
+					consumer.accept(awaitBlock(pending.pollFirst()));
+					}
+				}
+			while(!pending.isEmpty()) {
+				consumer.accept(awaitBlock(pending.pollFirst()));
+				}
+			}
+		finally
+			{
+			/* on error, don't leave the remaining blocks running */
+			for(final Future<List<ContactRecord>> f: pending) {
+				f.cancel(true);
+				}
+			}
+		}
+	
+	private List<ContactRecord> awaitBlock(final Future<List<ContactRecord>> future) throws IOException {
+		try {
+			return future.get();
+			}
+		catch(final InterruptedException err) {
+			Thread.currentThread().interrupt();
+			throw new IOException(err);
+			}
+		catch(final ExecutionException err) {
+			if(err.getCause() instanceof IOException) throw (IOException)err.getCause();
+			throw new IOException(err.getCause());
+			}
+		}
+	
+	/**
+	inflate and decode a block. Thread-safe.
+	https://github.com/igvteam/juicebox.js/blob/55bd6c7815f9abee74368c14a9d9403d2998313f/js/hicDataset.js#L95 	 
+	https://github.com/igvteam/hic-straw/blob/d428ee7e6df5488dd1295b33a81eeb06adbf7a51/src/hicFile.js#L307 */
+	private List<ContactRecord> decodeBlock(final IndexEntry indexEntry,final byte compressedBytes[]) throws IOException {
 		 final InflaterInputStream zipIn = new InflaterInputStream(new ByteArrayInputStream(compressedBytes));
 
 
@@ -618,6 +748,7 @@ public class HicReaderImpl implements HicReader {
 		     }
 		 default: throw new IOException("unknown block type");
 		 }
+	 if(this.blockCache!=null) this.blockCache.putBlock(indexEntry.position, contactRecords);
 	 return contactRecords;
 	 }
 	
@@ -942,9 +1073,10 @@ public class HicReaderImpl implements HicReader {
 		/**
 		https://github.com/igvteam/juicebox.js/blob/55bd6c7815f9abee74368c14a9d9403d2998313f/js/hicDataset.js#L95 	 
 		https://github.com/igvteam/hic-straw/blob/d428ee7e6df5488dd1295b33a81eeb06adbf7a51/src/hicFile.js#L307 */
-		private List<ContactRecord> readBlockId(final int blockNumber) throws IOException {
-			return readBlock(this.blockMap.get(blockNumber));
-			
+		private void readBlockIds(final Set<Integer> blockNumbers,final Consumer<List<ContactRecord>> consumer) throws IOException {
+			readBlocks(blockNumbers.stream().
+					map(N->this.blockMap.get(N)).
+					collect(Collectors.toList()), consumer);
 		 	}
 		}
 	
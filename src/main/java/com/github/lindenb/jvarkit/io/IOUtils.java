@@ -80,6 +80,35 @@ import htsjdk.samtools.util.RuntimeIOException;
 import htsjdk.samtools.util.StringUtil;
 
 public class IOUtils {
+	/** number of threads used to compress/uncompress the BGZF files. 1: use htsjdk's single-threaded streams */
+	private static volatile int bgzfThreads = 1;
+	
+	/** set the number of threads used to compress/uncompress the BGZF streams opened by this class. Returns the previous value. */
+	public static int setBgzfThreads(final int n) {
+		if(n<1) throw new IllegalArgumentException("bad number of threads "+n);
+		final int prev = bgzfThreads;
+		bgzfThreads = n;
+		return prev;
+		}
+	
+	/** get the number of threads used to compress/uncompress the BGZF streams */
+	public static int getBgzfThreads() {
+		return bgzfThreads;
+		}
+	
+	/** open a BGZF output stream, using several threads if {@link #getBgzfThreads()} &gt; 1 */
+	public static OutputStream openBgzfOutputStream(final Path file) throws IOException {
+		final int nThreads = getBgzfThreads();
+		if(nThreads>1) {
+			return new ParallelBlockCompressedOutputStream(Files.newOutputStream(file), nThreads);
+			}
+		return new BlockCompressedOutputStream(
+				file,
+				BlockCompressedOutputStream.getDefaultCompressionLevel(),
+				BlockCompressedOutputStream.getDefaultDeflaterFactory()
+				);
+		}
+	
 	/*
 	private static abstract class AbstractErrorChecker implements BooleanSupplier
 		{
@@ -295,6 +324,9 @@ public class IOUtils {
 				buffer[8]==BlockCompressedStreamConstants.GZIP_XFL
 				)
 				{
+				if(getBgzfThreads()>1) {
+					return new ParallelBlockCompressedInputStream(push_back, getBgzfThreads());
+					}
 				return new BlockCompressedInputStream(push_back);
 				}
 			}
@@ -418,11 +450,7 @@ public class IOUtils {
 	    	final String base = file.getFileName().toString();
 		    if (base.endsWith(".vcf.gz") || base.endsWith(".bgz"))
 		    	{
-		        return new BlockCompressedOutputStream(
-		        		file,
-		        		BlockCompressedOutputStream.getDefaultCompressionLevel(),
-		        		BlockCompressedOutputStream.getDefaultDeflaterFactory()
-		        		);
+		        return openBgzfOutputStream(file);
 		    	}
 		    else if (base.endsWith(".bz2"))
 		    	{
@@ -430,6 +458,8 @@ public class IOUtils {
 		    	}
 		    else if (base.endsWith(".gz"))
 		    	{
+		    	/* BGZF is a valid gzip format: use the multi-threaded codec if it was requested */
+		    	if(getBgzfThreads()>1) return openBgzfOutputStream(file);
 		        return new GZIPOutputStream(Files.newOutputStream(file),true);
 		    	}
 		    else
@@ -0,0 +1,216 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
+
+/**
+ * BGZF input stream inflating the next blocks on a pool of threads, ahead of the consumer.
+ * The compressed blocks are read from the delegate in the calling thread.
+ * This stream is not seekable, it only reads the data sequentially.
+ */
+public class ParallelBlockCompressedInputStream extends InputStream {
+	private final InputStream delegate;
+	private final ExecutorService executor;
+	/** the inflaters are borrowed by the threads */
+	private final BlockingQueue<Inflater> inflaters;
+	/** blocks submitted but not read yet, in file order */
+	private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+	private final int maxPending;
+	private byte[] current = new byte[0];
+	private int current_index = 0;
+	private boolean eof = false;
+	private boolean closed = false;
+	
+	/**
+	 * @param delegate the BGZF compressed input, closed with this stream
+	 * @param nThreads number of threads
+	 */
+	public ParallelBlockCompressedInputStream(final InputStream delegate,final int nThreads) {
+		if(nThreads<1) throw new IllegalArgumentException("bad number of threads "+nThreads);
+		this.delegate = delegate;
+		this.executor = Executors.newFixedThreadPool(nThreads, R->{
+			final Thread t = new Thread(R, "bgzf-inflater");
+			t.setDaemon(true);
+			return t;
+			});
+		this.inflaters = new ArrayBlockingQueue<>(nThreads);
+		for(int i=0;i< nThreads;i++) {
+			this.inflaters.add(new Inflater(true));
+			}
+		this.maxPending = 2 * nThreads;
+		}
+	
+	/** read exactly 'len' bytes. return false if the stream was at EOF before the first byte */
+	private boolean readFully(final byte[] buffer,final int off,final int len) throws IOException {
+		int n = 0;
+		while(n < len) {
+			final int count = this.delegate.read(buffer, off + n, len - n);
+			if(count == -1) {
+				if(n==0 && off==0) return false;
+				throw new EOFException("truncated BGZF block");
+				}
+			n += count;
+			}
+		return true;
+		}
+	
+	private static int getShort(final byte[] array,final int i) {
+		return (array[i] & 0xFF) | ((array[i+1] & 0xFF) << 8);
+		}
+	
+	private static int getInt(final byte[] array,final int i) {
+		return getShort(array, i) | (getShort(array, i+2) << 16);
+		}
+	
+	/** read the next compressed block, return null at EOF */
+	private byte[] readRawBlock() throws IOException {
+		final byte[] block = new byte[BlockCompressedStreamConstants.MAX_COMPRESSED_BLOCK_SIZE];
+		if(!readFully(block, 0, BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH)) return null;
+		if(block[0]!=BlockCompressedStreamConstants.GZIP_ID1 ||
+			block[1]!=(byte)BlockCompressedStreamConstants.GZIP_ID2 ||
+			block[2]!=BlockCompressedStreamConstants.GZIP_CM_DEFLATE ||
+			(block[3] & BlockCompressedStreamConstants.GZIP_FLG)==0 ||
+			getShort(block, 10)!=BlockCompressedStreamConstants.GZIP_XLEN ||
+			block[12]!=BlockCompressedStreamConstants.BGZF_ID1 ||
+			block[13]!=BlockCompressedStreamConstants.BGZF_ID2 ||
+			getShort(block, 14)!=BlockCompressedStreamConstants.BGZF_LEN) {
+			throw new IOException("invalid BGZF block header");
+			}
+		final int totalBlockSize = getShort(block, BlockCompressedStreamConstants.BLOCK_LENGTH_OFFSET) + 1;
+		if(totalBlockSize < BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH + BlockCompressedStreamConstants.BLOCK_FOOTER_LENGTH) {
+			throw new IOException("invalid BGZF block size "+totalBlockSize);
+			}
+		readFully(block, BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH, totalBlockSize - BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH);
+		return Arrays.copyOf(block, totalBlockSize);
+		}
+	
+	/** inflate a block using an inflater borrowed from the pool */
+	private byte[] inflateBlock(final byte[] block) throws InterruptedException,IOException {
+		final int totalBlockSize = block.length;
+		final int uncompressedSize = getInt(block, totalBlockSize - 4);
+		final byte[] data = new byte[uncompressedSize];
+		if(uncompressedSize==0) return data;
+		final Inflater inflater = this.inflaters.take();
+		try {
+			inflater.reset();
+			inflater.setInput(block, BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH,
+				totalBlockSize - BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH - BlockCompressedStreamConstants.BLOCK_FOOTER_LENGTH);
+			final int n = inflater.inflate(data, 0, uncompressedSize);
+			if(n != uncompressedSize) throw new IOException("did not inflate expected amount");
+			return data;
+			}
+		catch(final DataFormatException err) {
+			throw new IOException(err);
+			}
+		finally
+			{
+			this.inflaters.put(inflater);
+			}
+		}
+	
+	/** load the next non-empty block. return false at EOF */
+	private boolean nextBlock() throws IOException {
+		if(this.closed) throw new IOException("stream closed");
+		for(;;) {
+			while(!this.eof && this.pending.size() < this.maxPending) {
+				final byte[] block = readRawBlock();
+				if(block==null) {
+					this.eof = true;
+					}
+				else
+					{
+					this.pending.add(this.executor.submit(()->inflateBlock(block)));
+					}
+				}
+			if(this.pending.isEmpty()) return false;
+			try {
+				this.current = this.pending.removeFirst().get();
+				this.current_index = 0;
+				}
+			catch(final InterruptedException err) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException(err.getMessage());
+				}
+			catch(final ExecutionException err) {
+				if(err.getCause() instanceof IOException) throw IOException.class.cast(err.getCause());
+				throw new IOException(err.getCause());
+				}
+			if(this.current.length > 0) return true;
+			}
+		}
+	
+	@Override
+	public int read() throws IOException {
+		if(this.current_index >= this.current.length && !nextBlock()) return -1;
+		return this.current[this.current_index++] & 0xFF;
+		}
+	
+	@Override
+	public int read(final byte[] b,final int off,final int len) throws IOException {
+		if(len==0) return 0;
+		if(this.current_index >= this.current.length && !nextBlock()) return -1;
+		final int n = Math.min(len, this.current.length - this.current_index);
+		System.arraycopy(this.current, this.current_index, b, off, n);
+		this.current_index += n;
+		return n;
+		}
+	
+	@Override
+	public int available() throws IOException {
+		return this.current.length - this.current_index;
+		}
+	
+	@Override
+	public void close() throws IOException {
+		if(this.closed) return;
+		this.closed = true;
+		this.executor.shutdownNow();
+		this.pending.clear();
+		for(final Inflater inflater: this.inflaters) inflater.end();
+		this.inflaters.clear();
+		this.delegate.close();
+		}
+	
+	@Override
+	public String toString() {
+		return getClass().getName()+"("+this.delegate+")";
+		}
+	}
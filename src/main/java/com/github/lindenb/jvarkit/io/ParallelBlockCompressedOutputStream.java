@@ -0,0 +1,229 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
+
+/**
+ * BGZF output stream compressing the blocks on a pool of threads.
+ * The blocks are written in order, the output is the same as htsjdk's BlockCompressedOutputStream
+ * (uncompressed blocks of 65498 bytes, empty block as EOF marker).
+ * The file pointers (virtual offsets) are not available, so this stream cannot be used to build an index on the fly.
+ */
+public class ParallelBlockCompressedOutputStream extends OutputStream {
+	private final OutputStream delegate;
+	private final ExecutorService executor;
+	/** the deflaters are borrowed by the threads */
+	private final BlockingQueue<Deflater[]> deflaters;
+	/** blocks submitted but not written yet, in submission order */
+	private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+	private final int maxPending;
+	private byte[] uncompressedBuffer = new byte[BlockCompressedStreamConstants.DEFAULT_UNCOMPRESSED_BLOCK_SIZE];
+	private int numUncompressedBytes = 0;
+	private boolean closed = false;
+	
+	/**
+	 * @param delegate the output stream, closed with this stream
+	 * @param compressionLevel compression level 0-9
+	 * @param nThreads number of threads
+	 */
+	public ParallelBlockCompressedOutputStream(final OutputStream delegate,final int compressionLevel,final int nThreads) {
+		if(nThreads<1) throw new IllegalArgumentException("bad number of threads "+nThreads);
+		this.delegate = delegate;
+		this.executor = Executors.newFixedThreadPool(nThreads, R->{
+			final Thread t = new Thread(R, "bgzf-deflater");
+			t.setDaemon(true);
+			return t;
+			});
+		this.deflaters = new ArrayBlockingQueue<>(nThreads);
+		for(int i=0;i< nThreads;i++) {
+			this.deflaters.add(new Deflater[] {
+				BlockCompressedOutputStream.getDefaultDeflaterFactory().makeDeflater(compressionLevel, true),
+				new Deflater(Deflater.NO_COMPRESSION, true)
+				});
+			}
+		this.maxPending = 2 * nThreads;
+		}
+	
+	public ParallelBlockCompressedOutputStream(final OutputStream delegate,final int nThreads) {
+		this(delegate, BlockCompressedOutputStream.getDefaultCompressionLevel(), nThreads);
+		}
+	
+	@Override
+	public void write(final int b) throws IOException {
+		this.uncompressedBuffer[this.numUncompressedBytes++] = (byte)b;
+		if(this.numUncompressedBytes == this.uncompressedBuffer.length) submitBlock();
+		}
+	
+	@Override
+	public void write(final byte[] bytes,int off,int len) throws IOException {
+		while(len > 0) {
+			final int n = Math.min(len, this.uncompressedBuffer.length - this.numUncompressedBytes);
+			System.arraycopy(bytes, off, this.uncompressedBuffer, this.numUncompressedBytes, n);
+			this.numUncompressedBytes += n;
+			off += n;
+			len -= n;
+			if(this.numUncompressedBytes == this.uncompressedBuffer.length) submitBlock();
+			}
+		}
+	
+	/** send the current buffer to the pool */
+	private void submitBlock() throws IOException {
+		if(this.numUncompressedBytes == 0) return;
+		if(this.closed) throw new IOException("stream closed");
+		while(this.pending.size() >= this.maxPending) {
+			writeFirstBlock();
+			}
+		final byte[] data = this.uncompressedBuffer;
+		final int length = this.numUncompressedBytes;
+		this.pending.add(this.executor.submit(()->deflateBlock(data, length)));
+		this.uncompressedBuffer = new byte[BlockCompressedStreamConstants.DEFAULT_UNCOMPRESSED_BLOCK_SIZE];
+		this.numUncompressedBytes = 0;
+		}
+	
+	/** wait for the first pending block and write it */
+	private void writeFirstBlock() throws IOException {
+		try {
+			this.delegate.write(this.pending.removeFirst().get());
+			}
+		catch(final InterruptedException err) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(err.getMessage());
+			}
+		catch(final ExecutionException err) {
+			throw new IOException(err.getCause());
+			}
+		}
+	
+	/** compress a block using a pair of deflaters borrowed from the pool */
+	private byte[] deflateBlock(final byte[] data,final int length) throws InterruptedException {
+		final Deflater[] pair = this.deflaters.take();
+		try {
+			final byte[] compressed = new byte[BlockCompressedStreamConstants.MAX_COMPRESSED_BLOCK_SIZE];
+			final int maxCompressed = compressed.length - BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH;
+			Deflater deflater = pair[0];
+			deflater.reset();
+			deflater.setInput(data, 0, length);
+			deflater.finish();
+			int compressedSize = deflater.deflate(compressed, BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH, maxCompressed);
+			/* didn't fit: store without compression */
+			if(!deflater.finished()) {
+				deflater = pair[1];
+				deflater.reset();
+				deflater.setInput(data, 0, length);
+				deflater.finish();
+				compressedSize = deflater.deflate(compressed, BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH, maxCompressed);
+				if(!deflater.finished()) throw new IllegalStateException("cannot compress block");
+				}
+			final int totalBlockSize = compressedSize + BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH + BlockCompressedStreamConstants.BLOCK_FOOTER_LENGTH;
+			if(totalBlockSize > compressed.length) throw new IllegalStateException("block too large");
+			final CRC32 crc32 = new CRC32();
+			crc32.update(data, 0, length);
+			int i = 0;
+			compressed[i++] = BlockCompressedStreamConstants.GZIP_ID1;
+			compressed[i++] = (byte)BlockCompressedStreamConstants.GZIP_ID2;
+			compressed[i++] = BlockCompressedStreamConstants.GZIP_CM_DEFLATE;
+			compressed[i++] = (byte)BlockCompressedStreamConstants.GZIP_FLG;
+			i = putInt(compressed, i, 0);/* modification time */
+			compressed[i++] = (byte)BlockCompressedStreamConstants.GZIP_XFL;
+			compressed[i++] = (byte)BlockCompressedStreamConstants.GZIP_OS_UNKNOWN;
+			i = putShort(compressed, i, BlockCompressedStreamConstants.GZIP_XLEN);
+			compressed[i++] = BlockCompressedStreamConstants.BGZF_ID1;
+			compressed[i++] = BlockCompressedStreamConstants.BGZF_ID2;
+			i = putShort(compressed, i, BlockCompressedStreamConstants.BGZF_LEN);
+			i = putShort(compressed, i, totalBlockSize - 1);
+			i += compressedSize;
+			i = putInt(compressed, i, (int)crc32.getValue());
+			i = putInt(compressed, i, length);
+			return Arrays.copyOf(compressed, totalBlockSize);
+			}
+		finally
+			{
+			this.deflaters.put(pair);
+			}
+		}
+	
+	/** little endian short */
+	private static int putShort(final byte[] array,int i,final int v) {
+		array[i++] = (byte)(v & 0xFF);
+		array[i++] = (byte)((v >> 8) & 0xFF);
+		return i;
+		}
+	
+	/** little endian int */
+	private static int putInt(final byte[] array,int i,final int v) {
+		i = putShort(array, i, v & 0xFFFF);
+		return putShort(array, i, (v >>> 16) & 0xFFFF);
+		}
+	
+	/** compress the current (incomplete) block, write all the pending blocks and flush the delegate */
+	@Override
+	public void flush() throws IOException {
+		submitBlock();
+		while(!this.pending.isEmpty()) {
+			writeFirstBlock();
+			}
+		this.delegate.flush();
+		}
+	
+	@Override
+	public void close() throws IOException {
+		if(this.closed) return;
+		try {
+			flush();
+			this.delegate.write(BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK);
+			this.delegate.close();
+			}
+		finally
+			{
+			this.closed = true;
+			this.executor.shutdownNow();
+			for(final Deflater[] pair: this.deflaters) {
+				for(final Deflater d: pair) d.end();
+				}
+			this.deflaters.clear();
+			}
+		}
+	
+	@Override
+	public String toString() {
+		return getClass().getName()+"("+this.delegate+")";
+		}
+	}
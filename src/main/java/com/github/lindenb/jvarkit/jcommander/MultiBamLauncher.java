@@ -30,15 +30,25 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import com.beust.jcommander.Parameter;
+import com.github.lindenb.jvarkit.io.IOUtils;
 import com.github.lindenb.jvarkit.lang.StringUtils;
 import com.github.lindenb.jvarkit.samtools.util.IntervalListProvider;
+import com.github.lindenb.jvarkit.util.bio.DistanceParser;
 import com.github.lindenb.jvarkit.util.bio.SequenceDictionaryUtils;
 import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.NoSplitter;
@@ -72,6 +82,16 @@ protected Path faidxPath =null;
 protected ValidationStringency validationStringency = ValidationStringency.LENIENT;
 @Parameter(names={"--regions"},description="Limit analysis to this interval. "+ IntervalListProvider.OPT_DESC,splitter=NoSplitter.class,converter=IntervalListProvider.StringConverter.class)
 protected IntervalListProvider regionFiles = null;
+@Parameter(names={"--threads"},description="Region-parallel mode: the regions (or the whole genome) are split into chunks that are processed by 'N' threads. "
+		+ "Requires indexed and coordinate-sorted BAMs. Only available for the tools supporting this mode.")
+private int nThreads = 1;
+@Parameter(names={"--chunk-size"},description="Region-parallel mode: length of the chunks. Default: split the regions into "+CHUNKS_PER_THREAD+" chunks per thread. "+DistanceParser.OPT_DESCRIPTION,converter=DistanceParser.StringConverter.class,splitter=NoSplitter.class)
+private int chunkSize = -1;
+
+/** number of chunks per thread in the region-parallel mode */
+private static final int CHUNKS_PER_THREAD = 8;
+/** min length of a chunk in the region-parallel mode */
+private static final long MIN_CHUNK_LENGTH = 100_000L;
 
 /** assert REF was declarated by user */
 protected Path getRequiredReferencePath() {
@@ -147,6 +167,157 @@ protected void deleteOutputOnError() {
 /** process the bam itself */
 protected abstract int processInput(final SAMFileHeader header,final CloseableIterator<SAMRecord> iter);
 
+/** return the chunk processor if this tool supports the region-parallel mode (option --threads), or null */
+private RegionParallelBamProcessor getRegionParallelBamProcessor() {
+	if(!(this instanceof RegionParallelBamProcessor)) return null;
+	final RegionParallelBamProcessor processor = RegionParallelBamProcessor.class.cast(this);
+	return processor.isRegionParallelSupported() ? processor : null;
+	}
+
+/** return true if the inputs can be processed using the region-parallel mode */
+private boolean canProcessInParallel(final List<String> inputs,final Set<SamReader> readers,final SAMFileHeader header) {
+	if(this.nThreads<=1) return false;
+	final String msg = "--threads ignored: ";
+	if(inputs.isEmpty() || inputs.stream().anyMatch(S->IOUtil.isUrl(S))) {
+		LOG.warn(msg+"input is not a set of local files.");
+		return false;
+		}
+	if(!readers.stream().allMatch(SR->SR.hasIndex())) {
+		LOG.warn(msg+"all BAMs must be indexed.");
+		return false;
+		}
+	if(!header.getSortOrder().equals(SAMFileHeader.SortOrder.coordinate)) {
+		LOG.warn(msg+"BAMs are not sorted on coordinate.");
+		return false;
+		}
+	return true;
+	}
+
+/** split the regions, or the whole dictionary, into chunks of consecutive intervals. Returns an empty list for the unmapped reads */
+private List<List<QueryInterval>> makeChunks(final SAMSequenceDictionary dict) {
+	final QueryInterval[] intervals;
+	if(this.regionFiles!=null) {
+		intervals = this.regionFiles.dictionary(dict).optimizedQueryIntervals();
+		}
+	else
+		{
+		intervals = dict.getSequences().stream().
+			map(SSR->new QueryInterval(SSR.getSequenceIndex(), 1, SSR.getSequenceLength())).
+			toArray(N->new QueryInterval[N]);
+		}
+	final long total = Arrays.stream(intervals).mapToLong(Q->Q.end - Q.start + 1L).sum();
+	final long chunkLength = this.chunkSize > 0 ? this.chunkSize : Math.max(MIN_CHUNK_LENGTH, total/(this.nThreads * CHUNKS_PER_THREAD));
+	final List<List<QueryInterval>> chunks = new ArrayList<>();
+	List<QueryInterval> chunk = new ArrayList<>();
+	long length = 0L;
+	for(final QueryInterval qi : intervals) {
+		int start = qi.start;
+		while(start <= qi.end) {
+			final int end = (int)Math.min((long)qi.end, start + (chunkLength - length) - 1L);
+			chunk.add(new QueryInterval(qi.referenceIndex, start, end));
+			length += (end - start + 1L);
+			if(length >= chunkLength) {
+				chunks.add(chunk);
+				chunk = new ArrayList<>();
+				length = 0L;
+				}
+			start = end + 1;
+			}
+		}
+	if(!chunk.isEmpty()) chunks.add(chunk);
+	/* unmapped reads are only scanned when there is no region */
+	if(this.regionFiles==null) chunks.add(Collections.emptyList());
+	return chunks;
+	}
+
+/** region-parallel mode: each chunk is processed by a worker that uses its own SamReaders, the results are then combined in coordinate order */
+private int processInParallel(final RegionParallelBamProcessor processor,final List<String> inputs,final SAMFileHeader mainHeader) throws Exception {
+	final SAMSequenceDictionary dict = SequenceDictionaryUtils.extractRequired(mainHeader);
+	final List<List<QueryInterval>> chunks = makeChunks(dict);
+	LOG.info("processing "+chunks.size()+" chunks using "+this.nThreads+" threads.");
+	final SamReaderFactory srf = createSamReaderFactory();
+	final Path tmpDir = IOUtils.getDefaultTmpDir().toPath();
+	/* one SamReader per BAM, recycled between the chunks of a worker */
+	final Queue<List<SamReader>> readersPool = new ConcurrentLinkedQueue<>();
+	final List<Path> parts = new ArrayList<>(chunks.size());
+	final ExecutorService executor = Executors.newFixedThreadPool(this.nThreads);
+	try {
+		final List<Future<Integer>> results = new ArrayList<>(chunks.size());
+		for(int i=0;i< chunks.size();i++) {
+			final List<QueryInterval> chunk = chunks.get(i);
+			/* a read overlapping the previous chunk was already processed */
+			final QueryInterval previous = i==0 || chunks.get(i-1).isEmpty() ? null : chunks.get(i-1).get(chunks.get(i-1).size()-1);
+			final Path part = Files.createTempFile(tmpDir, "chunk.", processor.getChunkSuffix());
+			parts.add(part);
+			results.add(executor.submit(()->{
+				List<SamReader> readers = readersPool.poll();
+				if(readers==null) {
+					readers = new ArrayList<>(inputs.size());
+					for(final String input : inputs) {
+						readers.add(srf.open(Paths.get(input)));
+						}
+					}
+				final Map<SamReader,CloseableIterator<SAMRecord>> sam2iter = new HashMap<>(readers.size());
+				try {
+					final QueryInterval[] array = chunk.toArray(new QueryInterval[chunk.size()]);
+					for(final SamReader sr : readers) {
+						sam2iter.put(sr, chunk.isEmpty() ? sr.queryUnmapped() : sr.query(array, false));
+						}
+					final CloseableIterator<SAMRecord> iter0;
+					if(readers.size()==1) {
+						iter0 = sam2iter.get(readers.get(0));
+						}
+					else
+						{
+						final SamFileHeaderMerger headerMerger  = new SamFileHeaderMerger(
+								SAMFileHeader.SortOrder.coordinate,
+								readers.stream().map(SR->SR.getFileHeader()).collect(Collectors.toList()),
+								false);
+						iter0 = new MergingSamRecordIterator(headerMerger, sam2iter, false);
+						}
+					try(CloseableIterator<SAMRecord> iter = previous==null ? iter0 : new FilteringSamIterator(iter0, new SamRecordFilter() {
+							@Override
+							public boolean filterOut(final SAMRecord first,final SAMRecord second) {
+								return filterOut(first) && filterOut(second);
+								}
+							@Override
+							public boolean filterOut(final SAMRecord rec) {
+								return rec.getReferenceIndex().intValue()==previous.referenceIndex &&
+										rec.getAlignmentStart() <= previous.end;
+								}
+							})) {
+						return processor.processChunk(mainHeader, iter, part);
+						}
+					}
+				finally
+					{
+					sam2iter.values().forEach(CloserUtil::close);
+					readersPool.add(readers);
+					}
+				}));
+			}
+		for(int i=0;i< results.size();i++) {
+			final int ret = results.get(i).get();
+			if(ret!=0) {
+				LOG.error("chunk "+(i+1)+"/"+chunks.size()+" failed");
+				return ret;
+				}
+			}
+		return processor.combineChunks(mainHeader, parts);
+		}
+	finally
+		{
+		executor.shutdownNow();
+		executor.awaitTermination(1L, TimeUnit.MINUTES);
+		for(final List<SamReader> readers: readersPool) {
+			readers.forEach(CloserUtil::close);
+			}
+		for(final Path part : parts) {
+			Files.deleteIfExists(part);
+			}
+		}
+	}
+
 @Override
 public int doWork(final List<String> args0) {
 	final Map<SamReader,CloseableIterator<SAMRecord>> sam2iterator = new HashMap<>();
@@ -180,6 +351,11 @@ public int doWork(final List<String> args0) {
 			return -1;
 			}
 		
+		if(this.nThreads>1 && getRegionParallelBamProcessor()==null) {
+			LOG.error("option --threads "+this.nThreads+" : "+getProgramName()+" doesn't support the region-parallel mode.");
+			return -1;
+			}
+		
 		/* check input is not output */
 		if(validateInputsPath(inputs)!=0) {
 			LOG.info("input validation failed");
@@ -253,7 +429,14 @@ public int doWork(final List<String> args0) {
 				SequenceUtil.assertSequenceDictionariesEqual(dict, SequenceDictionaryUtils.extractRequired(mainHeader));
 			}
 			
-			final int err = processInput(mainHeader,mainIterator);
+			final int err;
+			if(canProcessInParallel(inputs, sam2iterator.keySet(), mainHeader)) {
+				err = processInParallel(getRegionParallelBamProcessor(), inputs, mainHeader);
+				}
+			else
+				{
+				err = processInput(mainHeader,mainIterator);
+				}
 	
 			mainIterator.close();
 			for(final SamReader sr: sam2iterator.keySet()) {
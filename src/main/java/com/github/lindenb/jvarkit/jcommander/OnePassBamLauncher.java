@@ -40,13 +40,19 @@ import com.github.lindenb.jvarkit.util.log.Logger;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMFileWriter;
 import htsjdk.samtools.SAMProgramRecord;
+import htsjdk.samtools.SAMFileWriterFactory;
 import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMRecordIterator;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
+import htsjdk.samtools.ValidationStringency;
 import htsjdk.samtools.util.AbstractProgressLogger;
 import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.samtools.util.FileExtensions;
 import htsjdk.samtools.util.IOUtil;
 import htsjdk.samtools.util.ProgressLoggerInterface;
 
-public abstract class OnePassBamLauncher extends MultiBamLauncher {
+public abstract class OnePassBamLauncher extends MultiBamLauncher implements RegionParallelBamProcessor {
 private static final Logger LOG = Logger.build(OnePassBamLauncher.class).make();
 @Parameter(names={"-o","--out"},description=OPT_OUPUT_FILE_OR_STDOUT)
 protected Path outputFile=null;
@@ -145,6 +151,42 @@ while(iter.hasNext()) {
 	}
 }
 
+@Override
+public String getChunkSuffix() {
+	return FileExtensions.BAM;
+	}
+
+/** region-parallel mode: the records of the chunk are written in a temporary BAM */
+@Override
+public int processChunk(final SAMFileHeader headerIn,final CloseableIterator<SAMRecord> iter,final Path out) throws IOException {
+	final SAMFileWriterFactory swf = new SAMFileWriterFactory().setCompressionLevel(1);
+	try(SAMFileWriter sfw = swf.makeBAMWriter(createOutputHeader(headerIn), true, out)) {
+		scanIterator(headerIn,iter,sfw);
+		}
+	return 0;
+	}
+
+/** region-parallel mode: the records of the temporary BAMs are copied, in order and by a single thread, into the output.
+ * The BAMs are decoded and re-encoded because the output can be a SAM/CRAM or stdout */
+@Override
+public int combineChunks(final SAMFileHeader headerIn,final List<Path> chunks) throws IOException {
+	final SamReaderFactory srf = SamReaderFactory.makeDefault().validationStringency(ValidationStringency.SILENT);
+	try(SAMFileWriter sfw = openSamFileWriter(headerIn)) {
+		final ProgressLoggerInterface progress = createProgressLogger();
+		if(progress!=null) sfw.setProgressLogger( progress);
+		for(final Path chunk : chunks) {
+			try(SamReader sr = srf.open(chunk)) {
+				try(SAMRecordIterator iter = sr.iterator()) {
+					while(iter.hasNext()) {
+						sfw.addAlignment(iter.next());
+						}
+					}
+				}
+			}
+		}
+	return 0;
+	}
+
 @Override
 protected int processInput(final SAMFileHeader headerIn, final CloseableIterator<SAMRecord> iter) {
 	try(SAMFileWriter sfw = openSamFileWriter(headerIn)) {
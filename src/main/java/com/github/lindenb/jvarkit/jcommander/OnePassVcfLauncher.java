@@ -24,32 +24,56 @@ SOFTWARE.
 */
 package com.github.lindenb.jvarkit.jcommander;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParametersDelegate;
+import com.github.lindenb.jvarkit.io.IOUtils;
 import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.log.ProgressFactory;
 import com.github.lindenb.jvarkit.variant.variantcontext.writer.WritingVariantsDelegate;
 import com.github.lindenb.jvarkit.variant.vcf.BcfIteratorBuilder;
+import com.github.lindenb.jvarkit.variant.vcf.VCFReaderFactory;
+import com.github.lindenb.jvarkit.variant.vcf.VcfShards;
 
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
+import htsjdk.samtools.util.FileExtensions;
 import htsjdk.samtools.util.IOUtil;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.variantcontext.writer.VariantContextWriterBuilder;
 import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFIterator;
+import htsjdk.variant.vcf.VCFReader;
 
 public abstract class OnePassVcfLauncher extends Launcher {
 private static final Logger LOG = Logger.build(OnePassVcfLauncher.class).make();
+/** size of the buffer used to copy the shards */
+private static final int COPY_BUFFER_SIZE = 8192;
 @Parameter(names={"-o","--out"},description=OPT_OUPUT_FILE_OR_STDOUT)
 protected Path outputFile=null;
 @ParametersDelegate
 protected WritingVariantsDelegate writingVariantsDelegate= new WritingVariantsDelegate();
+@Parameter(names={"--shards"},description="Split the input into 'N' genomic shards, processed in parallel and concatenated. "
+		+ "Requires a bgzipped VCF with a tabix index and a VCF output. "
+		+ "Ignored by the tools that cannot process each variant independently of the others.")
+private int nShards=1;
 
 private static class VCFIter implements VCFIterator {
 	final VCFIterator delegate;
@@ -84,10 +108,182 @@ private static class VCFIter implements VCFIterator {
 		}
 	}
 
+/** VariantContextWriter used by a shard: the header is not written, it will be written once before the shards are concatenated */
+private static class ShardWriter implements VariantContextWriter {
+	final VariantContextWriter delegate;
+	VCFHeader header = null;
+	private boolean closed = false;
+	ShardWriter(final VariantContextWriter delegate) {
+		this.delegate = delegate;
+		}
+	@Override
+	public void writeHeader(final VCFHeader header) {
+		setHeader(header);
+		}
+	@Override
+	public void setHeader(final VCFHeader header) {
+		this.header = header;
+		this.delegate.setHeader(header);
+		}
+	@Override
+	public void add(final VariantContext vc) {
+		this.delegate.add(vc);
+		}
+	@Override
+	public boolean checkError() {
+		return this.delegate.checkError();
+		}
+	@Override
+	public void close() {
+		/* some tools close the writer themselves */
+		if(this.closed) return;
+		this.closed = true;
+		this.delegate.close();
+		}
+	}
+
 protected Logger getLogger() {
 	return null;
 	}
 
+/** return true if {@link #doVcfToVcf(String, VCFIterator, VariantContextWriter)} can be invoked concurrently on
+ * several genomic shards of the input: each variant is processed independently of the others and no
+ * instance field is modified. Default: false */
+protected boolean isShardingSupported() {
+	return false;
+	}
+
+/** return true if the input can be processed using '--shards' */
+private boolean canUseShards(final String input) {
+	if(this.nShards<=1) return false;
+	final String msg = "--shards ignored: ";
+	if(!isShardingSupported()) {
+		LOG.warn(msg+"not supported by "+getProgramName());
+		return false;
+		}
+	if(input==null || IOUtil.isUrl(input) || !VcfShards.isShardable(Paths.get(input))) {
+		LOG.warn(msg+"input is not a local bgzipped VCF with a tabix index.");
+		return false;
+		}
+	if(this.writingVariantsDelegate.isGenerateMd5()) {
+		LOG.warn(msg+"cannot generate md5.");
+		return false;
+		}
+	if(this.outputFile==null ?
+		this.writingVariantsDelegate.isForceBcfOutput() :
+		!(this.outputFile.getFileName().toString().endsWith(FileExtensions.VCF) || WritingVariantsDelegate.isBgzfVcf(this.outputFile))) {
+		LOG.warn(msg+"output is not a VCF.");
+		return false;
+		}
+	return true;
+	}
+
+/** open a writer for a part of the output, the header is not written */
+private static VariantContextWriter openPartWriter(final Path path,final boolean bgzf) throws IOException {
+	final VariantContextWriterBuilder vcwb = new VariantContextWriterBuilder();
+	vcwb.clearOptions();
+	vcwb.setCreateMD5(false);
+	final OutputStream out = Files.newOutputStream(path);
+	vcwb.setOutputVCFStream(bgzf ? new BlockCompressedOutputStream(out, (Path)null) : new BufferedOutputStream(out));
+	return vcwb.build();
+	}
+
+/** append a part to the output. The BGZF EOF marker is removed */
+private static void appendPart(final Path part,final OutputStream out,final boolean bgzf) throws IOException {
+	long length = Files.size(part);
+	final byte[] eof = BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK;
+	if(bgzf && length >= eof.length) {
+		final byte[] tail = new byte[eof.length];
+		try(SeekableByteChannel ch = Files.newByteChannel(part)) {
+			ch.position(length - eof.length);
+			final ByteBuffer buf = ByteBuffer.wrap(tail);
+			while(buf.hasRemaining() && ch.read(buf)!=-1) {
+				}
+			}
+		if(Arrays.equals(tail, eof)) length -= eof.length;
+		}
+	try(InputStream in = Files.newInputStream(part)) {
+		final byte[] buffer = new byte[COPY_BUFFER_SIZE];
+		while(length>0L) {
+			final int n = in.read(buffer, 0, (int)Math.min(buffer.length, length));
+			if(n==-1) throw new IOException("unexpected end of file in "+part);
+			out.write(buffer, 0, n);
+			length -= n;
+			}
+		}
+	}
+
+/** split the input into shards, run doVcfToVcf on each shard in parallel and concatenate the parts */
+private int doVcfToVcfSharded(final String input) throws Exception {
+	final Path vcfPath = Paths.get(input);
+	final VcfShards shards;
+	try(VCFReader reader = VCFReaderFactory.makeDefault().open(vcfPath,true)) {
+		shards = VcfShards.split(vcfPath, reader.getHeader().getSequenceDictionary(), this.nShards);
+		}
+	LOG.info("processing "+shards.size()+" shards");
+	final boolean bgzf = this.outputFile!=null && WritingVariantsDelegate.isBgzfVcf(this.outputFile);
+	final String suffix = bgzf?FileExtensions.COMPRESSED_VCF:FileExtensions.VCF;
+	final Path tmpDir = IOUtils.getDefaultTmpDir().toPath();
+	final List<Path> parts = new ArrayList<>(shards.size()+1);
+	final ExecutorService executor = Executors.newFixedThreadPool(shards.size());
+	try {
+		final VCFHeader[] headers = new VCFHeader[shards.size()];
+		final List<Future<Integer>> results = new ArrayList<>(shards.size());
+		for(int i=0;i< shards.size();i++) {
+			final int shard_idx = i;
+			final Path part = Files.createTempFile(tmpDir, "shard.", suffix);
+			parts.add(part);
+			results.add(executor.submit(()->{
+				try(VCFReader reader = VCFReaderFactory.makeDefault().open(vcfPath,true)) {
+					try(VCFIterator iter = shards.open(reader, shard_idx)) {
+						try(ShardWriter w = new ShardWriter(openPartWriter(part, bgzf))) {
+							final int ret = doVcfToVcf(input, iter, w);
+							headers[shard_idx] = w.header;
+							return ret;
+							}
+						}
+					}
+				}));
+			}
+		for(int i=0;i< results.size();i++) {
+			final int ret = results.get(i).get();
+			if(ret!=0) {
+				LOG.error("shard "+(i+1)+"/"+shards.size()+" failed");
+				return ret;
+				}
+			}
+		if(headers[0]==null) {
+			LOG.error("no header was written");
+			return -1;
+			}
+		final Path headerPart = Files.createTempFile(tmpDir, "shard.", suffix);
+		parts.add(0, headerPart);
+		try(VariantContextWriter w = openPartWriter(headerPart, bgzf)) {
+			w.writeHeader(headers[0]);
+			}
+		final OutputStream out = this.outputFile==null ? System.out : Files.newOutputStream(this.outputFile);
+		try {
+			for(final Path part : parts) {
+				appendPart(part, out, bgzf);
+				}
+			if(bgzf) out.write(BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK);
+			out.flush();
+			}
+		finally
+			{
+			if(this.outputFile!=null) out.close();
+			}
+		return 0;
+		}
+	finally
+		{
+		executor.shutdownNow();
+		for(final Path part : parts) {
+			Files.deleteIfExists(part);
+			}
+		}
+	}
+
 private void deleteOutputOnError() {
 	if(this.outputFile==null) return;
 	try {
@@ -130,11 +326,17 @@ public int doWork(final List<String> args) {
 	
 	try {
 		final int err;
-		final BcfIteratorBuilder bcb = new BcfIteratorBuilder();
-		try(VCFIterator in = (input==null? bcb.open(stdin()):bcb.open(input))) {
-			final VCFIterator in2=getLogger()!=null?new VCFIter(in, getLogger()):in;
-			try(VariantContextWriter vcw = this.writingVariantsDelegate.dictionary(in2.getHeader()).open(this.outputFile)) {
-				err = doVcfToVcf(input==null?"<stdin>":input, in2,vcw);
+		if(canUseShards(input)) {
+			err = doVcfToVcfSharded(input);
+			}
+		else
+			{
+			final BcfIteratorBuilder bcb = new BcfIteratorBuilder();
+			try(VCFIterator in = (input==null? bcb.open(stdin()):bcb.open(input))) {
+				final VCFIterator in2=getLogger()!=null?new VCFIter(in, getLogger()):in;
+				try(VariantContextWriter vcw = this.writingVariantsDelegate.dictionary(in2.getHeader()).open(this.outputFile)) {
+					err = doVcfToVcf(input==null?"<stdin>":input, in2,vcw);
+					}
 				}
 			}
 		if(err!=0) deleteOutputOnError();
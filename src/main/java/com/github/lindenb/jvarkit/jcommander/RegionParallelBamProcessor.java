@@ -0,0 +1,54 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.jcommander;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.util.CloseableIterator;
+
+/**
+ * A {@link MultiBamLauncher} implementing this interface can use the region-parallel mode (option --threads):
+ * the genome is split into chunks, each chunk is processed by {@link #processChunk(SAMFileHeader, CloseableIterator, Path)}
+ * and the results are combined by {@link #combineChunks(SAMFileHeader, List)}
+ */
+public interface RegionParallelBamProcessor {
+	/** return true if this tool supports the region-parallel mode. Default is false: a tool must opt in,
+	 * after checking that no state is shared between the chunks */
+	public default boolean isRegionParallelSupported() {
+		return false;
+		}
+	/** suffix of the temporary files created by {@link #processChunk(SAMFileHeader, CloseableIterator, Path)} */
+	public default String getChunkSuffix() {
+		return ".tmp";
+		}
+	/** process the reads of one chunk of the genome and save the result in 'out'.
+	 * This method is invoked concurrently by several threads. */
+	public int processChunk(final SAMFileHeader header,final CloseableIterator<SAMRecord> iter,final Path out) throws IOException;
+	/** combine the results of the chunks. The chunks are sorted on coordinate */
+	public int combineChunks(final SAMFileHeader header,final List<Path> chunks) throws IOException;
+	}
@@ -25,17 +25,29 @@ SOFTWARE.
 package com.github.lindenb.jvarkit.lang;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
 
 
+import com.github.lindenb.jvarkit.util.JVarkitVersion;
 import com.github.lindenb.jvarkit.util.log.Logger;
 
 import htsjdk.samtools.util.CloserUtil;
@@ -47,6 +59,8 @@ public abstract class OpenJdkCompiler {
 	private static final Logger LOG = Logger.build(OpenJdkCompiler.class).make();
 	private static OpenJdkCompiler INSTANCE = null;
 	private static final String JDK_PROPERTIES = "/META-INF/jdk.properties";
+	/** system property: directory of the compiled classes cache, or 'false' to disable the cache */
+	public static final String CACHE_PROPERTY = "jvarkit.compiler.cache";
 	public static OpenJdkCompiler getInstance() {
 		if(INSTANCE==null) {
 			synchronized (OpenJdkCompiler.class) {
@@ -61,6 +75,25 @@ public abstract class OpenJdkCompiler {
 	
 	public abstract Class<?> compileClass(final String className,final String javaCode);
 	
+	/** return the directory where the compiled classes are cached, or null if the cache is disabled.
+	 * Default is $XDG_CACHE_HOME/jvarkit/classes or ~/.cache/jvarkit/classes */
+	public static Path getCacheDirectory() {
+		final String s = System.getProperty(CACHE_PROPERTY, "");
+		if(s.equals("false")) return null;
+		if(!StringUtil.isBlank(s)) return Paths.get(s);
+		String base = null;
+		try {
+			base = System.getenv("XDG_CACHE_HOME");
+			}
+		catch(final SecurityException err) {
+			base = null;
+			}
+		final Path dir = StringUtil.isBlank(base)?
+				Paths.get(System.getProperty("user.home"), ".cache"):
+				Paths.get(base);
+		return dir.resolve("jvarkit").resolve("classes");
+		}
+	
 	
 	/** append line numbers to code */
 	public static String beautifyCode(final String sourceCode)
@@ -164,8 +197,92 @@ public abstract class OpenJdkCompiler {
 			throw new RuntimeException("Cannot "+definition);
 			}
 		
+		/** key of the cache: hash of the code (the generated class name is random, so it is masked), of the jvarkit version, of the JDK and of the classpath */
+		private String createCacheKey(final String className,final String javaCode) {
+			try {
+				final MessageDigest md = MessageDigest.getInstance("SHA-256");
+				final String[] components = new String[] {
+					javaCode.replace(className, "__CLASSNAME__"),
+					JVarkitVersion.getInstance().getVersion(),
+					JVarkitVersion.getInstance().getCompilationDate(),
+					JVarkitVersion.getInstance().getHtsjdkVersion(),
+					System.getProperty("java.version", ""),
+					System.getProperty("java.vendor", ""),
+					getJavacExe(),
+					getProperties().getProperty("classpath","")
+					};
+				for(final String c: components) {
+					md.update(c.getBytes(StandardCharsets.UTF_8));
+					md.update((byte)0);
+					}
+				final StringBuilder sb = new StringBuilder(64);
+				for(final byte b:md.digest()) {
+					sb.append(String.format("%02x", b & 0xFF));
+					}
+				return sb.toString();
+				}
+			catch(final Exception err) {
+				LOG.warn(err);
+				return null;
+				}
+			}
+		
+		/** load the class from a jar. The name of the class is the 'Main-Class' of the manifest */
+		private Class<?> loadClassFromJar(final File jarFile) throws Exception {
+			final String className;
+			try(JarFile jf = new JarFile(jarFile)) {
+				final Manifest manifest = jf.getManifest();
+				className = manifest==null?null:manifest.getMainAttributes().getValue(Attributes.Name.MAIN_CLASS);
+				}
+			if(StringUtil.isBlank(className)) throw new IOException("no Main-Class in "+jarFile);
+			@SuppressWarnings("resource")
+			final URLClassLoader child = new URLClassLoader(
+					new URL[] {jarFile.toURI().toURL()},
+					this.getClass().getClassLoader()
+					);
+			return Class.forName(className, true, child);
+			}
+		
+		/** copy the compiled jar into the cache */
+		private void saveInCache(final File jarFile,final Path cachedJar) {
+			Path tmp = null;
+			try {
+				Files.createDirectories(cachedJar.getParent());
+				tmp = Files.createTempFile(cachedJar.getParent(), "tmp.", ".jar");
+				Files.copy(jarFile.toPath(), tmp, StandardCopyOption.REPLACE_EXISTING);
+				try {
+					Files.move(tmp, cachedJar, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+					}
+				catch(final AtomicMoveNotSupportedException err) {
+					Files.move(tmp, cachedJar, StandardCopyOption.REPLACE_EXISTING);
+					}
+				tmp = null;
+				}
+			catch(final IOException err) {
+				LOG.warn("cannot save compiled class in "+cachedJar+" : "+err.getMessage());
+				}
+			finally
+				{
+				if(tmp!=null) try { Files.deleteIfExists(tmp);} catch(final IOException err) {}
+				}
+			}
+		
 		@Override
 		public Class<?> compileClass(final String className,final String javaCode) {
+			final Path cacheDir = getCacheDirectory();
+			final String cacheKey = cacheDir==null?null:createCacheKey(className, javaCode);
+			final Path cachedJar = cacheKey==null?null:cacheDir.resolve(cacheKey+".jar");
+			if(cachedJar!=null && Files.exists(cachedJar)) {
+				try {
+					final Class<?> compiledClass = loadClassFromJar(cachedJar.toFile());
+					LOG.debug("loaded compiled class from "+cachedJar);
+					return compiledClass;
+					}
+				catch(final Throwable err) {
+					LOG.warn("cannot load cached class from "+cachedJar+" : "+err.getMessage());
+					}
+				}
+			
 			File javaSsrcDir = null;
 			PrintWriter cw = null;
 			File jarFile = null;
@@ -231,14 +348,17 @@ public abstract class OpenJdkCompiler {
 				jarFile.deleteOnExit();
 				cmd.clear();
 				cmd.add(getJarExe());
-				cmd.add("cvf");
+				cmd.add("cvfe");
 				cmd.add(jarFile.getPath());
+				cmd.add(className);
 				cmd.add("-C");
 				cmd.add(javaSsrcDir.getPath());
 				cmd.add(".");
 				exec("jar",cmd);
 				
 				
+				if(cachedJar!=null) saveInCache(jarFile, cachedJar);
+				
 				final URLClassLoader child = new URLClassLoader(
 						new URL[] {jarFile.toURI().toURL()},
 						this.getClass().getClassLoader()
@@ -0,0 +1,399 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.reference;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.lindenb.jvarkit.lang.JvarkitException;
+import com.github.lindenb.jvarkit.lang.StringUtils;
+import com.github.lindenb.jvarkit.util.bio.SequenceDictionaryUtils;
+import com.github.lindenb.jvarkit.util.log.Logger;
+import com.github.lindenb.jvarkit.util.picard.GenomicSequence;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.reference.ReferenceSequenceFile;
+import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
+import htsjdk.samtools.util.IOUtil;
+import htsjdk.samtools.util.RuntimeIOException;
+
+/**
+ * Prefix-sum index of the GC/AT content of an indexed FASTA file.
+ * 
+ * For each contig, the cumulative number of G/C/S and A/T/W bases is stored
+ * every {@link #STEP} bases, so the GC% of any interval is obtained
+ * with two lookups and the scan of at most STEP/2 bases at each end.
+ * 
+ * The index can be persisted next to the FASTA (or in the temporary directory if the FASTA directory is not writable),
+ * it is re-built when the FASTA changes. The contigs are loaded on demand.
+ * This class is thread-safe.
+ */
+public class GCContentIndex {
+	private static final Logger LOG = Logger.build(GCContentIndex.class).make();
+	public static final String SUFFIX = ".gci";
+	/** distance between two checkpoints */
+	public static final int STEP = 128;
+	private static final int MAGIC = 0x47434958;
+	private static final int VERSION = 1;
+	/** number of bases read from the FASTA at once when building the file. Must be a multiple of STEP */
+	private static final int BUILD_CHUNK = STEP << 15;
+	
+	/** 1 for G/C/S, 2 for A/T/W, 0 for the other bases */
+	private static int classify(final int c) {
+		switch(c) {
+			case 'c': case 'C':
+			case 'g': case 'G':
+			case 's': case 'S': return 1;
+			case 'a': case 'A':
+			case 't': case 'T':
+			case 'w': case 'W': return 2;
+			default: return 0;
+			}
+		}
+	
+	/** cumulative counts for one contig */
+	public static class ContigGC {
+		private final String contig;
+		private final int length;
+		/** gc[k] is the number of G/C/S bases in [0,k*STEP) */
+		private final int[] gc;
+		/** at[k] is the number of A/T/W bases in [0,k*STEP) */
+		private final int[] at;
+		
+		private ContigGC(final String contig,final int length,final int[] gc,final int[] at) {
+			this.contig = contig;
+			this.length = length;
+			this.gc = gc;
+			this.at = at;
+			}
+		
+		private static int numberOfCheckpoints(final int length) {
+			return length / STEP + 1;
+			}
+		
+		/** build the index for the sequence 'seq' */
+		public static ContigGC build(final String contig,final CharSequence seq) {
+			final int len = seq.length();
+			final int n = numberOfCheckpoints(len);
+			final int[] gc = new int[n];
+			final int[] at = new int[n];
+			int count_gc = 0;
+			int count_at = 0;
+			for(int i=0;i< len;i++) {
+				if(i % STEP == 0) {
+					gc[i/STEP] = count_gc;
+					at[i/STEP] = count_at;
+					}
+				switch(classify(seq.charAt(i))) {
+					case 1: count_gc++; break;
+					case 2: count_at++; break;
+					default: break;
+					}
+				}
+			if(len % STEP == 0) {
+				gc[n-1] = count_gc;
+				at[n-1] = count_at;
+				}
+			return new ContigGC(contig, len, gc, at);
+			}
+		
+		public String getContig() {
+			return this.contig;
+			}
+		
+		public int length() {
+			return this.length;
+			}
+		
+		/** fill 'counts' with the number of G/C/S and A/T/W bases in [0,pos0) . 'seq' is used to scan the bases between pos0 and the nearest checkpoint. */
+		private void prefix(final CharSequence seq,final int pos0,final int[] counts) {
+			int k = pos0 / STEP;
+			if(pos0 % STEP > STEP / 2 && k + 1 < this.gc.length) k++;
+			int count_gc = this.gc[k];
+			int count_at = this.at[k];
+			final int delta = pos0 < k * STEP ? -1 : 1;
+			for(int i = k * STEP; i != pos0; i += delta) {
+				final int base = seq.charAt(delta < 0 ? i - 1 : i);
+				switch(classify(base)) {
+					case 1: count_gc += delta; break;
+					case 2: count_at += delta; break;
+					default: break;
+					}
+				}
+			counts[0] = count_gc;
+			counts[1] = count_at;
+			}
+		
+		/** return GC% between start (inclusive, 0 based) and end (exclusive)). 'seq' must be the sequence of this contig. */
+		public GenomicSequence.GCPercent getGCPercent(final CharSequence seq,final int start,final int end) {
+			if(start < 0) throw new IndexOutOfBoundsException("start:"+start);
+			final int end0 = Math.min(end, this.length);
+			if(start >= end0) {
+				return GenomicSequence.GCPercent.of(this.contig, start+1, end0, 0, 0, 0);
+				}
+			final int[] counts1 = new int[2];
+			final int[] counts2 = new int[2];
+			prefix(seq, start, counts1);
+			prefix(seq, end0, counts2);
+			return GenomicSequence.GCPercent.of(this.contig, start+1, end0,
+				end0 - start,
+				counts2[0] - counts1[0],
+				counts2[1] - counts1[1]
+				);
+			}
+		}
+	
+	private final Path indexPath;
+	private final SAMSequenceDictionary dict;
+	/** offset of the first checkpoint in the index file */
+	private final long dataOffset;
+	/** contig name to offset of the checkpoints in the index file */
+	private final Map<String,Long> contig2offset = new HashMap<>();
+	private final Map<String,ContigGC> contig2gc = new HashMap<>();
+	
+	private GCContentIndex(final Path indexPath) throws IOException {
+		this.indexPath = indexPath;
+		try(DataInputStream dis = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+			final Header header = Header.read(dis);
+			if(header==null) throw new IOException("bad header in "+indexPath);
+			final List<SAMSequenceRecord> ssrs = new ArrayList<>(header.contig2offset.size());
+			for(final SAMSequenceRecord ssr: header.contig2offset.keySet()) {
+				ssrs.add(ssr);
+				this.contig2offset.put(ssr.getSequenceName(), header.contig2offset.get(ssr));
+				}
+			this.dict = new SAMSequenceDictionary(ssrs);
+			this.dataOffset = header.sizeOf();
+			}
+		}
+	
+	/** open the GC-content index for this indexed FASTA file, build the index file if needed */
+	public static GCContentIndex open(final Path fasta) throws IOException {
+		IOUtil.assertFileIsReadable(fasta);
+		Path indexPath = getDefaultIndexPath(fasta);
+		if(!isUpToDate(fasta, indexPath)) {
+			final Path dir = indexPath.toAbsolutePath().getParent();
+			if(dir==null || !Files.isWritable(dir)) {
+				indexPath = Paths.get(System.getProperty("java.io.tmpdir"), StringUtils.md5(fasta.toAbsolutePath().toString()) + SUFFIX);
+				}
+			if(!isUpToDate(fasta, indexPath)) {
+				build(fasta, indexPath);
+				}
+			}
+		return new GCContentIndex(indexPath);
+		}
+	
+	/** return the default path of the index for this fasta */
+	public static Path getDefaultIndexPath(final Path fasta) {
+		return fasta.resolveSibling(fasta.getFileName().toString() + SUFFIX);
+		}
+	
+	/** header of the index file */
+	private static class Header {
+		long fastaSize;
+		long fastaLastModified;
+		final Map<SAMSequenceRecord,Long> contig2offset = new LinkedHashMap<>();
+		
+		static Header read(final DataInputStream dis) throws IOException {
+			if(dis.readInt()!=MAGIC) return null;
+			if(dis.readInt()!=VERSION) return null;
+			if(dis.readInt()!=STEP) return null;
+			final Header h = new Header();
+			h.fastaSize = dis.readLong();
+			h.fastaLastModified = dis.readLong();
+			final int n = dis.readInt();
+			for(int i=0;i< n;i++) {
+				final String name = dis.readUTF();
+				final int length = dis.readInt();
+				final long offset = dis.readLong();
+				h.contig2offset.put(new SAMSequenceRecord(name, length), offset);
+				}
+			return h;
+			}
+		
+		void write(final DataOutputStream dos) throws IOException {
+			dos.writeInt(MAGIC);
+			dos.writeInt(VERSION);
+			dos.writeInt(STEP);
+			dos.writeLong(this.fastaSize);
+			dos.writeLong(this.fastaLastModified);
+			dos.writeInt(this.contig2offset.size());
+			for(final SAMSequenceRecord ssr: this.contig2offset.keySet()) {
+				dos.writeUTF(ssr.getSequenceName());
+				dos.writeInt(ssr.getSequenceLength());
+				dos.writeLong(this.contig2offset.get(ssr));
+				}
+			}
+		
+		/** size of the header in bytes */
+		long sizeOf() {
+			long n = 4 + 4 + 4 + 8 + 8 + 4;
+			for(final SAMSequenceRecord ssr: this.contig2offset.keySet()) {
+				n += 2 + ssr.getSequenceName().getBytes(StandardCharsets.UTF_8).length;
+				n += 4 + 8;
+				}
+			return n;
+			}
+		}
+	
+	/** return true if 'indexPath' exists and was built from the current version of 'fasta' */
+	private static boolean isUpToDate(final Path fasta,final Path indexPath) {
+		if(!Files.exists(indexPath)) return false;
+		try(InputStream in = Files.newInputStream(indexPath)) {
+			final Header h = Header.read(new DataInputStream(new BufferedInputStream(in)));
+			return h!=null &&
+				h.fastaSize == Files.size(fasta) &&
+				h.fastaLastModified == Files.getLastModifiedTime(fasta).toMillis();
+			}
+		catch(final IOException err) {
+			return false;
+			}
+		}
+	
+	/** build the index file 'indexPath' from the indexed fasta file. The checkpoints are written after the header, as (gc,at) pairs */
+	static void build(final Path fasta,final Path indexPath) throws IOException {
+		LOG.info("building GC-content index "+indexPath+" from "+fasta);
+		final Path tmpData = Files.createTempFile(indexPath.toAbsolutePath().getParent(), "tmp.", SUFFIX);
+		final Path tmpPath = Files.createTempFile(indexPath.toAbsolutePath().getParent(), "tmp.", SUFFIX);
+		try(ReferenceSequenceFile ref = ReferenceSequenceFileFactory.getReferenceSequenceFile(fasta)) {
+			if(!ref.isIndexed()) throw new IOException("fasta file is not indexed: "+fasta);
+			final SAMSequenceDictionary dict = SequenceDictionaryUtils.extractRequired(ref);
+			final Header header = new Header();
+			header.fastaSize = Files.size(fasta);
+			header.fastaLastModified = Files.getLastModifiedTime(fasta).toMillis();
+			/* checkpoints are first written in a temporary file, the offsets are relative to the end of the header */
+			try(DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpData)))) {
+				long offset = 0L;
+				for(final SAMSequenceRecord ssr: dict.getSequences()) {
+					final int len = ssr.getSequenceLength();
+					header.contig2offset.put(new SAMSequenceRecord(ssr.getSequenceName(), len), offset);
+					int count_gc = 0;
+					int count_at = 0;
+					for(int start0=0;start0 < len;start0+=BUILD_CHUNK) {
+						final int end0 = Math.min(len, start0 + BUILD_CHUNK);
+						final byte[] bases = ref.getSubsequenceAt(ssr.getSequenceName(), start0 + 1, end0).getBases();
+						if(bases.length != end0 - start0) throw new IOException("Cannot read "+ssr.getSequenceName()+":"+(start0+1)+"-"+end0+" from "+fasta);
+						for(int i=0;i< bases.length;i++) {
+							if(i % STEP == 0) {
+								dos.writeInt(count_gc);
+								dos.writeInt(count_at);
+								}
+							switch(classify(bases[i])) {
+								case 1: count_gc++; break;
+								case 2: count_at++; break;
+								default: break;
+								}
+							}
+						}
+					if(len % STEP == 0) {
+						dos.writeInt(count_gc);
+						dos.writeInt(count_at);
+						}
+					offset += ContigGC.numberOfCheckpoints(len) * 8L;
+					}
+				dos.flush();
+				}
+			try(OutputStream os = Files.newOutputStream(tmpPath)) {
+				final DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(os));
+				header.write(dos);
+				dos.flush();
+				Files.copy(tmpData, os);
+				os.flush();
+				}
+			try {
+				Files.move(tmpPath, indexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				}
+			catch(final AtomicMoveNotSupportedException err) {
+				Files.move(tmpPath, indexPath, StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+		finally
+			{
+			Files.deleteIfExists(tmpData);
+			Files.deleteIfExists(tmpPath);
+			}
+		}
+	
+	/** return the path of the index file */
+	public Path getIndexPath() {
+		return this.indexPath;
+		}
+	
+	/** return the dictionary of the indexed sequences */
+	public SAMSequenceDictionary getSequenceDictionary() {
+		return this.dict;
+		}
+	
+	/** return the checkpoints for the given contig. Throws an exception if the contig doesn't exist */
+	public ContigGC getContigGC(final String contig) {
+		synchronized(this.contig2gc) {
+			ContigGC contigGC = this.contig2gc.get(contig);
+			if(contigGC!=null) return contigGC;
+			final SAMSequenceRecord ssr = this.dict.getSequence(contig);
+			if(ssr==null) throw new JvarkitException.ContigNotFoundInDictionary(contig, this.dict);
+			final int n = ContigGC.numberOfCheckpoints(ssr.getSequenceLength());
+			final int[] gc = new int[n];
+			final int[] at = new int[n];
+			try(FileChannel ch = FileChannel.open(this.indexPath, StandardOpenOption.READ)) {
+				final ByteBuffer buffer = ByteBuffer.allocate(n * 8);
+				long position = this.dataOffset + this.contig2offset.get(contig);
+				while(buffer.hasRemaining()) {
+					final int nRead = ch.read(buffer, position);
+					if(nRead < 0) throw new IOException("unexpected end of file in "+this.indexPath);
+					position += nRead;
+					}
+				buffer.flip();
+				for(int i=0;i< n;i++) {
+					gc[i] = buffer.getInt();
+					at[i] = buffer.getInt();
+					}
+				}
+			catch(final IOException err) {
+				throw new RuntimeIOException(err);
+				}
+			contigGC = new ContigGC(contig, ssr.getSequenceLength(), gc, at);
+			this.contig2gc.put(contig, contigGC);
+			return contigGC;
+			}
+		}
+	}
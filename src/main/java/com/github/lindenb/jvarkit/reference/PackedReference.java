@@ -0,0 +1,413 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.reference;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.lindenb.jvarkit.lang.JvarkitException;
+import com.github.lindenb.jvarkit.lang.StringUtils;
+import com.github.lindenb.jvarkit.util.bio.SequenceDictionaryUtils;
+import com.github.lindenb.jvarkit.util.log.Logger;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.reference.ReferenceSequenceFile;
+import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
+import htsjdk.samtools.util.IOUtil;
+import htsjdk.samtools.util.RuntimeIOException;
+
+/**
+ * Memory-mapped, 2-bit packed copy of an indexed FASTA file.
+ * 
+ * The packed file is built once, next to the FASTA (or in the temporary directory
+ * if the FASTA directory is not writable), and it is re-built when the FASTA changes.
+ * Each contig is stored as 2 bits per base (A,C,G,T), a bit-mask of the bases that are not A,C,G,T,
+ * the list of the runs of those other bases (N, IUPAC...) and a bit-mask of the lower-case (soft-masked) bases.
+ * 
+ * The data are memory-mapped, so the sequences don't use the java heap and the pages
+ * are shared between the threads and the processes reading the same reference.
+ * This class is thread-safe.
+ */
+public class PackedReference implements Closeable {
+	private static final Logger LOG = Logger.build(PackedReference.class).make();
+	public static final String SUFFIX = ".2bpk";
+	private static final int MAGIC = 0x32425056;
+	private static final int VERSION = 1;
+	/** number of bases read from the FASTA at once when building the file. Must be a multiple of 64 */
+	private static final int BUILD_CHUNK = 1 << 22;
+	
+	static final class ContigIndex {
+		final SAMSequenceRecord ssr;
+		final long packedOffset;
+		final long maskOffset;
+		final long lowerOffset;
+		final long runsOffset;
+		final int nRuns;
+		ContigIndex(final SAMSequenceRecord ssr,long packedOffset,long maskOffset,long lowerOffset,long runsOffset,int nRuns) {
+			this.ssr = ssr;
+			this.packedOffset = packedOffset;
+			this.maskOffset = maskOffset;
+			this.lowerOffset = lowerOffset;
+			this.runsOffset = runsOffset;
+			this.nRuns = nRuns;
+			}
+		}
+	
+	private final Path fasta;
+	private final Path packedPath;
+	private final FileChannel channel;
+	private final SAMSequenceDictionary dict;
+	private final Map<String,ContigIndex> contig2index = new HashMap<>();
+	private final Map<String,PackedSequence> contig2sequence = new HashMap<>();
+	
+	private PackedReference(final Path fasta,final Path packedPath) throws IOException {
+		this.fasta = fasta;
+		this.packedPath = packedPath;
+		try(DataInputStream dis = new DataInputStream(new BufferedInputStream(Files.newInputStream(packedPath)))) {
+			final Header header = Header.read(dis);
+			if(header==null) throw new IOException("bad header in "+packedPath);
+			final List<SAMSequenceRecord> ssrs = new ArrayList<>(header.indexes.size());
+			for(final ContigIndex ci: header.indexes) {
+				ssrs.add(ci.ssr);
+				this.contig2index.put(ci.ssr.getSequenceName(), ci);
+				}
+			this.dict = new SAMSequenceDictionary(ssrs);
+			}
+		this.channel = FileChannel.open(packedPath, StandardOpenOption.READ);
+		}
+	
+	/** open the packed reference for this indexed FASTA file, build the packed file if needed */
+	public static PackedReference open(final Path fasta) throws IOException {
+		IOUtil.assertFileIsReadable(fasta);
+		Path packedPath = getDefaultPackedPath(fasta);
+		if(!isUpToDate(fasta, packedPath)) {
+			final Path dir = packedPath.toAbsolutePath().getParent();
+			if(dir==null || !Files.isWritable(dir)) {
+				packedPath = Paths.get(System.getProperty("java.io.tmpdir"), StringUtils.md5(fasta.toAbsolutePath().toString()) + SUFFIX);
+				}
+			if(!isUpToDate(fasta, packedPath)) {
+				build(fasta, packedPath);
+				}
+			}
+		return new PackedReference(fasta, packedPath);
+		}
+	
+	/** return the default path of the packed file for this fasta */
+	public static Path getDefaultPackedPath(final Path fasta) {
+		return fasta.resolveSibling(fasta.getFileName().toString() + SUFFIX);
+		}
+	
+	/** header of the packed file */
+	private static class Header {
+		long fastaSize;
+		long fastaLastModified;
+		final List<ContigIndex> indexes = new ArrayList<>();
+		
+		static Header read(final DataInputStream dis) throws IOException {
+			if(dis.readInt()!=MAGIC) return null;
+			if(dis.readInt()!=VERSION) return null;
+			final Header h = new Header();
+			h.fastaSize = dis.readLong();
+			h.fastaLastModified = dis.readLong();
+			final int n = dis.readInt();
+			for(int i=0;i< n;i++) {
+				final String name = dis.readUTF();
+				final int length = dis.readInt();
+				final long packedOffset = dis.readLong();
+				final long maskOffset = dis.readLong();
+				final long lowerOffset = dis.readLong();
+				final long runsOffset = dis.readLong();
+				final int nRuns = dis.readInt();
+				final SAMSequenceRecord ssr = new SAMSequenceRecord(name, length);
+				h.indexes.add(new ContigIndex(ssr, packedOffset, maskOffset, lowerOffset, runsOffset, nRuns));
+				}
+			return h;
+			}
+		
+		void write(final DataOutputStream dos) throws IOException {
+			dos.writeInt(MAGIC);
+			dos.writeInt(VERSION);
+			dos.writeLong(this.fastaSize);
+			dos.writeLong(this.fastaLastModified);
+			dos.writeInt(this.indexes.size());
+			for(final ContigIndex ci: this.indexes) {
+				dos.writeUTF(ci.ssr.getSequenceName());
+				dos.writeInt(ci.ssr.getSequenceLength());
+				dos.writeLong(ci.packedOffset);
+				dos.writeLong(ci.maskOffset);
+				dos.writeLong(ci.lowerOffset);
+				dos.writeLong(ci.runsOffset);
+				dos.writeInt(ci.nRuns);
+				}
+			}
+		
+		/** size of the header in bytes */
+		static long sizeOf(final SAMSequenceDictionary dict) {
+			long n = 4 + 4 + 8 + 8 + 4;
+			for(final SAMSequenceRecord ssr: dict.getSequences()) {
+				n += 2 + ssr.getSequenceName().getBytes(StandardCharsets.UTF_8).length;
+				n += 4 + 8 + 8 + 8 + 8 + 4;
+				}
+			return n;
+			}
+		}
+	
+	/** return true if 'packedPath' exists and was built from the current version of 'fasta' */
+	private static boolean isUpToDate(final Path fasta,final Path packedPath) {
+		if(!Files.exists(packedPath)) return false;
+		try(InputStream in = Files.newInputStream(packedPath)) {
+			final Header h = Header.read(new DataInputStream(new BufferedInputStream(in)));
+			return h!=null &&
+				h.fastaSize == Files.size(fasta) &&
+				h.fastaLastModified == Files.getLastModifiedTime(fasta).toMillis();
+			}
+		catch(final IOException err) {
+			return false;
+			}
+		}
+	
+	/** 2-bit code of a base, -1 if the base is not A,C,G,T */
+	private static int encode(final byte b) {
+		switch(b) {
+			case 'A': case 'a': return 0;
+			case 'C': case 'c': return 1;
+			case 'G': case 'g': return 2;
+			case 'T': case 't': return 3;
+			default: return -1;
+			}
+		}
+	
+	/** build the packed file 'packedPath' from the indexed fasta file */
+	static void build(final Path fasta,final Path packedPath) throws IOException {
+		LOG.info("building packed reference "+packedPath+" from "+fasta);
+		final Path tmpPath = Files.createTempFile(packedPath.toAbsolutePath().getParent(), "tmp.", SUFFIX);
+		try(ReferenceSequenceFile ref = ReferenceSequenceFileFactory.getReferenceSequenceFile(fasta)) {
+			if(!ref.isIndexed()) throw new IOException("fasta file is not indexed: "+fasta);
+			final SAMSequenceDictionary dict = SequenceDictionaryUtils.extractRequired(ref);
+			final Header header = new Header();
+			header.fastaSize = Files.size(fasta);
+			header.fastaLastModified = Files.getLastModifiedTime(fasta).toMillis();
+			
+			try(FileChannel ch = FileChannel.open(tmpPath, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				long offset = Header.sizeOf(dict);
+				final ByteBuffer packed = ByteBuffer.allocate(BUILD_CHUNK / 4);
+				final ByteBuffer mask = ByteBuffer.allocate(BUILD_CHUNK / 8).order(ByteOrder.BIG_ENDIAN);
+				final ByteBuffer lower = ByteBuffer.allocate(BUILD_CHUNK / 8).order(ByteOrder.BIG_ENDIAN);
+				for(final SAMSequenceRecord ssr: dict.getSequences()) {
+					final int len = ssr.getSequenceLength();
+					final long packedOffset = offset;
+					final long maskOffset = packedOffset + (len + 3L) / 4L;
+					final long lowerOffset = maskOffset + ((len + 63L) / 64L) * 8L;
+					final long runsOffset = lowerOffset + ((len + 63L) / 64L) * 8L;
+					/* runs of non-ACGT bases: start0, end0 (exclusive), base */
+					final List<int[]> runs = new ArrayList<>();
+					int[] lastRun = null;
+					for(int start0=0;start0 < len;start0+=BUILD_CHUNK) {
+						final int end0 = Math.min(len, start0 + BUILD_CHUNK);
+						final byte[] bases = ref.getSubsequenceAt(ssr.getSequenceName(), start0 + 1, end0).getBases();
+						if(bases.length != end0 - start0) throw new IOException("Cannot read "+ssr.getSequenceName()+":"+(start0+1)+"-"+end0+" from "+fasta);
+						packed.clear();
+						mask.clear();
+						lower.clear();
+						int b4 = 0;
+						long m64 = 0L;
+						long l64 = 0L;
+						for(int i=0;i< bases.length;i++) {
+							final int code = encode(bases[i]);
+							b4 = (b4 << 2) | (code < 0 ? 0 : code);
+							m64 = (m64 << 1) | (code < 0 ? 1L : 0L);
+							l64 = (l64 << 1) | (Character.isLowerCase(bases[i]) ? 1L : 0L);
+							if(code < 0) {
+								final int base = Character.toUpperCase(bases[i]);
+								final int pos0 = start0 + i;
+								if(lastRun!=null && lastRun[1]==pos0 && lastRun[2]==base) {
+									lastRun[1]++;
+									}
+								else
+									{
+									lastRun = new int[] {pos0, pos0 + 1, base};
+									runs.add(lastRun);
+									}
+								}
+							if(i % 4 == 3) {
+								packed.put((byte)b4);
+								b4 = 0;
+								}
+							if(i % 64 == 63) {
+								mask.putLong(m64);
+								lower.putLong(l64);
+								m64 = 0L;
+								l64 = 0L;
+								}
+							}
+						/* last incomplete byte / long is left-aligned */
+						if(bases.length % 4 != 0) {
+							packed.put((byte)(b4 << (2 * (4 - bases.length % 4))));
+							}
+						if(bases.length % 64 != 0) {
+							mask.putLong(m64 << (64 - bases.length % 64));
+							lower.putLong(l64 << (64 - bases.length % 64));
+							}
+						packed.flip();
+						mask.flip();
+						lower.flip();
+						writeFully(ch, packed, packedOffset + start0 / 4);
+						writeFully(ch, mask, maskOffset + (start0 / 64) * 8L);
+						writeFully(ch, lower, lowerOffset + (start0 / 64) * 8L);
+						}
+					final ByteBuffer runBuffer = ByteBuffer.allocate(runs.size() * 12);
+					for(final int[] run: runs) {
+						runBuffer.putInt(run[0]);
+						runBuffer.putInt(run[1]);
+						runBuffer.putInt(run[2]);
+						}
+					runBuffer.flip();
+					writeFully(ch, runBuffer, runsOffset);
+					header.indexes.add(new ContigIndex(ssr, packedOffset, maskOffset, lowerOffset, runsOffset, runs.size()));
+					offset = runsOffset + runs.size() * 12L;
+					}
+				ch.position(0L);
+				final DataOutputStream dos = new DataOutputStream(Channels.newOutputStream(ch));
+				header.write(dos);
+				dos.flush();
+				ch.force(true);
+				}
+			try {
+				Files.move(tmpPath, packedPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				}
+			catch(final AtomicMoveNotSupportedException err) {
+				Files.move(tmpPath, packedPath, StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+		finally
+			{
+			Files.deleteIfExists(tmpPath);
+			}
+		}
+	
+	private static void writeFully(final FileChannel ch,final ByteBuffer buffer,long position) throws IOException {
+		while(buffer.hasRemaining()) {
+			position += ch.write(buffer, position);
+			}
+		}
+	
+	/** return the original fasta file */
+	public Path getFastaPath() {
+		return this.fasta;
+		}
+	
+	/** return the packed file */
+	public Path getPackedPath() {
+		return this.packedPath;
+		}
+	
+	public SAMSequenceDictionary getSequenceDictionary() {
+		return this.dict;
+		}
+	
+	/** return the sequence for this contig. Throws an exception if the contig is not in the dictionary */
+	public PackedSequence getSequence(final String contig) {
+		synchronized(this.contig2sequence) {
+			PackedSequence seq = this.contig2sequence.get(contig);
+			if(seq!=null) return seq;
+			final ContigIndex ci = this.contig2index.get(contig);
+			if(ci==null) throw new JvarkitException.ContigNotFoundInDictionary(contig, this.dict);
+			try {
+				final int len = ci.ssr.getSequenceLength();
+				final MappedByteBuffer packed = this.channel.map(FileChannel.MapMode.READ_ONLY, ci.packedOffset, ci.maskOffset - ci.packedOffset);
+				final LongBuffer mask = this.channel.map(FileChannel.MapMode.READ_ONLY, ci.maskOffset, ci.lowerOffset - ci.maskOffset).
+						order(ByteOrder.BIG_ENDIAN).
+						asLongBuffer();
+				final LongBuffer lower = this.channel.map(FileChannel.MapMode.READ_ONLY, ci.lowerOffset, ci.runsOffset - ci.lowerOffset).
+						order(ByteOrder.BIG_ENDIAN).
+						asLongBuffer();
+				final ByteBuffer runBuffer = ByteBuffer.allocate(ci.nRuns * 12);
+				readFully(runBuffer, ci.runsOffset);
+				runBuffer.flip();
+				final int[] runStarts = new int[ci.nRuns];
+				final int[] runEnds = new int[ci.nRuns];
+				final char[] runBases = new char[ci.nRuns];
+				for(int i=0;i< ci.nRuns;i++) {
+					runStarts[i] = runBuffer.getInt();
+					runEnds[i] = runBuffer.getInt();
+					runBases[i] = (char)runBuffer.getInt();
+					}
+				seq = new PackedSequence(ci.ssr, len, packed, mask, lower, runStarts, runEnds, runBases);
+				this.contig2sequence.put(contig, seq);
+				return seq;
+				}
+			catch(final IOException err) {
+				throw new RuntimeIOException(err);
+				}
+			}
+		}
+	
+	private void readFully(final ByteBuffer buffer,long position) throws IOException {
+		while(buffer.hasRemaining()) {
+			final int n = this.channel.read(buffer, position);
+			if(n < 0) throw new IOException("unexpected end of file in "+this.packedPath);
+			position += n;
+			}
+		}
+	
+	@Override
+	public void close() {
+		synchronized(this.contig2sequence) {
+			this.contig2sequence.clear();
+			}
+		try {
+			this.channel.close();
+			}
+		catch(final IOException err) {
+			LOG.warn(err);
+			}
+		}
+	
+	@Override
+	public String toString() {
+		return "PackedReference("+this.fasta+")";
+		}
+	}
@@ -0,0 +1,188 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.reference;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+import com.github.lindenb.jvarkit.lang.AbstractCharSequence;
+import com.github.lindenb.jvarkit.util.bio.ChromosomeSequence;
+import com.github.lindenb.jvarkit.util.picard.GenomicSequence;
+
+import htsjdk.samtools.SAMSequenceRecord;
+
+/**
+ * A contig of a {@link PackedReference}.
+ * Random access to the bases is O(1), the GC content of a window is computed
+ * four bases at a time from the packed bytes.
+ * This class is thread-safe.
+ */
+public class PackedSequence extends AbstractCharSequence implements ChromosomeSequence {
+	private static final char[] ACGT = {'A','C','G','T'};
+	/** number of G/C in each packed byte */
+	private static final byte[] GC_COUNT = new byte[256];
+	static {
+		for(int i=0;i< 256;i++) {
+			int n=0;
+			for(int j=0;j< 4;j++) {
+				final int code = (i >> (2*j)) & 3;
+				if(code==1 || code==2) n++;
+				}
+			GC_COUNT[i] = (byte)n;
+			}
+		}
+	private final SAMSequenceRecord ssr;
+	private final int length;
+	private final ByteBuffer packed;
+	private final LongBuffer mask;
+	private final LongBuffer lower;
+	private final int[] runStarts;
+	private final int[] runEnds;
+	private final char[] runBases;
+	
+	PackedSequence(final SAMSequenceRecord ssr,int length,final ByteBuffer packed,final LongBuffer mask,final LongBuffer lower,final int[] runStarts,final int[] runEnds,final char[] runBases) {
+		this.ssr = ssr;
+		this.length = length;
+		this.packed = packed;
+		this.mask = mask;
+		this.lower = lower;
+		this.runStarts = runStarts;
+		this.runEnds = runEnds;
+		this.runBases = runBases;
+		}
+	
+	public SAMSequenceRecord getSAMSequenceRecord() {
+		return this.ssr;
+		}
+	
+	@Override
+	public String getChrom() {
+		return this.ssr.getSequenceName();
+		}
+	
+	@Override
+	public int length() {
+		return this.length;
+		}
+	
+	private static boolean isSet(final LongBuffer bits,final int index0) {
+		return (bits.get(index0 >>> 6) & (1L << (63 - (index0 & 63)))) != 0L;
+		}
+	
+	private boolean isMasked(final int index0) {
+		return isSet(this.mask, index0);
+		}
+	
+	/** return the base of a masked position */
+	private char getMaskedBase(final int index0) {
+		int i = Arrays.binarySearch(this.runStarts, index0);
+		if(i < 0) i = -i - 2;
+		if(i < 0 || index0 >= this.runEnds[i]) return 'N';
+		return this.runBases[i];
+		}
+	
+	@Override
+	public char charAt(final int index0) {
+		if(index0 < 0 || index0 >= this.length) {
+			throw new IndexOutOfBoundsException("index:"+index0+" length:"+this.length);
+			}
+		final char c;
+		if(isMasked(index0)) {
+			c = getMaskedBase(index0);
+			}
+		else
+			{
+			final int b = this.packed.get(index0 >>> 2);
+			c = ACGT[(b >>> (6 - ((index0 & 3) << 1))) & 3];
+			}
+		return isSet(this.lower, index0) ? Character.toLowerCase(c) : c;
+		}
+	
+	/** return GC% between start (inclusive, 0 based) and end (exclusive) */
+	public GenomicSequence.GCPercent getGCPercent(int start,int end) {
+		final int L = this.length();
+		final int start1 = start + 1;
+		final int end1 = Math.min(end, L);
+		start = Math.max(0, start);
+		end = Math.min(end, L);
+		if(start >= end) return GenomicSequence.GCPercent.of(getChrom(), start1, end1, 0, 0, 0);
+		int count_gc = 0;
+		int count_acgt = 0;
+		int i = start;
+		/* bases before the first full byte */
+		while(i < end && (i & 3) != 0) {
+			if(!isMasked(i) && isGC(Character.toUpperCase(charAt(i)))) count_gc++;
+			i++;
+			}
+		/* full bytes. Masked bases are encoded as 'A' */
+		while(i + 4 <= end) {
+			count_gc += GC_COUNT[this.packed.get(i >>> 2) & 0xFF];
+			i += 4;
+			}
+		/* remaining bases */
+		while(i < end) {
+			if(!isMasked(i) && isGC(Character.toUpperCase(charAt(i)))) count_gc++;
+			i++;
+			}
+		/* masked bases */
+		int count_masked_gc = 0;
+		int count_masked_at = 0;
+		int count_masked = 0;
+		for(int w = start >>> 6; w <= (end - 1) >>> 6; w++) {
+			long bits = this.mask.get(w);
+			if(bits == 0L) continue;
+			while(bits != 0L) {
+				final int bit = Long.numberOfLeadingZeros(bits);
+				bits &= ~(1L << (63 - bit));
+				final int pos0 = (w << 6) + bit;
+				if(pos0 < start || pos0 >= end) continue;
+				count_masked++;
+				switch(getMaskedBase(pos0)) {
+					case 'S': count_masked_gc++; break;
+					case 'W': count_masked_at++; break;
+					default: break;
+					}
+				}
+			}
+		count_acgt = (end - start) - count_masked;
+		return GenomicSequence.GCPercent.of(
+				getChrom(),
+				start1,
+				end1,
+				end - start,
+				count_gc + count_masked_gc,
+				(count_acgt - count_gc) + count_masked_at
+				);
+		}
+	
+	private static boolean isGC(final char c) {
+		return c=='G' || c=='C';
+		}
+	
+	@Override
+	public int hashCode() {
+		return this.ssr.hashCode();
+		}
+	}
@@ -115,7 +115,7 @@ public class RegulomeDBTabixAnnotator  extends AbstractTabixVariantAnnotator {
 		final int start=Math.max(0,ctx.getStart()-this.extend);
 		final int end=ctx.getEnd()+this.extend;
 
-		TabixReader.Iterator r = super.tabixReader.query(contig(ctx),Math.max(start-1,0), end);
+		TabixReader.Iterator r = super.query(contig(ctx),Math.max(start-1,0), end);
 		double max_probability_score = 0.0;
 		double sum_probability_score = 0.0;
 		int count_probability_score = 0;
@@ -43,15 +43,10 @@ import com.github.lindenb.jvarkit.samtools.util.SimpleInterval;
 import com.github.lindenb.jvarkit.util.bio.SequenceDictionaryUtils;
 import com.github.lindenb.jvarkit.util.samtools.SAMRecordPartition;
 
-import htsjdk.samtools.AlignmentBlock;
-import htsjdk.samtools.Cigar;
-import htsjdk.samtools.CigarElement;
-import htsjdk.samtools.CigarOperator;
 import htsjdk.samtools.QueryInterval;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMRecord;
 import htsjdk.samtools.SAMSequenceDictionary;
-import htsjdk.samtools.SAMUtils;
 import htsjdk.samtools.SamReader;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.Interval;
@@ -374,77 +369,22 @@ public class CoverageFactory
 		}
 		array  = QueryInterval.optimizeIntervals(array);
 		
+		final DepthAccumulator depth = new DepthAccumulator(loc).
+				setMappingQuality(this.mappingQuality).
+				setRecordFilter(this.samRecordFilter).
+				setUseClipping(this.useClip).
+				setMateOverlapRemoval(true);
 		try(CloseableIterator<SAMRecord> iter = reader.query(array, false) ) {
 			while(iter.hasNext()) {
 				final SAMRecord rec = iter.next();
-				if(rec.getReadUnmappedFlag()) continue;
-				if(rec.getMappingQuality()< this.mappingQuality) continue;
-				if(!this.samRecordFilter.test(rec)) continue;
-				final Cigar cigar = rec.getCigar();
-				if(cigar==null || cigar.isEmpty()) continue; 
+				if(!depth.accept(rec)) continue;
 				if(!StringUtils.isBlank(sample) && !SAMRecordPartition.any.equals(this.partition)) {
 					if(!sample.equals(this.partition.getPartion(rec))) continue;
 					}
-				
-				int maxEnd = loc.getEnd();
-				if(rec.getReadPairedFlag() &&
-					!rec.getMateUnmappedFlag() &&
-					rec.getReferenceIndex().equals(rec.getMateReferenceIndex()))
-					{
-					int mateStart;
-					
-					if(this.useClip && SAMUtils.getMateCigar(rec)!=null) {
-						mateStart = SAMUtils.getMateUnclippedStart(rec);
-						}
-					else
-						{
-						mateStart = rec.getMateAlignmentStart();
-						}
-					if( rec.getStart() < mateStart &&
-						rec.getEnd() > mateStart)
-						{		
-						maxEnd = Math.min(maxEnd, mateStart );
-						}
-					}
-				
-				if(!this.useClip) {
-					for(AlignmentBlock block:rec.getAlignmentBlocks()) {
-						if(block.getReferenceStart() > maxEnd ) break;
-						for(int t=0;t< block.getLength();t++) {
-							final int pos1 = block.getReferenceStart() + t;
-							if(pos1 < loc.getStart()) continue;
-							if(pos1 > maxEnd ) break;
-							cov.coverage[pos1-loc.getStart()]++;
-							}
-						}
-					}
-				else
-					{
-					int ref1= rec.getUnclippedStart();
-					for(final CigarElement ce:cigar) {
-						if(ref1> maxEnd ) break;
-						final CigarOperator op =ce.getOperator();
-						switch(op) {
-							case P: break;
-							case N: case D: ref1+=ce.getLength(); break;
-							case I: break;
-							case H: case S: case X: case EQ: case M:
-								{
-								for(int i=0;i< ce.getLength();i++) {
-									final int pos1 = ref1+i;
-									if(pos1 < loc.getStart()) continue;
-									if(pos1 > maxEnd ) break;
-									cov.coverage[pos1-loc.getStart()]++;
-									}
-								ref1+=ce.getLength();
-								break;
-								}
-							default: throw new IllegalStateException(op.name());
-							}
-						}
-					}
+				depth.addAlignment(rec);
 				}
 			}
+		depth.copyTo(cov.coverage, 0);
 		return cov;
 		}
 	}
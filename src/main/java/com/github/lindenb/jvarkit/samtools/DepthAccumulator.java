@@ -0,0 +1,274 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.samtools;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import htsjdk.samtools.Cigar;
+import htsjdk.samtools.CigarElement;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMUtils;
+import htsjdk.samtools.util.Locatable;
+
+/**
+ * Depth of coverage over a window of the genome.
+ * Each aligned block of a read is recorded in a difference array (+1 at the start, -1 after the end),
+ * the depth is computed in place with a prefix-sum only when it is requested.
+ * The buffers are re-used when the accumulator is {@link #reset(String, int, int)} to another window,
+ * so a single instance can be used for all the intervals or contigs of a BAM.
+ * Using {@link #reset(String, int, int[])}, the caller can provide its own buffer that will receive the depth.
+ * This class is not thread-safe.
+ */
+public class DepthAccumulator implements Locatable {
+	private static final int[] EMPTY = new int[0];
+	private int mappingQuality = 0;
+	private Predicate<SAMRecord> recordFilter = R->true;
+	private boolean useClipping = false;
+	private boolean mateOverlap = false;
+	
+	private String contig = null;
+	private int start1 = 1;
+	private int length = 0;
+	/** difference array, size is at least length. Holds the depth after the prefix-sum */
+	private int[] diff = EMPTY;
+	/** true if 'diff' holds the depth */
+	private boolean summed = false;
+	/** true if 'diff' was provided by the caller: it is never re-used for another window */
+	private boolean externalBuffer = false;
+	
+	public DepthAccumulator() {
+		}
+	
+	public DepthAccumulator(final Locatable loc) {
+		reset(loc);
+		}
+	
+	/** set min mapping quality. Default is 0 */
+	public DepthAccumulator setMappingQuality(final int mappingQuality) {
+		this.mappingQuality = mappingQuality;
+		return this;
+		}
+	public int getMappingQuality() {
+		return this.mappingQuality;
+		}
+	/** set function to accept read. Default: accept all. Unmapped reads are always rejected */
+	public DepthAccumulator setRecordFilter(final Predicate<SAMRecord> recordFilter) {
+		this.recordFilter = recordFilter;
+		return this;
+		}
+	/** if true, the soft/hard clipped bases are counted, starting from the unclipped start */
+	public DepthAccumulator setUseClipping(final boolean useClipping) {
+		this.useClipping = useClipping;
+		return this;
+		}
+	public boolean isUseClipping() {
+		return this.useClipping;
+		}
+	/** if true, the bases of two overlapping mates are counted only once: the first read of the pair stops before the start of its mate */
+	public DepthAccumulator setMateOverlapRemoval(final boolean mateOverlap) {
+		this.mateOverlap = mateOverlap;
+		return this;
+		}
+	public boolean isMateOverlapRemoval() {
+		return this.mateOverlap;
+		}
+	
+	/** reset the depth and set the window to this interval */
+	public DepthAccumulator reset(final Locatable loc) {
+		return reset(loc.getContig(),loc.getStart(),loc.getEnd());
+		}
+	
+	/** reset the depth and set the window to contig:start1-end1 (1-based, inclusive) */
+	public DepthAccumulator reset(final String contig,final int start1,final int end1) {
+		if(end1 < start1-1) throw new IllegalArgumentException("bad interval "+contig+":"+start1+"-"+end1);
+		this.contig = contig;
+		this.start1 = start1;
+		this.length = end1 - start1 + 1;
+		if(this.externalBuffer || this.diff.length < this.length) {
+			this.diff = this.length==0 ? EMPTY : new int[this.length];
+			this.externalBuffer = false;
+			}
+		else
+			{
+			Arrays.fill(this.diff, 0, this.length, 0);
+			}
+		this.summed = false;
+		return this;
+		}
+	
+	/** reset the depth and set the window to contig:start1-(start1+buffer.length-1) (1-based, inclusive).
+	 * 'buffer' is cleared and used to store the data, so it holds the depth of the window after
+	 * {@link #getDepthArray()}. No other buffer is allocated. 'buffer' is released by the next call to reset.
+	 */
+	public DepthAccumulator reset(final String contig,final int start1,final int[] buffer) {
+		this.contig = contig;
+		this.start1 = start1;
+		this.length = buffer.length;
+		Arrays.fill(buffer, 0);
+		this.diff = buffer;
+		this.externalBuffer = true;
+		this.summed = false;
+		return this;
+		}
+	
+	@Override
+	public String getContig() {
+		return this.contig;
+		}
+	@Override
+	public int getStart() {
+		return this.start1;
+		}
+	@Override
+	public int getEnd() {
+		return this.start1 + this.length - 1;
+		}
+	/** number of bases in the window */
+	public int getLength() {
+		return this.length;
+		}
+	
+	/** return true if the read passes the filters */
+	public boolean accept(final SAMRecord rec) {
+		if(rec.getReadUnmappedFlag()) return false;
+		if(rec.getMappingQuality() < this.mappingQuality) return false;
+		return this.recordFilter.test(rec);
+		}
+	
+	/** add the read if it passes the filters. Return true if the read was added. The contig of the read is not checked. */
+	public boolean add(final SAMRecord rec) {
+		if(!accept(rec)) return false;
+		return addAlignment(rec);
+		}
+	
+	/** add the read without testing the filters, e.g. when {@link #accept(SAMRecord)} was already called. The contig of the read is not checked. */
+	public boolean addAlignment(final SAMRecord rec) {
+		if(rec.getReadUnmappedFlag()) return false;
+		final Cigar cigar = rec.getCigar();
+		if(cigar==null || cigar.isEmpty()) return false;
+		int maxEnd = Integer.MAX_VALUE;
+		if(this.mateOverlap &&
+			rec.getReadPairedFlag() &&
+			!rec.getMateUnmappedFlag() &&
+			rec.getReferenceIndex().equals(rec.getMateReferenceIndex())) {
+			final int start = this.useClipping?rec.getUnclippedStart():rec.getAlignmentStart();
+			final int end = this.useClipping?rec.getUnclippedEnd():rec.getAlignmentEnd();
+			final int mateStart = this.useClipping && SAMUtils.getMateCigar(rec)!=null?
+					SAMUtils.getMateUnclippedStart(rec):
+					rec.getMateAlignmentStart();
+			if(start < mateStart && end > mateStart) {
+				maxEnd = mateStart - 1;
+				}
+			}
+		int ref1 = this.useClipping?rec.getUnclippedStart():rec.getAlignmentStart();
+		for(final CigarElement ce:cigar) {
+			if(ref1 > maxEnd) break;
+			final int len = ce.getLength();
+			switch(ce.getOperator()) {
+				case H: case S:
+					if(!this.useClipping) break;
+					addBlock(ref1, Math.min(maxEnd, ref1 + len - 1));
+					ref1 += len;
+					break;
+				case M: case X: case EQ:
+					addBlock(ref1, Math.min(maxEnd, ref1 + len - 1));
+					ref1 += len;
+					break;
+				case N: case D:
+					ref1 += len;
+					break;
+				default: break;
+				}
+			}
+		return true;
+		}
+	
+	/** increase the depth of each base between blockStart1 and blockEnd1 (1-based, inclusive). Bases out of the window are ignored. */
+	public void addBlock(final int blockStart1,final int blockEnd1) {
+		final int b = Math.max(blockStart1, this.start1) - this.start1;
+		final int e = Math.min(blockEnd1, this.getEnd()) - this.start1;
+		if(b > e) return;
+		if(this.summed) {
+			/* the depth was already requested: go back to the differences */
+			for(int i=this.length-1;i > 0;i--) {
+				this.diff[i] -= this.diff[i-1];
+				}
+			this.summed = false;
+			}
+		this.diff[b]++;
+		/* the decrement after the end of the window is not needed by the prefix-sum */
+		if(e+1 < this.length) this.diff[e+1]--;
+		}
+	
+	/** compute the depth if needed */
+	private void finish() {
+		if(this.summed) return;
+		for(int i=1;i< this.length;i++) {
+			this.diff[i] += this.diff[i-1];
+			}
+		this.summed = true;
+		}
+	
+	/** get the depth at this 1-based position of the window */
+	public int getDepth(final int pos1) {
+		if(pos1 < this.start1 || pos1 > this.getEnd()) throw new IndexOutOfBoundsException(pos1+" is out of "+this.contig+":"+this.start1+"-"+getEnd());
+		finish();
+		return this.diff[pos1 - this.start1];
+		}
+	
+	/**
+	 * get the internal array of depth. index 0 is the start of the window.
+	 * The array may be longer than {@link #getLength()}, it is re-used after the next call to reset or addBlock. 
+	 */
+	public int[] getDepthArray() {
+		finish();
+		return this.diff;
+		}
+	
+	/** return a copy of the depth in the window */
+	public int[] toIntArray() {
+		finish();
+		return Arrays.copyOf(this.diff, this.length);
+		}
+	
+	/** copy the depth in the window into 'dest' at position 'destPos'. If the depth was not computed yet, the prefix-sum is written directly into 'dest' */
+	public void copyTo(final int[] dest,final int destPos) {
+		if(!this.summed) {
+			int d = 0;
+			for(int i=0;i< this.length;i++) {
+				d += this.diff[i];
+				dest[destPos + i] = d;
+				}
+			return;
+			}
+		finish();
+		System.arraycopy(this.diff, 0, dest, destPos, this.length);
+		}
+	
+	@Override
+	public String toString() {
+		return this.contig+":"+this.start1+"-"+getEnd();
+		}
+	}
@@ -25,9 +25,12 @@ SOFTWARE.
 package com.github.lindenb.jvarkit.tabix;
 
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
 
 import com.github.lindenb.jvarkit.lang.StringUtils;
 import com.github.lindenb.jvarkit.util.bio.fasta.ContigNameConverter;
+import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.variant.VariantAnnotator;
 
 import htsjdk.samtools.util.CoordMath;
@@ -37,9 +40,14 @@ import htsjdk.variant.variantcontext.VariantContext;
 
 /** abstract Tabix Reader to annotate Variants */
 public abstract class AbstractTabixVariantAnnotator implements VariantAnnotator {
+	private static final Logger LOG = Logger.build(AbstractTabixVariantAnnotator.class).make();
 	private final String uri;
 	protected final TabixReader tabixReader;
 	private final ContigNameConverter converter;
+	/** forward cursor used when streaming is enabled */
+	private TabixCursor cursor = null;
+	/** number of queries that came out of order in streaming mode */
+	private long count_out_of_order = 0L;
 	/** open tabix reader, uri can be emty or null, the annotation will be disabled */
 	public AbstractTabixVariantAnnotator(final String uri) throws IOException {
 		this.tabixReader = StringUtils.isBlank(uri)?null:new TabixReader(uri);
@@ -47,6 +55,46 @@ public abstract class AbstractTabixVariantAnnotator implements VariantAnnotator
 		this.converter = this.tabixReader==null?null:ContigNameConverter.fromContigSet(this.tabixReader.getChromosomes());
 		}
 	
+	/**
+	 * enable the streaming mode. When the variants are sorted on coordinate, the tabix file is
+	 * read forward with a merge-join cursor instead of one random access per variant.
+	 * The annotator automatically falls back to random access when a variant comes out of order.
+	 */
+	public void setStreaming(final boolean streaming) throws IOException {
+		if(this.cursor!=null) {
+			this.cursor.close();
+			this.cursor = null;
+			}
+		if(streaming && this.tabixReader!=null) {
+			this.cursor = TabixCursor.open(this.uri);
+			if(this.cursor==null) {
+				LOG.warn("Cannot use streaming mode for "+this.uri+". Using random access.");
+				}
+			}
+		}
+	
+	/** return true if the streaming mode is enabled */
+	public boolean isStreaming() {
+		return this.cursor!=null;
+		}
+	
+	/** query the tabix file for the 0-based half-open interval [beg,end) ,
+	 * using the forward cursor in streaming mode or random access otherwise */
+	protected TabixReader.Iterator query(final String contig,final int beg,final int end) throws IOException {
+		if(this.cursor!=null) {
+			final List<String> lines = this.cursor.query(contig, beg, end);
+			if(lines!=null) {
+				final Iterator<String> iter = lines.iterator();
+				return ()->iter.hasNext()?iter.next():null;
+				}
+			if(this.count_out_of_order==0L) {
+				LOG.warn("In "+this.uri+": variants are not sorted ("+contig+":"+(beg+1)+"). Using random access for those variants.");
+				}
+			this.count_out_of_order++;
+			}
+		return this.tabixReader.query(contig, beg, end);
+		}
+	
 	/** return true of variant and coordinate both overlap at 'fraction' */
 	protected boolean overlaps(final VariantContext ctx,final int svStart, final int svEnd, final double fraction) {
 		if(!CoordMath.overlaps(ctx.getStart(), ctx.getEnd(), svStart, svEnd)) return false;
@@ -70,6 +118,13 @@ public abstract class AbstractTabixVariantAnnotator implements VariantAnnotator
 	/** close tabix reader if any */
 	@Override
 	public void close() {
+		if(this.cursor!=null) {
+			if(this.count_out_of_order>0L) {
+				LOG.warn("In "+this.uri+": "+this.count_out_of_order+" queries used random access because the variants were not sorted.");
+				}
+			this.cursor.close();
+			this.cursor = null;
+			}
 		if(this.tabixReader!=null) this.tabixReader.close();
 		}
 	/** convert variant contig */
@@ -0,0 +1,216 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.tabix;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import com.github.lindenb.jvarkit.lang.StringUtils;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.tribble.readers.TabixReader;
+import htsjdk.tribble.util.ParsingUtils;
+
+/**
+ * Forward-only merge-join cursor over a tabix file.
+ * When the queries are sorted on (contig,start), the tabix file is read
+ * only once: the cursor keeps the lines that may overlap the next queries and
+ * reads forward. The cursor owns its own TabixReader because htsjdk's
+ * TabixReader.Iterator shares the file pointer of its reader.
+ * It returns null when a query comes out of order: the caller should then use random access.
+ */
+public class TabixCursor implements AutoCloseable {
+	private static final int PRESET_GENERIC = 0;
+	private static final int PRESET_VCF = 2;
+	private static final int ZERO_BASED = 0x10000;
+
+	private final TabixReader tabixReader;
+	private final int preset;
+	private final int colSeq;
+	private final int colBeg;
+	private final int colEnd;
+	private final char metaChar;
+	/** last column required to get the interval of a line */
+	private final int lastCol;
+
+	/** current contig */
+	private String contig = null;
+	/** forward iterator over the current contig */
+	private TabixReader.Iterator iter = null;
+	/** last 0-based start of a query */
+	private int lastBeg = -1;
+	/** lines read but still in use or not reached yet, sorted on start */
+	private final Deque<Line> buffer = new ArrayDeque<>();
+
+	private static class Line {
+		final String line;
+		final int beg;
+		final int end;
+		Line(final String line,final int beg,final int end) {
+			this.line = line;
+			this.beg = beg;
+			this.end = end;
+			}
+		}
+
+	private TabixCursor(final String uri,final int[] format) throws IOException {
+		this.tabixReader = new TabixReader(uri);
+		this.preset = format[0];
+		this.colSeq = format[1];
+		this.colBeg = format[2];
+		this.colEnd = format[3];
+		this.metaChar = (char)format[4];
+		if((this.preset & 0xffff)==PRESET_VCF) {
+			this.lastCol = Math.max(8, Math.max(this.colSeq, this.colBeg));
+			}
+		else
+			{
+			this.lastCol = Math.max(this.colEnd, Math.max(this.colSeq, this.colBeg));
+			}
+		}
+
+	/** open a cursor for the given uri. Returns null if the tabix index cannot be used for streaming (e.g. SAM preset, CSI index) */
+	public static TabixCursor open(final String uri) throws IOException {
+		if(StringUtils.isBlank(uri)) return null;
+		final String tbi = uri+".tbi";
+		if(!ParsingUtils.resourceExists(tbi)) return null;
+		final int[] format = new int[5];
+		try(InputStream in = new BlockCompressedInputStream(ParsingUtils.openInputStream(tbi))) {
+			final byte[] magic = new byte[4];
+			if(in.read(magic)!=4 || magic[0]!='T' || magic[1]!='B' || magic[2]!='I' || magic[3]!=1) return null;
+			TabixReader.readInt(in);//n_ref
+			format[0] = TabixReader.readInt(in);
+			format[1] = TabixReader.readInt(in);
+			format[2] = TabixReader.readInt(in);
+			format[3] = TabixReader.readInt(in);
+			format[4] = TabixReader.readInt(in);
+			}
+		final int p = format[0] & 0xffff;
+		if(p!=PRESET_GENERIC && p!=PRESET_VCF) return null;
+		return new TabixCursor(uri,format);
+		}
+
+	/** get the 0-based [beg,end) interval of a line, as tabix does. Returns null if the line cannot be parsed */
+	private Line parse(final String s) {
+		if(s.isEmpty() || s.charAt(0)==this.metaChar) return null;
+		int beg = -1;
+		int end = -1;
+		int col = 0;
+		int prev = 0;
+		for(;;) {
+			int tab = s.indexOf('\t',prev);
+			if(tab==-1) tab = s.length();
+			++col;
+			if(col==this.colBeg) {
+				beg = end = Integer.parseInt(s.substring(prev,tab));
+				if((this.preset & ZERO_BASED)!=0) {
+					++end;
+					}
+				else
+					{
+					--beg;
+					}
+				if(beg<0) beg=0;
+				if(end<1) end=1;
+				}
+			else if((this.preset & 0xffff)==PRESET_GENERIC) {
+				if(col==this.colEnd) end = Integer.parseInt(s.substring(prev,tab));
+				}
+			else /* VCF */
+				{
+				if(col==4 && tab>prev) {
+					end = beg + (tab-prev);
+					}
+				else if(col==8) {
+					final String info = s.substring(prev,tab);
+					int i = info.startsWith("END=")?0:info.indexOf(";END=");
+					if(i!=-1) {
+						i+= (i==0?4:5);
+						int j = info.indexOf(';',i);
+						if(j==-1) j= info.length();
+						end = Integer.parseInt(info.substring(i,j));
+						}
+					}
+				}
+			if(tab>=s.length() || col>=this.lastCol) break;
+			prev = tab+1;
+			}
+		if(beg<0) return null;
+		return new Line(s,beg,end);
+		}
+
+	/**
+	 * return the lines overlapping the 0-based half-open interval [beg,end) , as TabixReader.query does.
+	 * Returns null if this query comes before the previous query on the same contig.
+	 */
+	public List<String> query(final String ctg,final int beg,final int end) throws IOException {
+		if(!ctg.equals(this.contig)) {
+			this.buffer.clear();
+			this.contig = ctg;
+			this.lastBeg = beg;
+			this.iter = this.tabixReader.query(ctg, beg, Integer.MAX_VALUE);
+			}
+		else if(beg < this.lastBeg) {
+			return null;
+			}
+		this.lastBeg = beg;
+
+		/* remove lines that cannot overlap this query or the next ones */
+		final Iterator<Line> it = this.buffer.iterator();
+		while(it.hasNext()) {
+			final Line L = it.next();
+			if(L.beg >= beg) break;
+			if(L.end <= beg) it.remove();
+			}
+		/* read forward until we're past the query */
+		while(this.iter!=null && (this.buffer.isEmpty() || this.buffer.getLast().beg < end)) {
+			final String s = this.iter.next();
+			if(s==null) {
+				this.iter = null;
+				break;
+				}
+			final Line L = parse(s);
+			if(L==null) continue;
+			this.buffer.addLast(L);
+			}
+		final List<String> L = new ArrayList<>();
+		for(Line line: this.buffer) {
+			if(line.beg >= end) break;
+			if(line.end > beg) L.add(line.line);
+			}
+		return L;
+		}
+
+	@Override
+	public void close() {
+		this.buffer.clear();
+		this.iter = null;
+		this.tabixReader.close();
+		}
+	}
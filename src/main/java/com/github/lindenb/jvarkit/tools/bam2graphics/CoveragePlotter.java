@@ -458,7 +458,6 @@ public int doWork(final List<String> args) {
 		if(run_loess) {
 			/** extract Fastq sequence, and calculate GC% using sliding window */
 			try {
-				final Average average = new Average();
 				final byte[] atgc;
 				gc_percent = new double[extendedRegion.getLengthOnReference()];
 				try(ReferenceSequenceFile ref = ReferenceSequenceFileFactory.getReferenceSequenceFile(this.refPath)) {
@@ -469,15 +468,22 @@ public int doWork(final List<String> args) {
 						}
 					}
 				final int window_gc_size = 30;
-				average.reset();
+				/* prefix sum of the GC bases: count_gc[i] = number of GC in atgc[0..i( */
+				final int[] count_gc = new int[atgc.length+1];
 				for(int i=0;i< atgc.length;i++) {
-					for(int j=Math.max(0, i-window_gc_size);j < Math.min(i+window_gc_size, atgc.length);++j) {
-						switch(atgc[j]) {
-							case 'g':case 'G': case 'c':case 'C': case 's':case 'S': average.accept(1.0); break;
-							default:average.accept(0.0); break;
-							}
+					switch(atgc[i]) {
+						case 'g':case 'G': case 'c':case 'C': case 's':case 'S': count_gc[i+1] = count_gc[i] + 1; break;
+						default: count_gc[i+1] = count_gc[i]; break;
 						}
-					gc_percent[i] = average.getAsDouble();
+					}
+				long sum_gc = 0L;
+				long sum_all = 0L;
+				for(int i=0;i< atgc.length;i++) {
+					final int j1 = Math.max(0, i-window_gc_size);
+					final int j2 = Math.min(i+window_gc_size, atgc.length);
+					sum_gc += count_gc[j2] - count_gc[j1];
+					sum_all += j2 - j1;
+					gc_percent[i] = sum_gc/(double)sum_all;
 					}
 				}
 			catch(final IOException err) {
@@ -63,6 +63,7 @@ import com.beust.jcommander.Parameter;
 import com.github.lindenb.jvarkit.io.IOUtils;
 import com.github.lindenb.jvarkit.lang.JvarkitException;
 import com.github.lindenb.jvarkit.math.stats.Percentile;
+import com.github.lindenb.jvarkit.samtools.DepthAccumulator;
 import com.github.lindenb.jvarkit.samtools.util.IntervalParser;
 import com.github.lindenb.jvarkit.samtools.util.SimpleInterval;
 import com.github.lindenb.jvarkit.util.Counter;
@@ -210,6 +211,9 @@ public class Bam2Wig extends Launcher
 	private static class CoverageAggregator extends Aggregator
 		{
 		private final Predicate<SAMRecord> internalFilter;
+		private final DepthAccumulator depth = new DepthAccumulator();
+		/** array currently filled by 'depth' */
+		private int[] current = null;
 		CoverageAggregator() {
 			this(R->true);
 			}
@@ -220,21 +224,21 @@ public class Bam2Wig extends Launcher
 		void visit(final int array[],final SAMRecord rec)
 			{
 			if(!this.internalFilter.test(rec)) return ;
-			final Cigar cigar=rec.getCigar();
-			if(cigar==null) return;
-    		int refpos1=rec.getAlignmentStart();
-    		for(final CigarElement ce:cigar)
-    			{
-    			final CigarOperator op = ce.getOperator();
-    			if(op.consumesReferenceBases())
-    				{
-    				if(op.consumesReadBases())
-    					{
-    					incr(array,refpos1,ce.getLength());
-    					}
-    				refpos1+=ce.getLength();
-    				}    				
-    			}
+			if(this.current != array) {
+				/* the depth is computed directly in 'array' */
+				this.depth.reset(rec.getContig(), 1, array);
+				this.current = array;
+				}
+			this.depth.addAlignment(rec);
+			}
+		@Override
+		void finish(final int[] array) {
+			if(this.current == array) {
+				this.depth.getDepthArray();
+				/* release 'array' */
+				this.depth.reset(this.depth.getContig(), 1, 0);
+				}
+			this.current = null;
 			}
 		}
 	@SuppressWarnings("fallthrough")
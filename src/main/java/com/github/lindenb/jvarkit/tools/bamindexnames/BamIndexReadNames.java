@@ -35,9 +35,11 @@ import java.nio.file.Paths;
 import java.util.Comparator;
 import java.util.List;
 
+import com.beust.jcommander.ParametersDelegate;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.picard.SAMSequenceDictionaryProgress;
 
 import htsjdk.samtools.SAMFileHeader.SortOrder;
@@ -47,7 +49,6 @@ import htsjdk.samtools.SamReader;
 import htsjdk.samtools.SamReaderFactory;
 import htsjdk.samtools.ValidationStringency;
 import htsjdk.samtools.util.CloseableIterator;
-import htsjdk.samtools.util.SortingCollection;
 
 /**
 BEGIN_DOC
@@ -117,7 +118,8 @@ public class BamIndexReadNames
 			}
 		}
 
-		private int maxRecordsInRAM=50000;
+		@ParametersDelegate
+		private WritingSortingCollection writingSortingCollection = new WritingSortingCollection();
 
 		
 		private void indexBamFile(Path bamFile) throws IOException
@@ -125,17 +127,15 @@ public class BamIndexReadNames
 			
 			NameIndexDef indexDef=new NameIndexDef();
 
-			SortingCollection<NameAndPos> sorting=null;
+			ExternalSorter<NameAndPos> sorting=null;
 			LOG.info("Opening "+bamFile);
 			SamReader sfr=SamReaderFactory.makeDefault().
 					validationStringency(ValidationStringency.SILENT).
 					open(bamFile);
-			sorting=SortingCollection.newInstance(
+			sorting=this.writingSortingCollection.newExternalSorter(
 					NameAndPos.class,
 					new NameAndPosCodec() ,
-					new NameAndPosComparator(),
-					maxRecordsInRAM,
-					bamFile.getParent()
+					new NameAndPosComparator()
 					);
 			sorting.setDestructiveIteration(true);
 			if(sfr.getFileHeader().getSortOrder()!=SortOrder.coordinate)
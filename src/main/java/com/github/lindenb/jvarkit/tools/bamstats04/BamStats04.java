@@ -42,6 +42,8 @@ import com.github.lindenb.jvarkit.io.IOUtils;
 import com.github.lindenb.jvarkit.lang.JvarkitException;
 import com.github.lindenb.jvarkit.lang.StringUtils;
 import com.github.lindenb.jvarkit.math.stats.Percentile;
+import com.github.lindenb.jvarkit.reference.GCContentIndex;
+import com.github.lindenb.jvarkit.samtools.DepthAccumulator;
 import com.github.lindenb.jvarkit.samtools.util.IntervalListProvider;
 import com.github.lindenb.jvarkit.util.bio.SequenceDictionaryUtils;
 import com.github.lindenb.jvarkit.util.bio.fasta.ContigNameConverter;
@@ -56,9 +58,6 @@ import htsjdk.samtools.util.CloserUtil;
 import htsjdk.samtools.util.Locatable;
 import htsjdk.samtools.util.SequenceUtil;
 import htsjdk.samtools.util.StringUtil;
-import htsjdk.samtools.Cigar;
-import htsjdk.samtools.CigarElement;
-import htsjdk.samtools.CigarOperator;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMReadGroupRecord;
 import htsjdk.samtools.SAMRecord;
@@ -127,6 +126,8 @@ public class BamStats04 extends Launcher
 	private IntervalListProvider intervalListProvider = null;
 	@Parameter(names={"-R","--ref"},description="[20180126]If set, a column with the GC% will be added. Also used to read CRAM. " + INDEXED_FASTA_REFERENCE_DESCRIPTION)
 	private Path faidxUri = null;
+	@Parameter(names={"--gc-index"},description="Build (or re-use) a GC-content index '*"+GCContentIndex.SUFFIX+"' next to the reference (or in the temporary directory) to speed-up the GC% column. Requires --ref.")
+	private boolean use_gc_index = false;
 	@Parameter(names={"-partition","--partition"},description="[20171120]"+SAMRecordPartition.OPT_DESC)
 	private SAMRecordPartition partition = SAMRecordPartition.sample;
 	
@@ -134,36 +135,17 @@ public class BamStats04 extends Launcher
 	
 	private static class IntervalStat
 		{	
-		private final Locatable bedLine;
-		private final int counts[];
+		private final DepthAccumulator depth;
 		IntervalStat(final Locatable bedLine) {
-			this.bedLine = bedLine;
-			this.counts=new int[bedLine.getEnd()-bedLine.getStart()+1];
-			Arrays.fill(this.counts, 0);
+			this.depth = new DepthAccumulator(bedLine);
 			}
 		void visit(final SAMRecord rec) {
-			final Cigar cigar=rec.getCigar();
-			if(cigar==null) return;
-			int refpos1=rec.getAlignmentStart();
-    		for(final CigarElement ce:cigar)
-    			{
-    			final CigarOperator op=ce.getOperator();
-    			if(!op.consumesReferenceBases()) continue;
-    			if(op.consumesReadBases())
-    				{
-    				for(int i=0;i< ce.getLength();++i)
-		    			{
-						if(refpos1+i>= this.bedLine.getStart() && refpos1+i<= this.bedLine.getEnd())
-							{
-							this.counts[refpos1+i-this.bedLine.getStart()]++;
-							}
-	    				}
-    				}
-    			refpos1+=ce.getLength();
-    			if(refpos1>this.bedLine.getEnd()) break;
-    			}
+			this.depth.addAlignment(rec);
+			}
+		/** return a copy of the depth over the interval */
+		int[] getCounts() {
+			return this.depth.toIntArray();
 			}
-		
 		}
 	
 	@Override
@@ -185,6 +167,7 @@ public class BamStats04 extends Launcher
 			PrintWriter pw = null;
 			ReferenceSequenceFile indexedFastaSequenceFile=null;
 			GenomicSequence genomicSequence = null;
+			GCContentIndex gcIndex = null;
 			SAMSequenceDictionary fastaDict = null;
 			try
 				{
@@ -249,6 +232,9 @@ public class BamStats04 extends Launcher
 						LOG.error(JvarkitException.DictionariesAreNotTheSame.getMessage(fastaDict, samDict));
 						return -1;
 						}
+					if(this.use_gc_index) {
+						gcIndex = GCContentIndex.open(this.faidxUri);
+						}
 					}
 				pw = super.openPathOrStdoutAsPrintWriter(this.outputFile);
 				pw.print(
@@ -292,6 +278,7 @@ public class BamStats04 extends Launcher
 					if(indexedFastaSequenceFile!=null && (genomicSequence==null || !genomicSequence.getChrom().equals(ctg2))) {
 						if(fastaDict.getSequence(ctg2)!=null) {
 							genomicSequence = new GenomicSequence(indexedFastaSequenceFile,bedLine.getContig());
+							genomicSequence.setGCContentIndex(gcIndex);
 							}
 						else
 							{
@@ -354,14 +341,14 @@ public class BamStats04 extends Launcher
 					
 					
 					for(final String partitionName : sample2stats.keySet()) {
-						final IntervalStat stat = sample2stats.get(partitionName);
-						Arrays.sort(stat.counts);
+						final int[] counts = sample2stats.get(partitionName).getCounts();
+						Arrays.sort(counts);
 						
 						pw.print(
 								ctg2+"\t"+
 								(bedLine.getStart()-1)+"\t"+
 								(bedLine.getEnd())+"\t"+
-								stat.counts.length+"\t"+
+								counts.length+"\t"+
 								partitionName
 								);
 						if(indexedFastaSequenceFile!=null) {
@@ -370,8 +357,8 @@ public class BamStats04 extends Launcher
 							}
 						pw.print(
 							"\t"+
-							stat.counts[0]+"\t"+
-							stat.counts[stat.counts.length-1]
+							counts[0]+"\t"+
+							counts[counts.length-1]
 							);
 						
 						for(final int MIN_COVERAGE:this.minCoverages)
@@ -380,16 +367,16 @@ public class BamStats04 extends Launcher
 							final IntUnaryOperator depthAdjuster = (D)->(D<=MIN_COVERAGE?0:D);
 	
 							
-							final int count_no_coverage=(int)Arrays.stream(stat.counts).
+							final int count_no_coverage=(int)Arrays.stream(counts).
 									filter(D-> depthAdjuster.applyAsInt(D)<=0).
 									count()
 									;
 							
-							final double mean= Percentile.average().evaluate(Arrays.stream(stat.counts).
+							final double mean= Percentile.average().evaluate(Arrays.stream(counts).
 									map(depthAdjuster)
 									).getAsDouble();
 							
-			                final double median_depth = Percentile.median().evaluate(Arrays.stream(stat.counts).
+			                final double median_depth = Percentile.median().evaluate(Arrays.stream(counts).
 									map(depthAdjuster)
 									).getAsDouble();
 			                
@@ -398,7 +385,7 @@ public class BamStats04 extends Launcher
 									String.format("%.2f",mean)+"\t"+
 									String.format("%.2f",median_depth)+"\t"+
 									count_no_coverage+"\t"+
-									(int)(((stat.counts.length-count_no_coverage)/(double)stat.counts.length)*100.0)
+									(int)(((counts.length-count_no_coverage)/(double)counts.length)*100.0)
 									);
 							}
 						pw.println();
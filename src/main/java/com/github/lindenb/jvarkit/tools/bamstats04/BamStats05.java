@@ -33,12 +33,16 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.OptionalDouble;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 
 import com.beust.jcommander.Parameter;
+import com.github.lindenb.jvarkit.concurrent.TaskExecutor;
 import com.github.lindenb.jvarkit.io.IOUtils;
 import com.github.lindenb.jvarkit.lang.JvarkitException;
 import com.github.lindenb.jvarkit.lang.StringUtils;
@@ -131,6 +135,11 @@ public class BamStats05 extends Launcher
 	private Path faidx = null;
 	@Parameter(names={"--mapq"},description="Min mapping quality")
 	private int mapq = 1;
+	@Parameter(names={"--threads"},description="number of threads. The genes are split into chunks processed in parallel, each thread using its own reader of the BAM. The order of the output is preserved.")
+	private int nThreads = 1;
+
+	/** number of chunks of genes per thread */
+	private static final int CHUNKS_PER_THREAD = 8;
 
 	
 	private Map<String, List<SimpleInterval>> readBedFile(final Path bedFile) throws IOException
@@ -209,19 +218,91 @@ public class BamStats05 extends Launcher
     		}
     	}
 	
+	/** compute the statistics of one gene for one partition */
+	private String geneStats(
+			final CoverageFactory coverageFactory,
+			final SamReader IN,
+			final ContigNameConverter contigNameConverter,
+			final SAMSequenceDictionary dict,
+			final String gene,
+			final List<SimpleInterval> intervals,
+			final String partition)
+		{
+		final StringBuilder sb = new StringBuilder();
+		final List<Integer> counts = new ArrayList<>();
+		final String newContig = contigNameConverter.apply(intervals.get(0).getContig());
+		if(StringUtil.isBlank(newContig)) {
+			throw new JvarkitException.ContigNotFoundInDictionary(intervals.get(0).getContig(), dict);
+			}
+		
+		final CoverageFactory.SimpleCoverage coverage = coverageFactory.getSimpleCoverage(
+				IN,
+				intervals.stream().map(R->R.renameContig(newContig)).collect(Collectors.toList()),
+				partition
+				);
+		
+		for(final SimpleInterval interval:intervals)
+			{
+			for(int i=interval.getStart();i<=interval.getEnd() && i <= coverage.getEnd();i++) {
+				final int d = coverage.get(i-coverage.getStart());
+				counts.add(d);
+				}
+			}
+		
+		Collections.sort(counts);
+			
+			
+		sb.append(
+				intervals.get(0).getContig()+"\t"+
+				(coverage.getStart()-1)+"\t"+
+				coverage.getEnd() +"\t"+gene+"\t"+partition+"\t"+
+				intervals.size()+"\t"+
+				counts.size()+"\t"+
+				counts.get(0)+"\t"+
+				counts.get(counts.size()-1)
+				);
+		
+		for(final int mc:this.min_coverages)
+			{
+			final DiscreteMedian<Integer> discreteMedian = new DiscreteMedian<>();
+			int count_no_coverage=0;
+			for(int cov:counts)
+				{
+				if(cov<=mc) ++count_no_coverage;
+				discreteMedian.add(cov);
+				}
+			
+			final OptionalDouble average = discreteMedian.getAverage();
+			final OptionalDouble median = discreteMedian.getMedian();
+			
+			
+			sb.append("\t"+
+					(average.isPresent()?String.format("%.2f",average.orElse(0.0)):".")+"\t"+
+					(median.isPresent()?String.format("%.2f",median.orElse(-1.0)):".")+"\t"+
+					count_no_coverage+"\t"+
+					(int)(((counts.size()-count_no_coverage)/(double)counts.size())*100.0)
+					);
+			}
+		return sb.toString();
+		}
+	
 	protected  int doWork(
 			final PrintWriter pw,
 			final Map<String, List<SimpleInterval>> gene2interval,
-			final String filename,
+			final SamReaderFactory srf,
+			final Path path,
 			final SamReader IN) throws Exception
 		{
+		/* readers of 'path'. A task borrows one reader, so each thread queries its own reader */
+		final Queue<SamReader> readers = new ConcurrentLinkedQueue<>();
+		readers.add(IN);
 		try
 			{
-			LOG.info("Scanning "+filename);
+			LOG.info("Scanning "+path);
 			final SAMFileHeader header = IN.getFileHeader();
 			final List<SAMReadGroupRecord> rgs = header.getReadGroups();
 			if(rgs==null || rgs.isEmpty())
-				throw new IOException("No read groups in "+filename);
+				throw new IOException("No read groups in "+path);
 			final Set<String> groupNames = this.groupBy.getPartitions(rgs);
 			final SAMSequenceDictionary dict = SequenceDictionaryUtils.extractRequired(header);
 			final ContigNameConverter contigNameConverter = ContigNameConverter.fromOneDictionary(dict);
@@ -230,71 +311,42 @@ public class BamStats05 extends Launcher
 					setPartition(this.groupBy).
 					setRecordFilter(R->!filter.filterOut(R));
 			
+			final List<String> genes = new ArrayList<>(gene2interval.keySet());
+			final int chunkSize = this.nThreads <= 1 ?
+					Math.max(1, genes.size()) :
+					Math.max(1, genes.size()/(this.nThreads * CHUNKS_PER_THREAD))
+					;
+			/* tasks are created in the order of the output: sample, then gene */
+			final List<Callable<List<String>>> tasks = new ArrayList<>();
 			for(final String partition : groupNames)
 				{
-				if(StringUtils.isBlank(partition)) throw new IOException("Empty read group: "+groupBy.name()+" for "+filename+". see https://gatk.broadinstitute.org/hc/en-us/articles/360035890671-Read-groups");
-				for(final String gene: gene2interval.keySet())
+				if(StringUtils.isBlank(partition)) throw new IOException("Empty read group: "+groupBy.name()+" for "+path+". see https://gatk.broadinstitute.org/hc/en-us/articles/360035890671-Read-groups");
+				for(int i=0;i< genes.size();i+=chunkSize)
 					{
-					
-					final List<Integer> counts = new ArrayList<>();
-					final List<SimpleInterval> intervals = gene2interval.get(gene);
-					final String newContig = contigNameConverter.apply(intervals.get(0).getContig());
-					if(StringUtil.isBlank(newContig)) {
-						throw new JvarkitException.ContigNotFoundInDictionary(intervals.get(0).getContig(), dict);
-						}
-					
-					final CoverageFactory.SimpleCoverage coverage = coverageFactory.getSimpleCoverage(
-							IN,
-							intervals.stream().map(R->R.renameContig(newContig)).collect(Collectors.toList()),
-							partition
-							);
-					
-					for(final SimpleInterval interval:intervals)
-						{
-						for(int i=interval.getStart();i<=interval.getEnd() && i <= coverage.getEnd();i++) {
-							final int d = coverage.get(i-coverage.getStart());
-							counts.add(d);
+					final List<String> chunk = genes.subList(i, Math.min(genes.size(), i+chunkSize));
+					tasks.add(()->{
+						SamReader sr = readers.poll();
+						if(sr==null) sr = srf.open(path);
+						try {
+							final List<String> lines = new ArrayList<>(chunk.size());
+							for(final String gene: chunk) {
+								lines.add(geneStats(coverageFactory, sr, contigNameConverter, dict, gene, gene2interval.get(gene), partition));
+								}
+							return lines;
 							}
-						}
-					
-					Collections.sort(counts);
-						
-						
-					pw.print(
-							intervals.get(0).getContig()+"\t"+
-							(coverage.getStart()-1)+"\t"+
-							coverage.getEnd() +"\t"+gene+"\t"+partition+"\t"+
-							intervals.size()+"\t"+
-							counts.size()+"\t"+
-							counts.get(0)+"\t"+
-							counts.get(counts.size()-1)
-							);
-					
-					for(final int mc:this.min_coverages)
-						{
-						final DiscreteMedian<Integer> discreteMedian = new DiscreteMedian<>();
-						int count_no_coverage=0;
-						for(int cov:counts)
-							{
-							if(cov<=mc) ++count_no_coverage;
-							discreteMedian.add(cov);
+						finally {
+							readers.add(sr);
 							}
-						
-						final OptionalDouble average = discreteMedian.getAverage();
-						final OptionalDouble median = discreteMedian.getMedian();
-						
-						
-						pw.print("\t"+
-								(average.isPresent()?String.format("%.2f",average.orElse(0.0)):".")+"\t"+
-								(median.isPresent()?String.format("%.2f",median.orElse(-1.0)):".")+"\t"+
-								count_no_coverage+"\t"+
-								(int)(((counts.size()-count_no_coverage)/(double)counts.size())*100.0)
-								);
-						}
-					
-					pw.println();
-					}//end gene
+						});
+					}
 				}//end sample
+			try(TaskExecutor executor = new TaskExecutor(this.nThreads)) {
+				for(final List<String> lines : executor.invokeAll(tasks)) {
+					for(final String line: lines) {
+						pw.println(line);
+						}
+					}
+				}
 		return 0;
 		}
 	catch(final Throwable err)
@@ -304,6 +356,7 @@ public class BamStats05 extends Launcher
 		}
 	finally
 		{
+		readers.stream().filter(R->R!=IN).forEach(CloserUtil::close);
 		CloserUtil.close(IN);
 		}
 	}
@@ -350,7 +403,7 @@ public class BamStats05 extends Launcher
 				for(final Path f:files)
 					{
 					try(SamReader in = srf.open(f)) {
-						int tl = doWork(pw,gene2interval,f.toString(),in);
+						int tl = doWork(pw,gene2interval,srf,f,in);
 						if(tl!=0) return tl;
 						}
 					}
@@ -30,7 +30,6 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.OptionalDouble;
 import java.util.function.Function;
@@ -41,12 +40,12 @@ import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParametersDelegate;
 import com.github.lindenb.jvarkit.canvas.Canvas;
 import com.github.lindenb.jvarkit.canvas.CanvasFactory;
+import com.github.lindenb.jvarkit.samtools.DepthAccumulator;
 import com.github.lindenb.jvarkit.samtools.SAMRecordDefaultFilter;
 import com.github.lindenb.jvarkit.util.FunctionalMap;
 import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.variant.variantcontext.writer.WritingVariantsDelegate;
 
-import htsjdk.samtools.AlignmentBlock;
 import htsjdk.samtools.SAMRecord;
 import htsjdk.samtools.SamReader;
 import htsjdk.samtools.util.CloseableIterator;
@@ -63,25 +62,23 @@ public abstract class AbstractBaseCov extends Launcher {
 	protected Path outputFile=null;
 	@ParametersDelegate
 	protected WritingVariantsDelegate writingVariantsDelegate = new WritingVariantsDelegate();
+	/** re-used for each BAM */
+	private final DepthAccumulator depth = new DepthAccumulator();
 	
 	protected double[] getCoverage(final SamReader sr,final Locatable queryInterval) {
 		System.gc();
-		final double[] coverage_d = new double[queryInterval.getLengthOnReference()];
-		Arrays.fill(coverage_d,0);
+		final DepthAccumulator depth = this.depth.reset(queryInterval).
+				setRecordFilter(R->SAMRecordDefaultFilter.accept(R, this.mapping_quality));
 		try(CloseableIterator<SAMRecord> it= sr.queryOverlapping(queryInterval.getContig(), queryInterval.getStart(), queryInterval.getEnd())) {
 			while(it.hasNext()) {
-				final SAMRecord rec =it.next();
-				if(!SAMRecordDefaultFilter.accept(rec, this.mapping_quality)) continue;
-				for(AlignmentBlock ab : rec.getAlignmentBlocks()) {
-					for(int x=0;x < ab.getLength();++x) {
-						final int array_index = (ab.getReferenceStart()+x) - queryInterval.getStart();
-						if(array_index<0 ) continue;
-						if(array_index>=coverage_d.length) break;
-						coverage_d[array_index]++;
-						}
-					}
+				depth.add(it.next());
 				}
 			}
+		final int[] array = depth.getDepthArray();
+		final double[] coverage_d = new double[depth.getLength()];
+		for(int i=0;i< coverage_d.length;i++) {
+			coverage_d[i] = array[i];
+			}
 		return applyMovingMedian(coverage_d);
 		}
 	
@@ -54,6 +54,7 @@ import com.github.lindenb.jvarkit.util.iterator.EqualRangeIterator;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMSequenceDictionary;
@@ -64,7 +65,6 @@ import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.IOUtil;
 import htsjdk.samtools.util.Locatable;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.samtools.util.StopWatch;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
@@ -207,7 +207,7 @@ public class BaseCoverage extends AbstractBaseCov
 	@Override
 	public int doWork(final List<String> args)
 		{
-		SortingCollection<Base>	sorting=null;
+		ExternalSorter<Base>	sorting=null;
 		try
 			{
 			final List<Path> bamsIn = IOUtils.unrollPaths(args);
@@ -230,12 +230,10 @@ public class BaseCoverage extends AbstractBaseCov
 			final List<SampleInfo> samples = new ArrayList<>(bamsIn.size());
 			final Map<String, SampleInfo> sample2info = new HashMap<>();
 			
-			sorting = SortingCollection.newInstance(
+			sorting = this.writingSortingCollection.newExternalSorter(
 					Base.class,
 					new BaseCodec(),
-					(A,B)->A.compare1(B),
-					this.writingSortingCollection.getMaxRecordsInRam(),
-					this.writingSortingCollection.getTmpPaths()
+					(A,B)->A.compare1(B)
 					);
 			sorting.setDestructiveIteration(true);
 			
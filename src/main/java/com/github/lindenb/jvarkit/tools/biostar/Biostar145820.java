@@ -58,6 +58,7 @@ import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.log.ProgressFactory;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.samtools.SamRecordJEXLFilter;
 
 /*
@@ -197,12 +198,10 @@ public class Biostar145820 extends Launcher
 			iter=samReader.iterator();
 
 			
-			final SortingCollection<RandSamRecord> sorter=SortingCollection.newInstance(
+			final ExternalSorter<RandSamRecord> sorter=this.writingSortingCollection.newExternalSorter(
 					RandSamRecord.class,
 					new RandSamRecordCodec(header),
-					new RandSamRecordComparator(), 
-					this.writingSortingCollection.getMaxRecordsInRam(),
-					this.writingSortingCollection.getTmpPaths()
+					new RandSamRecordComparator()
 					);
 			sorter.setDestructiveIteration(true);
 			while(iter.hasNext())
@@ -50,6 +50,7 @@ import com.github.lindenb.jvarkit.util.iterator.EqualRangeIterator;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.picard.GenomicSequence;
 import com.github.lindenb.jvarkit.util.samtools.SAMRecordPartition;
 import com.github.lindenb.jvarkit.variant.variantcontext.writer.WritingVariantsDelegate;
@@ -63,7 +64,6 @@ import htsjdk.samtools.reference.ReferenceSequenceFile;
 import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.GenotypeBuilder;
@@ -214,7 +214,7 @@ protected Logger getLogger() {
 protected int processInput(final SAMFileHeader header, final CloseableIterator<SAMRecord> iter0) {
 	VariantContextWriter out=null;
 	GenomicSequence genome = null;
-	SortingCollection<Call> sorting  = null;
+	ExternalSorter<Call> sorting  = null;
 	try {
 		this.indexedFastaRef = ReferenceSequenceFileFactory.getReferenceSequenceFile(getRequiredReferencePath());
 		if(!(header.getSortOrder().equals(SAMFileHeader.SortOrder.unsorted) || header.getSortOrder().equals(SAMFileHeader.SortOrder.queryname))) {
@@ -224,11 +224,9 @@ protected int processInput(final SAMFileHeader header, final CloseableIterator<S
 		final SAMSequenceDictionary dict = SequenceDictionaryUtils.extractRequired(header);
 		this.writingVariantsDelegate.dictionary(dict);
 		
-		sorting =  SortingCollection.newInstance(Call.class,
+		sorting =  this.writingSortingCollection.newExternalSorter(Call.class,
 				new CallCodec(),
-				(A,B)->A.compare2(B),
-				this.writingSortingCollection.getMaxRecordsInRam(),
-				this.writingSortingCollection.getTmpPaths()
+				(A,B)->A.compare2(B)
 				);
 		sorting.setDestructiveIteration(true);
 		
@@ -27,21 +27,18 @@ import java.io.BufferedReader;
 import java.io.PrintWriter;
 import java.nio.file.Path;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import com.beust.jcommander.Parameter;
 import com.github.lindenb.jvarkit.lang.CharSplitter;
 import com.github.lindenb.jvarkit.samtools.util.SimplePosition;
 import com.github.lindenb.jvarkit.util.bio.fasta.ContigNameConverter;
 import com.github.lindenb.jvarkit.util.bio.structure.Exon;
-import com.github.lindenb.jvarkit.util.bio.structure.Gene;
+import com.github.lindenb.jvarkit.util.bio.structure.GeneModelIndex;
 import com.github.lindenb.jvarkit.util.bio.structure.GtfReader;
 import com.github.lindenb.jvarkit.util.bio.structure.Transcript;
 import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
-import htsjdk.samtools.util.Interval;
-import htsjdk.samtools.util.IntervalTreeMap;
 import htsjdk.samtools.util.Locatable;
 
 
@@ -104,7 +101,7 @@ public class Biostar81455 extends Launcher
 	@Parameter(names={"-gtf","--gtf"},description=GtfReader.OPT_DESC,required=true)
 	private Path gtfPath = null;
 	
-	private final IntervalTreeMap<Gene> geneMap= new IntervalTreeMap<>();
+	private GeneModelIndex<Transcript> transcriptIndex = null;
 	
     
     private static int distance(final int pos1,final Locatable loc)
@@ -122,9 +119,7 @@ public class Biostar81455 extends Launcher
     	try
 			{
     		try(final GtfReader gtfReader=new GtfReader(this.gtfPath)) {
-    			gtfReader.getAllGenes().
-    				stream().
-    				forEach(G->this.geneMap.put(new Interval(G), G));
+    			this.transcriptIndex = GeneModelIndex.ofTranscripts(gtfReader.getAllGenes());
     			}
 			}
     	catch(final Throwable err)
@@ -133,7 +128,7 @@ public class Biostar81455 extends Launcher
 			return -1;
     		}
     	
-		final ContigNameConverter contigNameConverter = ContigNameConverter.fromIntervalTreeMap(this.geneMap);
+		final ContigNameConverter contigNameConverter = ContigNameConverter.fromContigSet(this.transcriptIndex.getContigs());
 		try
     		{
 	    	try(BufferedReader r = super.openBufferedReader(oneFileOrNull(args))) {
@@ -156,12 +151,7 @@ public class Biostar81455 extends Launcher
 							}
 						final SimplePosition position= new SimplePosition(convertCtg,pos1);
 						
-					    final List<Transcript> transcripts = this.geneMap.getOverlapping(position).
-					    		stream().
-					    		flatMap(G->G.getTranscripts().stream()).
-					    		filter(T->T.overlaps(position)).
-					    		collect(Collectors.toList())
-					    		;
+					    final List<Transcript> transcripts = this.transcriptIndex.getOverlapping(position);
 					    if(transcripts.isEmpty())
 					    	{
 					    	LOG.info("no gene found in chromosome "+tokens[0]+" (check chrom prefix?)");
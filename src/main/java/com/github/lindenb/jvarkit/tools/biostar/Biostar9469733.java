@@ -88,6 +88,11 @@ public class Biostar9469733 extends OnePassBamLauncher
 				anyMatch(B->this.intervalTreeMap.containsOverlapping(B));
 		}
 	
+	@Override
+	public boolean isRegionParallelSupported() {
+		return true;
+		}
+	
 	@Override
 	protected Function<SAMRecord, List<SAMRecord>> createSAMRecordFunction()
 		{
@@ -45,9 +45,6 @@ import java.util.Properties;
 import java.util.Random;
 import java.util.Set;
 import java.util.Vector;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 import java.util.function.DoubleUnaryOperator;
 import java.util.function.IntUnaryOperator;
 import java.util.stream.Collectors;
@@ -57,6 +54,7 @@ import org.w3c.dom.Element;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParametersDelegate;
 import com.github.lindenb.jvarkit.bed.BedLineReader;
+import com.github.lindenb.jvarkit.concurrent.TaskExecutor;
 import com.github.lindenb.jvarkit.date.DurationParser;
 import com.github.lindenb.jvarkit.dict.OrderChecker;
 import com.github.lindenb.jvarkit.gatk.GATKConstants;
@@ -1753,50 +1751,46 @@ public class OptimizeFisher extends Launcher {
 				c.run();
 				generation.add(c);
 				}
-			while(System.currentTimeMillis()< stop) {
-				++n_generations;
-				final StopWatch stopWatch = new StopWatch();
-				stopWatch.start();
-				for(Solution sol:generation) {
-					if(sol.getPValue() < best.getPValue() ) {
-						LOG.info("new best "+sol);
-						best=sol;
-						best.save();
+			try(TaskExecutor executor = new TaskExecutor(this.nThreads)) {
+				while(System.currentTimeMillis()< stop) {
+					++n_generations;
+					final StopWatch stopWatch = new StopWatch();
+					stopWatch.start();
+					for(Solution sol:generation) {
+						if(sol.getPValue() < best.getPValue() ) {
+							LOG.info("new best "+sol);
+							best=sol;
+							best.save();
+							}
 						}
-					}
-				LOG.info("Generation "+n_generations+" best:"+best.getPValue());
-				final Solution external = new Solution();
-				if(generation.stream().noneMatch(S->S.isSame(external)) && !external.isSame(best)) {
-					external.run();
-					generation.add(external);
-					}
-				final List<Solution> generation2 = new Vector<>(generation.size()*generation.size());
-				for(int x=0;x< generation.size();++x) {
-					for(int y=0;y< generation.size();++y) {
-						final Solution c = mate(generation.get(x),generation.get(y));
-						if(generation2.stream().anyMatch(S->S.isSame(c))) continue;
-						generation2.add(c);
+					LOG.info("Generation "+n_generations+" best:"+best.getPValue());
+					final Solution external = new Solution();
+					if(generation.stream().noneMatch(S->S.isSame(external)) && !external.isSame(best)) {
+						external.run();
+						generation.add(external);
 						}
-					}
-		        final ExecutorService executorService = Executors.newFixedThreadPool(this.nThreads);
-				for(int i=0; i < generation2.size();i+=this.nThreads) {
-					final List<Solution> batch = generation2.subList(i, Math.min(i + this.nThreads, generation2.size()));
-					batch.forEach(executorService::execute);
-					}
-				executorService.shutdown();
-				executorService.awaitTermination(365, TimeUnit.DAYS);
-				generation2.removeIf(C->C.getPValue()==1);
+					final List<Solution> generation2 = new Vector<>(generation.size()*generation.size());
+					for(int x=0;x< generation.size();++x) {
+						for(int y=0;y< generation.size();++y) {
+							final Solution c = mate(generation.get(x),generation.get(y));
+							if(generation2.stream().anyMatch(S->S.isSame(c))) continue;
+							generation2.add(c);
+							}
+						}
+					executor.runAll(generation2);
+					generation2.removeIf(C->C.getPValue()==1);
 				
-				if(!generation2.isEmpty()) {
-					Collections.sort(generation2);
-					generation = generation2.subList(0, Math.min(generation2.size(),this.n_samples_per_generation));
-					}
-				while(generation.size()< this.n_samples_per_generation) {
-					final Solution x = mate(best, best);
-					generation.add(x);
+					if(!generation2.isEmpty()) {
+						Collections.sort(generation2);
+						generation = generation2.subList(0, Math.min(generation2.size(),this.n_samples_per_generation));
+						}
+					while(generation.size()< this.n_samples_per_generation) {
+						final Solution x = mate(best, best);
+						generation.add(x);
+						}
+					stopWatch.stop();
+					LOG.info("Generation : That took:" + StringUtils.niceDuration(stopWatch.getElapsedTime()) );
 					}
-				stopWatch.stop();
-				LOG.info("Generation : That took:" + StringUtils.niceDuration(stopWatch.getElapsedTime()) );
 				}
 			LOG.info("Done. Best "+best.getPValue());
 			return 0;
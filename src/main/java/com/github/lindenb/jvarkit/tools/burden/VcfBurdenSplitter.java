@@ -46,7 +46,6 @@ import java.util.regex.Pattern;
 
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
@@ -57,6 +56,7 @@ import com.github.lindenb.jvarkit.io.IOUtils;
 import com.github.lindenb.jvarkit.util.iterator.EqualRangeIterator;
 import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.picard.SAMSequenceDictionaryProgress;
 import com.github.lindenb.jvarkit.util.so.SequenceOntologyTree;
 import com.github.lindenb.jvarkit.util.vcf.VCFUtils;
@@ -600,7 +600,7 @@ public class VcfBurdenSplitter
 	
 	@Override
 	protected int doVcfToVcf(String inputName, File outorNull) {
-		SortingCollection<KeyAndLine> sortingcollection=null;
+		ExternalSorter<KeyAndLine> sortingcollection=null;
 		BufferedReader in = null;
 		CloseableIterator<KeyAndLine> iter=null;
 		PrintStream pw = null;
@@ -733,12 +733,10 @@ public class VcfBurdenSplitter
 				
 				if(sortingcollection==null) {
 					/* create sorting collection for new contig */
-					sortingcollection = SortingCollection.newInstance(
+					sortingcollection = this.writingSortingCollection.newExternalSorter(
 							KeyAndLine.class,
 							new KeyAndLineCodec(),
-							new KeyAndLineComparator(),
-							this.writingSortingCollection.maxRecordsInRam,
-							this.writingSortingCollection.getTmpPaths()
+							new KeyAndLineComparator()
 							);
 					sortingcollection.setDestructiveIteration(true);
 					}
@@ -43,7 +43,6 @@ import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
 import htsjdk.samtools.util.Interval;
 import htsjdk.samtools.util.RuntimeIOException;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.tribble.readers.LineIterator;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
@@ -56,6 +55,7 @@ import com.github.lindenb.jvarkit.ucsc.UcscTranscriptReader;
 import com.github.lindenb.jvarkit.util.Pedigree;
 import com.github.lindenb.jvarkit.util.iterator.EqualRangeIterator;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.picard.SAMSequenceDictionaryProgress;
 import com.github.lindenb.jvarkit.util.vcf.VCFUtils;
 import htsjdk.variant.vcf.VCFIterator;
@@ -247,7 +247,7 @@ public class VcfDoest
 			) throws IOException
 		
 		{
-		SortingCollection<TranscriptInfo> sorting = null;
+		ExternalSorter<TranscriptInfo> sorting = null;
 		CloseableIterator<TranscriptInfo> iter2=null;
 		try {
 			while(lr.hasNext()) {
@@ -278,11 +278,9 @@ public class VcfDoest
 				first=true;for(final Pedigree.Person person : individuals) { if(!first) pw.print(","); pw.print(person.isUnaffected()?0:1);first=false;}
 				pw.println("))");
 				
-				sorting = SortingCollection.newInstance(TranscriptInfo.class,
+				sorting = this.writingSortingCollection.newExternalSorter(TranscriptInfo.class,
 						new TranscriptInfoCodec(),
-						new TranscriptInfoCmp(),
-						this.writingSortingCollection.getMaxRecordsInRam(),
-						this.writingSortingCollection.getTmpPaths()
+						new TranscriptInfoCmp()
 						);
 				
 				sorting.setDestructiveIteration(true);
@@ -66,6 +66,7 @@ import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.picard.SAMSequenceDictionaryProgress;
 import com.github.lindenb.jvarkit.util.vcf.VCFUtils;
 import com.github.lindenb.jvarkit.util.vcf.VcfTools;
@@ -77,7 +78,6 @@ import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
 import htsjdk.samtools.util.IOUtil;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.samtools.util.StringUtil;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
@@ -356,11 +356,9 @@ public class VcfLoopOverGenes extends Launcher {
 			
 			if(this.geneFile==null)
 				{
-				final SortingCollection<GeneLoc> sortingCollection = SortingCollection.newInstance(GeneLoc.class,
+				final ExternalSorter<GeneLoc> sortingCollection = this.writingSortingCollection.newExternalSorter(GeneLoc.class,
 					new GeneLocCodec(),
-					(A,B)->A.compareTo(B),
-					this.writingSortingCollection.getMaxRecordsInRam(),
-					this.writingSortingCollection.getTmpPaths()
+					(A,B)->A.compareTo(B)
 					);
 				sortingCollection.setDestructiveIteration(true);
 				
@@ -112,6 +112,11 @@ public class VcfMoveFiltersToInfo
 		return LOG;
 		}
 	
+	@Override
+	protected boolean isShardingSupported() {
+		return true;
+		}
+	
 	@Override
 	protected int doVcfToVcf(
 		final String inputName,
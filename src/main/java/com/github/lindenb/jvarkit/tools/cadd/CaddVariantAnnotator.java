@@ -150,7 +150,7 @@ public class CaddVariantAnnotator extends AbstractTabixVariantAnnotator {
 			this.buffer.clear();
 			this.lastInterval = new SimpleInterval(chromCadd, Math.max(0, loc.getStart()-1), Math.max(loc.getEnd(), loc.getStart()+this.buffer_distance));
 				try {
-					final TabixReader.Iterator iter = super.tabixReader.query(
+					final TabixReader.Iterator iter = super.query(
 				
 						this.lastInterval.getContig(),
 						this.lastInterval.getStart(),
@@ -94,6 +94,8 @@ public class VcfCadd extends AbstractOnePassVcfAnnotator
 	private int buffer_distance= 1_000;
 	@Parameter(names={"-na"},description="value  used for 'allele-not-found'.")
 	private float NA_value = -999f;
+	@Parameter(names={"--streaming"},description="Input VCF is sorted on coordinate. The CADD tabix file will be read forward in one pass instead of being queried for each window. Falls back to random access if a variant is out of order.")
+	private boolean streaming = false;
 
 	
 	public VcfCadd() {
@@ -104,7 +106,8 @@ public class VcfCadd extends AbstractOnePassVcfAnnotator
 		try {
 			final CaddVariantAnnotator ann= new CaddVariantAnnotator(this.ccaduri);
 			ann.setBufferDistance(this.buffer_distance);
-			ann.setNAValue(this.NA_value);			
+			ann.setNAValue(this.NA_value);
+			ann.setStreaming(this.streaming);
 			return Collections.singletonList(ann);
 			}
 		catch(final IOException err) {
@@ -58,6 +58,7 @@ import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.picard.GenomicSequence;
 import com.github.lindenb.jvarkit.variant.variantcontext.writer.WritingVariantsDelegate;
 
@@ -74,7 +75,6 @@ import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CoordMath;
 import htsjdk.samtools.util.SequenceUtil;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.GenotypeBuilder;
@@ -316,10 +316,8 @@ public class MiniCaller extends Launcher   {
 					apply(this.rgnStr).
 					orElseThrow(IntervalParser.exception("Cannot parse region "+this.rgnStr));
     			
-	    		final SortingCollection<Call> sorter = SortingCollection.newInstance(Call.class, new CallCodec(),
-	    				(A,B)->A.compare1(B),
-	    				writingSortingCollection.getMaxRecordsInRam(),
-	    				writingSortingCollection.getTmpPaths()
+	    		final ExternalSorter<Call> sorter = writingSortingCollection.newExternalSorter(Call.class, new CallCodec(),
+	    				(A,B)->A.compare1(B)
 	    				);	
 	    		sorter.setDestructiveIteration(true);
 	        	for(final Path bamPath: bamPaths) {
@@ -47,6 +47,7 @@ import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.log.ProgressFactory;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 
 import htsjdk.samtools.SamReader;
 import htsjdk.samtools.SAMRecord;
@@ -56,7 +57,6 @@ import htsjdk.samtools.SAMSequenceRecord;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
 import htsjdk.samtools.util.SequenceUtil;
-import htsjdk.samtools.util.SortingCollection;
 /*
 BEGIN_DOC
 
@@ -512,7 +512,7 @@ public class CompareBams  extends Launcher
     @Override
     public int doWork(final List<String> args) {
     	this.inputBamsList.addAll( IOUtils.unrollPaths(args));
-   		SortingCollection<Match> database = null;
+   		ExternalSorter<Match> database = null;
 		SamReader samFileReader=null;
 		CloseableIterator<Match> iter=null;
 		try
@@ -523,12 +523,10 @@ public class CompareBams  extends Launcher
 				return -1;
 				}
 			
-			database = SortingCollection.newInstance(
+			database = this.writingSortingCollection.newExternalSorter(
 					Match.class,
 					new MatchCodec(),
-					(A,B)->matchCompare0(A, B),
-					this.writingSortingCollection.getMaxRecordsInRam(),
-					this.writingSortingCollection.getTmpPaths()
+					(A,B)->matchCompare0(A, B)
 					);
 			this.samSequenceDictAreTheSame=true;
 			database.setDestructiveIteration(true);
@@ -44,6 +44,7 @@ import com.github.lindenb.jvarkit.io.IOUtils;
 import com.github.lindenb.jvarkit.lang.StringUtils;
 import com.github.lindenb.jvarkit.math.DiscreteMedian;
 import com.github.lindenb.jvarkit.math.RangeOfIntegers;
+import com.github.lindenb.jvarkit.samtools.DepthAccumulator;
 import com.github.lindenb.jvarkit.samtools.SAMRecordDefaultFilter;
 import com.github.lindenb.jvarkit.samtools.util.SimpleInterval;
 import com.github.lindenb.jvarkit.util.Counter;
@@ -58,7 +59,6 @@ import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.log.ProgressFactory;
 import com.github.lindenb.jvarkit.util.vcf.ContigPos;
 
-import htsjdk.samtools.AlignmentBlock;
 import htsjdk.samtools.QueryInterval;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMRecord;
@@ -254,7 +254,8 @@ public class DepthOfCoverage extends Launcher
 							filter(S->!StringUtils.isBlank(S)).
 							findFirst().orElse(path.toString())
 							;
-					int coverage[] = null;
+					final DepthAccumulator depth = new DepthAccumulator().
+							setMateOverlapRemoval(!this.disable_paired_overlap_flag);
 					String prevContig = null;
 					
 					BitSet mask=null;
@@ -270,7 +271,9 @@ public class DepthOfCoverage extends Launcher
 								}
 							
 							if(rec==null || !rec.getContig().equals(prevContig)) {
-								if(coverage!=null) {//DUMP
+								if(prevContig!=null) {//DUMP
+									final int coverage[] = depth.getDepthArray();
+									final int coverage_length = depth.getLength();
 									long count_bases_ctg = 0L;
 									long sum_coverage_ctg = 0L;
 									Integer minV_ctg=null;
@@ -279,7 +282,7 @@ public class DepthOfCoverage extends Launcher
 									final DiscreteMedian<Integer> discreteMedian_ctg = new DiscreteMedian<>();
 									final Counter<RangeOfIntegers.Range> countMap_ctg = new Counter<>();
 									
-									for(int i=0;i< coverage.length;i++) {
+									for(int i=0;i< coverage_length;i++) {
 										if(mask.get(i)) continue;
 										final int covi = coverage[i];
 										
@@ -300,7 +303,7 @@ public class DepthOfCoverage extends Launcher
 									out.print("\t");
 									out.print(prevContig);
 									out.print("\t");
-									out.print(coverage.length);
+									out.print(coverage_length);
 									out.print("\t");
 									out.print(count_bases_ctg);
 									out.print("\t");
@@ -362,18 +365,18 @@ public class DepthOfCoverage extends Launcher
 
 									count_bases += count_bases_ctg;
 									sum_coverage += sum_coverage_ctg;
-									count_raw_bases += coverage.length;
+									count_raw_bases += coverage_length;
 									discreteMedian_wg.add(discreteMedian_ctg);
 									countMap_wg.putAll(countMap_ctg);
 									}
-								coverage=null;
+								prevContig=null;
 								mask=null;
 								///
 								System.gc();
 								if(rec==null) break;
 								
 								final SAMSequenceRecord ssr = Objects.requireNonNull(dict.getSequence(rec.getContig()));
-								coverage = new int[ssr.getSequenceLength()];
+								depth.reset(ssr.getSequenceName(), 1, ssr.getSequenceLength());
 								mask = new BitSet(ssr.getSequenceLength());
 								if(this.auto_mask && referenceSequenceFile!=null) {
 									final byte refSeq[] = Objects.requireNonNull(referenceSequenceFile.getSequence(ssr.getSequenceName())).getBases();
@@ -393,7 +396,7 @@ public class DepthOfCoverage extends Launcher
 											String ctg = contigNameConverter.apply(bed.getContig());
 											if(StringUtils.isBlank(ctg)) continue;
 											if(!rec.getContig().equals(ctg)) continue;
-											for(int p1=bed.getStart();p1<=bed.getEnd() && p1 <= coverage.length;++p1) {
+											for(int p1=bed.getStart();p1<=bed.getEnd() && p1 <= ssr.getSequenceLength();++p1) {
 												mask.set(p1-1);
 												}
 											}
@@ -415,7 +418,7 @@ public class DepthOfCoverage extends Launcher
 									//sort on starts
 									Collections.sort(list,(A,B)->Integer.compare(A.getStart(),B.getStart()));
 									int p1=1;
-									while(p1 <= coverage.length) {
+									while(p1 <= ssr.getSequenceLength()) {
 										while(!list.isEmpty() && list.get(0).getEnd()<p1) {
 											list.remove(0);
 											}
@@ -431,28 +434,7 @@ public class DepthOfCoverage extends Launcher
 								prevContig=rec.getContig();
 								}
 							
-							int max_end1 = coverage.length;
-							
-							if(!this.disable_paired_overlap_flag && 
-								rec.getReadPairedFlag() && 
-								!rec.getMateUnmappedFlag() &&
-								rec.getReferenceIndex().equals(rec.getMateReferenceIndex()) &&
-								rec.getAlignmentStart() < rec.getMateAlignmentStart() &&
-								rec.getAlignmentEnd() > rec.getMateAlignmentStart()
-								) {
-								max_end1 = rec.getMateAlignmentStart() - 1;
-								}
-							
-							for(final AlignmentBlock block:rec.getAlignmentBlocks()) {
-								final int pos1=block.getReferenceStart();
-								final int len = block.getLength();
-								for(int i=0;i< len;i++) {
-									if(pos1+i-1>=0 && pos1 +i <= max_end1) {
-										coverage[pos1 + i -1]++;
-										}
-									}
-								}
-							
+							depth.addAlignment(rec);
 							}/* end rec */
 					
 					
@@ -45,9 +45,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 import java.util.function.ToDoubleFunction;
@@ -58,6 +55,7 @@ import com.beust.jcommander.DynamicParameter;
 import com.beust.jcommander.Parameter;
 import com.github.lindenb.jvarkit.canvas.Canvas;
 import com.github.lindenb.jvarkit.canvas.CanvasFactory;
+import com.github.lindenb.jvarkit.concurrent.TaskExecutor;
 import com.github.lindenb.jvarkit.io.FileHeader;
 import com.github.lindenb.jvarkit.io.IOUtils;
 import com.github.lindenb.jvarkit.io.SampleSheet;
@@ -86,6 +84,7 @@ import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.NoSplitter;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
+import com.github.lindenb.jvarkit.util.log.ProgressFactory;
 import com.github.lindenb.jvarkit.util.swing.ColorUtils;
 import com.github.lindenb.jvarkit.variant.vcf.VCFReaderFactory;
 
@@ -575,7 +574,6 @@ public class CoverageGrid extends Launcher {
 		abstract void plot(Canvas canvas);
 		@Override
 		public final void run() {
-			System.err.println("submit "+this.bamPath.getFileName().toString());
 			try {
 				if(loadData()) {
 					synchronized (this.canvas) {
@@ -1903,14 +1901,11 @@ public int doWork(final List<String> args) {
 						);
 				}
 			
-			 final ExecutorService executorService = Executors.newFixedThreadPool(this.nThreads);
-				for(int i=0; i < tasks.size();i+=this.nThreads) {
-					final List<BamTask> batch = tasks.subList(i, Math.min(i + this.nThreads, tasks.size()));
-					batch.forEach(executorService::execute);
-					}
-				executorService.shutdown();
-				executorService.awaitTermination(365, TimeUnit.DAYS);
+			try(TaskExecutor executor = new TaskExecutor(this.nThreads)) {
+				executor.progress(ProgressFactory.newInstance().logger(LOG).prefix("bams"));
+				executor.runAll(tasks);
 				}
+			}
 			
 	
 		return 0;
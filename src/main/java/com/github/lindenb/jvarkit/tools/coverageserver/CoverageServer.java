@@ -38,17 +38,27 @@ import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.IntFunction;
 import java.util.function.IntToDoubleFunction;
 import java.util.function.ToDoubleFunction;
@@ -203,12 +213,28 @@ public  class CoverageServer extends Launcher {
 	private Path gtfFile = null;
 	@Parameter(names= {"--known"},description="Optional Tabix indexed Bed or VCF file containing known CNV. Both types must be indexed.")
 	private Path knownCnvFile = null;
+	@Parameter(names= {"--cache-size"},description="Max. number of rendered images kept in memory. 0 disables the cache.")
+	private int image_cache_size = 2_000;
+	@Parameter(names= {"--prefetch"},description="When an interval from --bed/--vcf is displayed, render the images of the next 'x' intervals in background. 0 disables the prefetch.")
+	private int prefetch_count = 1;
+	@Parameter(names= {"--prefetch-threads"},description="Number of threads used to render the prefetched images.")
+	private int prefetch_threads = 2;
 	
 	
 	private SAMSequenceDictionary dictionary;
 	private final List<ReviewedInterval> named_intervals = new Vector<>();
 	private final List<BamInput> bamInput = new Vector<>();
 	private Pedigree pedigree = null;
+	private SamReaderFactory samReaderFactory = null;
+	/** rendered PNG images, key is bam/interval/normalize . Access must be synchronized */
+	private final Map<String,FutureTask<byte[]>> imageCache = new LinkedHashMap<String,FutureTask<byte[]>>(1_000,0.75f,true) {
+		private static final long serialVersionUID = 1L;
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String,FutureTask<byte[]>> eldest) {
+			return size() > CoverageServer.this.image_cache_size;
+			}
+		};
+	private ThreadPoolExecutor prefetchExecutor = null;
 	
 	/** arc for sashimi plot */
 	private static class Arc implements Comparable<Arc>{
@@ -253,11 +279,42 @@ public  class CoverageServer extends Launcher {
 		}
 	
 	private static class BamInput {
+		/** max number of idle readers kept open for each BAM */
+		private static final int MAX_IDLE_READERS = 2;
 		final Path bamPath;
 		String sample;
+		/** idle readers, their index is already loaded */
+		private final Deque<SamReader> readers = new ArrayDeque<>(MAX_IDLE_READERS);
+		/** true when the server is stopped: the released readers are closed */
+		private boolean closed = false;
 		BamInput(final Path path) {
 			this.bamPath = path;
 		}
+		/** get an idle reader or open a new one. Must be released with releaseSamReader */
+		SamReader borrowSamReader(final SamReaderFactory srf) throws IOException {
+			synchronized(this.readers) {
+				if(!this.readers.isEmpty()) return this.readers.pop();
+				}
+			return srf.open(this.bamPath);
+			}
+		void releaseSamReader(final SamReader sr) {
+			synchronized(this.readers) {
+				if(!this.closed && this.readers.size() < MAX_IDLE_READERS) {
+					this.readers.push(sr);
+					return;
+					}
+				}
+			CloserUtil.close(sr);
+			}
+		/** close the idle readers */
+		void close() {
+			synchronized(this.readers) {
+				this.closed = true;
+				while(!this.readers.isEmpty()) {
+					CloserUtil.close(this.readers.pop());
+					}
+				}
+			}
 	}
 	
 	private static class Coverage {
@@ -617,8 +674,14 @@ public  class CoverageServer extends Launcher {
 		}
 
 	
+	private byte[] encodeImage(final BufferedImage img) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ImageIO.write(img, "PNG", baos);
+		return baos.toByteArray();
+		}
+	
 	private void writeImage(
-			final BufferedImage img,
+			final byte[] png,
 			final BamInput bam,
 			final Locatable region,
 			final HttpServletResponse response
@@ -626,9 +689,10 @@ public  class CoverageServer extends Launcher {
 
 		 final String basename = bam.sample+"_"+region.getContig()+"_"+region.getStart()+"_"+region.getEnd();
 		 response.setContentType("image/png");
+		 response.setContentLength(png.length);
 		 response.addHeader("Content-Disposition","form-data; name=\""+basename+"\"; filename=\""+basename +".png\"");
 		 try {
-			 ImageIO.write(img, "PNG", response.getOutputStream());
+			 response.getOutputStream().write(png);
 			 response.flushBuffer();
 		 	 }
 		 catch(Throwable err) {
@@ -636,11 +700,11 @@ public  class CoverageServer extends Launcher {
 		}
 	
 	/** print BAM for small interval, displaying reads */
-	private void printRaster(final BamInput bam,final SimpleInterval midRegion,final SimpleInterval region,final HttpServletRequest request,final HttpServletResponse response) throws IOException, ServletException {
+	private byte[] createRaster(final BamInput bam,final SimpleInterval midRegion,final SimpleInterval region) throws IOException {
 		final IntToDoubleFunction position2pixel = X->((X-region.getStart())/(double)region.getLengthOnReference())*(double)image_width;
-		final SamReaderFactory srf = SamReaderFactory.make().validationStringency(ValidationStringency.LENIENT).referenceSequence(this.faidxRef);
 		final Pileup<SAMRecord> pileup = new Pileup<>((L,R)->position2pixel.applyAsDouble(L.getUnclippedEnd()+1) +1  < position2pixel.applyAsDouble(R.getUnclippedStart()));
-		try(SamReader sr=srf.open(bam.bamPath)) {
+		final SamReader sr= bam.borrowSamReader(this.samReaderFactory);
+		try {
 			 try(CloseableIterator<SAMRecord> iter=sr.query(
 					 region.getContig(),
 					 Math.max(0,region.getStart()-this.small_region_size), //extend to get clipR
@@ -655,6 +719,9 @@ public  class CoverageServer extends Launcher {
 					 pileup.add(rec);
 				 	 }
 				 }//end iterator
+			}
+		finally {
+			bam.releaseSamReader(sr);
 			}//end samreader
 		ReferenceSequence refInInterval=null;
 		 try (ReferenceSequenceFile refseq=ReferenceSequenceFileFactory.getReferenceSequenceFile(this.faidxRef)) {
@@ -852,7 +919,7 @@ public  class CoverageServer extends Launcher {
 	     
 	     
 	     
-	     writeImage(img,bam,region,response);
+	     return encodeImage(img);
 		}
 	
 	private void printImage(final HttpServletRequest request,final HttpServletResponse response) throws IOException, ServletException
@@ -870,6 +937,50 @@ public  class CoverageServer extends Launcher {
 			response.flushBuffer();
 			return;
 		}
+		final SimpleInterval region = extendInterval(midRegion);
+		if(region.getLengthOnReference()>this.max_window_size)  {
+			response.reset();
+			response.sendError(HttpStatus.BAD_REQUEST_400,"contig:"+midRegion);
+			response.flushBuffer();
+			return;
+		}
+		final BamInput bam = this.bamInput.get(bam_id);
+		final boolean normalize = request.getParameter("normalize")!=null;
+		writeImage(getImage(bam, midRegion, normalize),bam,region,response);
+		}
+	
+	/** if 'interval' is one of the named_intervals, render in background the images of the next intervals */
+	private void prefetchNextIntervals(final Locatable interval,final boolean normalize) {
+		if(this.prefetchExecutor==null || this.image_cache_size<=0) return;
+		int idx=-1;
+		for(int i=0;i< this.named_intervals.size();i++) {
+			final ReviewedInterval r = this.named_intervals.get(i);
+			if(r.contigsMatch(interval) && r.getStart()==interval.getStart() && r.getEnd()==interval.getEnd()) {
+				idx=i;
+				break;
+				}
+			}
+		if(idx==-1) return;
+		/* the user moved to another page: the pending prefetches are obsolete */
+		this.prefetchExecutor.getQueue().clear();
+		for(int i=idx+1;i<=idx+this.prefetch_count && i< this.named_intervals.size();i++) {
+			final SimpleInterval next = new SimpleInterval(this.named_intervals.get(i));
+			if(extendInterval(next).getLengthOnReference()>this.max_window_size) continue;
+			for(final BamInput bam: this.bamInput) {
+				this.prefetchExecutor.execute(()->{
+					try {
+						getImage(bam, next, normalize);
+						}
+					catch(final Throwable err) {
+						LOG.warn(err);
+						}
+					});
+				}
+			}
+		}
+	
+	/** extend the interval using extend_factor */
+	private SimpleInterval extendInterval(final SimpleInterval midRegion) {
 		final int extend = (int)(midRegion.getLengthOnReference()*this.extend_factor);
 		int xstart = Math.max(midRegion.getStart()-extend,0);
 		int xend = midRegion.getEnd()+extend;
@@ -877,206 +988,236 @@ public  class CoverageServer extends Launcher {
 		if(ssr!=null) {
 			xend = Math.min(xend, ssr.getSequenceLength());
 		}
-		final SimpleInterval region = new SimpleInterval(midRegion.getContig(),xstart,xend);
-		if(region.getLengthOnReference()>this.max_window_size)  {
-			response.reset();
-			response.sendError(HttpStatus.BAD_REQUEST_400,"contig:"+midRegion);
-			response.flushBuffer();
-			return;
+		return new SimpleInterval(midRegion.getContig(),xstart,xend);
 		}
-		final Counter<Arc> sashimiArcs = new Counter<>();
-		final BamInput bam = this.bamInput.get(bam_id);
-
+	
+	/** get the PNG image from the cache or render it */
+	private byte[] getImage(final BamInput bam,final SimpleInterval midRegion,final boolean normalize) throws IOException {
+		final String key = bam.bamPath.toString()+"\t"+midRegion.getContig()+":"+midRegion.getStart()+"-"+midRegion.getEnd()+"\t"+normalize;
+		final FutureTask<byte[]> task;
+		boolean created = false;
+		synchronized(this.imageCache) {
+			FutureTask<byte[]> t = this.imageCache.get(key);
+			if(t==null) {
+				t = new FutureTask<>(()->createImage(bam, midRegion, normalize));
+				if(this.image_cache_size>0) this.imageCache.put(key, t);
+				created = true;
+				}
+			task = t;
+			}
+		/* if the task was created by another thread (e.g. prefetch), wait for it */
+		if(created) task.run();
+		try {
+			return task.get();
+			}
+		catch(final ExecutionException err) {
+			synchronized(this.imageCache) {
+				this.imageCache.remove(key, task);
+				}
+			if(err.getCause() instanceof IOException) throw IOException.class.cast(err.getCause());
+			throw new IOException(err.getCause());
+			}
+		catch(final InterruptedException err) {
+			throw new IOException(err);
+			}
+		}
+	
+	/** render the image for the BAM in midRegion */
+	private byte[] createImage(final BamInput bam,final SimpleInterval midRegion,final boolean normalize) throws IOException {
+		final SimpleInterval region = extendInterval(midRegion);
 		if(region.length() <=this.small_region_size) {
-			printRaster(bam,midRegion, region, request, response);
-			return;
+			return createRaster(bam,midRegion, region);
+			}
+		return createCoverageImage(bam, midRegion, region, normalize);
 		}
+	
+	/** render coverage for the BAM in region */
+	private byte[] createCoverageImage(final BamInput bam,final SimpleInterval midRegion,final SimpleInterval region,final boolean normalize) throws IOException {
+		final int extend = (int)(midRegion.getLengthOnReference()*this.extend_factor);
+		final Counter<Arc> sashimiArcs = new Counter<>();
 		
-		final boolean normalize = request.getParameter("normalize")!=null;
-		
-		final SamReaderFactory srf = SamReaderFactory.make().validationStringency(ValidationStringency.LENIENT).referenceSequence(this.faidxRef);
-		try(SamReader sr=srf.open(bam.bamPath)) {
-			
-			
-			 final int int_coverage[]=new int[region.getLengthOnReference()];
-			 Arrays.fill(int_coverage, 0);
-			 try(CloseableIterator<SAMRecord> iter=sr.query(region.getContig(), region.getStart(), region.getEnd(),false)) {
-				 while(iter.hasNext()) {
-					 final SAMRecord rec=iter.next();
-					 if(!acceptRead(rec)) continue;
-					 final Cigar cigar = rec.getCigar();
-					 if(cigar==null || cigar.isEmpty()) continue;
-					 int ref=rec.getAlignmentStart();
-					 for(final CigarElement ce:cigar) {
-						 final CigarOperator op=ce.getOperator();
-						 if(op.consumesReferenceBases()) {
-							 if(this.enable_sashimi && op.equals(CigarOperator.N)) {
-								 sashimiArcs.incr(new Arc(ref,ref+ce.getLength()));
-							 }
-							 
-							 
-							 if(op.consumesReadBases()) {
-								 for(int x=0;x< ce.getLength();++x) {
-									 int pos=ref+x;
-									 if(pos< region.getStart()) continue;
-									 if(pos> region.getEnd()) break;
-									 int_coverage[pos-region.getStart()]++;
-								 }
+		 final int int_coverage[]=new int[region.getLengthOnReference()];
+		 Arrays.fill(int_coverage, 0);
+		 final SamReader sr= bam.borrowSamReader(this.samReaderFactory);
+		 try(CloseableIterator<SAMRecord> iter=sr.query(region.getContig(), region.getStart(), region.getEnd(),false)) {
+			 while(iter.hasNext()) {
+				 final SAMRecord rec=iter.next();
+				 if(!acceptRead(rec)) continue;
+				 final Cigar cigar = rec.getCigar();
+				 if(cigar==null || cigar.isEmpty()) continue;
+				 int ref=rec.getAlignmentStart();
+				 for(final CigarElement ce:cigar) {
+					 final CigarOperator op=ce.getOperator();
+					 if(op.consumesReferenceBases()) {
+						 if(this.enable_sashimi && op.equals(CigarOperator.N)) {
+							 sashimiArcs.incr(new Arc(ref,ref+ce.getLength()));
+						 }
+						 
+						 
+						 if(op.consumesReadBases()) {
+							 for(int x=0;x< ce.getLength();++x) {
+								 int pos=ref+x;
+								 if(pos< region.getStart()) continue;
+								 if(pos> region.getEnd()) break;
+								 int_coverage[pos-region.getStart()]++;
 							 }
-							 ref+=ce.getLength();
 						 }
+						 ref+=ce.getLength();
 					 }
 				 }
 			 }
-			 /* smooth coverage */
-			 if(int_coverage.length>image_width) {
-				 final int copy[]=Arrays.copyOf(int_coverage, int_coverage.length);
-				 final int len = Math.max(1,int_coverage.length/100);
-				 
-				 for(int i=0;i< int_coverage.length;i++) {
-					 int j=Math.max(0, i-len);
-					 double sum=0;
-					 int count=0;
-					 while(j< i+len && j< copy.length) {
-						 sum +=copy[j];
-						 j++;
-						 count++;
-					 }
-					 int_coverage[i]=(int)(sum/count);
+		 }
+		 finally {
+			 bam.releaseSamReader(sr);
+		 }
+		 /* smooth coverage */
+		 if(int_coverage.length>image_width) {
+			 final int copy[]=Arrays.copyOf(int_coverage, int_coverage.length);
+			 final int len = Math.max(1,int_coverage.length/100);
+			 
+			 for(int i=0;i< int_coverage.length;i++) {
+				 int j=Math.max(0, i-len);
+				 double sum=0;
+				 int count=0;
+				 while(j< i+len && j< copy.length) {
+					 sum +=copy[j];
+					 j++;
+					 count++;
 				 }
+				 int_coverage[i]=(int)(sum/count);
 			 }
+		 }
+		 
+		final double norm_coverage[] = new double[int_coverage.length];
+		final double median;
+		/* normalize on median */
+		if(normalize)
+			{
+			final Coverage leftrightcov = new Coverage( extend*2 );
+			 for(int x=region.getStart();x<midRegion.getStart();x++) {
+					final int idx = x-region.getStart();
+					leftrightcov.add(int_coverage[idx]);
+				}
+			 for(int x=midRegion.getEnd()+1;x<=region.getEnd();x++) {
+					final int idx = x-region.getStart();
+					leftrightcov.add(int_coverage[idx]);
+				}
 			 
-			final double norm_coverage[] = new double[int_coverage.length];
-			final double median;
-			/* normalize on median */
-			if(normalize)
-				{
-				final Coverage leftrightcov = new Coverage( extend*2 );
-				 for(int x=region.getStart();x<midRegion.getStart();x++) {
-						final int idx = x-region.getStart();
-						leftrightcov.add(int_coverage[idx]);
-					}
-				 for(int x=midRegion.getEnd()+1;x<=region.getEnd();x++) {
-						final int idx = x-region.getStart();
-						leftrightcov.add(int_coverage[idx]);
-					}
-				 
-				median = Math.max(1.0,leftrightcov.median());
-				//LOG.info("median is "+median+" "+leftrightcov.median());
-				for(int x=0;x< int_coverage.length;++x) {
-					norm_coverage[x]=int_coverage[x]/median;
-					}
-				} 
-			else /* no normalisation */
-			
-				{
-				/* won't be used */
-				median = Double.NaN;
-				for(int x=0;x< int_coverage.length;++x) {
-						norm_coverage[x]=int_coverage[x];
-					}
+			median = Math.max(1.0,leftrightcov.median());
+			//LOG.info("median is "+median+" "+leftrightcov.median());
+			for(int x=0;x< int_coverage.length;++x) {
+				norm_coverage[x]=int_coverage[x]/median;
 				}
+			} 
+		else /* no normalisation */
+		
+			{
+			/* won't be used */
+			median = Double.NaN;
+			for(int x=0;x< int_coverage.length;++x) {
+					norm_coverage[x]=int_coverage[x];
+				}
+			}
+		
+		
+		 final double real_max_cov = DoubleStream.of(norm_coverage).max().orElse(1.0);
+		 final double max_cov= Math.max((normalize?2:10),real_max_cov );
+		 final double pixelperbase = image_width/(double)norm_coverage.length;
+		 final IntFunction<Double> pos2pixel = POS->((POS-region.getStart())/(double)region.getLengthOnReference())*image_width;
+		 
+		 final BufferedImage img = new BufferedImage(image_width, image_height, BufferedImage.TYPE_INT_RGB);
+		 final Graphics2D g=img.createGraphics();
+		 g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+		 g.setColor(Color.WHITE);
+		 g.fillRect(0, 0, image_width+1, image_height+1);
+		 
+		 
+		 
+		 for(int x=0;x< norm_coverage.length;++x) {
+			 final double height = image_height*(norm_coverage[x]/max_cov);
 			
-			
-			 final double real_max_cov = DoubleStream.of(norm_coverage).max().orElse(1.0);
-			 final double max_cov= Math.max((normalize?2:10),real_max_cov );
-			 final double pixelperbase = image_width/(double)norm_coverage.length;
-			 final IntFunction<Double> pos2pixel = POS->((POS-region.getStart())/(double)region.getLengthOnReference())*image_width;
+			 if(normalize) g.setColor(Color.DARK_GRAY);
+			 else if(max_cov<10) g.setColor(Color.RED);
+			 else if(max_cov<20) g.setColor(Color.BLUE);
+			 else g.setColor(Color.DARK_GRAY);
 			 
-			 final BufferedImage img = new BufferedImage(image_width, image_height, BufferedImage.TYPE_INT_RGB);
-			 final Graphics2D g=img.createGraphics();
-			 g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-			 g.setColor(Color.WHITE);
-			 g.fillRect(0, 0, image_width+1, image_height+1);
 			 
 			 
-			 
-			 for(int x=0;x< norm_coverage.length;++x) {
-				 final double height = image_height*(norm_coverage[x]/max_cov);
-				
-				 if(normalize) g.setColor(Color.DARK_GRAY);
-				 else if(max_cov<10) g.setColor(Color.RED);
-				 else if(max_cov<20) g.setColor(Color.BLUE);
-				 else g.setColor(Color.DARK_GRAY);
-				 
-				 
-				 
-				 g.fill(new Rectangle2D.Double(
-						 x*pixelperbase,
-						 image_height-height,
-						 pixelperbase,
-						 height));
-			 	}
-			 
-			 
-			 g.setColor(Color.DARK_GRAY);
-			 g.drawString("max-cov:"+IntStream.of(int_coverage).max().orElse(0)+
-					 (normalize?" normalized on median ("+median+")":"")+
-					 " sample:"+ bam.sample +" "+
-					 region.toNiceString()
-					 , 10, 10);
+			 g.fill(new Rectangle2D.Double(
+					 x*pixelperbase,
+					 image_height-height,
+					 pixelperbase,
+					 height));
+		 	}
+		 
+		 
+		 g.setColor(Color.DARK_GRAY);
+		 g.drawString("max-cov:"+IntStream.of(int_coverage).max().orElse(0)+
+				 (normalize?" normalized on median ("+median+")":"")+
+				 " sample:"+ bam.sample +" "+
+				 region.toNiceString()
+				 , 10, 10);
 
-			 /* ticks for vertical axis */
-			 g.setColor(Color.MAGENTA);
-			 for(int i=1;i<10;i++) {
-				 double cov=max_cov/10.0*i;
-				 if(!normalize) cov= Math.ceil(cov);
-				 final double y = image_height - image_height/10.0*i;
-				 if(!normalize && i>0 && (int)cov==Math.ceil(max_cov/10.0*(i-1))) continue;
-				 g.drawLine(0, (int)y, 5, (int)y);
-				 g.drawString(normalize?String.format("%.2f",cov):String.valueOf((int)cov),7,(int)y);
-			 }
-			 
-			 /* vertical line for original view */
-			 g.setColor(Color.PINK);
-			 double vertical = ((midRegion.getStart()-region.getStart())/(double)region.getLengthOnReference())*image_width;
-			 g.draw(new Line2D.Double(vertical, 0, vertical, image_height));
-			 vertical = ((midRegion.getEnd()-region.getStart())/(double)region.getLengthOnReference())*image_width;
-			 g.draw(new Line2D.Double(vertical, 0, vertical, image_height));
+		 /* ticks for vertical axis */
+		 g.setColor(Color.MAGENTA);
+		 for(int i=1;i<10;i++) {
+			 double cov=max_cov/10.0*i;
+			 if(!normalize) cov= Math.ceil(cov);
+			 final double y = image_height - image_height/10.0*i;
+			 if(!normalize && i>0 && (int)cov==Math.ceil(max_cov/10.0*(i-1))) continue;
+			 g.drawLine(0, (int)y, 5, (int)y);
+			 g.drawString(normalize?String.format("%.2f",cov):String.valueOf((int)cov),7,(int)y);
+		 }
+		 
+		 /* vertical line for original view */
+		 g.setColor(Color.PINK);
+		 double vertical = ((midRegion.getStart()-region.getStart())/(double)region.getLengthOnReference())*image_width;
+		 g.draw(new Line2D.Double(vertical, 0, vertical, image_height));
+		 vertical = ((midRegion.getEnd()-region.getStart())/(double)region.getLengthOnReference())*image_width;
+		 g.draw(new Line2D.Double(vertical, 0, vertical, image_height));
 
-			 if(normalize) {
-				 /* horizontal line for median 0.5 / 1 / 1.5 */
-				 for(int t=1;t<4;++t) {
-					 g.setColor(t==2?Color.ORANGE:Color.PINK);
-					 final double mediany= image_height-((0.5*t)/max_cov)*image_height;
-					 g.draw(new Line2D.Double(0,mediany,image_width,mediany));
-					 }
+		 if(normalize) {
+			 /* horizontal line for median 0.5 / 1 / 1.5 */
+			 for(int t=1;t<4;++t) {
+				 g.setColor(t==2?Color.ORANGE:Color.PINK);
+				 final double mediany= image_height-((0.5*t)/max_cov)*image_height;
+				 g.draw(new Line2D.Double(0,mediany,image_width,mediany));
 				 }
-
-			 if(this.enable_sashimi && !sashimiArcs.isEmpty()) {
-				final double max_count = sashimiArcs.getMaxCount().orElse(1L);
-				g.setColor(Color.GREEN);
-				for(final Arc arc: sashimiArcs.keySet()) {
-					final double x1 = pos2pixel.apply(arc.start);
-					final double x2 = pos2pixel.apply(arc.end);
-					final double distance = x2-x1;
-					final GeneralPath curve = new GeneralPath();
-					curve.moveTo(x1, image_height);
-					curve.curveTo(
-							x1, image_height,
-							x1+distance/2.0, image_height-Math.min(distance,image_height*0.75),
-							x2, image_height
-							);
-					final double weight= (sashimiArcs.count(arc)/max_count)*5;
-					final Stroke oldStroke= g.getStroke();
-					final Composite oldComposite = g.getComposite();
-					g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER,0.5f));
-					g.setStroke(new BasicStroke((float)weight,BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-					g.draw(curve);
-					g.setStroke(oldStroke);
-					g.setComposite(oldComposite);
-					}
-				
 			 }
-			 
-			 
-			 writeGenes(g,region);
-			 writeKnownCnv(g,region);
-			 g.setColor(Color.GRAY);
-			 g.drawRect(0, 0, img.getWidth(),  img.getHeight());
-			 
-			 writeImage(img,bam,region,response);
-			}
+
+		 if(this.enable_sashimi && !sashimiArcs.isEmpty()) {
+			final double max_count = sashimiArcs.getMaxCount().orElse(1L);
+			g.setColor(Color.GREEN);
+			for(final Arc arc: sashimiArcs.keySet()) {
+				final double x1 = pos2pixel.apply(arc.start);
+				final double x2 = pos2pixel.apply(arc.end);
+				final double distance = x2-x1;
+				final GeneralPath curve = new GeneralPath();
+				curve.moveTo(x1, image_height);
+				curve.curveTo(
+						x1, image_height,
+						x1+distance/2.0, image_height-Math.min(distance,image_height*0.75),
+						x2, image_height
+						);
+				final double weight= (sashimiArcs.count(arc)/max_count)*5;
+				final Stroke oldStroke= g.getStroke();
+				final Composite oldComposite = g.getComposite();
+				g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER,0.5f));
+				g.setStroke(new BasicStroke((float)weight,BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+				g.draw(curve);
+				g.setStroke(oldStroke);
+				g.setComposite(oldComposite);
+				}
+			
+		 }
+		 
+		 
+		 writeGenes(g,region);
+		 writeKnownCnv(g,region);
+		 g.setColor(Color.GRAY);
+		 g.drawRect(0, 0, img.getWidth(),  img.getHeight());
+		 
+		 return encodeImage(img);
 		}
 	
 	/** write generic information for a sample */
@@ -1195,7 +1336,7 @@ public  class CoverageServer extends Launcher {
 			 break;
 			 }
 		 
-		 
+		 prefetchNextIntervals(interval, normalize);
 		 
 		 final String title = interval.toNiceString()+" ("+StringUtils.niceInt(interval.getLengthOnReference())+" bp.)";
 				
@@ -1737,10 +1878,15 @@ public  class CoverageServer extends Launcher {
 				return -1;
 				}
 			this.dictionary = SequenceDictionaryUtils.extractRequired(this.faidxRef);
+			/* readers are kept open and re-used, so keep their index in memory */
+			this.samReaderFactory = SamReaderFactory.make().
+					validationStringency(ValidationStringency.LENIENT).
+					referenceSequence(this.faidxRef).
+					enable(SamReaderFactory.Option.CACHE_FILE_BASED_INDEXES);
 			
 			for(final BamInput bi:this.bamInput) {
-				final SamReaderFactory srf = SamReaderFactory.make().validationStringency(ValidationStringency.LENIENT).referenceSequence(this.faidxRef);
-				try(SamReader sr=srf.open(bi.bamPath)) {
+				final SamReader sr= bi.borrowSamReader(this.samReaderFactory);
+				try {
 					final SAMFileHeader header = sr.getFileHeader();
 					SequenceUtil.assertSequenceDictionariesEqual(this.dictionary, SequenceDictionaryUtils.extractRequired(header));
 					bi.sample = header.getReadGroups().
@@ -1748,8 +1894,27 @@ public  class CoverageServer extends Launcher {
 					 map(R->R.getSample()).filter(S->!StringUtils.isBlank(S)).
 					 findFirst().orElse(IOUtils.getFilenameWithoutCommonSuffixes(bi.bamPath));
 				}
+				finally {
+					bi.releaseSamReader(sr);
+				}
 			}
 			
+			if(this.prefetch_count>0 && this.prefetch_threads>0) {
+				/* bounded queue: if the renderers are late, the oldest prefetches are dropped */
+				this.prefetchExecutor = new ThreadPoolExecutor(
+					this.prefetch_threads,
+					this.prefetch_threads,
+					0L, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<>(this.prefetch_count * this.bamInput.size()),
+					R->{
+						final Thread t = new Thread(R,"prefetch");
+						t.setDaemon(true);
+						return t;
+						},
+					new ThreadPoolExecutor.DiscardOldestPolicy()
+					);
+				}
+			
 			if(this.pedigreePath!=null) {
 				this.pedigree = new PedigreeParser().parse(this.pedigreePath);
 			}
@@ -1803,7 +1968,15 @@ public  class CoverageServer extends Launcher {
 			LOG.error(err);
 			return -1;
 			}
-		
+		finally {
+			if(this.prefetchExecutor!=null) {
+				this.prefetchExecutor.shutdownNow();
+				this.prefetchExecutor = null;
+				}
+			for(final BamInput bi:this.bamInput) {
+				bi.close();
+				}
+			}
 		}	
 
 
@@ -45,14 +45,15 @@ import com.github.lindenb.jvarkit.util.iterator.EqualRangeIterator;
 import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.samtools.ContigDictComparator;
+import com.github.lindenb.jvarkit.util.vcf.BinaryVariantContextCodec;
 import com.github.lindenb.jvarkit.variant.variantcontext.writer.WritingVariantsDelegate;
 import com.github.lindenb.jvarkit.variant.vcf.VCFReaderFactory;
 
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.SequenceUtil;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.GenotypeBuilder;
@@ -65,7 +66,6 @@ import htsjdk.variant.vcf.VCFHeaderLine;
 import htsjdk.variant.vcf.VCFHeaderLineType;
 import htsjdk.variant.vcf.VCFInfoHeaderLine;
 import htsjdk.variant.vcf.VCFReader;
-import htsjdk.variant.vcf.VCFRecordCodec;
 
 /**
 BEGIN_DOC
@@ -94,7 +94,7 @@ public class ExpansionHunterMerge extends Launcher {
 
 	@Override
 		public int doWork(List<String> args) {
-		 	SortingCollection<VariantContext> sorter = null;
+		 	ExternalSorter<VariantContext> sorter = null;
 			try {
 				final List<Path> inputs = IOUtils.unrollPaths(args);
 				if(inputs.isEmpty()) {
@@ -178,12 +178,10 @@ public class ExpansionHunterMerge extends Launcher {
 				
 				
 				tmpHeader.addMetaDataLine(sampleInfo);
-				sorter = SortingCollection.newInstance(
+				sorter = this.writingSortingCollection.newExternalSorter(
                         VariantContext.class,
-                        new VCFRecordCodec(tmpHeader, false),
-                        comparator2,
-                        this.writingSortingCollection.getMaxRecordsInRam(),
-                        this.writingSortingCollection.getTmpPaths()
+                        new BinaryVariantContextCodec(tmpHeader),
+                        comparator2
                         );
 				sorter.setDestructiveIteration(true);
 				for(final Path path:inputs) {
@@ -38,7 +38,6 @@ import htsjdk.samtools.fastq.FastqRecord;
 import htsjdk.samtools.fastq.FastqWriter;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
-import htsjdk.samtools.util.SortingCollection;
 
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParametersDelegate;
@@ -47,6 +46,7 @@ import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.picard.FastqReader;
 import com.github.lindenb.jvarkit.util.picard.FourLinesFastqReader;
 
@@ -219,16 +219,14 @@ public class FastqShuffle extends Launcher
 	private void runPaired(final FastqReader r1, final FastqReader r2,final FastqWriter w1) throws IOException
 		{
 		long nReads=0;
-		final SortingCollection<TwoReads> sorting= SortingCollection.newInstance(
+		final ExternalSorter<TwoReads> sorting= this.writingSortingCollection.newExternalSorter(
 				TwoReads.class,
 				new TwoReadsCodec(),
 				(A,B)->{
 					final int i  = Long.compare(A.random, B.random);
 					if(i!=0) return i;
 					return Long.compare(A.index, B.random);
-				},
-				this.writingSortingCollection.getMaxRecordsInRam(),
-				this.writingSortingCollection.getTmpPaths()
+				}
 				);
 		sorting.setDestructiveIteration(true);
 		while(r1.hasNext())
@@ -277,16 +275,14 @@ public class FastqShuffle extends Launcher
 	private void runSingle(final FastqReader r1,final FastqWriter w1) throws IOException
 		{
 		long nReads=0;
-		final  SortingCollection<OneRead> sorting= SortingCollection.newInstance(
+		final  ExternalSorter<OneRead> sorting= this.writingSortingCollection.newExternalSorter(
 				OneRead.class,
 				new OneReadCodec(),
 				(A,B)->{
 					final int i  = Long.compare(A.random, B.random);
 					if(i!=0) return i;
 					return Long.compare(A.index, B.random);
-					},
-				this.writingSortingCollection.getMaxRecordsInRam(),
-				this.writingSortingCollection.getTmpPaths()
+					}
 				);
 		sorting.setDestructiveIteration(true);
 		while(r1.hasNext())
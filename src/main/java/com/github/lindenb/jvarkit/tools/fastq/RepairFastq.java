@@ -49,13 +49,13 @@ import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 
 import htsjdk.samtools.fastq.BasicFastqWriter;
 import htsjdk.samtools.fastq.FastqReader;
 import htsjdk.samtools.fastq.FastqRecord;
 import htsjdk.samtools.fastq.FastqWriter;
 import htsjdk.samtools.util.CloseableIterator;
-import htsjdk.samtools.util.SortingCollection;
 
 /**
 BEGIN_DOC
@@ -191,12 +191,10 @@ public class RepairFastq extends Launcher {
 				otherWiter = null;
 			}
 			
-			final SortingCollection<OneRead> sorter = SortingCollection.newInstance(
+			final ExternalSorter<OneRead> sorter = writingSortingCollection.newExternalSorter(
 					OneRead.class,
 					new ReadCodec(),
-					readNameCompare2,
-					writingSortingCollection.getMaxRecordsInRam(),
-					writingSortingCollection.getTmpPaths()
+					readNameCompare2
 					);
 
 			
@@ -40,10 +40,6 @@ import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
@@ -51,6 +47,7 @@ import java.util.stream.Collectors;
 
 import com.beust.jcommander.Parameter;
 import com.github.lindenb.jvarkit.bed.BedLineReader;
+import com.github.lindenb.jvarkit.concurrent.TaskExecutor;
 import com.github.lindenb.jvarkit.io.IOUtils;
 import com.github.lindenb.jvarkit.io.PrefixSuffixWriter;
 import com.github.lindenb.jvarkit.lang.CharSplitter;
@@ -66,6 +63,7 @@ import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.NoSplitter;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
+import com.github.lindenb.jvarkit.util.log.ProgressFactory;
 
 import htsjdk.samtools.AlignmentBlock;
 import htsjdk.samtools.SAMFileHeader;
@@ -293,28 +291,29 @@ public class BamFingerprint extends Launcher {
 					map(B->new Scanner(B,referenceFile,samFilter,blackListedMap,this.bin_size,this.bin_read_count)).
 					collect(Collectors.toList());
 			
-            final ExecutorService executorService = Executors.newFixedThreadPool(Math.min(this.nThreads,bams.size()));
-			final List<Future<Summary>> future_summaries = executorService.invokeAll(bams);
-            executorService.shutdown();
-            executorService.awaitTermination(365, TimeUnit.DAYS);
+			final List<Summary> all_summaries;
+			try(TaskExecutor executor = new TaskExecutor(Math.min(this.nThreads,bams.size()))) {
+				executor.progress(ProgressFactory.newInstance().logger(LOG).prefix("bams"));
+				all_summaries = executor.invokeAll(bams);
+				}
             
 			final List<Summary> summaries = new ArrayList<>(bamPaths.size());
 
-            for(Future<Summary> f: future_summaries) {
-            	if(!f.isDone() || f.isCancelled() || f.get()==null) {
-            		throw new IllegalStateException("future not available ??");
+            for(final Summary summary: all_summaries) {
+            	if(summary==null) {
+            		throw new IllegalStateException("summary not available ??");
             		}
             	
-            	if(f.get().error!=null) {
-            		LOG.error("got an error for "+ f.get().sampleName +" "+f.get().error);
+            	if(summary.error!=null) {
+            		LOG.error("got an error for "+ summary.sampleName +" "+summary.error);
             		return -1;
             		}
             	
-            	if(f.get().numReadsPerBin.isEmpty()) {
-            		LOG.warning("No read was found for "+ f.get().sampleName);
+            	if(summary.numReadsPerBin.isEmpty()) {
+            		LOG.warning("No read was found for "+ summary.sampleName);
             		continue;
             		}
-            	summaries.add(f.get());
+            	summaries.add(summary);
             	}
             Collections.sort(summaries,(A,B)->A.sampleName.compareTo(B.sampleName));
 			
@@ -51,6 +51,7 @@ import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.variant.vcf.BufferedVCFReader;
 import com.github.lindenb.jvarkit.variant.vcf.PerContigVcfReader;
 import com.github.lindenb.jvarkit.variant.vcf.VCFReaderFactory;
+import com.github.lindenb.jvarkit.variant.vcf.VariantColumnStore;
 
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.Locatable;
@@ -79,6 +80,15 @@ The tool was redesigned on July 2nd, 2020.
 java -jar dist/vcfgnomad.jar -g src/test/resources/gnomad.genomes.r2.0.1.sites.1.vcf.gz src/test/resources/test_vcf01.vcf
 ```
 
+## Column store
+
+With `--column-store dir`, the AF fields of gnomad are extracted once into a compact memory-mapped cache in `dir`.
+The next runs with the same gnomad file and the same fields re-use this cache and don't parse the gnomad VCF.
+
+```
+java -jar dist/vcfgnomad.jar --column-store gnomad.cache -g src/test/resources/gnomad.genomes.r2.0.1.sites.1.vcf.gz src/test/resources/test_vcf01.vcf
+```
+
 END_DOC
  */
 @Program(name="vcfgnomad",
@@ -113,10 +123,13 @@ public class VcfGnomad extends OnePassVcfLauncher {
 	private boolean debug = false;
 	@Parameter(names={"--ome"},description="is the genome vcf exome or genome ? If 'undefined', try to guess from filename")
 	private OmeType user_ome_type = OmeType.undefined;
+	@Parameter(names={"--column-store"},description=VariantColumnStore.OPT_DESC)
+	private Path columnStorePath = null;
 
 
 	private enum OmeType {genome,exome,undefined;}
 	private BufferedVCFReader gnomadReader = null;
+	private VariantColumnStore columnStore = null;
 	private ContigNameConverter ctgNameConverter = null;
 	private final Set<String> gnomad_info_af_attributes = new HashSet<>();
 	
@@ -180,6 +193,18 @@ public class VcfGnomad extends OnePassVcfLauncher {
 			LOG.error("No INFO attribute defined");
 			return -1;
 			}
+		
+		if(this.columnStorePath!=null) {
+			try {
+				final List<String> fields = this.gnomad_info_af_attributes.stream().sorted().collect(Collectors.toList());
+				this.columnStore = VariantColumnStore.openOrCompile(this.columnStorePath, this.gnomadPath, this.gnomadReader, fields);
+				}
+			catch(final Throwable err)
+				{
+				LOG.error(err);
+				return -1;
+				}
+			}
 
 		
 		/* do not keep those INFO in memory */
@@ -205,6 +230,10 @@ public class VcfGnomad extends OnePassVcfLauncher {
 		catch(final Throwable err) {
 			LOG.error(err);
 			}
+		if(this.columnStore!=null) {
+			this.columnStore.close();
+			this.columnStore = null;
+			}
 		}
 	
 	
@@ -354,6 +383,17 @@ public class VcfGnomad extends OnePassVcfLauncher {
 			String newid = null;
 			
 			
+			if(this.columnStore!=null) {
+				final double ctx_min_AF = annotateFromStore(ctx, vcb, filters, toNewFilter, toNewInfo, infoFlagContigStartRef, infoNumOverlapping);
+				if(!(this.min_af<=ctx_min_AF && ctx_min_AF<=this.max_af) ) {
+					if(filterFrequencyHeader==null) continue;
+					filters.add(filterFrequencyHeader.getID());
+					}
+				vcb.filters(filters);
+				out.add(vcb.make());
+				continue;
+				}
+			
 			// variant overlapping 'ctx'
 			final List<VariantContext> overlappingVariants = this.findOverlapping(ctx);
 			vcb.attribute(infoNumOverlapping.getID(), overlappingVariants.size());			
@@ -462,7 +502,106 @@ public class VcfGnomad extends OnePassVcfLauncher {
 		return 0;
 		}
 	
-	
+	/** same as the main loop of doVcfToVcf, but using the column store. Returns the min AF of the variant */
+	private double annotateFromStore(
+			final VariantContext ctx,
+			final VariantContextBuilder vcb,
+			final Set<String> filters,
+			final UnaryOperator<String> toNewFilter,
+			final UnaryOperator<String> toNewInfo,
+			final VCFInfoHeaderLine infoFlagContigStartRef,
+			final VCFInfoHeaderLine infoNumOverlapping
+			) {
+		final List<Allele> alternateAlleles = ctx.getAlternateAlleles();
+		final String normContig = this.ctgNameConverter.apply(ctx.getContig());
+		final VariantColumnStore.Contig contig = StringUtil.isBlank(normContig)?null:this.columnStore.getContig(normContig);
+		
+		/* rows of the records overlapping 'ctx' , and rows having the same CHROM/POS/REF */
+		int n_overlapping = 0;
+		int first_match = -1;
+		int last_match = -1;
+		final int ref_hash = VariantColumnStore.hash(ctx.getReference());
+		if(contig!=null) {
+			int prev_rec = -1;
+			for(int row=contig.firstOverlapping(ctx.getStart());row < contig.size() && contig.getStart(row) <= ctx.getEnd();++row) {
+				if(contig.getEnd(row) < ctx.getStart()) continue;
+				final int rec = contig.getRecord(row);
+				if(rec!=prev_rec) n_overlapping++;
+				prev_rec = rec;
+				if(contig.getStart(row)==ctx.getStart() && contig.refMatches(row, ref_hash, ctx.getReference())) {
+					if(first_match==-1) first_match = row;
+					last_match = row;
+					}
+				}
+			}
+		vcb.attribute(infoNumOverlapping.getID(), n_overlapping);
+		
+		if(!ctx.isVariant() ||
+			first_match==-1 ||
+			(alternateAlleles.size()==1 && alternateAlleles.get(0).equals(Allele.SPAN_DEL))) {
+			for(final String infoField: this.gnomad_info_af_attributes) {
+				vcb.attribute(toNewInfo.apply(infoField), new double[alternateAlleles.size()]);
+				}
+			return 0.0;// not in gnomad
+			}
+		vcb.attribute(infoFlagContigStartRef.getID(), true);
+		
+		/* matching rows are between first_match and last_match, but other overlapping rows may be interleaved */
+		final int[] matching = new int[last_match - first_match + 1];
+		int n_matching = 0;
+		for(int row=first_match;row<=last_match;++row) {
+			if(contig.getStart(row)==ctx.getStart() && contig.refMatches(row, ref_hash, ctx.getReference())) {
+				matching[n_matching++] = row;
+				}
+			}
+		
+		// set new id ?
+		if(!this.doNotUpdateId && !ctx.hasID()) {
+			for(int i=0;i< n_matching;i++) {
+				final String id = contig.getId(matching[i]);
+				if(StringUtil.isBlank(id)) continue;
+				vcb.id(id);
+				break;
+				}
+			}
+		
+		// add FILTER(s)
+		if(!StringUtil.isBlank(this.filteredInGnomadFilterPrefix)) {
+			final List<String> storeFilters = this.columnStore.getFilters();
+			for(int i=0;i< n_matching;i++) {
+				final int mask = contig.getFilters(matching[i]);
+				for(int f=0;f< storeFilters.size();f++) {
+					if((mask & (1<<f))==0) continue;
+					final String F = storeFilters.get(f);
+					if(F.equals(VCFConstants.PASSES_FILTERS_v4)) continue;
+					filters.add(toNewFilter.apply(F));
+					}
+				}
+			}
+		
+		double ctx_min_AF = 1.0;
+		for(final String infoField: this.gnomad_info_af_attributes) {
+			final int column = this.columnStore.getFieldIndex(infoField);
+			final double numbers[]=new double[alternateAlleles.size()];
+			for(int x=0;x< alternateAlleles.size();++x) {
+				final Allele alt= alternateAlleles.get(x);
+				if(alt.equals(Allele.SPAN_DEL)) continue;
+				final int alt_hash = VariantColumnStore.hash(alt);
+				double alt_af = 0.0;
+				for(int i=0;i< n_matching;i++) {
+					if(!contig.altMatches(matching[i], alt_hash, alt)) continue;
+					final float v = contig.getValue(matching[i], column);
+					if(Float.isNaN(v)) continue;
+					alt_af = v;
+					break;
+					}
+				ctx_min_AF = Math.min(ctx_min_AF, alt_af);
+				numbers[x] = alt_af;
+				}
+			vcb.attribute(toNewInfo.apply(infoField), numbers);
+			}
+		return ctx_min_AF;
+		}
 	
 
 public static void main(final String[] args) {
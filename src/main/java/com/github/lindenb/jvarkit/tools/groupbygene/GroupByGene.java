@@ -49,7 +49,6 @@ import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFHeaderVersion;
 import htsjdk.variant.vcf.VCFIterator;
 import htsjdk.samtools.util.CloseableIterator;
-import htsjdk.samtools.util.SortingCollection;
 
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParametersDelegate;
@@ -63,6 +62,7 @@ import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.samtools.ContigDictComparator;
 import com.github.lindenb.jvarkit.util.vcf.predictions.GeneExtractorFactory;
 import com.github.lindenb.jvarkit.variant.vcf.BcfIteratorBuilder;
@@ -264,7 +264,7 @@ public class GroupByGene
 	
 	private void read(final String input) throws IOException
 		{
-		SortingCollection<Call> sortingCollection=null;
+		ExternalSorter<Call> sortingCollection=null;
 		
 		
 		try {
@@ -280,12 +280,10 @@ public class GroupByGene
 				this.contigDictComparator = new ContigDictComparator(SequenceDictionaryUtils.extractRequired(header));
 	
 	
-				sortingCollection =SortingCollection.newInstance(
+				sortingCollection =this.writingSortingCollection.newExternalSorter(
 						Call.class,
 						new CallCodec(header),
-						(C1,C2)->C1.compare2(C2),
-						this.writingSortingCollection.getMaxRecordsInRam(),
-						this.writingSortingCollection.getTmpPaths()
+						(C1,C2)->C1.compare2(C2)
 						);
 				sortingCollection.setDestructiveIteration(true);
 		
@@ -323,7 +321,7 @@ public class GroupByGene
 					vcb.attributes(Collections.emptyMap());
 					final VariantContext ctx2 = vcb.make();
 					
-					final SortingCollection<Call> finalSorter = sortingCollection; 
+					final ExternalSorter<Call> finalSorter = sortingCollection; 
 					geneExtractors.stream().
 						flatMap(EX->EX.apply(ctx).keySet().stream()).
 						forEach(KG->{
@@ -51,6 +51,7 @@ import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 
 import htsjdk.samtools.util.BlockCompressedOutputStream;
 import htsjdk.samtools.util.CloseableIterator;
@@ -277,7 +278,7 @@ public class GtfFileSplitter
 
 	private abstract class AbstractSplitter<T extends KeyLine> {
 		final GTFCodec codec = new GTFCodec();
-		SortingCollection<T> sortingcollection=null;
+		ExternalSorter<T> sortingcollection=null;
 					
 	
 		abstract Class<T> getSortedClass();
@@ -305,12 +306,10 @@ public class GtfFileSplitter
 			archiveFactory = ArchiveFactory.open(GtfFileSplitter.this.outputFile);
 
 			
-			this.sortingcollection = SortingCollection.newInstance(
+			this.sortingcollection = GtfFileSplitter.this.writingSortingCollection.newExternalSorter(
 					getSortedClass(),
 					createCodec(),
-					createPrimaryComparator(),
-					GtfFileSplitter.this.writingSortingCollection.getMaxRecordsInRam(),
-					GtfFileSplitter.this.writingSortingCollection.getTmpPaths()
+					createPrimaryComparator()
 					);
 			this.sortingcollection.setDestructiveIteration(true);
 			long nLines=0;
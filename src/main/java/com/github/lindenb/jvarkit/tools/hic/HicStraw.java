@@ -101,6 +101,10 @@ public class HicStraw  extends Launcher {
 	private Float minValue = null;
 	@Parameter(names={"-max-value"},description="Don't print the value if it's greater than 'v'")
 	private Float maxValue = null;
+	@Parameter(names={"--threads"},description="number of threads used to inflate the blocks of a query.")
+	private int nThreads = 1;
+	@Parameter(names={"--block-cache"},description="max number of decoded contacts kept in memory between two queries. 0 disables the cache.")
+	private long blockCacheSize = HicReaderFactory.DEFAULT_BLOCK_CACHE_SIZE;
 
 	private abstract class AbstractCallBack implements HicReader.QueryCallBack {
 		PrintStream pw = null;
@@ -419,6 +423,8 @@ public class HicStraw  extends Launcher {
 				
 				try(final HicReader hicReader = new HicReaderFactory().
 							setSeekableStreamFactory(seekableStreamFactory).
+							setThreads(this.nThreads).
+							setBlockCacheSize(this.blockCacheSize).
 							open(input)) { 
 				
 					final Function<String,Locatable > parseInterval = (S)->{
@@ -50,12 +50,12 @@ import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.Interval;
 import htsjdk.samtools.util.IntervalTreeMap;
 import htsjdk.samtools.util.Locatable;
-import htsjdk.samtools.util.SortingCollection;
 
 @Program(
 		name="ibdreformater01",
@@ -265,13 +265,11 @@ public int doWork(final List<String> args) {
 		Collections.sort(bims);
 		LOG.info("number of record in "+this.bimFile+" "+bims.size());
 		
-		SortingCollection<IBDRecord> sorter = 
-				SortingCollection.newInstance(
+		ExternalSorter<IBDRecord> sorter = 
+				writingSortingCollection.newExternalSorter(
 						IBDRecord.class,
 						new IBDRecordCodec(),
-						(A,B)->A.compareSamplePos(B),
-						writingSortingCollection.getMaxRecordsInRam(),
-						writingSortingCollection.getTmpPaths()
+						(A,B)->A.compareSamplePos(B)
 						);
 		sorter.setDestructiveIteration(true);
 		long n_added = 0L;
@@ -54,13 +54,13 @@ import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.samtools.ContigDictComparator;
 
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.SAMSequenceRecord;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.Locatable;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.GenotypeBuilder;
@@ -316,7 +316,7 @@ public class IbdToVcf extends Launcher {
 		LOG.info("samples N="+this.all_samples.size());
 		}
 	
-	private void loadIbd(final SortingCollection<Data> sorting,final Path ibdFilePath) throws IOException {
+	private void loadIbd(final ExternalSorter<Data> sorting,final Path ibdFilePath) throws IOException {
 		try(BufferedReader br= IOUtils.openPathForBufferedReading(ibdFilePath)) {
 			String line = br.readLine();
 			if(line==null) throw new IOException("First line missing in "+ ibdFilePath );
@@ -365,7 +365,7 @@ public class IbdToVcf extends Launcher {
 	
 	@Override
 	public int doWork(final List<String> args) {
-		SortingCollection<Data> sorting = null;
+		ExternalSorter<Data> sorting = null;
 		try {
 			final List<Path> inputs = IOUtils.unrollPaths(args);
 			if(inputs.isEmpty()) {
@@ -378,11 +378,9 @@ public class IbdToVcf extends Launcher {
 			
 			
 			
-			sorting = SortingCollection.newInstance(
+			sorting = writingSortingCollection.newExternalSorter(
 					Data.class,new DataCodec(),
-					(A,B)->A.compare1(B),
-					writingSortingCollection.getMaxRecordsInRam(),
-					writingSortingCollection.getTmpPaths()
+					(A,B)->A.compare1(B)
 					);
 			for(final Path ibdPath : inputs) {
 				loadIbd(sorting, ibdPath);
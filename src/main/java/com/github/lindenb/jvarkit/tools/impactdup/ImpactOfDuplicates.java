@@ -17,6 +17,7 @@ import com.beust.jcommander.ParametersDelegate;
 import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 
 import htsjdk.samtools.util.IOUtil;
 import htsjdk.samtools.util.Interval;
@@ -62,7 +63,7 @@ public class ImpactOfDuplicates extends Launcher
     /* current index in BAM list */
     private int bamIndex;
     /* all duplicates, sorted */
-    private SortingCollection<Duplicate> duplicates;
+    private ExternalSorter<Duplicate> duplicates;
     
     private class Duplicate implements Comparable<Duplicate>
         {
@@ -221,7 +222,7 @@ public class ImpactOfDuplicates extends Launcher
        
         try
             {
-        this.duplicates=SortingCollection.newInstance(
+        this.duplicates=this.sortingCollectionArgs.newExternalSorter(
                     Duplicate.class,
                     new DuplicateCodec(),
                     new Comparator<Duplicate>()
@@ -231,9 +232,7 @@ public class ImpactOfDuplicates extends Launcher
     	        			{
     	        			return o1.compareTo(o2);
     	        			}
-    	            	},
-                    this.sortingCollectionArgs.getMaxRecordsInRam(),
-                    this.sortingCollectionArgs.getTmpPaths()
+    	            	}
                     );
         	
         	
@@ -37,6 +37,7 @@ import com.github.lindenb.jvarkit.util.iterator.EqualRangeIterator;
 import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.NoSplitter;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 
 import htsjdk.samtools.util.AbstractIterator;
 import htsjdk.samtools.util.BinaryCodec;
@@ -45,7 +46,6 @@ import htsjdk.samtools.util.IOUtil;
 import htsjdk.samtools.util.Locatable;
 import htsjdk.samtools.util.RuntimeEOFException;
 import htsjdk.samtools.util.RuntimeIOException;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.tribble.readers.TabixReader;
 
 public class MiniCovPlotter extends Launcher {
@@ -311,7 +311,7 @@ public class MiniCovPlotter extends Launcher {
 		final Locatable userLoc;
 		final double max_value=2.0;
 		final int index_start;
-		SortingCollection<PosDepth> sorter;
+		ExternalSorter<PosDepth> sorter;
 		Batch(final Locatable userLoc,int index) throws IOException {
 			this.userLoc=userLoc;
 			this.index_start=index;
@@ -330,12 +330,10 @@ public class MiniCovPlotter extends Launcher {
 						Canvas.KEY_STROKE,Color.DARK_GRAY
 					));
 			
-			this.sorter = SortingCollection.newInstance(
+			this.sorter = writingSortingCollection.newExternalSorter(
 					PosDepth.class,
 					new PosDepthCodec(),
-					(A,B)->Integer.compare(A.x,B.x),
-					writingSortingCollection.getMaxRecordsInRam(),
-					writingSortingCollection.getTmpPaths()
+					(A,B)->Integer.compare(A.x,B.x)
 					);
 			this.sorter.setDestructiveIteration(true);
 			}
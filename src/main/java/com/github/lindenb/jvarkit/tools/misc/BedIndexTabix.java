@@ -41,7 +41,6 @@ import htsjdk.samtools.util.BlockCompressedOutputStream;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
 import htsjdk.samtools.util.FileExtensions;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.tribble.index.Index;
 import htsjdk.tribble.index.tabix.TabixFormat;
 import htsjdk.tribble.index.tabix.TabixIndexCreator;
@@ -56,6 +55,7 @@ import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 /**
 
 BEGIN_DOC
@@ -176,12 +176,10 @@ public class BedIndexTabix
 					{
 					LOG.info("Sorting");
 					
-					SortingCollection<String>  sorter =  SortingCollection.newInstance(
+					ExternalSorter<String>  sorter =  this.writingSortingCollection.newExternalSorter(
 			                        String.class,
 			                        new BedDataCodec(),
-			                        comparator,
-			                        this.writingSortingCollection.getMaxRecordsInRam(),
-			                        this.writingSortingCollection.getTmpPaths()
+			                        comparator
 			                        );
 					while(in.hasNext())
 						{
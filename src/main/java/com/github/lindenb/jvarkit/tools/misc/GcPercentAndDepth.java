@@ -47,8 +47,6 @@ import htsjdk.samtools.SamReader;
 import htsjdk.samtools.SamReaderFactory;
 import htsjdk.samtools.ValidationStringency;
 import htsjdk.samtools.filter.SamRecordFilter;
-import htsjdk.samtools.reference.ReferenceSequenceFile;
-import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
 import htsjdk.samtools.SAMReadGroupRecord;
 import htsjdk.samtools.SAMRecord;
 import htsjdk.samtools.SAMRecordCoordinateComparator;
@@ -66,11 +64,12 @@ import com.beust.jcommander.Parameter;
 import com.github.lindenb.jvarkit.bed.BedLineReader;
 import com.github.lindenb.jvarkit.io.IOUtils;
 import com.github.lindenb.jvarkit.lang.JvarkitException;
+import com.github.lindenb.jvarkit.reference.PackedReference;
+import com.github.lindenb.jvarkit.reference.PackedSequence;
 import com.github.lindenb.jvarkit.util.bio.SequenceDictionaryUtils;
 import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
-import com.github.lindenb.jvarkit.util.picard.GenomicSequence;
 import com.github.lindenb.jvarkit.util.picard.SAMSequenceDictionaryProgress;
 import com.github.lindenb.jvarkit.util.samtools.SAMRecordPartition;
 import com.github.lindenb.jvarkit.util.samtools.SamRecordJEXLFilter;
@@ -308,8 +307,8 @@ public class GcPercentAndDepth extends Launcher
 
 		try
 			{
-			try(ReferenceSequenceFile indexedFastaSequenceFile=ReferenceSequenceFileFactory.getReferenceSequenceFile(this.refFile)) {
-			this.samSequenceDictionary = SequenceDictionaryUtils.extractRequired(indexedFastaSequenceFile);
+			try(PackedReference packedReference = PackedReference.open(this.refFile)) {
+			this.samSequenceDictionary = SequenceDictionaryUtils.extractRequired(this.refFile);
 			final SamReaderFactory srf = SamReaderFactory.make().validationStringency(ValidationStringency.LENIENT).referenceSequence(this.refFile);
 			
 			try(PrintWriter out= super.openPathOrStdoutAsPrintWriter(outPutFile)) {
@@ -402,12 +401,12 @@ public class GcPercentAndDepth extends Launcher
 					
 					
 					final SAMSequenceDictionaryProgress progress=new SAMSequenceDictionaryProgress(this.samSequenceDictionary).logger(LOG);
-					GenomicSequence genomicSequence=null;
+					PackedSequence genomicSequence=null;
 					for(final RegionCaptured roi:regionsCaptured)
 						{
 						if(genomicSequence==null || !genomicSequence.getChrom().equals(roi.getContig()))
 							{
-							genomicSequence= new GenomicSequence(indexedFastaSequenceFile,roi.getContig());
+							genomicSequence= packedReference.getSequence(roi.getContig());
 							}
 						Map<String,int[]> sample2depth=new HashMap<String,int[]>();
 						Map<String,Double> sample2meanDepth=new HashMap<String,Double>();
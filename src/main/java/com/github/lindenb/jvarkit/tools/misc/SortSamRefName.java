@@ -33,6 +33,7 @@ import com.beust.jcommander.ParametersDelegate;
 import com.github.lindenb.jvarkit.jcommander.OnePassBamLauncher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 
 import htsjdk.samtools.BAMRecordCodec;
 import htsjdk.samtools.SAMException;
@@ -42,7 +43,6 @@ import htsjdk.samtools.SAMRecord;
 import htsjdk.samtools.SAMRecordQueryNameComparator;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
-import htsjdk.samtools.util.SortingCollection;
 
 /**
 BEGIN_DOC
@@ -130,17 +130,15 @@ public class SortSamRefName extends OnePassBamLauncher {
 			final SAMFileWriter out)
 		{
 		
-		SortingCollection<SAMRecord> sorter=null;
+		ExternalSorter<SAMRecord> sorter=null;
 		try
 			{
 			final BAMRecordCodec bamRecordCodec=new BAMRecordCodec(headerIn);
 			final RefNameComparator refNameComparator=new RefNameComparator();
-			sorter =SortingCollection.newInstance(
+			sorter =this.writingSortingCollection.newExternalSorter(
 					SAMRecord.class,
 					bamRecordCodec,
-					refNameComparator,
-					this.writingSortingCollection.getMaxRecordsInRam(),
-					this.writingSortingCollection.getTmpPaths()
+					refNameComparator
 					);
 			sorter.setDestructiveIteration(true);
 			
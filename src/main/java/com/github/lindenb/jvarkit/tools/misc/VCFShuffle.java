@@ -36,7 +36,6 @@ import java.util.Random;
 
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.vcf.VCFCodec;
@@ -52,6 +51,7 @@ import com.github.lindenb.jvarkit.util.JVarkitVersion;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 /**
 BEGIN_DOC
 
@@ -136,22 +136,20 @@ public class VCFShuffle extends OnePassVcfLauncher
 	
 	@Override
 	protected int doVcfToVcf(final String inputName, final VCFIterator in, final VariantContextWriter out) {
-		SortingCollection<RLine> shuffled=null;
+		ExternalSorter<RLine> shuffled=null;
 
 		try {			
 			final Random random=new Random(this.seed);
 			final VCFHeader header = in.getHeader();
 			final VCFEncoder vcfEncoder = new VCFEncoder(header, false, false);
-			shuffled=SortingCollection.newInstance(
+			shuffled=this.writingSortingCollection.newExternalSorter(
 					RLine.class,
 					new RLineCodec(),
 					(o1,o2)->{
 						final int i= Long.compare(o1.rand, o2.rand);
 						if(i!=0) return i;
 						return o1.line.compareTo(o2.line);
-						},
-					this.writingSortingCollection.getMaxRecordsInRam(),
-					this.writingSortingCollection.getTmpPaths()
+						}
 					);
 			shuffled.setDestructiveIteration(true);
 
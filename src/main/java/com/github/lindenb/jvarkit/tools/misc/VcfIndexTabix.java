@@ -36,21 +36,21 @@ import java.util.List;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.tribble.util.TabixUtils;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.variantcontext.writer.VariantContextWriterBuilder;
 import htsjdk.variant.variantcontext.writer.VariantContextWriterBuilder.OutputType;
 import htsjdk.variant.vcf.VCFHeader;
-import htsjdk.variant.vcf.VCFRecordCodec;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParametersDelegate;
 import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.picard.SAMSequenceDictionaryProgress;
+import com.github.lindenb.jvarkit.util.vcf.BinaryVariantContextCodec;
 import htsjdk.variant.vcf.VCFIterator;
 
 /**
@@ -92,7 +92,7 @@ public class VcfIndexTabix
 	private class SortingVCFWriter implements VariantContextWriter
 		{
 		VariantContextWriter delegate;
-		SortingCollection<VariantContext> sorter=null;
+		ExternalSorter<VariantContext> sorter=null;
 		SortingVCFWriter(VariantContextWriter delegate)
 			{
 			this.delegate=delegate;
@@ -112,12 +112,10 @@ public class VcfIndexTabix
 		public void writeHeader(VCFHeader header) {
 			this.delegate.writeHeader(header);			
 			this.sorter =
-	                SortingCollection.newInstance(
+	                VcfIndexTabix.this.writingSortingCollection.newExternalSorter(
 	                        VariantContext.class,
-	                        new VCFRecordCodec(header),
-	                        header.getVCFRecordComparator(),
-	                        VcfIndexTabix.this.writingSortingCollection.getMaxRecordsInRam(),
-	                        VcfIndexTabix.this.writingSortingCollection.getTmpPaths()
+	                        new BinaryVariantContextCodec(header),
+	                        header.getVCFRecordComparator()
 	                        );
 			
 			}
@@ -153,6 +153,11 @@ public class VcfNoCallToHomRef extends OnePassVcfLauncher
 		return LOG;
 		}
 	
+	@Override
+	protected boolean isShardingSupported() {
+		return true;
+		}
+	
 	@Override
 	protected int doVcfToVcf(
 			final String inputName,
@@ -60,13 +60,13 @@ import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.log.ProgressFactory;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.vcf.VCFUtils;
 
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
 import htsjdk.samtools.util.CoordMath;
 import htsjdk.samtools.util.Interval;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
@@ -228,7 +228,7 @@ public class VcfSlidingWindowSplitter
 	
 	
 	private int run(final List<String> args) {
-		SortingCollection<WinAndLine> sortingcollection=null;
+		ExternalSorter<WinAndLine> sortingcollection=null;
 		BufferedReader in = null;
 		FileOutputStream fos = null;
 		CloseableIterator<WinAndLine> iter=null;
@@ -350,12 +350,10 @@ public class VcfSlidingWindowSplitter
 		    	for(final Interval win: makeWindows.apply(ctx))
 		    		{		    		
 		    		if(sortingcollection==null) {
-						sortingcollection = SortingCollection.newInstance(
+						sortingcollection = this.writingSortingCollection.newExternalSorter(
 								WinAndLine.class,
 								new WinAndLineCodec(),
-								new WinAndLineComparator2(),
-								this.writingSortingCollection.getMaxRecordsInRam(),
-								this.writingSortingCollection.getTmpPaths()
+								new WinAndLineComparator2()
 								);
 						sortingcollection.setDestructiveIteration(true);
 						}
@@ -55,10 +55,10 @@ import com.github.lindenb.jvarkit.util.jcommander.NoSplitter;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.RuntimeIOException;
-import htsjdk.samtools.util.SortingCollection;
 
 @Program(
 		name="palindromefinder",
@@ -222,16 +222,14 @@ private char charAt(Position p,int extend) {
 	}
 
 private StoredDatabase buildStoredDatabase() throws IOException {
-	SortingCollection<Position> sorter=null;
+	ExternalSorter<Position> sorter=null;
 	
 	try {
 		
-		sorter = SortingCollection.newInstance(
+		sorter = this.writingSortingCollection.newExternalSorter(
 				Position.class,
 				new PositionCodec(),
-				new PositionComparator(),
-				this.writingSortingCollection.getMaxRecordsInRam(),
-				this.writingSortingCollection.getTmpPaths()
+				new PositionComparator()
 				);
 		sorter.setDestructiveIteration(true);
 		for(int k=0;k< current_genome.size();++k) {
@@ -51,6 +51,7 @@ import com.github.lindenb.jvarkit.util.jcommander.NoSplitter;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.variant.vcf.BufferedVCFReader;
 import com.github.lindenb.jvarkit.variant.vcf.VCFReaderFactory;
 
@@ -63,7 +64,6 @@ import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
 import htsjdk.samtools.util.PeekableIterator;
 import htsjdk.samtools.util.RuntimeIOException;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
@@ -319,7 +319,7 @@ public class BamToHaplotypes extends MultiBamLauncher {
 	protected int processInput(
 			final SAMFileHeader headerIn,
 			final CloseableIterator<SAMRecord> iter0) {
-		SortingCollection<Haplotype> sorting  =null;
+		ExternalSorter<Haplotype> sorting  =null;
 		try {
 		final SAMSequenceDictionary dict= SequenceDictionaryUtils.extractRequired(headerIn);
 		final String sample = headerIn.getReadGroups().
@@ -328,12 +328,10 @@ public class BamToHaplotypes extends MultiBamLauncher {
 				findFirst().
 				orElse("SAMPLE");
 		
-		sorting = SortingCollection.newInstance(
+		sorting = this.writingSortingCollection.newExternalSorter(
 				Haplotype.class,
 				new HaplotypeCodec(),
-				(A,B)->A.compareTo(B),
-				this.writingSortingCollection.getMaxRecordsInRam(),
-				this.writingSortingCollection.getTmpPaths()
+				(A,B)->A.compareTo(B)
 				);
 		
 		if(this.paired_mode) {
@@ -447,7 +445,7 @@ public class BamToHaplotypes extends MultiBamLauncher {
 	private void scanVariants(
 			final SAMSequenceDictionary dict,
 			final List<SAMRecord> buffer,
-			final SortingCollection<Haplotype> sorting
+			final ExternalSorter<Haplotype> sorting
 			) {
 			if(buffer.isEmpty()) return;
 			
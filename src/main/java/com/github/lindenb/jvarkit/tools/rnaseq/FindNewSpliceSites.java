@@ -49,6 +49,7 @@ import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.log.ProgressFactory;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.samtools.ContigDictComparator;
 
 import htsjdk.samtools.Cigar;
@@ -67,7 +68,6 @@ import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.Interval;
 import htsjdk.samtools.util.IntervalTreeMap;
 import htsjdk.samtools.util.Locatable;
-import htsjdk.samtools.util.SortingCollection;
 
 /**
 BEGIN_DOC
@@ -205,7 +205,7 @@ public class FindNewSpliceSites extends Launcher
 			final SAMRecord rec,
 			final SAMSequenceDictionary dict,
 			final SAMProgramRecord okPrg,
-			final SortingCollection<Junction> sortingJunctions
+			final ExternalSorter<Junction> sortingJunctions
 			)
 			{
 		final Cigar cigar=rec.getCigar();
@@ -302,7 +302,7 @@ public class FindNewSpliceSites extends Launcher
 	private void scan(final SamReader in,
 			final SAMProgramRecord okPrg,
 			final SAMProgramRecord failPrg,
-			final SortingCollection<Junction> junctionSorter
+			final ExternalSorter<Junction> junctionSorter
 			) 
 		{
 		final SAMSequenceDictionary dict=SequenceDictionaryUtils.extractRequired(in.getFileHeader());
@@ -338,7 +338,7 @@ public class FindNewSpliceSites extends Launcher
 		}
 	@Override
 	public int doWork(final List<String> args) {
-		SortingCollection<Junction> junctionSorter = null;
+		ExternalSorter<Junction> junctionSorter = null;
 		try
 			{
 			
@@ -390,12 +390,10 @@ public class FindNewSpliceSites extends Launcher
 				if(this.bedOut!=null) {
 					final SAMSequenceDictionary dict = SequenceDictionaryUtils.extractRequired(sfr.getFileHeader());
 					this.junctionComparator = new ContigDictComparator(dict).createLocatableComparator();
-					junctionSorter = SortingCollection.newInstance(
+					junctionSorter = this.writingSortingCollection.newExternalSorter(
 							Junction.class,
 							new JunctionCodec(),
-							(A,B)->A.compare2(B),
-							this.writingSortingCollection.getMaxRecordsInRam(),
-							this.writingSortingCollection.getTmpPaths()
+							(A,B)->A.compare2(B)
 							);
 					}
 				
@@ -40,6 +40,7 @@ import com.github.lindenb.jvarkit.tools.misc.IlluminaReadName;
 import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.picard.SAMSequenceDictionaryProgress;
 
 import htsjdk.samtools.BAMRecordCodec;
@@ -55,7 +56,6 @@ import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
 import htsjdk.samtools.util.IOUtil;
 import htsjdk.samtools.util.Iso8601Date;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.samtools.util.StringUtil;
 
 
@@ -229,7 +229,7 @@ public class SamCustomSortJdk
 		SAMRecordIterator iter=null;
 		SamReader samFileReader=null;
 		SAMFileWriter sw=null;
-		SortingCollection<SAMRecord> sorter=null;
+		ExternalSorter<SAMRecord> sorter=null;
 		CloseableIterator<SAMRecord> iter2=null;
 		try
 			{
@@ -331,12 +331,10 @@ public class SamCustomSortJdk
 			final StableSort customComparator = new StableSort(( Comparator<SAMRecord>)ctor.newInstance(headerIn));
 			final BAMRecordCodec bamRecordCodec=new BAMRecordCodec(headerIn);
 			
-			sorter =SortingCollection.newInstance(
+			sorter =this.writingSortingCollection.newExternalSorter(
 						SAMRecord.class,
 						bamRecordCodec,
-						customComparator,
-						this.writingSortingCollection.getMaxRecordsInRam(),
-						this.writingSortingCollection.getTmpPaths()
+						customComparator
 						);
 			sorter.setDestructiveIteration(true);
 			
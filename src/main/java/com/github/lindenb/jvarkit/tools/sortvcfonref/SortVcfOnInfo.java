@@ -39,16 +39,16 @@ import com.github.lindenb.jvarkit.jcommander.OnePassVcfLauncher;
 import com.github.lindenb.jvarkit.util.JVarkitVersion;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
+import com.github.lindenb.jvarkit.util.vcf.BinaryVariantContextCodec;
 
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFInfoHeaderLine;
 import htsjdk.variant.vcf.VCFIterator;
-import htsjdk.variant.vcf.VCFRecordCodec;
 
 /**
 BEGIN_DOC
@@ -231,7 +231,7 @@ public class SortVcfOnInfo extends OnePassVcfLauncher {
     
     @Override
     protected int doVcfToVcf(String inputName, VCFIterator r, VariantContextWriter w) {
-    	SortingCollection<VariantContext> sorted=null;
+    	ExternalSorter<VariantContext> sorted=null;
 		try {				
 			final Comparator<VariantContext> cmp2;
 			final VCFHeader header=r.getHeader();
@@ -259,12 +259,10 @@ public class SortVcfOnInfo extends OnePassVcfLauncher {
 			
 			JVarkitVersion.getInstance().addMetaData(getClass().getSimpleName(), header);
 			
-			sorted=SortingCollection.newInstance(
+			sorted=this.writingSortingCollection.newExternalSorter(
 					VariantContext.class,
-					new VCFRecordCodec(header),
-					cmp,
-					this.writingSortingCollection.getMaxRecordsInRam(),
-					this.writingSortingCollection.getTmpPaths()
+					new BinaryVariantContextCodec(header),
+					cmp
 					);
 			sorted.setDestructiveIteration(true);
 			while(r.hasNext())
@@ -36,15 +36,15 @@ import com.github.lindenb.jvarkit.jcommander.OnePassVcfLauncher;
 import com.github.lindenb.jvarkit.util.bio.SequenceDictionaryUtils;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
+import com.github.lindenb.jvarkit.util.vcf.BinaryVariantContextCodec;
 
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.util.CloseableIterator;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFIterator;
-import htsjdk.variant.vcf.VCFRecordCodec;
 
 /**
 
@@ -85,7 +85,7 @@ public class SortVcfOnRef2 extends OnePassVcfLauncher
    @Override
    protected int doVcfToVcf(final String inputName, final VCFIterator iterin, final VariantContextWriter w) {
     	CloseableIterator<VariantContext> iter=null;
-    	SortingCollection<VariantContext> array=null;
+    	ExternalSorter<VariantContext> array=null;
     	try {
     		final VCFHeader header = iterin.getHeader();
     		final VCFHeader h2=new  VCFHeader(header);
@@ -100,12 +100,10 @@ public class SortVcfOnRef2 extends OnePassVcfLauncher
 				dict= SequenceDictionaryUtils.extractRequired(header);
 		   		}
 
-    		array= SortingCollection.newInstance(
+    		array= this.writingSortingCollection.newExternalSorter(
 					VariantContext.class,
-                    new VCFRecordCodec(h2,true),
-                    h2.getVCFRecordComparator(),
-                    this.writingSortingCollection.getMaxRecordsInRam(),
-                    this.writingSortingCollection.getTmpPaths()
+                    new BinaryVariantContextCodec(h2),
+                    h2.getVCFRecordComparator()
                     );
 			array.setDestructiveIteration(true);
 			while(iterin.hasNext())
@@ -25,27 +25,33 @@ SOFTWARE.
 */
 package com.github.lindenb.jvarkit.tools.structvar;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
-import java.io.EOFException;
+import java.io.Closeable;
 import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
-import java.util.OptionalDouble;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParametersDelegate;
+import com.github.lindenb.jvarkit.concurrent.TaskExecutor;
 import com.github.lindenb.jvarkit.io.ArchiveFactory;
 import com.github.lindenb.jvarkit.io.IOUtils;
 import com.github.lindenb.jvarkit.lang.StringUtils;
 import com.github.lindenb.jvarkit.math.DiscreteMedian;
 import com.github.lindenb.jvarkit.math.stats.Percentile;
+import com.github.lindenb.jvarkit.samtools.DepthAccumulator;
 import com.github.lindenb.jvarkit.samtools.SAMRecordDefaultFilter;
 import com.github.lindenb.jvarkit.tools.structvar.indexcov.IndexCovUtils;
 import com.github.lindenb.jvarkit.util.JVarkitVersion;
@@ -54,17 +60,13 @@ import com.github.lindenb.jvarkit.util.bio.SequenceDictionaryUtils;
 import com.github.lindenb.jvarkit.util.bio.bed.BedLine;
 import com.github.lindenb.jvarkit.util.bio.bed.BedLineCodec;
 import com.github.lindenb.jvarkit.util.bio.fasta.ContigNameConverter;
-import com.github.lindenb.jvarkit.util.iterator.EqualRangeIterator;
 import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.NoSplitter;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
-import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.log.ProgressFactory;
 import com.github.lindenb.jvarkit.variant.variantcontext.writer.WritingVariantsDelegate;
 
-import htsjdk.samtools.Cigar;
-import htsjdk.samtools.CigarElement;
-import htsjdk.samtools.CigarOperator;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMRecord;
 import htsjdk.samtools.SAMSequenceDictionary;
@@ -75,7 +77,6 @@ import htsjdk.samtools.ValidationStringency;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
 import htsjdk.samtools.util.SequenceUtil;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.samtools.util.StringUtil;
 import htsjdk.tribble.readers.TabixReader;
 import htsjdk.variant.variantcontext.Allele;
@@ -131,6 +132,8 @@ public class CoverageMatrix extends Launcher {
 	private String restrictContig = null;
 	@Parameter(names = {"--treshold"}, description = IndexCovUtils.TRESHOLD_OPT_DESC)
 	private double indexCovTreshold = IndexCovUtils.DEFAULT_TRESHOLD;
+	@Parameter(names={"--threads"},description="number of threads. Several BAMs are scanned in parallel. Each thread scans its contig by windows of "+SCAN_WINDOW_LENGTH+" bp, using about 4 bytes per base of the window.")
+	private int nThreads = 1;
 	@ParametersDelegate
 	private WritingSortingCollection writingSortingCollection= new WritingSortingCollection();
 	@ParametersDelegate
@@ -139,49 +142,147 @@ public class CoverageMatrix extends Launcher {
 
 	
 
-	private static class CovItem {
-		int sample_idx;
-		int pos;
-		float depth;
-		float stddev;
-		int compare0(CovItem item) {
-			int i = Integer.compare(this.pos, item.pos);
-			if(i!=0) return i;
-			return  Integer.compare(this.sample_idx, item.sample_idx);
-			}
-		}
+	/** length of the windows used to scan a contig, so the memory of a thread doesn't grow with the length of the contig */
+	private static final int SCAN_WINDOW_LENGTH = 10_000_000;
 
-	private static class CovItemCodec extends AbstractDataCodec<CovItem> {
-		@Override
-		public CovItem decode(final DataInputStream dis) throws IOException
-			{
-			final CovItem item = new CovItem();
-			try {
-				item.sample_idx = dis.readInt();
+	/**
+	 * normalized depth and standard deviation for each (sample,bin) of a contig.
+	 * Each sample has its own column, so the samples can be filled by several threads.
+	 * Large matrices are memory-mapped in a temporary file.
+	 */
+	private static class BinMatrix implements Closeable {
+		private final FloatBuffer[] columns;
+		private final Path tmpFile;
+		BinMatrix(final int nSamples,final int nBins,final boolean inMemory,final Path tmpDir) throws IOException {
+			this.columns = new FloatBuffer[nSamples];
+			if(inMemory) {
+				this.tmpFile = null;
+				for(int i=0;i< nSamples;i++) {
+					this.columns[i] = FloatBuffer.allocate(nBins*2);
+					}
 				}
-			catch(EOFException err) {
-				return null;
+			else
+				{
+				this.tmpFile = Files.createTempFile(tmpDir, "covmatrix.", ".bin");
+				final long columnSize = (long)nBins * 2L * Float.BYTES;
+				try(FileChannel fc = FileChannel.open(this.tmpFile, StandardOpenOption.READ,StandardOpenOption.WRITE)) {
+					for(int i=0;i< nSamples;i++) {
+						this.columns[i] = fc.map(FileChannel.MapMode.READ_WRITE, i*columnSize, columnSize).asFloatBuffer();
+						}
+					}
 				}
-			item.pos= dis.readInt();
-			item.depth = dis.readFloat();
-			item.stddev = dis.readFloat();
-			return item;
 			}
-		@Override
-		public void encode(final DataOutputStream dos,final  CovItem o) throws IOException
-			{
-			dos.writeInt(o.sample_idx);
-			dos.writeInt(o.pos);
-			dos.writeFloat(o.depth);
-			dos.writeFloat(o.stddev);
+		void set(final int sample_idx,final int bin_idx,final float depth,final float stddev) {
+			this.columns[sample_idx].put(bin_idx*2, depth);
+			this.columns[sample_idx].put(bin_idx*2+1, stddev);
+			}
+		float getDepth(final int sample_idx,final int bin_idx) {
+			return this.columns[sample_idx].get(bin_idx*2);
+			}
+		float getStdDev(final int sample_idx,final int bin_idx) {
+			return this.columns[sample_idx].get(bin_idx*2+1);
 			}
 		@Override
-		public CovItemCodec clone()
-			{
-			return new CovItemCodec();
+		public void close() throws IOException {
+			Arrays.fill(this.columns, null);
+			if(this.tmpFile!=null) Files.deleteIfExists(this.tmpFile);
+			}
+		}
+	
+	/** start of the bins of a contig. A bin is a stretch of 'bin_size' bases without black listed position */
+	private int[] getBinStarts(final BitSet blackListedPositions,final int contigLength) {
+		final List<Integer> L = new ArrayList<>();
+		int pos=0;
+		while(pos< contigLength) {
+			if(blackListedPositions.get(pos)) {
+				++pos;
+				continue;
+				}
+			int pos2=pos;
+			while(pos2 -pos < this.bin_size && pos2< contigLength && !blackListedPositions.get(pos2)) {
+				++pos2;
+				}
+			if(pos2 -pos == this.bin_size) {
+				L.add(pos);
+				}
+			pos = pos2;
 			}
+		return L.stream().mapToInt(Integer::intValue).toArray();
 		}
 	
+	/** compute the depth of one BAM on one contig and fill its column of the matrix */
+	private void scanBam(
+			final SamReaderFactory samReaderFactory,
+			final SAMSequenceDictionary dict,
+			final Path path,
+			final int bam_idx,
+			final String sampleName,
+			final SAMSequenceRecord ssr,
+			final BitSet blackListedPositions,
+			final int[] binStarts,
+			final BinMatrix matrix,
+			final DepthAccumulator depthAcc
+			) throws IOException {
+		LOG.info(ssr.getContig()+":"+path);
+		final int contigLength = ssr.getSequenceLength();
+		/* a window must contain at least one complete bin */
+		final int windowLength = Math.max(SCAN_WINDOW_LENGTH, 2 * this.bin_size);
+		final DiscreteMedian<Integer> discreteMedian = new DiscreteMedian<>();
+		final DiscreteMedian<Integer> localMedian = new DiscreteMedian<>();
+		final double[] localMedians = new double[binStarts.length];
+		final double[] localStdDevs = new double[binStarts.length];
+		int bin_idx = 0;
+		/* 0-based positions before 'counted' were already added to discreteMedian */
+		int counted = 0;
+		try(SamReader sr = samReaderFactory.open(path)) {
+			final SAMFileHeader header= sr.getFileHeader();
+			
+			SequenceUtil.assertSequenceDictionariesEqual(dict,header.getSequenceDictionary());
+			int winStart0 = 0;
+			for(;;) {
+				final int winEnd0 = (int)Math.min((long)contigLength, (long)winStart0 + windowLength);
+				depthAcc.reset(ssr.getSequenceName(), winStart0 + 1, winEnd0);
+				try(CloseableIterator<SAMRecord> siter = sr.queryOverlapping(ssr.getContig(), winStart0 + 1, winEnd0)) {
+					while(siter.hasNext()) {
+						depthAcc.add(siter.next());
+						}
+					} // try
+				final int depth[] = depthAcc.getDepthArray();
+				
+				for(int pos=Math.max(counted, winStart0);pos< winEnd0;++pos) {
+					if(!blackListedPositions.get(pos) && depth[pos-winStart0]<=this.max_depth) {
+						discreteMedian.add(depth[pos-winStart0]);
+						}
+					}
+				counted = winEnd0;
+				
+				/* bins fully contained in this window */
+				while(bin_idx < binStarts.length && binStarts[bin_idx] + this.bin_size <= winEnd0) {
+					localMedian.clear();
+					final int pos = binStarts[bin_idx];
+					for(int pos2=pos;pos2 < pos + this.bin_size;++pos2) {
+						// consider this.max_depth here ?
+						localMedian.add(depth[pos2-winStart0]);
+						}
+					localMedians[bin_idx] = localMedian.getMedian().orElse(0.0);
+					localStdDevs[bin_idx] = localMedian.getStandardDeviation().orElse(-1.0);
+					bin_idx++;
+					}
+				if(winEnd0 >= contigLength) break;
+				/* next window starts at the first incomplete bin, its positions are not counted twice */
+				winStart0 = bin_idx < binStarts.length ? Math.min(winEnd0, binStarts[bin_idx]) : winEnd0;
+				}
+			}
+		final double median = discreteMedian.getMedian().orElse(1.0);
+		LOG.info(sampleName+ " :"+ssr.getSequenceName()+" median depth:"+median);
+		
+		for(int i=0;i < binStarts.length;++i) {
+			matrix.set(bam_idx, i,
+				(float)(localMedians[i]/median),
+				(float)localStdDevs[i]
+				);
+			}
+		}
 
 	@Override
 	public int doWork(final List<String> args) {
@@ -252,193 +353,139 @@ public class CoverageMatrix extends Launcher {
 			JVarkitVersion.getInstance().addMetaData(this, vcfheader);
 			w.writeHeader(vcfheader);
 			
-			for(final SAMSequenceRecord ssr: dict.getSequences()) {
-				if(!StringUtils.isBlank(restrictContig) && !restrictContig.equals(ssr.getSequenceName())) continue;
-				final int depth[]= new int[ssr.getSequenceLength()];
-				final BitSet blackListedPositions = new BitSet(depth.length);
+			final Allele REF = Allele.create("N", true);
+			final Allele DEL = Allele.create("<DEL>", false);
+			final Allele DUP = Allele.create("<DUP>", false);
+			/* idle accumulators: a worker borrows one for each (BAM,contig) so the depth arrays of the windows are re-used */
+			final Queue<DepthAccumulator> depthAccumulators = new ConcurrentLinkedQueue<>();
+			try(TaskExecutor executor = new TaskExecutor(this.nThreads)) {
+				for(final SAMSequenceRecord ssr: dict.getSequences()) {
+					if(!StringUtils.isBlank(restrictContig) && !restrictContig.equals(ssr.getSequenceName())) continue;
+					final BitSet blackListedPositions = new BitSet(ssr.getSequenceLength());
 								
-				// fill black listed regions
-				if(this.blackListedPath!=null) {
-					try(TabixReader tbr= new TabixReader(this.blackListedPath.toString())) {
-						final ContigNameConverter cvt = ContigNameConverter.fromContigSet(tbr.getChromosomes());
-						final String ctg = cvt.apply(ssr.getSequenceName());
-						if(!StringUtils.isBlank(ctg)) {
-							final BedLineCodec codec = new BedLineCodec();
-							final TabixReader.Iterator tbxr = tbr.query(ctg,1, ssr.getSequenceLength());
-							for(;;) {
-								final String line = tbxr.next();
-								if(line==null) break;
-								final BedLine bed = codec.decode(line);
-								if(bed==null) continue;
-								int p1 = Math.max(bed.getStart(),1);
-								while(p1 <= ssr.getSequenceLength()  && p1 <= bed.getEnd()) {
-									blackListedPositions.set(p1-1);
-									++p1;
+					// fill black listed regions
+					if(this.blackListedPath!=null) {
+						try(TabixReader tbr= new TabixReader(this.blackListedPath.toString())) {
+							final ContigNameConverter cvt = ContigNameConverter.fromContigSet(tbr.getChromosomes());
+							final String ctg = cvt.apply(ssr.getSequenceName());
+							if(!StringUtils.isBlank(ctg)) {
+								final BedLineCodec codec = new BedLineCodec();
+								final TabixReader.Iterator tbxr = tbr.query(ctg,1, ssr.getSequenceLength());
+								for(;;) {
+									final String line = tbxr.next();
+									if(line==null) break;
+									final BedLine bed = codec.decode(line);
+									if(bed==null) continue;
+									int p1 = Math.max(bed.getStart(),1);
+									while(p1 <= ssr.getSequenceLength()  && p1 <= bed.getEnd()) {
+										blackListedPositions.set(p1-1);
+										++p1;
+										}
 									}
 								}
 							}
+						catch(Throwable err) {
+							LOG.warn(err);
+							}
 						}
-					catch(Throwable err) {
-						LOG.warn(err);
-						}
-					}
-				
-				final SortingCollection<CovItem> sorter = SortingCollection.newInstance(
-						CovItem.class, new CovItemCodec(),
-						(A,B)->A.compare0(B),
-						this.writingSortingCollection.getMaxRecordsInRam(),
-						this.writingSortingCollection.getTmpPaths()
-						);
 				
-				
-				for(int bam_idx=0;bam_idx<inputBams.size();++bam_idx) {
-					final Path path = inputBams.get(bam_idx);
-					LOG.info(ssr.getContig()+":"+path+" "+bam_idx+"/"+inputBams.size());
-					try(SamReader sr = samReaderFactory.open(path)) {
-						final SAMFileHeader header= sr.getFileHeader();
-						
-						SequenceUtil.assertSequenceDictionariesEqual(dict,header.getSequenceDictionary());
-						Arrays.fill(depth, 0);
-						try(CloseableIterator<SAMRecord> siter = sr.queryOverlapping(ssr.getContig(), 1, ssr.getLengthOnReference())) {
-							while(siter.hasNext()) {
-								final SAMRecord rec= siter.next();
-								if(rec.getReadUnmappedFlag()) continue;
-								if(!SAMRecordDefaultFilter.accept(rec, this.min_mapq)) continue;
-								int ref=rec.getStart();
-								final Cigar cigar = rec.getCigar();
-								if(cigar==null) continue;
-								
-								for(CigarElement ce:cigar) {
-									final CigarOperator op = ce.getOperator();
-									final int len = ce.getLength();
-									if(op.consumesReferenceBases()) {
-										if(op.consumesReadBases()) {
-											for(int i=0;i< len;i++) {
-												final int pos = ref+i;
-												if(pos < 1) continue;
-												if(pos > ssr.getLengthOnReference()) break;
-												depth[pos-1]++;
-												}
-											}
-										ref+=len;
-										}
-									}// loop cigar
-								}// end samItere
-						} // try
-		
-					final DiscreteMedian<Integer> discreteMedian = new DiscreteMedian<>();
-					int pos=0;
-					while(pos< depth.length) {
-						if(!blackListedPositions.get(pos) && depth[pos]<=this.max_depth) {
-							discreteMedian.add(depth[pos]);
+					final int[] binStarts = getBinStarts(blackListedPositions, ssr.getSequenceLength());
+					if(binStarts.length==0) continue;
+					final boolean inMemory = (long)binStarts.length * inputBams.size() <= this.writingSortingCollection.getMaxRecordsInRam();
+					try(BinMatrix matrix = new BinMatrix(inputBams.size(), binStarts.length, inMemory, this.writingSortingCollection.getTmpPath())) {
+						final List<Callable<Void>> tasks = new ArrayList<>(inputBams.size());
+						for(int bam_idx=0;bam_idx<inputBams.size();++bam_idx) {
+							final int sample_idx = bam_idx;
+							tasks.add(()->{
+								DepthAccumulator depthAcc = depthAccumulators.poll();
+								if(depthAcc==null) {
+									depthAcc = new DepthAccumulator().
+										setRecordFilter(R->SAMRecordDefaultFilter.accept(R, this.min_mapq));
+									}
+								try {
+									scanBam(samReaderFactory, dict, inputBams.get(sample_idx), sample_idx, idx2samples.get(sample_idx),
+										ssr, blackListedPositions, binStarts, matrix, depthAcc);
+									}
+								finally {
+									depthAccumulators.offer(depthAcc);
+									}
+								return null;
+								});
 							}
-						++pos;
-						}
-					final double median = discreteMedian.getMedian().orElse(1.0);
-					LOG.info(idx2samples.get(bam_idx)+ " :"+ssr.getSequenceName()+" median depth:"+median);
+						executor.progress(ProgressFactory.newInstance().logger(LOG).prefix(ssr.getSequenceName()));
+						executor.invokeAll(tasks);
 					
-					final DiscreteMedian<Integer> localMedian = new DiscreteMedian<>();
-					pos=0;
-					while(pos< depth.length) {
-						if(blackListedPositions.get(pos) /* non pas maxdepth */) {
-							++pos;
-							continue;
-							}
-						int pos2=pos;
-						localMedian.clear();
-						while(pos2 -pos < this.bin_size && pos2< depth.length && !blackListedPositions.get(pos2)) {
-							// consider this.max_depth here ?
-							localMedian.add(depth[pos2]);
-							++pos2;
-							}
-						if(pos2 -pos == this.bin_size) {
-							final double localMed = localMedian.getMedian().orElse(0.0);
-							final CovItem item = new CovItem();
-							item.pos = pos;
-							item.sample_idx = bam_idx;
-							item.depth = (float)(localMed/median);
-							item.stddev = (float)localMedian.getStandardDeviation().orElse(-1.0);
-							sorter.add(item);
+						final float[] depths = new float[inputBams.size()];
+						final double[] depths_as_double = new double[depths.length];
+						for(int bin_idx=0;bin_idx< binStarts.length;++bin_idx) {
+							final int bin_start = binStarts[bin_idx];
+							for(int i=0;i< depths.length;i++) {
+								depths[i] = matrix.getDepth(i, bin_idx);
+								depths_as_double[i] = depths[i];
+								}
+							final double avg_depth = Arrays.stream(depths_as_double).average().orElse(0);
+							final double sum =  Arrays.stream(depths_as_double).map(D->Math.pow(D - avg_depth,2.0)).sum();
+							final double stdDev = Math.sqrt(sum/depths.length);
+						
+							final double medianOfmedian = Percentile.median().evaluate(depths_as_double).orElse(1.0);
+							if(medianOfmedian<=0) continue;
+							boolean all_nan = true;
+							for(int i=0;i< depths.length;i++) {
+								depths[i]/=medianOfmedian;
+								if(!(Float.isNaN(depths[i]) || Float.isInfinite(depths[i]))) all_nan = false;
+								}
+							if(all_nan) continue;
+						
+							final VariantContextBuilder vcb = new VariantContextBuilder();
+							vcb.chr(ssr.getContig());
+							vcb.start(bin_start+1);
+							vcb.stop(bin_start+this.bin_size);
+							vcb.attribute(VCFConstants.END_KEY, bin_start+this.bin_size);
+							vcb.attribute(infoStdDev.getID(), stdDev);
+							vcb.attribute(infoMedianD.getID(), medianOfmedian);
+						
+							final Set<Allele> alleles = new HashSet<>();
+							alleles.add(REF);
+							final List<Genotype> genotypes = new ArrayList<>(depths.length);
+							final Set<String> affected= new TreeSet<>();
+					
+							for(int i=0;i< depths.length;i++) {
+								final float depth = depths[i];
+								final String sn = idx2samples.get(i);
+								final GenotypeBuilder gb;
+								switch(indexCovUtils.getType(depth))
+									{
+									case AMBIGOUS: gb = new GenotypeBuilder(sn,Arrays.asList(Allele.NO_CALL,Allele.NO_CALL));break;
+									case HET_DEL: alleles.add(DEL);gb = new GenotypeBuilder(sn,Arrays.asList(REF,DEL));affected.add(sn);break;
+									case HOM_DEL: alleles.add(DEL);gb = new GenotypeBuilder(sn,Arrays.asList(DEL,DEL));affected.add(sn);break;
+									case HET_DUP: alleles.add(DUP);gb = new GenotypeBuilder(sn,Arrays.asList(REF,DUP));affected.add(sn);break;
+									case HOM_DUP: alleles.add(DUP);gb = new GenotypeBuilder(sn,Arrays.asList(DUP,DUP));affected.add(sn);break;
+									case REF: gb = new GenotypeBuilder(sn,Arrays.asList(REF,REF));break;
+									default: throw new IllegalStateException();
+									}
+								gb.attribute(fmtNormDepth.getID(), depth);
+								gb.attribute(fmtStdDev.getID(), matrix.getStdDev(i, bin_idx));
+								genotypes.add(gb.make());
+								}
+							if(affected.isEmpty()) continue;
+						
+							if(affected.size()==inputBams.size()) {
+								vcb.filter(filterAll.getID());
+								}
+							else
+								{
+								vcb.passFilters();
+								}
+							vcb.attribute(infoSamples.getID(), new ArrayList<>(affected));
+							vcb.attribute(infoNSamples.getID(), affected.size());
+						
+							vcb.genotypes(genotypes);
+							vcb.alleles(alleles);
+							w.add(vcb.make());
 							}
-						pos = pos2;
 						}
-					}//end loop over samples
-				}//end loop over bams
-			sorter.doneAdding();
-			sorter.setDestructiveIteration(true);
-				
-			final CloseableIterator<CovItem> iter = sorter.iterator();
-			final EqualRangeIterator<CovItem> iter2 = new EqualRangeIterator<>(iter,(A,B)->Integer.compare(A.pos, B.pos));
-			final Allele REF = Allele.create("N", true);
-			final Allele DEL = Allele.create("<DEL>", false);
-			final Allele DUP = Allele.create("<DUP>", false);
-			while(iter2.hasNext()) {
-				final List<CovItem> list = iter2.next();
-				final CovItem first = list.get(0);
-				final double avg_depth = list.stream().mapToDouble(F->F.depth).average().orElse(0);
-				final double sum =  list.stream().mapToDouble(F->F.depth).map(D->Math.pow(D - avg_depth,2.0)).sum();
-				final double stdDev = Math.sqrt(sum/list.size());
-				
-				final OptionalDouble optMedianOfmedian = Percentile.median().evaluate(list.stream().mapToDouble(I->I.depth));
-				final double medianOfmedian = optMedianOfmedian.orElse(1.0);
-				if(medianOfmedian<=0) continue;
-				for(int i=0;i< list.size();i++) {
-					list.get(i).depth/=medianOfmedian;
-					}
-				if( list.stream().allMatch(F->Float.isNaN(F.depth) || Float.isInfinite(F.depth))) continue;
-				
-				final VariantContextBuilder vcb = new VariantContextBuilder();
-				vcb.chr(ssr.getContig());
-				vcb.start(first.pos+1);
-				vcb.stop(first.pos+this.bin_size);
-				vcb.attribute(VCFConstants.END_KEY, first.pos+this.bin_size);
-				vcb.attribute(infoStdDev.getID(), stdDev);
-				vcb.attribute(infoMedianD.getID(), medianOfmedian);
-				
-				final Set<Allele> alleles = new HashSet<>();
-				alleles.add(REF);
-				final List<Genotype> genotypes = new ArrayList<>(list.size());
-				final Set<String> affected= new TreeSet<>();
-			
-				for(int i=0;i< list.size();i++) {
-					final CovItem item = list.get(i);
-					final String sn = idx2samples.get(item.sample_idx);
-					final GenotypeBuilder gb;
-					switch(indexCovUtils.getType(item.depth))
-						{
-						case AMBIGOUS: gb = new GenotypeBuilder(sn,Arrays.asList(Allele.NO_CALL,Allele.NO_CALL));break;
-						case HET_DEL: alleles.add(DEL);gb = new GenotypeBuilder(sn,Arrays.asList(REF,DEL));affected.add(sn);break;
-						case HOM_DEL: alleles.add(DEL);gb = new GenotypeBuilder(sn,Arrays.asList(DEL,DEL));affected.add(sn);break;
-						case HET_DUP: alleles.add(DUP);gb = new GenotypeBuilder(sn,Arrays.asList(REF,DUP));affected.add(sn);break;
-						case HOM_DUP: alleles.add(DUP);gb = new GenotypeBuilder(sn,Arrays.asList(DUP,DUP));affected.add(sn);break;
-						case REF: gb = new GenotypeBuilder(sn,Arrays.asList(REF,REF));break;
-						default: throw new IllegalStateException();
-						}
-					gb.attribute(fmtNormDepth.getID(), item.depth);
-					gb.attribute(fmtStdDev.getID(), item.stddev);
-					genotypes.add(gb.make());
-					}
-				if(affected.isEmpty()) continue;
-				
-				if(affected.size()==inputBams.size()) {
-					vcb.filter(filterAll.getID());
-					}
-				else
-					{
-					vcb.passFilters();
-					}
-				vcb.attribute(infoSamples.getID(), new ArrayList<>(affected));
-				vcb.attribute(infoNSamples.getID(), affected.size());
-				
-				vcb.genotypes(genotypes);
-				vcb.alleles(alleles);
-				w.add(vcb.make());
+				}// end loop over contigs
 				}
-			iter2.close();
-			iter.close();
-			sorter.cleanup();
-			System.gc();
-			}// end while iter
 			w.close();w=null;
 			return 0;
 			}
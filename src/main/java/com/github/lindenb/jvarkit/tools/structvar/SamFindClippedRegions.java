@@ -58,6 +58,7 @@ import com.github.lindenb.jvarkit.util.jcommander.NoSplitter;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.variant.variantcontext.writer.WritingVariantsDelegate;
 
 import htsjdk.samtools.Cigar;
@@ -75,7 +76,6 @@ import htsjdk.samtools.util.Interval;
 import htsjdk.samtools.util.IntervalTreeMap;
 import htsjdk.samtools.util.Locatable;
 import htsjdk.samtools.util.SequenceUtil;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.GenotypeBuilder;
@@ -303,13 +303,11 @@ public class SamFindClippedRegions extends Launcher {
 					}
 				}
 			
-			SortingCollection<Base> sortingCollection =
-					SortingCollection.newInstance(
+			ExternalSorter<Base> sortingCollection =
+					writingSortingCollection.newExternalSorter(
 							Base.class,
 							new BaseCodec(),
-							(A,B)->A.compare1(B),
-							writingSortingCollection.getMaxRecordsInRam(),
-							writingSortingCollection.getTmpPath()
+							(A,B)->A.compare1(B)
 							);
 			sortingCollection.setDestructiveIteration(true);
 			
@@ -40,12 +40,13 @@ import com.github.lindenb.jvarkit.util.Counter;
 import com.github.lindenb.jvarkit.util.JVarkitVersion;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
+import com.github.lindenb.jvarkit.util.vcf.BinaryVariantContextCodec;
 import com.github.lindenb.jvarkit.variant.variantcontext.Breakend;
 
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.PeekIterator;
 import htsjdk.samtools.util.CoordMath;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.GenotypeBuilder;
 import htsjdk.variant.variantcontext.VariantContext;
@@ -56,7 +57,6 @@ import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFHeaderLineType;
 import htsjdk.variant.vcf.VCFInfoHeaderLine;
 import htsjdk.variant.vcf.VCFIterator;
-import htsjdk.variant.vcf.VCFRecordCodec;
 
 /**
 BEGIN_DOC
@@ -95,8 +95,8 @@ public class VcfPostProcessSV extends OnePassVcfLauncher {
 	
 	@Override
 	protected int doVcfToVcf(String inputName, VCFIterator iterin, VariantContextWriter out) {	
-		SortingCollection<VariantContext> sorter1 = null;
-		SortingCollection<VariantContext> sorter2 = null;
+		ExternalSorter<VariantContext> sorter1 = null;
+		ExternalSorter<VariantContext> sorter2 = null;
 		try {		
 			final Counter<String> counter = new Counter<>();
 			if(StringUtils.isBlank(this.keys)) {
@@ -136,20 +136,16 @@ public class VcfPostProcessSV extends OnePassVcfLauncher {
 						
 			final Comparator<VariantContext> comparator = (A,B)->   A.getAttributeAsString(mateID, "").compareTo(B.getAttributeAsString(mateID, ""));
 			
-			sorter1 = SortingCollection.newInstance(
+			sorter1 = this.writingSortingCollection.newExternalSorter(
 					VariantContext.class,
-                    new VCFRecordCodec(header,true),
-                    comparator,
-                    this.writingSortingCollection.getMaxRecordsInRam(),
-                    this.writingSortingCollection.getTmpPaths()
+                    new BinaryVariantContextCodec(header),
+                    comparator
                     );
 			
-			sorter2 = SortingCollection.newInstance(
+			sorter2 = this.writingSortingCollection.newExternalSorter(
 					VariantContext.class,
-                    new VCFRecordCodec(header,true),
-                    header.getVCFRecordComparator(),
-                    this.writingSortingCollection.getMaxRecordsInRam(),
-                    this.writingSortingCollection.getTmpPaths()
+                    new BinaryVariantContextCodec(header),
+                    header.getVCFRecordComparator()
                     );
 			
 			while(iterin.hasNext()) {
@@ -40,10 +40,11 @@ import com.github.lindenb.jvarkit.util.JVarkitVersion;
 import com.github.lindenb.jvarkit.util.iterator.EqualRangeIterator;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
+import com.github.lindenb.jvarkit.util.vcf.BinaryVariantContextCodec;
 import com.github.lindenb.jvarkit.variant.variantcontext.Breakend;
 
 import htsjdk.samtools.util.CloseableIterator;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.GenotypeBuilder;
 import htsjdk.variant.variantcontext.VariantContext;
@@ -54,7 +55,6 @@ import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFHeaderLineType;
 import htsjdk.variant.vcf.VCFInfoHeaderLine;
 import htsjdk.variant.vcf.VCFIterator;
-import htsjdk.variant.vcf.VCFRecordCodec;
 import htsjdk.variant.vcf.VCFStandardHeaderLines;
 
 /**
@@ -175,8 +175,8 @@ public class GridssPostProcessVcf extends OnePassVcfLauncher {
 	
 	@Override
 	protected int doVcfToVcf(String inputName, VCFIterator iterin, VariantContextWriter out) {	
-		SortingCollection<VariantContext> sorter1 = null;
-		SortingCollection<VariantContext> sorter2 = null;
+		ExternalSorter<VariantContext> sorter1 = null;
+		ExternalSorter<VariantContext> sorter2 = null;
 		PrintWriter debug = null;
 		try {
 			debug = this.debugFile == null?
@@ -188,12 +188,10 @@ public class GridssPostProcessVcf extends OnePassVcfLauncher {
 			final VCFHeader header= iterin.getHeader();
 			LOG.info("reading input.");
 			final Comparator<VariantContext> comparator = (A,B)->  A.getAttributeAsString(EVENT_KEY, "").compareTo(B.getAttributeAsString(EVENT_KEY, ""));
-			sorter1 = SortingCollection.newInstance(
+			sorter1 = this.writingSortingCollection.newExternalSorter(
 					VariantContext.class,
-                    new VCFRecordCodec(header,true),
-                    comparator,
-                    this.writingSortingCollection.getMaxRecordsInRam(),
-                    this.writingSortingCollection.getTmpPaths()
+                    new BinaryVariantContextCodec(header),
+                    comparator
                     );
 			while(iterin.hasNext()) {
 				final VariantContext ctx = iterin.next();
@@ -211,12 +209,10 @@ public class GridssPostProcessVcf extends OnePassVcfLauncher {
 			@SuppressWarnings("resource")
 			final EqualRangeIterator<VariantContext> equal_range = new EqualRangeIterator<>(iter2, comparator);
 			
-			sorter2 = SortingCollection.newInstance(
+			sorter2 = this.writingSortingCollection.newExternalSorter(
 					VariantContext.class,
-                    new VCFRecordCodec(header,true),
-                    header.getVCFRecordComparator(),
-                    this.writingSortingCollection.getMaxRecordsInRam(),
-                    this.writingSortingCollection.getTmpPaths()
+                    new BinaryVariantContextCodec(header),
+                    header.getVCFRecordComparator()
                     );
 			
 			while(equal_range.hasNext()) {
@@ -64,6 +64,7 @@ import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.variant.variantcontext.writer.WritingVariantsDelegate;
 
 import htsjdk.samtools.SAMSequenceDictionary;
@@ -71,7 +72,6 @@ import htsjdk.samtools.SAMSequenceRecord;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.FileExtensions;
 import htsjdk.samtools.util.RuntimeIOException;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.samtools.util.StringUtil;
 import htsjdk.tribble.readers.TabixReader;
 import htsjdk.variant.variantcontext.Allele;
@@ -209,8 +209,8 @@ public class IndexCovToVcf extends Launcher {
 		BufferedReader br = null;
 		VariantContextWriter vcw  = null;
 		TabixReader tabix = null;
-		SortingCollection<GenotypeV> sorter1=null;
-		SortingCollection<GenotypeV> sorter2=null;
+		ExternalSorter<GenotypeV> sorter1=null;
+		ExternalSorter<GenotypeV> sorter2=null;
 		try {
 
 			final SAMSequenceDictionary dictionary =  SequenceDictionaryUtils.extractRequired(this.refFile);
@@ -295,12 +295,10 @@ public class IndexCovToVcf extends Launcher {
 					return sortByPosition.compare(A,B);
 					};	
 				
-				sorter1 =  SortingCollection.newInstance(
+				sorter1 =  writingSortingCollection.newExternalSorter(
 						GenotypeV.class,
 						new GenotypeVCodec(),
-						sortBySamplePos,
-						writingSortingCollection.getMaxRecordsInRam(),
-						writingSortingCollection.getTmpPaths()
+						sortBySamplePos
 						);
 				sorter1.setDestructiveIteration(true);
 
@@ -318,12 +316,10 @@ public class IndexCovToVcf extends Launcher {
 				sorter1.doneAdding();
 				
 				
-				sorter2 =  SortingCollection.newInstance(
+				sorter2 =  writingSortingCollection.newExternalSorter(
 						GenotypeV.class,
 						new GenotypeVCodec(),
-						sortByPosition,
-						writingSortingCollection.getMaxRecordsInRam(),
-						writingSortingCollection.getTmpPaths()
+						sortByPosition
 						);
 				sorter2.setDestructiveIteration(true);
 				
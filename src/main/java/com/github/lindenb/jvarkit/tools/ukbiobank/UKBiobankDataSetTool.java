@@ -25,9 +25,9 @@ import com.github.lindenb.jvarkit.lang.CharSplitter;
 import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 
 import htsjdk.samtools.util.CloseableIterator;
-import htsjdk.samtools.util.SortingCollection;
 
 public class UKBiobankDataSetTool extends Launcher {
 	private static final Logger LOG = Logger.build(UKBiobankDataSetTool.class).make();
@@ -111,14 +111,12 @@ public class UKBiobankDataSetTool extends Launcher {
 		}
 	
 	private void make(List<String> args) throws IOException {
-		SortingCollection<Triple> sorting = null;
+		ExternalSorter<Triple> sorting = null;
 		try {
-			sorting = SortingCollection.newInstance(
+			sorting = writingSortingCollection.newExternalSorter(
 					Triple.class,
 					new TripleCodec(),
-					(A,B)->A.compare2(B),
-					writingSortingCollection.getMaxRecordsInRam(),
-					writingSortingCollection.getTmpPaths()
+					(A,B)->A.compare2(B)
 					);
 			sorting.setDestructiveIteration(true);
 			CharSplitter tab = CharSplitter.TAB;
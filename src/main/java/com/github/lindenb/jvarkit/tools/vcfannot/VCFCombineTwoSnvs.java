@@ -68,6 +68,7 @@ import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.log.ProgressFactory;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.picard.GenomicSequence;
 import com.github.lindenb.jvarkit.util.samtools.ContigDictComparator;
 import com.github.lindenb.jvarkit.util.vcf.VCFUtils;
@@ -95,7 +96,6 @@ import htsjdk.samtools.util.Interval;
 import htsjdk.samtools.util.IntervalTreeMap;
 import htsjdk.samtools.util.Locatable;
 import htsjdk.samtools.util.SequenceUtil;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.VariantContext;
@@ -214,7 +214,7 @@ public class VCFCombineTwoSnvs extends Launcher
 	/** current genomic sequence */
 	private GenomicSequence genomicSequence=null;
 	/** all variants */
-	private SortingCollection<Variant> variants= null;
+	private ExternalSorter<Variant> variants= null;
 	/**  map transcript to their sequence */
 	private final WeakHashMap<String, RNASequence> kgId2transcriptCache = new WeakHashMap<>();
 	private final RNASequenceFactory rnaSequenceFactory = new RNASequenceFactory();
@@ -614,7 +614,7 @@ static private class MutationComparatorTwo extends MutationComparatorOne
 		{
 		BufferedReader bufferedReader = null;
 		htsjdk.variant.variantcontext.writer.VariantContextWriter w=null;
-		SortingCollection<CombinedMutation> mutations = null;
+		ExternalSorter<CombinedMutation> mutations = null;
 		CloseableIterator<Variant> varIter = null;
 		CloseableIterator<CombinedMutation> mutIter = null;
 		final Map<String,SamReader> sample2samReader = new HashMap<>();
@@ -683,11 +683,9 @@ static private class MutationComparatorTwo extends MutationComparatorOne
 	        
 	        loadTranscripts();
 
-			this.variants = SortingCollection.newInstance(Variant.class,
+			this.variants = this.writingSortingCollection.newExternalSorter(Variant.class,
 					new VariantCodec(),
-					new VariantComparatorTwo(dict),
-					this.writingSortingCollection.getMaxRecordsInRam(),
-					this.writingSortingCollection.getTmpPaths()
+					new VariantComparatorTwo(dict)
 					);
 			this.variants.setDestructiveIteration(true);
 			
@@ -734,11 +732,9 @@ static private class MutationComparatorTwo extends MutationComparatorOne
 						IOUtils.openPathForPrintWriter(this.bedPePath)
 						;
 			
-			mutations = SortingCollection.newInstance(CombinedMutation.class,
+			mutations = this.writingSortingCollection.newExternalSorter(CombinedMutation.class,
 					new MutationCodec(),
-					new MutationComparatorTwo(dict),
-					this.writingSortingCollection.getMaxRecordsInRam(),
-					this.writingSortingCollection.getTmpPaths()
+					new MutationComparatorTwo(dict)
 					);
 			mutations.setDestructiveIteration(true);
 			
@@ -99,6 +99,8 @@ public class VCFSVAnnotator extends AbstractOnePassVcfAnnotator
 	private String regulomePath = null;
 	@Parameter(names={"--ensemblreg"},description=GffEnsemblRegVariantAnnotator.OPT_DESC)
 	private String ensemblRegGTFPath = null;
+	@Parameter(names={"--streaming"},description="Input VCF is sorted on coordinate. gnomad, dgv and regulomedb tabix files will be read forward in one pass instead of being queried for each variant. Falls back to random access if a variant is out of order.")
+	private boolean streaming = false;
 
 	
 	
@@ -164,25 +166,31 @@ public class VCFSVAnnotator extends AbstractOnePassVcfAnnotator
 						)));
 				}
 			if(!StringUtils.isBlank(this.gnomadPath)) {
-				annotators.add(new GnomadSVBedTabixVariantAnnotator(this.gnomadPath,
+				final GnomadSVBedTabixVariantAnnotator ann = new GnomadSVBedTabixVariantAnnotator(this.gnomadPath,
 						AttributeMap.fromPairs(
 								GnomadSVBedTabixVariantAnnotator.FRACTION_KEY,
 								String.valueOf(dynaParams.getDoubleAttribute("fraction").orElse(0.9))
-						)));
+						));
+				ann.setStreaming(this.streaming);
+				annotators.add(ann);
 				}
 			if(!StringUtils.isBlank(this.dgvPath)) {
-				annotators.add(new DGVBedTabixVariantAnnotator(this.dgvPath,
+				final DGVBedTabixVariantAnnotator ann = new DGVBedTabixVariantAnnotator(this.dgvPath,
 						AttributeMap.fromPairs(
 								DGVBedTabixVariantAnnotator.FRACTION_KEY,
 								String.valueOf(dynaParams.getDoubleAttribute("fraction").orElse(0.9))
-						)));
+						));
+				ann.setStreaming(this.streaming);
+				annotators.add(ann);
 				}
 			if(!StringUtils.isBlank(this.regulomePath)) {
-				annotators.add(new RegulomeDBTabixAnnotator(this.regulomePath,
+				final RegulomeDBTabixAnnotator ann = new RegulomeDBTabixAnnotator(this.regulomePath,
 						AttributeMap.fromPairs(
 								RegulomeDBTabixAnnotator.EXTEND_KEY,
 								String.valueOf("0")
-						)));
+						));
+				ann.setStreaming(this.streaming);
+				annotators.add(ann);
 				}
 			if(!StringUtils.isBlank(this.ensemblRegGTFPath)) {
 				annotators.add(new GffEnsemblRegVariantAnnotator(this.ensemblRegGTFPath,
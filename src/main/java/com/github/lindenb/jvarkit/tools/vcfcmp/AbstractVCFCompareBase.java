@@ -37,7 +37,6 @@ import java.util.Comparator;
 import java.util.List;
 
 import htsjdk.samtools.util.CloserUtil;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.tribble.readers.LineIterator;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.VariantContext;
@@ -48,6 +47,7 @@ import com.github.lindenb.jvarkit.io.IOUtils;
 import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.picard.SAMSequenceDictionaryProgress;
 import com.github.lindenb.jvarkit.util.vcf.ContigPosRef;
 import com.github.lindenb.jvarkit.util.vcf.VCFUtils;
@@ -205,7 +205,7 @@ public abstract class AbstractVCFCompareBase extends Launcher
 		}
 	
 	/** insert all  variant of vcfUri into the sorting collection */
-	protected Input put(final SortingCollection<LineAndFile> variants, String vcfUri)
+	protected Input put(final ExternalSorter<LineAndFile> variants, String vcfUri)
 		throws IOException
 		{
 		LOG.info("begin inserting "+vcfUri);
@@ -46,13 +46,13 @@ import com.github.lindenb.jvarkit.io.IOUtils;
 import com.github.lindenb.jvarkit.util.Counter;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.vcf.ContigPosRef;
 
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
 import htsjdk.samtools.util.SequenceUtil;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.GenotypeBuilder;
@@ -119,7 +119,7 @@ public class VCFComm extends AbstractVCFCompareBase {
 	@Override
 	public int doWork(final List<String> args) {
 		CloseableIterator<LineAndFile> iter = null;
-		SortingCollection<LineAndFile> variants=null;
+		ExternalSorter<LineAndFile> variants=null;
 		VariantContextWriter w=null;
 		try
 			{
@@ -133,12 +133,10 @@ public class VCFComm extends AbstractVCFCompareBase {
 			
 			
 			
-			variants=SortingCollection.newInstance(
+			variants=super.sortingCollectionArgs.newExternalSorter(
 					LineAndFile.class, 
 					new LineAndFileCodec(),
-					new LineAndFileComparator(),
-					super.sortingCollectionArgs.getMaxRecordsInRam(),
-					super.sortingCollectionArgs.getTmpPaths()
+					new LineAndFileComparator()
 					);
 			variants.setDestructiveIteration(true);
 			
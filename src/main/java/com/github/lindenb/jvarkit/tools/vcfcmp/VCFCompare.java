@@ -19,7 +19,6 @@ import javax.xml.stream.XMLStreamWriter;
 
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.tribble.readers.LineIterator;
 import htsjdk.tribble.readers.LineIteratorImpl;
 import htsjdk.tribble.readers.LineReader;
@@ -38,6 +37,7 @@ import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.so.SequenceOntologyTree;
 import com.github.lindenb.jvarkit.util.so.SequenceOntologyTree.Term;
 import com.github.lindenb.jvarkit.util.vcf.ContigPosRef;
@@ -547,16 +547,14 @@ public class VCFCompare extends Launcher
 		PrintWriter pw =null;
 		XMLStreamWriter w=null;
 		InputStream in=null;
-		SortingCollection<LineAndFile> variants=null;
+		ExternalSorter<LineAndFile> variants=null;
 		try
 			{
 			LineAndFileComparator varcmp=new LineAndFileComparator();
 			
 			
-			variants=SortingCollection.newInstance(LineAndFile.class, new LineAndFileCodec(),
-					varcmp,
-					this.writingSortingCollection.getMaxRecordsInRam(),
-					this.writingSortingCollection.getTmpPaths()
+			variants=this.writingSortingCollection.newExternalSorter(LineAndFile.class, new LineAndFileCodec(),
+					varcmp
 					);
 			variants.setDestructiveIteration(true);
 
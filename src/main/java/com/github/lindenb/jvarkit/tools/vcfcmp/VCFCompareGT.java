@@ -43,7 +43,6 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import htsjdk.samtools.util.CloseableIterator;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.samtools.util.StringUtil;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
@@ -69,6 +68,7 @@ import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.vcf.JexlVariantPredicate;
 import com.github.lindenb.jvarkit.variant.vcf.VCFReaderFactory;
 
@@ -269,17 +269,15 @@ public class VCFCompareGT extends Launcher {
 			}
 		
 		VariantComparator varcmp=new VariantComparator();
-		SortingCollection<Variant> variants = null;
+		ExternalSorter<Variant> variants = null;
 		final Set<String> sampleNames=new LinkedHashSet<>();
 		try
 			{
 			
-			variants=SortingCollection.newInstance(
+			variants=writingSortingCollection.newExternalSorter(
 					Variant.class,
 					new VariantCodec(),
-					varcmp,
-					writingSortingCollection.getMaxRecordsInRam(),
-					writingSortingCollection.getTmpPaths()
+					varcmp
 					);
 			variants.setDestructiveIteration(true);
 			
@@ -12,6 +12,7 @@ import java.util.Set;
 
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.so.SequenceOntologyTree;
 import com.github.lindenb.jvarkit.util.vcf.predictions.SnpEffPredictionParser;
 import com.github.lindenb.jvarkit.util.vcf.predictions.SnpEffPredictionParser.SnpEffPrediction;
@@ -22,7 +23,6 @@ import com.github.lindenb.jvarkit.util.vcf.predictions.VepPredictionParserFactor
 
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.variant.variantcontext.VariantContext;
 
 
@@ -178,7 +178,7 @@ public class VCFComparePredictions extends AbstractVCFCompareBase {
 	public int doWork(List<String> args) {
 	
 		PrintWriter out=null;
-		SortingCollection<LineAndFile> variants=null;
+		ExternalSorter<LineAndFile> variants=null;
 		try
 			{
 			if(args.isEmpty())
@@ -188,12 +188,10 @@ public class VCFComparePredictions extends AbstractVCFCompareBase {
 				}
 			out= super.openFileOrStdoutAsPrintWriter(super.outputFile);
 
-			variants=SortingCollection.newInstance(
+			variants=super.sortingCollectionArgs.newExternalSorter(
 					LineAndFile.class,
 					new AbstractVCFCompareBase.LineAndFileCodec(),
-					new AbstractVCFCompareBase.LineAndFileComparator(),
-					super.sortingCollectionArgs.getMaxRecordsInRam(),
-					super.sortingCollectionArgs.getTmpPaths()
+					new AbstractVCFCompareBase.LineAndFileComparator()
 					);
 			variants.setDestructiveIteration(true);
 			
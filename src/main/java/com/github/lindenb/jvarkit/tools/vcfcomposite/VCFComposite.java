@@ -42,7 +42,6 @@ import java.util.stream.Collectors;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.RuntimeIOException;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.samtools.util.StringUtil;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.VariantContext;
@@ -70,6 +69,7 @@ import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
 import com.github.lindenb.jvarkit.util.samtools.ContigDictComparator;
 import com.github.lindenb.jvarkit.util.vcf.JexlGenotypePredicate;
 import com.github.lindenb.jvarkit.util.vcf.JexlVariantPredicate;
@@ -256,8 +256,8 @@ public class VCFComposite extends Launcher {
 	private WritingVariantsDelegate writingVariantsDelegate = new WritingVariantsDelegate();
 
 	
-	private AbstractVCFCodec vcfDecoder = null;
-	private VCFEncoder vcfEncoder = null;
+	/** header used by the codecs of the sorting collections */
+	private VCFHeader vcfHeader = null;
 	private List<Sample> affectedSamples = new ArrayList<>();
 	private List<Sample> unaffectedSamples = new ArrayList<>();
 	private PrintWriter reportWriter =  null;
@@ -276,11 +276,19 @@ public class VCFComposite extends Launcher {
 	
 	private class VariantLineCodec extends AbstractDataCodec<VariantLine>
 		{
+		/* each codec owns its decoder/encoder: clones may be used by several threads */
+		private final AbstractVCFCodec vcfDecoder;
+		private final VCFEncoder vcfEncoder;
+		VariantLineCodec() {
+			this.vcfDecoder = VCFUtils.createDefaultVCFCodec();
+			this.vcfDecoder.setVCFHeader(VCFComposite.this.vcfHeader, VCFHeaderVersion.VCF4_2);
+			this.vcfEncoder = new VCFEncoder(VCFComposite.this.vcfHeader, false, true);
+			}
 		@Override
 		public VariantLine decode(final DataInputStream dis) throws IOException {
 			try {
 				final long n = dis.readLong();
-				final VariantContext ctx = VCFComposite.this.vcfDecoder.decode(IOUtils.readString(dis));
+				final VariantContext ctx = this.vcfDecoder.decode(IOUtils.readString(dis));
 				return new VariantLine(n,ctx);
 				} 
 			catch(final EOFException err)
@@ -292,7 +300,7 @@ public class VCFComposite extends Launcher {
 		@Override
 		public void encode(DataOutputStream dos, VariantLine object) throws IOException {
 			dos.writeLong(object.id);
-			IOUtils.writeString(dos,VCFComposite.this.vcfEncoder.encode(object.ctx));
+			IOUtils.writeString(dos,this.vcfEncoder.encode(object.ctx));
 			}
 
 		@Override
@@ -750,30 +758,24 @@ public class VCFComposite extends Launcher {
 
 
 		long ID_GENERATOR = 0L;
-		this.vcfDecoder = VCFUtils.createDefaultVCFCodec();
-		this.vcfDecoder.setVCFHeader(header, VCFHeaderVersion.VCF4_2);
-		this.vcfEncoder = new VCFEncoder(header, false, true);
-		SortingCollection<GeneAndVariant> sorting=null;
-		SortingCollection<VariantLine> outputSorter = null;
+		this.vcfHeader = header;
+		ExternalSorter<GeneAndVariant> sorting=null;
+		ExternalSorter<VariantLine> outputSorter = null;
 
 		try
 			{
 			LOG.info("reading variants and genes");
 			/* Gene and variant sorter */
-			sorting = SortingCollection.newInstance(GeneAndVariant.class,
+			sorting = this.writingSortingCollection.newExternalSorter(GeneAndVariant.class,
 					new GeneAndVariantCodec(),
-					GeneAndVariant::compareGeneThenIndex,
-					this.writingSortingCollection.getMaxRecordsInRam(),
-					this.writingSortingCollection.getTmpPaths()
+					GeneAndVariant::compareGeneThenIndex
 					);
 			sorting.setDestructiveIteration(true);
 			/* Variant sorter */
-			outputSorter = SortingCollection.newInstance(
+			outputSorter = this.writingSortingCollection.newExternalSorter(
 					VariantLine.class,
 					new VariantLineCodec(),
-					variantLineComparator,
-					this.writingSortingCollection.getMaxRecordsInRam(),
-					this.writingSortingCollection.getTmpPaths()
+					variantLineComparator
 					);
 			outputSorter.setDestructiveIteration(true);
 			
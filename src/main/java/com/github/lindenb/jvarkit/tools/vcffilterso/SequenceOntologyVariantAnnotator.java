@@ -12,6 +12,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import com.beust.jcommander.Parameter;
@@ -69,6 +70,8 @@ public class SequenceOntologyVariantAnnotator implements VariantAnnotator {
 
 	/* all sequence terms */
 	private final Set<SequenceOntologyTree.Term> user_terms=new HashSet<>();
+	/* user_terms compiled as a bitmask */
+	private Predicate<SequenceOntologyTree.Term> user_terms_predicate = T->false;
 
 	
 	private final List<AbstractPredictionHandler> predictionHandlers = new ArrayList<>();				
@@ -469,7 +472,7 @@ public class SequenceOntologyVariantAnnotator implements VariantAnnotator {
 		if(ctxTerms==null || ctxTerms.isEmpty()) return false;
 		return ctxTerms.
 				stream().
-				anyMatch(S->this.user_terms.contains(S));
+				anyMatch(this.user_terms_predicate);
 		}				
 				
 	private boolean isRecodingGenotypes() {
@@ -515,6 +518,7 @@ public class SequenceOntologyVariantAnnotator implements VariantAnnotator {
 				{
 				this.user_terms.addAll(tmpSet1);
 				}
+			this.user_terms_predicate = getSequenceOntologyTree().createTermPredicate(this.user_terms, false);
 			}
 	
 	@Override
@@ -40,6 +40,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import htsjdk.samtools.util.StringUtil;
@@ -210,6 +211,8 @@ public class VcfFilterSequenceOntology
 
 	/* all sequence terms */
 	private final Set<SequenceOntologyTree.Term> user_terms=new HashSet<SequenceOntologyTree.Term>();
+	/* user_terms compiled as a bitmask */
+	private Predicate<SequenceOntologyTree.Term> user_terms_predicate = T->false;
 
 	
 	public VcfFilterSequenceOntology()
@@ -233,6 +236,10 @@ public class VcfFilterSequenceOntology
 			return this;
 			}
 		boolean supportFilterAlleles() { return false;}
+		/** true if each prediction must be parsed: we need the alleles or the predictions to be kept */
+		boolean isVisitingEachPrediction() {
+			return isRecodingGenotypes() || VcfFilterSequenceOntology.this.removeUnusedAttribute;
+			}
 		abstract AbstractPredictionHandler visit(final VariantContext ctx,final VariantContextBuilder vcb);
 		void updateInfo(final VariantContext ctx,final VariantContextBuilder vcb)
 			{
@@ -268,6 +275,11 @@ public class VcfFilterSequenceOntology
 		AbstractPredictionHandler visit(final VariantContext ctx,final VariantContextBuilder vcb)
 			{
 			if(!ctx.hasAttribute(this.getTag())) return this;
+			if(!isVisitingEachPrediction()) {
+				/* only the SO terms are needed, don't create the predictions */
+				this.keepFlag = this.parser.anySOTermMatches(ctx,user_terms_predicate);
+				return this;
+				}
 			for(final VepPredictionParser.VepPrediction pred : this.parser.getPredictions(ctx))
 				{
 
@@ -359,6 +371,11 @@ public class VcfFilterSequenceOntology
 		AbstractPredictionHandler visit(final VariantContext ctx,final VariantContextBuilder vcb)
 			{
 			if(!ctx.hasAttribute(this.getTag())) return this;
+			if(!isVisitingEachPrediction()) {
+				/* only the SO terms are needed, don't create the predictions */
+				this.keepFlag = this.parser.anySOTermMatches(ctx,user_terms_predicate);
+				return this;
+				}
 			for(final AnnPredictionParser.AnnPrediction pred : this.parser.getPredictions(ctx))
 				{
 				if(pred==null) continue;
@@ -403,6 +420,11 @@ public class VcfFilterSequenceOntology
 		AbstractPredictionHandler visit(final VariantContext ctx,final VariantContextBuilder vcb)
 			{
 			if(!ctx.hasAttribute(this.getTag())) return this;
+			if(!isVisitingEachPrediction()) {
+				/* only the SO terms are needed, don't create the predictions */
+				this.keepFlag = this.parser.anySOTermMatches(ctx,user_terms_predicate);
+				return this;
+				}
 			for(final BcfToolsPredictionParser.BcfToolsPrediction pred : this.parser.getPredictions(ctx))
 				{
 				if(pred==null) continue;
@@ -600,7 +622,7 @@ public class VcfFilterSequenceOntology
 		if(ctxTerms==null || ctxTerms.isEmpty()) return false;
 		return ctxTerms.
 				stream().
-				anyMatch(S->this.user_terms.contains(S));
+				anyMatch(this.user_terms_predicate);
 		}				
 				
 	private boolean isRecodingGenotypes() {
@@ -717,6 +739,7 @@ public class VcfFilterSequenceOntology
 				{
 				this.user_terms.addAll(tmpSet1);
 				}
+			this.user_terms_predicate = this.sequenceOntologyTree.createTermPredicate(this.user_terms, false);
 			
 			if(this.user_terms.isEmpty())
 				{
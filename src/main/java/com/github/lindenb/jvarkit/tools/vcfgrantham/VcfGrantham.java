@@ -198,6 +198,11 @@ public class VcfGrantham extends OnePassVcfLauncher {
 			}
 		}
 	@Override
+	protected boolean isShardingSupported() {
+		return true;
+		}
+	
+	@Override
 	protected int doVcfToVcf(String inputName, VCFIterator iter, VariantContextWriter out) {
 		
 		final VCFHeader header = iter.getHeader();
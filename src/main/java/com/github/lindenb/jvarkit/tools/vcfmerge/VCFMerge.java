@@ -24,17 +24,26 @@ SOFTWARE.
 */
 package com.github.lindenb.jvarkit.tools.vcfmerge;
 
+import java.io.Closeable;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -52,14 +61,16 @@ import com.github.lindenb.jvarkit.util.iterator.EqualRangeIterator;
 import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
+import com.github.lindenb.jvarkit.util.vcf.BinaryVariantContextCodec;
 import com.github.lindenb.jvarkit.variant.variantcontext.writer.WritingVariantsDelegate;
 import com.github.lindenb.jvarkit.variant.vcf.VCFReaderFactory;
 
 import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.util.AbstractIterator;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.CloserUtil;
 import htsjdk.samtools.util.SequenceUtil;
-import htsjdk.samtools.util.SortingCollection;
 import htsjdk.samtools.util.StringUtil;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
@@ -71,7 +82,6 @@ import htsjdk.variant.vcf.VCFConstants;
 import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFHeaderLine;
 import htsjdk.variant.vcf.VCFReader;
-import htsjdk.variant.vcf.VCFRecordCodec;
 import htsjdk.variant.vcf.VCFStandardHeaderLines;
 /**
 BEGIN_DOC
@@ -79,6 +89,11 @@ BEGIN_DOC
 The motivation for this is to merge a large number of VCF files without opening a bunch of temporary files.
 
 For a regular normal number of files you should use  GATK combineVariants or bcftools merge
+
+By default, all the variants are sorted in a temporary collection. With `--streaming`, the input VCFs must be sorted
+and they are merged on the fly: only a few variants per file are kept in memory and there is no temporary file.
+Each VCF is kept open during the whole merge (mind the maximum number of open files, see `ulimit -n`).
+With `--threads`, the variants of each VCF are decoded ahead in parallel.
  
 ## Example
 
@@ -112,7 +127,7 @@ END_DOC
 	description="Merge a large number of VCF Files",
 	keywords={"vcf","sort","merge"},
 	creationDate="20130916",
-	modificationDate="20201209"
+	modificationDate="20261017"
 	)
 public class VCFMerge
 	extends Launcher
@@ -136,11 +151,187 @@ public class VCFMerge
 			VCFConstants.GENOTYPE_ALLELE_DEPTHS,
 			VCFConstants.GENOTYPE_PL_KEY
 			);;
+	@Parameter(names={"--streaming"},description="Input VCFs are sorted: merge them on the fly (k-way merge) instead of sorting all the variants in a temporary collection. Memory is bounded by a few variants per file.")
+	private boolean streaming = false;
+	@Parameter(names={"--threads"},description="With --streaming: number of threads used to decode the variants of each VCF ahead.")
+	private int nThreads = 1;
 	@ParametersDelegate
 	private WritingSortingCollection writingSortingCollection = new WritingSortingCollection();
 	@ParametersDelegate
 	private WritingVariantsDelegate writingVariantsDelegate = new WritingVariantsDelegate();
 
+	/** number of variants decoded ahead, per file, with --streaming and --threads */
+	private static final int PREFETCH_BATCH_SIZE = 100;
+	
+	/** one sorted input VCF in the streaming merge. When an executor is available, the next batch of variants is decoded ahead. */
+	private static class StreamingSource implements Closeable {
+		private final int index;
+		private final Path path;
+		private final VCFReader reader;
+		private final CloseableIterator<VariantContext> delegate;
+		private final Predicate<VariantContext> accept;
+		private final UnaryOperator<VariantContext> simplifier;
+		private final Comparator<VariantContext> compareChromPos;
+		private final ExecutorService executor;
+		private Iterator<VariantContext> current = Collections.emptyIterator();
+		private Future<List<VariantContext>> nextBatch = null;
+		/** last variant read from the delegate, for checking the order */
+		private VariantContext lastRead = null;
+		/** current variant of this source */
+		VariantContext head = null;
+		
+		StreamingSource(final int index,final Path path,final VCFReader reader,final CloseableIterator<VariantContext> delegate,
+				final Predicate<VariantContext> accept,final UnaryOperator<VariantContext> simplifier,
+				final Comparator<VariantContext> compareChromPos,final ExecutorService executor) {
+			this.index = index;
+			this.path = path;
+			this.reader = reader;
+			this.delegate = delegate;
+			this.accept = accept;
+			this.simplifier = simplifier;
+			this.compareChromPos = compareChromPos;
+			this.executor = executor;
+			if(this.executor!=null) this.nextBatch = this.executor.submit(this::readBatch);
+			}
+		
+		/** read the next variants from the delegate. Only one batch per source is read at a time. */
+		private List<VariantContext> readBatch() {
+			final List<VariantContext> batch = new ArrayList<>(this.executor==null?1:PREFETCH_BATCH_SIZE);
+			while(this.delegate.hasNext() && batch.size() < (this.executor==null?1:PREFETCH_BATCH_SIZE)) {
+				final VariantContext ctx = this.delegate.next();
+				if(this.lastRead!=null && this.compareChromPos.compare(this.lastRead, ctx) > 0) {
+					throw new IllegalStateException("With --streaming, the input must be sorted. In "+this.path+", got "+ctx.getContig()+":"+ctx.getStart()+" after "+this.lastRead.getContig()+":"+this.lastRead.getStart());
+					}
+				this.lastRead = ctx;
+				if(!this.accept.test(ctx)) continue;
+				batch.add(this.simplifier.apply(ctx));
+				}
+			return batch;
+			}
+		
+		/** move to the next variant. return false if there is no more variant */
+		boolean advance() {
+			while(!this.current.hasNext()) {
+				final List<VariantContext> batch;
+				if(this.executor==null) {
+					batch = readBatch();
+					}
+				else
+					{
+					try {
+						batch = this.nextBatch.get();
+						}
+					catch(final InterruptedException err) {
+						Thread.currentThread().interrupt();
+						throw new RuntimeException(err);
+						}
+					catch(final ExecutionException err) {
+						if(err.getCause() instanceof RuntimeException) throw RuntimeException.class.cast(err.getCause());
+						throw new RuntimeException(err.getCause());
+						}
+					this.nextBatch = batch.isEmpty() ? null : this.executor.submit(this::readBatch);
+					}
+				if(batch.isEmpty()) {
+					this.head = null;
+					return false;
+					}
+				this.current = batch.iterator();
+				}
+			this.head = this.current.next();
+			return true;
+			}
+		
+		@Override
+		public void close() {
+			/* wait for the pending batch: the delegate can't be closed while it is read */
+			if(this.nextBatch!=null) {
+				try {
+					this.nextBatch.get();
+					}
+				catch(final InterruptedException err) {
+					Thread.currentThread().interrupt();
+					}
+				catch(final ExecutionException err) {
+					/* ignore, we're closing */
+					}
+				this.nextBatch = null;
+				}
+			CloserUtil.close(this.delegate);
+			CloserUtil.close(this.reader);
+			}
+		}
+	
+	/**
+	 * k-way merge of sorted VCFs using a priority queue over the sources.
+	 * All the variants at the same CHROM/POS are collected and sorted on REF (and input order),
+	 * so the output has the same order as the sorting collection.
+	 */
+	private static class StreamingMergeIterator extends AbstractIterator<VariantContext> implements CloseableIterator<VariantContext> {
+		private final List<StreamingSource> sources;
+		private final PriorityQueue<StreamingSource> queue;
+		private final Comparator<VariantContext> compareChromPos;
+		private final Comparator<VariantContext> compareChromPosRef;
+		private final List<VariantContext> buffer = new ArrayList<>();
+		private int buffer_index = 0;
+		
+		StreamingMergeIterator(final List<StreamingSource> sources,final Comparator<VariantContext> compareChromPos,final Comparator<VariantContext> compareChromPosRef) {
+			this.sources = sources;
+			this.compareChromPos = compareChromPos;
+			this.compareChromPosRef = compareChromPosRef;
+			this.queue = new PriorityQueue<>(Math.max(1, sources.size()), (S1,S2)->{
+				final int i = compareChromPos.compare(S1.head, S2.head);
+				if(i!=0) return i;
+				return Integer.compare(S1.index, S2.index);
+				});
+			for(final StreamingSource src: sources) {
+				if(src.advance()) {
+					this.queue.add(src);
+					}
+				else
+					{
+					src.close();
+					}
+				}
+			}
+		
+		@Override
+		protected VariantContext advance() {
+			if(this.buffer_index < this.buffer.size()) {
+				return this.buffer.get(this.buffer_index++);
+				}
+			this.buffer.clear();
+			this.buffer_index = 0;
+			if(this.queue.isEmpty()) return null;
+			final VariantContext first = this.queue.peek().head;
+			while(!this.queue.isEmpty() && this.compareChromPos.compare(this.queue.peek().head, first)==0) {
+				final StreamingSource src = this.queue.poll();
+				/* consume all the variants of this source at this position */
+				boolean remain;
+				do {
+					this.buffer.add(src.head);
+					remain = src.advance();
+					} while(remain && this.compareChromPos.compare(src.head, first)==0);
+				if(remain) {
+					this.queue.add(src);
+					}
+				else
+					{
+					src.close();
+					}
+				}
+			/* stable sort: input order is kept for the same REF */
+			this.buffer.sort(this.compareChromPosRef);
+			return this.buffer.get(this.buffer_index++);
+			}
+		
+		@Override
+		public void close() {
+			this.queue.clear();
+			for(final StreamingSource src: this.sources) {
+				src.close();
+				}
+			}
+		}
 	
 	@Override
 	public int doWork(final List<String> args) {
@@ -148,8 +339,9 @@ public class VCFMerge
 		final Set<String> genotypeSampleNames=new TreeSet<String>();
 		SAMSequenceDictionary dict=null;
 		VariantContextWriter w=null;
-		SortingCollection<VariantContext> array = null;
+		ExternalSorter<VariantContext> array = null;
 		CloseableIterator<VariantContext> iter=null;
+		ExecutorService executor = null;
 		try
 			{
 			userVcfFiles.addAll(IOUtils.unrollPaths(args));
@@ -260,44 +452,65 @@ public class VCFMerge
 			mergedHeader.setSequenceDictionary(dict);
 			JVarkitVersion.getInstance().addMetaData(this, mergedHeader);
 			
-			array= SortingCollection.newInstance(
-					VariantContext.class,
-					new VCFRecordCodec(mergedHeader),
-					compareChromPosRef,
-					this.writingSortingCollection.getMaxRecordsInRam(),
-					this.writingSortingCollection.getTmpPaths()
-					);
-			array.setDestructiveIteration(true);
+			/* remove the FILTERs, the INFO, the no-call genotypes and the extended FORMAT attributes */
+			final UnaryOperator<VariantContext> simplifier = ctx->new VariantContextBuilder(ctx).
+					unfiltered().
+					genotypes(ctx.getGenotypes().stream().filter(G->G.isCalled()).map(G->{
+						final GenotypeBuilder gb= new GenotypeBuilder(G);
+						gb.noAttributes();
+						return gb.make();
+						}).collect(Collectors.toList())).
+					rmAttributes(new ArrayList<>(ctx.getAttributes().keySet())).make();
 			
-			for(final Path vcfFile:userVcfFiles) {
-				try(VCFReader in= VCFReaderFactory.makeDefault().open(vcfFile,requireIndex)){
-					try(CloseableIterator<VariantContext> lit=(in.isQueryable() && rgn!=null ?in.query(rgn):in.iterator())) {
-						while(lit.hasNext())
-							{					
-							final VariantContext  ctx = lit.next();
-							if(!accept.test(ctx)) continue;
-							array.add(new VariantContextBuilder(ctx).
-									unfiltered().
-									genotypes(ctx.getGenotypes().stream().filter(G->G.isCalled()).map(G->{
-										final GenotypeBuilder gb= new GenotypeBuilder(G);
-										gb.noAttributes();
-										return gb.make();
-										}).collect(Collectors.toList())).
-									rmAttributes(new ArrayList<>(ctx.getAttributes().keySet())).make());
-							}
+			if(this.streaming) {
+				if(this.nThreads>1) {
+					executor = Executors.newFixedThreadPool(this.nThreads);
+					}
+				final List<StreamingSource> sources = new ArrayList<>(userVcfFiles.size());
+				try {
+					for(final Path vcfFile:userVcfFiles) {
+						final VCFReader in = VCFReaderFactory.makeDefault().open(vcfFile,requireIndex);
+						final CloseableIterator<VariantContext> lit = (in.isQueryable() && rgn!=null ?in.query(rgn):in.iterator());
+						sources.add(new StreamingSource(sources.size(), vcfFile, in, lit, accept, simplifier, compareChromPos, executor));
 						}
-		
 					}
+				catch(final Throwable err) {
+					CloserUtil.close(sources);
+					throw err;
+					}
+				LOG.info("merging..."+userVcfFiles.size()+" vcfs");
+				iter = new StreamingMergeIterator(sources, compareChromPos, compareChromPosRef);
 				}
-			array.doneAdding();
-			LOG.info("merging..."+userVcfFiles.size()+" vcfs");
-	
+			else
+				{
+				array= this.writingSortingCollection.newExternalSorter(
+						VariantContext.class,
+						new BinaryVariantContextCodec(mergedHeader),
+						compareChromPosRef
+						);
+				array.setDestructiveIteration(true);
+				
+				for(final Path vcfFile:userVcfFiles) {
+					try(VCFReader in= VCFReaderFactory.makeDefault().open(vcfFile,requireIndex)){
+						try(CloseableIterator<VariantContext> lit=(in.isQueryable() && rgn!=null ?in.query(rgn):in.iterator())) {
+							while(lit.hasNext())
+								{					
+								final VariantContext  ctx = lit.next();
+								if(!accept.test(ctx)) continue;
+								array.add(simplifier.apply(ctx));
+								}
+							}
 			
+						}
+					}
+				array.doneAdding();
+				LOG.info("merging..."+userVcfFiles.size()+" vcfs");
+				iter= array.iterator();
+				}
 	
 			//create the context writer
 			w= this.writingVariantsDelegate.open(outputFile);
 			w.writeHeader(mergedHeader);
-			iter= array.iterator();
 			EqualRangeIterator<VariantContext> eqiter = new EqualRangeIterator<>(iter, compareChromPosRef);
 			while(eqiter.hasNext())
 				{
@@ -399,7 +612,8 @@ public class VCFMerge
 			eqiter.close();
 			
 			CloserUtil.close(w);w=null;
-			array.cleanup();array=null;
+			if(array!=null) array.cleanup();
+			array=null;
 			CloserUtil.close(iter);iter=null;
 			return 0;
 			}
@@ -412,6 +626,7 @@ public class VCFMerge
 			CloserUtil.close(w);
 			CloserUtil.close(iter);
 			if(array!=null) array.cleanup();
+			if(executor!=null) executor.shutdownNow();
 			}
 		}
 	
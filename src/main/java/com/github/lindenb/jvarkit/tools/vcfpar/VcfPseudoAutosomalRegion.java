@@ -81,6 +81,11 @@ public class VcfPseudoAutosomalRegion extends OnePassVcfLauncher
 		}
 	
 	
+	@Override
+	protected boolean isShardingSupported() {
+		return true;
+		}
+	
 	@Override
 	protected int doVcfToVcf(String inputName, VCFIterator iterin, VariantContextWriter out) {
 		
@@ -31,14 +31,11 @@ import java.util.List;
 import java.util.OptionalInt;
 
 import com.github.lindenb.jvarkit.lang.StringUtils;
+import com.github.lindenb.jvarkit.reference.PackedReference;
 import com.github.lindenb.jvarkit.util.bio.ChromosomeSequence;
-import com.github.lindenb.jvarkit.util.bio.SequenceDictionaryUtils;
 import com.github.lindenb.jvarkit.util.bio.fasta.ContigNameConverter;
-import com.github.lindenb.jvarkit.util.picard.GenomicSequence;
 import com.github.lindenb.jvarkit.variant.VariantAnnotator;
 
-import htsjdk.samtools.reference.ReferenceSequenceFile;
-import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
 import htsjdk.variant.vcf.VCFFilterHeaderLine;
@@ -50,7 +47,7 @@ public class PolyXVariantAnnotator implements VariantAnnotator {
 	private OptionalInt filterTreshold = OptionalInt.empty();
 	private String polyXtag = "POLYX";
 	private boolean skipFiltered=false;
-	private final ReferenceSequenceFile  referenceSequenceFile;
+	private final PackedReference  packedReference;
 	private VCFInfoHeaderLine infoHeaderLine = null;
 	private VCFFilterHeaderLine filterHeaderLine = null;
 	private ChromosomeSequence genomicContig=null;
@@ -58,8 +55,8 @@ public class PolyXVariantAnnotator implements VariantAnnotator {
 
 	
 	public PolyXVariantAnnotator(Path faixPath) throws IOException {
-		this.referenceSequenceFile = ReferenceSequenceFileFactory.getReferenceSequenceFile(faixPath);
-		this.contigNameConverter = ContigNameConverter.fromOneDictionary(SequenceDictionaryUtils.extractRequired(referenceSequenceFile));
+		this.packedReference = PackedReference.open(faixPath);
+		this.contigNameConverter = ContigNameConverter.fromOneDictionary(this.packedReference.getSequenceDictionary());
 		}
 
 	public void setSkipFiltered(boolean skipFiltered) {
@@ -126,7 +123,7 @@ public class PolyXVariantAnnotator implements VariantAnnotator {
 		
 			if(this.genomicContig==null || !this.genomicContig.hasName(normalizedContig))
 				{
-				this.genomicContig= new GenomicSequence(this.referenceSequenceFile, normalizedContig);
+				this.genomicContig= this.packedReference.getSequence(normalizedContig);
 				}
 		
 		final VariantContextBuilder b = new VariantContextBuilder(ctx);
@@ -182,10 +179,6 @@ public class PolyXVariantAnnotator implements VariantAnnotator {
 	@Override
 	public void close() {
 		this.genomicContig = null;
-		try {
-			this.referenceSequenceFile.close();
-			}
-		catch(IOException err) {
-			}
+		this.packedReference.close();
 		}
 }
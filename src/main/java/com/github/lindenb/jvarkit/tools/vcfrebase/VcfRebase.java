@@ -35,17 +35,15 @@ import java.util.Set;
 import com.beust.jcommander.Parameter;
 import com.github.lindenb.jvarkit.jcommander.OnePassVcfLauncher;
 import com.github.lindenb.jvarkit.lang.StringUtils;
+import com.github.lindenb.jvarkit.reference.PackedReference;
+import com.github.lindenb.jvarkit.reference.PackedSequence;
 import com.github.lindenb.jvarkit.util.bio.AcidNucleics;
 import com.github.lindenb.jvarkit.util.bio.Rebase;
-import com.github.lindenb.jvarkit.util.bio.SequenceDictionaryUtils;
 import com.github.lindenb.jvarkit.util.bio.fasta.ContigNameConverter;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
-import com.github.lindenb.jvarkit.util.picard.GenomicSequence;
 
 import htsjdk.samtools.SAMSequenceDictionary;
-import htsjdk.samtools.reference.ReferenceSequenceFile;
-import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
 import htsjdk.samtools.util.CloserUtil;
 import htsjdk.samtools.util.IOUtil;
 import htsjdk.variant.variantcontext.VariantContext;
@@ -131,8 +129,8 @@ public class VcfRebase extends OnePassVcfLauncher {
 
 	@Override
 	protected int doVcfToVcf(String inputName, VCFIterator iter, VariantContextWriter out) {
-		 ReferenceSequenceFile indexedFastaSequenceFile=null;
-		 GenomicSequence genomicSequence=null;
+		 PackedReference packedReference=null;
+		 PackedSequence genomicSequence=null;
 
 		try
 			{
@@ -181,8 +179,8 @@ public class VcfRebase extends OnePassVcfLauncher {
 				}
 			
 			IOUtil.assertFileIsReadable(this.referenceFile);
-			final SAMSequenceDictionary dict = SequenceDictionaryUtils.extractRequired(this.referenceFile);
-			indexedFastaSequenceFile = ReferenceSequenceFileFactory.getReferenceSequenceFile(this.referenceFile);
+			packedReference = PackedReference.open(this.referenceFile);
+			final SAMSequenceDictionary dict = packedReference.getSequenceDictionary();
 			final ContigNameConverter contigNameConverter = ContigNameConverter.fromOneDictionary(dict);
 			
 			
@@ -214,7 +212,7 @@ public class VcfRebase extends OnePassVcfLauncher {
 				
 				if(genomicSequence==null || !genomicSequence.getChrom().equals(refContig))
 					{
-					genomicSequence=new GenomicSequence(indexedFastaSequenceFile,refContig);
+					genomicSequence=packedReference.getSequence(refContig);
 					}
 				
 				final Set<String> hits=new HashSet<String>();
@@ -284,7 +282,7 @@ public class VcfRebase extends OnePassVcfLauncher {
 			}
 		finally
 			{
-			CloserUtil.close(indexedFastaSequenceFile);
+			CloserUtil.close(packedReference);
 			}
 		}
 	
@@ -128,6 +128,12 @@ public class VcfSpringFilter extends AbstractOnePassVcfAnnotator {
 		return Collections.singletonList(ann);
 		}
 	
+	/** user-defined beans may keep a state across the variants */
+	@Override
+	protected boolean isMultiThreadSupported() {
+		return false;
+		}
+	
 	public static void main(final String[] args) {
 		new VcfSpringFilter().instanceMainWithExit(args);
 
@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -37,9 +38,15 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalDouble;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.DoubleConsumer;
 import java.util.function.Function;
@@ -56,15 +63,23 @@ import com.github.lindenb.jvarkit.lang.AttributeMap;
 import com.github.lindenb.jvarkit.lang.CharSplitter;
 import com.github.lindenb.jvarkit.lang.JvarkitException;
 import com.github.lindenb.jvarkit.lang.StringUtils;
+import com.github.lindenb.jvarkit.samtools.util.SimpleInterval;
 import com.github.lindenb.jvarkit.util.Counter;
+import com.github.lindenb.jvarkit.util.bio.DistanceParser;
+import com.github.lindenb.jvarkit.util.jcommander.NoSplitter;
 import com.github.lindenb.jvarkit.util.jcommander.Launcher;
 import com.github.lindenb.jvarkit.util.jcommander.Program;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.picard.SAMSequenceDictionaryProgress;
+import com.github.lindenb.jvarkit.variant.vcf.VCFReaderFactory;
 
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.samtools.util.CloserUtil;
+import htsjdk.samtools.util.IOUtil;
 import htsjdk.samtools.util.Locatable;
+import htsjdk.samtools.util.RuntimeIOException;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.GenotypeType;
 import htsjdk.variant.variantcontext.VariantContext;
@@ -74,6 +89,7 @@ import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFHeaderLineType;
 import htsjdk.variant.vcf.VCFInfoHeaderLine;
 import htsjdk.variant.vcf.VCFIterator;
+import htsjdk.variant.vcf.VCFReader;
 /**
 BEGIN_DOC
 
@@ -111,6 +127,10 @@ public class VcfStats extends Launcher {
 	private String prefix = "";
 	@DynamicParameter(names={"-D"},description="other parameters.")
 	private Map<String,String> __dynaParams = new HashMap<>();
+	@Parameter(names={"--threads"},description="number of threads. If greater than 1 and the input is an indexed VCF with a sequence dictionary, the genome is split into chunks that are scanned concurrently; the states of the modules are then merged.")
+	private int nThreads = 1;
+	@Parameter(names={"--chunk-size"},description="When using more than one thread, size of the genomic chunks scanned by each task. "+DistanceParser.OPT_DESCRIPTION,converter=DistanceParser.StringConverter.class,splitter=NoSplitter.class)
+	private int chunkSize = 10_000_000;
 	
 
 	private final Map<String, List<String>> phenotype2samples = new TreeMap<>();
@@ -128,6 +148,10 @@ public class VcfStats extends Launcher {
 			return  get().getAsDouble();
 			}
 		public abstract boolean isPresent();
+		/** add the observations of another DataPoint of the same kind */
+		void merge(final DataPoint o) {
+			this.count += o.count;
+			}
 		@Override
 		public int compareTo(final DataPoint o) {
 			if(!isPresent()) {
@@ -150,6 +174,11 @@ public class VcfStats extends Launcher {
 		@Override
 		public void accept(double v) { sum+=v;super.count++;}
 		@Override
+		void merge(final DataPoint o) {
+			super.merge(o);
+			this.sum += DataPointSum.class.cast(o).sum;
+			}
+		@Override
 		public  OptionalDouble get() {
 			return  OptionalDouble.of(sum);
 			}
@@ -169,6 +198,8 @@ public class VcfStats extends Launcher {
 	private interface Analyzer {
 		void init(VCFHeader h);
 		void visit(final VariantContext ctx);
+		/** add the state of another analyzer of the same class, initialized with the same header, that has visited the next variants */
+		void merge(final Analyzer other);
 		void finish(PrintWriter pw);
 		public String getName();
 		public String getDescription();
@@ -263,7 +294,18 @@ public class VcfStats extends Launcher {
 				}	
 			l.incr(value);
 			}
-
+		
+		@Override
+		public void merge(final Analyzer other) {
+			for(final Map.Entry<String, Counter<Integer>> kv : AbstractBoxPlot.class.cast(other).cat2values.entrySet()) {
+				Counter<Integer> l = this.cat2values.get(kv.getKey());
+				if(l==null) {
+					l=new Counter<>();
+					this.cat2values.put(kv.getKey(), l);
+					}
+				l.putAll(kv.getValue());
+				}
+			}
 
 		@Override
 		public void finish(PrintWriter w) {
@@ -322,6 +364,18 @@ public class VcfStats extends Launcher {
 			t.accept(v);
 			}
 		
+		@Override
+		public void merge(final Analyzer other) {
+			for(final Map.Entry<String,DataPoint> kv : AbstractAggregateBarPlot.class.cast(other).key2average.entrySet()) {
+				DataPoint t = this.key2average.get(kv.getKey());
+				if(t==null) {
+					t= createDataPoint();
+					this.key2average.put(kv.getKey(), t);
+					}
+				t.merge(kv.getValue());
+				}
+			}
+		
 		protected abstract DataPoint createDataPoint();
 		
 		protected double[] getYLim() {
@@ -467,6 +521,25 @@ public class VcfStats extends Launcher {
 				LOG.warn(err);
 				}
 			}
+		@Override
+		public void merge(final Analyzer other) {
+			for(final Range r2 : RangeBarPlot.class.cast(other).ranges) {
+				final Range r1 = this.ranges.stream().
+						filter(R->Double.compare(R.lowerBound, r2.lowerBound)==0).
+						findFirst().
+						orElse(null);
+				if(r1!=null) {
+					r1.count += r2.count;
+					}
+				else
+					{
+					final Range r = new Range(r2.lowerBound,r2.upperBound);
+					r.count = r2.count;
+					this.ranges.add(r);
+					}
+				}
+			Collections.sort(this.ranges,(A,B)->Double.compare(A.lowerBound, B.lowerBound));
+			}
 		long getCount() {
 			return ranges.stream().mapToLong(R->R.count).sum();
 			}
@@ -546,6 +619,10 @@ public class VcfStats extends Launcher {
 		protected void add(final String value) {
 			counter.incr(value);
 			}
+		@Override
+		public void merge(final Analyzer other) {
+			this.counter.putAll(AbstractSimpleBarPlot.class.cast(other).counter);
+			}
 		
 		@Override
 		public void finish(PrintWriter w) {
@@ -582,6 +659,19 @@ public class VcfStats extends Launcher {
 			t.incr(v);
 			distinct_vertical.add(v);
 			}
+		@Override
+		public void merge(final Analyzer other) {
+			final AbstractMultipleBarPlot o = AbstractMultipleBarPlot.class.cast(other);
+			for(final Map.Entry<String,Counter<String>> kv : o.horiz2counts.entrySet()) {
+				Counter<String> t = this.horiz2counts.get(kv.getKey());
+				if(t==null) {
+					t=new Counter<>();
+					this.horiz2counts.put(kv.getKey(), t);
+					}
+				t.putAll(kv.getValue());
+				}
+			this.distinct_vertical.addAll(o.distinct_vertical);
+			}
 		protected boolean isBeside() {
 			return false;
 			}
@@ -701,6 +791,30 @@ public class VcfStats extends Launcher {
 				}
 			}
 		@Override
+		public void merge(final Analyzer other) {
+			for(final Map.Entry<String,List<DataPoint>> kv : AbstractManhattanPlot.class.cast(other).cat2index.entrySet()) {
+				List<DataPoint> datapoints = this.cat2index.get(kv.getKey());
+				if(datapoints==null) {
+					datapoints = new ArrayList<>();
+					this.cat2index.put(kv.getKey(),datapoints);
+					}
+				final List<DataPoint> L = kv.getValue();
+				for(int pixl=0;pixl < L.size();++pixl) {
+					final DataPoint dp2 = L.get(pixl);
+					if(dp2==null) continue;
+					while(datapoints.size() <= pixl) {
+						datapoints.add(null);
+						}
+					DataPoint dp  = datapoints.get(pixl);
+					if(dp==null) {
+						dp = createDataPoint(kv.getKey());
+						datapoints.set(pixl,dp);
+						}
+					dp.merge(dp2);
+					}
+				}
+			}
+		@Override
 		public void finish(PrintWriter pw) {
 			if(this.cat2index.isEmpty()) return;
 			final double alpha = Math.max(0.1,1.0/this.cat2index.size());
@@ -957,6 +1071,11 @@ public class VcfStats extends Launcher {
 			return super.getYLab()+" (N="+StringUtils.niceInt(this.n_variants)+")";
 			}
 		@Override
+		public void merge(final Analyzer other) {
+			super.merge(other);
+			this.n_variants += AbstractSampleToFraction.class.cast(other).n_variants;
+			}
+		@Override
 		public void init(final VCFHeader h) {
 			this.enabled = h.hasGenotypingData();
 			for(final String sn:h.getGenotypeSamples()) {
@@ -1164,6 +1283,18 @@ public class VcfStats extends Launcher {
 		protected abstract DataPoint createDataPoint();
 		protected abstract OptionalDouble getValueForGenotype(final Genotype gt);
 		
+		@Override
+		public void merge(final Analyzer other) {
+			for(final Map.Entry<String,DataPoint> kv : AbstractSampleAvgBoxPlot.class.cast(other).sample2datapoint.entrySet()) {
+				DataPoint dpt = this.sample2datapoint.get(kv.getKey());
+				if(dpt==null) {
+					dpt = createDataPoint();
+					this.sample2datapoint.put(kv.getKey(),dpt);
+					}
+				dpt.merge(kv.getValue());
+				}
+			}
+		
 		@Override
 		public void init(VCFHeader h) {
 			this.enabled = VcfStats.this.sample2phenotype!=null &&
@@ -1400,8 +1531,8 @@ public class VcfStats extends Launcher {
 	}
 	
 	
-	@Override
-	public int doWork(final List<String> args) {
+	/** create all the modules, without the excluded ones */
+	private List<Analyzer> createModules() {
 		final List<Analyzer> modules =new ArrayList<>();
 		for(int side=0;side<2;++side) {
 			final String fltstr = side==0?"":" skip FILTEred genotypes";
@@ -1583,14 +1714,121 @@ public class VcfStats extends Launcher {
 				);
 		
 		
-		final String input = oneFileOrNull(args);
-		
 		// remove modules
 		modules.removeIf(M->Arrays.stream(this.moduleExcludeStr.split("[,; \t:]")).anyMatch(S->S.equalsIgnoreCase(M.getName())));
+		return modules;
+		}
+	
+	/** create and initialize the modules, returns the enabled ones. Synchronized because 'att' is not thread safe */
+	private synchronized List<Analyzer> initModules(final VCFHeader header,boolean verbose) {
+		final List<Analyzer> modules = createModules();
+		for(Analyzer analyzer:modules) {
+			analyzer.init(header);
+			if(verbose && !analyzer.isEnabled()) {
+				LOG.warn("module "+analyzer.getName()+" will be disabled. ["+analyzer.getClass().getSimpleName()+"]");
+				}
+			}
+		modules.removeIf(M->!M.isEnabled());
+		return modules;
+		}
+	
+	/** split the genome into chunks, scan them concurrently and merge the state of each chunk into 'modules' in the genomic order */
+	private void visitInParallel(final String input,final VCFHeader header,final List<Analyzer> modules) throws Exception {
+		final List<Locatable> chunks = new ArrayList<>();
+		for(final SAMSequenceRecord ssr: header.getSequenceDictionary().getSequences()) {
+			for(int start=1;start<=ssr.getLengthOnReference();start+=this.chunkSize) {
+				final int end = (int)Math.min((long)ssr.getLengthOnReference(),(long)start+this.chunkSize-1L);
+				chunks.add(new SimpleInterval(ssr.getContig(),start,end));
+				}
+			}
+		LOG.info("scanning "+chunks.size()+" chunks using "+this.nThreads+" threads");
+		final ExecutorService executor = Executors.newFixedThreadPool(this.nThreads);
+		// VCF readers are not thread-safe, they are recycled between the tasks
+		final Queue<VCFReader> readers = new ConcurrentLinkedQueue<>();
+		try {
+			// chunks are merged in order, so only keep a few of them in memory
+			final ArrayDeque<Future<List<Analyzer>>> pending = new ArrayDeque<>();
+			int n_merged = 0;
+			for(int i=0;i<=chunks.size();i++) {
+				if(i<chunks.size()) {
+					final Locatable chunk = chunks.get(i);
+					pending.add(executor.submit(()->{
+						VCFReader reader = readers.poll();
+						if(reader==null) reader = VCFReaderFactory.makeDefault().open(input,true);
+						// modules are only created if the chunk contains a variant
+						List<Analyzer> chunkModules = null;
+						try(CloseableIterator<VariantContext> iter=reader.query(chunk)) {
+							while(iter.hasNext()) {
+								final VariantContext ctx = iter.next();
+								// variants overlapping two chunks are only visited once
+								if(ctx.getStart() < chunk.getStart() || ctx.getStart() > chunk.getEnd()) continue;
+								if(chunkModules==null) chunkModules = initModules(header,false);
+								for(Analyzer analyzer:chunkModules) {
+									analyzer.visit(ctx);
+									}
+								}
+							}
+						finally
+							{
+							readers.add(reader);
+							}
+						return chunkModules;
+						}));
+					}
+				while(!pending.isEmpty() && (i==chunks.size() || pending.size() >= 2*this.nThreads)) {
+					final List<Analyzer> chunkModules = pending.removeFirst().get();
+					n_merged++;
+					if(n_merged%1000==0) LOG.info("merged "+n_merged+"/"+chunks.size()+" chunks");
+					if(chunkModules==null) continue;
+					if(chunkModules.size()!=modules.size()) throw new IllegalStateException("modules mismatch");
+					for(int j=0;j< modules.size();j++) {
+						modules.get(j).merge(chunkModules.get(j));
+						}
+					}
+				}
+			}
+		finally
+			{
+			executor.shutdownNow();
+			executor.awaitTermination(1L, TimeUnit.MINUTES);
+			CloserUtil.close(new ArrayList<>(readers));
+			}
+		}
+	
+	/** returns true if the input can be scanned using multiple threads */
+	private boolean canVisitInParallel(final String input,final VCFHeader header) {
+		if(this.nThreads<=1) return false;
+		if(input==null || IOUtil.isUrl(input)) {
+			LOG.warn("--threads ignored: input is not a local file.");
+			return false;
+			}
+		if(header.getSequenceDictionary()==null || header.getSequenceDictionary().isEmpty()) {
+			LOG.warn("--threads ignored: no sequence dictionary in the VCF header.");
+			return false;
+			}
+		try(VCFReader reader = VCFReaderFactory.makeDefault().open(input,false)) {
+			if(!reader.isQueryable()) {
+				LOG.warn("--threads ignored: VCF is not indexed.");
+				return false;
+				}
+			}
+		catch(final IOException err) {
+			throw new RuntimeIOException(err);
+			}
+		return true;
+		}
+	
+	@Override
+	public int doWork(final List<String> args) {
+		if(this.chunkSize<1) {
+			LOG.error("bad chunk size: "+this.chunkSize);
+			return -1;
+			}
+		final String input = oneFileOrNull(args);
 		try {
 			if(this.list_modules) {
 				try(PrintWriter w = super.openPathOrStdoutAsPrintWriter(this.outputFile)) {
-					for(Analyzer analyzer:modules) {
+					for(Analyzer analyzer:createModules()) {
 						w.print(analyzer.getName());
 						w.print("\t");
 						w.println(analyzer.getDescription());
@@ -1604,24 +1842,24 @@ public class VcfStats extends Launcher {
 			final VCFHeader header=iter.getHeader();
 			loadPhenotypes(header);
 			
-			for(Analyzer analyzer:modules) {
-				analyzer.init(header);
-				if(!analyzer.isEnabled()) {
-					LOG.warn("module "+analyzer.getName()+" will be disabled. ["+analyzer.getClass().getSimpleName()+"]");
-					}
-				}
-			modules.removeIf(M->!M.isEnabled());
+			final List<Analyzer> modules = initModules(header,true);
 			if(modules.isEmpty()) {
 				LOG.warn("no module was enabled");
 				}
-			final SAMSequenceDictionaryProgress progress = new SAMSequenceDictionaryProgress(header).logger(LOG);
-			while(iter.hasNext()) {
-				final VariantContext ctx = progress.watch(iter.next());
-				for(Analyzer analyzer:modules) {
-					analyzer.visit(ctx);
+			if(canVisitInParallel(input,header)) {
+				visitInParallel(input,header,modules);
+				}
+			else
+				{
+				final SAMSequenceDictionaryProgress progress = new SAMSequenceDictionaryProgress(header).logger(LOG);
+				while(iter.hasNext()) {
+					final VariantContext ctx = progress.watch(iter.next());
+					for(Analyzer analyzer:modules) {
+						analyzer.visit(ctx);
+						}
 					}
+				progress.finish();
 				}
-			progress.finish();
 			try(PrintWriter pw = super.openPathOrStdoutAsPrintWriter(outputFile)) {
 				for(Analyzer analyzer:modules) {
 					analyzer.finish(pw);
@@ -29,6 +29,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -56,6 +57,7 @@ import htsjdk.samtools.util.CloserUtil;
 
 import com.github.lindenb.jvarkit.variant.vcf.BufferedVCFReader;
 import com.github.lindenb.jvarkit.variant.vcf.VCFReaderFactory;
+import com.github.lindenb.jvarkit.variant.vcf.VariantColumnStore;
 
 import htsjdk.variant.vcf.VCFIterator;
 import htsjdk.variant.vcf.VCFReader;
@@ -109,6 +111,8 @@ public class VcfPeekAf extends OnePassVcfLauncher
 	private String custom_peek_info_name = null;
 	@Parameter(names={"--peek-id"},description="Peek database variant ID if it is missing in the processed VCF."  )
 	private boolean peek_variant_id=false;
+	@Parameter(names={"--column-store"},description=VariantColumnStore.OPT_DESC+" Not available for the 'GT' peeker.")
+	private Path columnStorePath = null;
 
 	
 	/* a class extracting the allele frequency from another VCF */
@@ -133,6 +137,52 @@ public class VcfPeekAf extends OnePassVcfLauncher
 		/** simplify database variant */
 		abstract VariantContext sanitize(final VariantContext ctx);
 		
+		/** index of getStoreFields() in the column store */
+		int[] storeColumns = null;
+		
+		/** INFO fields required in the column store, or null if this peeker cannot use a column store */
+		abstract List<String> getStoreFields();
+		
+		/** frequency for the given row of the column store, or NaN if it cannot be computed */
+		abstract double getStoreFrequency(final VariantColumnStore.Contig contig,final int row);
+		
+		/** same as apply but using the column store. contig can be null */
+		final VariantContext applyStore(final VariantContext ctx,final VariantColumnStore.Contig contig) {
+			if(disable_alt_concordance) {
+				OptionalDouble optFreq = OptionalDouble.empty();
+				if(contig!=null) {
+					for(int row=contig.firstOverlapping(ctx.getStart());row < contig.size() && contig.getStart(row) <= ctx.getEnd();++row) {
+						if(contig.getEnd(row) < ctx.getStart()) continue;
+						final double af = getStoreFrequency(contig, row);
+						if(Double.isNaN(af)) continue;
+						if(!optFreq.isPresent() || optFreq.getAsDouble()>af) {
+							optFreq = OptionalDouble.of(af);
+							}
+						}
+					}
+				return addFiltersIgnoreAlt(ctx,optFreq);
+				}
+			final List<Allele> alt_alleles = ctx.getAlternateAlleles();
+			final Map<Allele,Double> allele2freq = new HashMap<>(alt_alleles.size());
+			if(contig!=null) {
+				final int first_row = contig.firstOverlapping(ctx.getStart());
+				for(final Allele ctx_alt : alt_alleles) {
+					if(ctx_alt.equals(Allele.SPAN_DEL)) continue;
+					final int alt_hash = VariantColumnStore.hash(ctx_alt);
+					for(int row=first_row;row < contig.size() && contig.getStart(row) <= ctx.getEnd();++row) {
+						if(contig.getEnd(row) < ctx.getStart()) continue;
+						if(!contig.altMatches(row, alt_hash, ctx_alt)) continue;
+						final double alt2freq = getStoreFrequency(contig, row);
+						if(Double.isNaN(alt2freq)) continue;
+						if(allele2freq.getOrDefault(ctx_alt,1.0) > alt2freq) {
+							allele2freq.put(ctx_alt, alt2freq);
+							}
+						}
+					}
+				}
+			return addFilters(ctx,allele2freq);
+			}
+		
 		/** change variant in VCF, applying filters if needed . Return null if the variant is discarded. */
 		VariantContext addFilters3(final VariantContext ctx,final VariantContextBuilder vcb,boolean accept) {
 			final Set<String> old_filters = new HashSet<>(ctx.getFilters());
@@ -227,6 +277,18 @@ public class VcfPeekAf extends OnePassVcfLauncher
 			return vcb.make();
 			}
 		
+		@Override
+		List<String> getStoreFields() {
+			return Arrays.asList(VCFConstants.ALLELE_COUNT_KEY,VCFConstants.ALLELE_NUMBER_KEY);
+			}
+		
+		@Override
+		double getStoreFrequency(final VariantColumnStore.Contig contig, final int row) {
+			final double an = contig.getValue(row, this.storeColumns[1]);
+			if(Double.isNaN(an) || an==0) return Double.NaN;
+			return contig.getValue(row, this.storeColumns[0])/an;
+			}
+		
 		@Override
 		VariantContext applyIgnoringAlt(final VariantContext ctx, final List<VariantContext> overlappers) {
 			OptionalDouble optFreq = OptionalDouble.empty();
@@ -318,7 +380,7 @@ public class VcfPeekAf extends OnePassVcfLauncher
 			if(!hl.getCountType().equals(VCFHeaderLineCount.A)) {
 				LOG.warn("Expected find INFO="+getPeekInfoTagName()+" Count="+VCFHeaderLineCount.A+" but got "+hl.getCountType());
 				}
-			if(hl.getType().equals(VCFHeaderLineType.Float)) {
+			if(!hl.getType().equals(VCFHeaderLineType.Float)) {
 				throw new IllegalArgumentException("Expected find INFO="+getPeekInfoTagName()+" Type="+VCFHeaderLineType.Float+" but got "+hl.getType());
 				}
 			}
@@ -336,6 +398,16 @@ public class VcfPeekAf extends OnePassVcfLauncher
 			return vcb.make();
 			}
 		
+		@Override
+		List<String> getStoreFields() {
+			return Collections.singletonList(getPeekInfoTagName());
+			}
+		
+		@Override
+		double getStoreFrequency(final VariantColumnStore.Contig contig, final int row) {
+			return contig.getValue(row, this.storeColumns[0]);
+			}
+		
 		@Override
 		VariantContext applyIgnoringAlt(final VariantContext ctx,final List<VariantContext> overlappers) {
 			final OptionalDouble optFreq = overlappers.
@@ -438,6 +510,16 @@ public class VcfPeekAf extends OnePassVcfLauncher
 			return vcb.make();
 			}
 		
+		@Override
+		List<String> getStoreFields() {
+			return null;
+			}
+		
+		@Override
+		double getStoreFrequency(final VariantColumnStore.Contig contig, final int row) {
+			return Double.NaN;
+			}
+		
 		@Override
 		void initialize(final VCFHeader h) {
 			if(!h.hasGenotypingData()) {
@@ -504,6 +586,7 @@ public class VcfPeekAf extends OnePassVcfLauncher
 		}
 
 	private BufferedVCFReader indexedVcfFileReader=null;
+	private VariantColumnStore columnStore = null;
 	private AFPeeker peeker;
 	
 	public VcfPeekAf()
@@ -535,6 +618,42 @@ public class VcfPeekAf extends OnePassVcfLauncher
 		return set2.containsAll(set1);
 		}
 	
+	/** same as alleles_match_for_id, using the column store */
+	private String peekIdFromStore(final VariantContext userCtx,final VariantColumnStore.Contig contig) {
+		if(userCtx.hasID()) return null;
+		int row = contig.lowerBound(userCtx.getStart());
+		while(row < contig.size() && contig.getStart(row)==userCtx.getStart()) {
+			final int rec = contig.getRecord(row);
+			int last = row + 1;
+			while(last < contig.size() && contig.getRecord(last)==rec) last++;
+			boolean ok = true;
+			for(final Allele a: userCtx.getAlleles()) {
+				if(a.isNoCall() || a.equals(Allele.SPAN_DEL)) continue;
+				final int h = VariantColumnStore.hash(a);
+				boolean found = false;
+				if(a.isReference()) {
+					found = contig.refMatches(row, h, a);
+					}
+				else
+					{
+					for(int r=row;r< last && !found;r++) {
+						found = contig.altMatches(r, h, a);
+						}
+					}
+				if(!found) {
+					ok = false;
+					break;
+					}
+				}
+			if(ok) {
+				final String id = contig.getId(row);
+				if(!StringUtils.isBlank(id)) return id;
+				}
+			row = last;
+			}
+		return null;
+		}
+	
 	@Override
 	public int doVcfToVcf(
 			final String inputName, 
@@ -581,6 +700,20 @@ public class VcfPeekAf extends OnePassVcfLauncher
 				{
 				final VariantContext ctx=progress.apply(vcfIn.next());
 				final String dbContig = dbCtgConverter.apply(ctx.getContig());
+				
+				if(this.columnStore!=null) {
+					final VariantColumnStore.Contig storeContig = StringUtils.isBlank(dbContig)?null:this.columnStore.getContig(dbContig);
+					VariantContext ctx2 = this.peeker.applyStore(ctx,storeContig);
+					if(ctx2==null) continue;
+					if(this.peek_variant_id && !ctx2.hasID() && storeContig!=null) {
+						final String id = peekIdFromStore(ctx2,storeContig);
+						if(!StringUtils.isBlank(id)) {
+							ctx2 = new VariantContextBuilder(ctx).id(id).make();
+							}
+						}
+					out.add(ctx2);
+					continue;
+					}
 
 				final List<VariantContext> overlappers;
 				
@@ -667,6 +800,15 @@ public class VcfPeekAf extends OnePassVcfLauncher
 			this.indexedVcfFileReader = new BufferedVCFReader(reader0,this.buffer_size);
 			this.peeker.initialize(this.indexedVcfFileReader.getHeader());
 			this.indexedVcfFileReader.setSimplifier(peeker::sanitize);
+			if(this.columnStorePath!=null) {
+				final List<String> fields = this.peeker.getStoreFields();
+				if(fields==null) {
+					LOG.error("peeker "+this.peeker.getName()+" cannot use a column store.");
+					return -1;
+					}
+				this.columnStore = VariantColumnStore.openOrCompile(this.columnStorePath, this.resourceVcfFile, reader0, fields);
+				this.peeker.storeColumns = fields.stream().mapToInt(F->this.columnStore.getFieldIndex(F)).toArray();
+				}
 			return 0;
 			} 
 		catch(final Throwable err)
@@ -679,6 +821,8 @@ public class VcfPeekAf extends OnePassVcfLauncher
 	protected void afterVcf() {
 		CloserUtil.close(this.indexedVcfFileReader);
 		this.indexedVcfFileReader=null;
+		CloserUtil.close(this.columnStore);
+		this.columnStore=null;
 		}
 	
 	
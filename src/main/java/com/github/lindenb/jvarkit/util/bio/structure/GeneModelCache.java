@@ -0,0 +1,434 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.util.bio.structure;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.lindenb.jvarkit.lang.StringUtils;
+import com.github.lindenb.jvarkit.util.bio.structure.AbstractGxxReader.GeneImpl;
+import com.github.lindenb.jvarkit.util.bio.structure.AbstractGxxReader.TranscriptImpl;
+import com.github.lindenb.jvarkit.util.log.Logger;
+
+import htsjdk.samtools.util.IOUtil;
+import htsjdk.samtools.util.RuntimeIOException;
+
+/**
+ * Binary copy of the genes parsed from a GTF file.
+ * 
+ * The cache is built once, next to the GTF (or in the temporary directory
+ * if the GTF directory is not writable), and it is re-built when the GTF changes.
+ * The genes are stored per contig, each contig has its own table of strings
+ * (ids, attribute keys and values are highly redundant), and a contig is
+ * only decoded (from a memory-mapped buffer) when its genes are requested.
+ * Contig names are stored as found in the GTF, without any contig name conversion.
+ * This class is thread-safe.
+ */
+public class GeneModelCache implements Closeable {
+	private static final Logger LOG = Logger.build(GeneModelCache.class).make();
+	public static final String SUFFIX = ".genes.bin";
+	private static final int MAGIC = 0x47544643;
+	private static final int VERSION = 1;
+	/** marker for a null string in the string table */
+	private static final int NULL_STRING = -1;
+	
+	private static class ContigIndex {
+		final String contig;
+		final long offset;
+		final long length;
+		final int nGenes;
+		ContigIndex(final String contig,long offset,long length,int nGenes) {
+			this.contig = contig;
+			this.offset = offset;
+			this.length = length;
+			this.nGenes = nGenes;
+			}
+		}
+	
+	private final Path gtfPath;
+	private final Path cachePath;
+	private final FileChannel channel;
+	private final Map<String,ContigIndex> contig2index = new LinkedHashMap<>();
+	private final Map<String,List<Gene>> contig2genes = new HashMap<>();
+	
+	private GeneModelCache(final Path gtfPath,final Path cachePath) throws IOException {
+		this.gtfPath = gtfPath;
+		this.cachePath = cachePath;
+		this.channel = FileChannel.open(cachePath, StandardOpenOption.READ);
+		try {
+			final long size = this.channel.size();
+			final ByteBuffer footer = ByteBuffer.allocate(8);
+			readFully(this.channel, footer, size - 8L);
+			final long indexOffset = footer.getLong(0);
+			final ByteBuffer index = ByteBuffer.allocate((int)(size - 8L - indexOffset));
+			readFully(this.channel, index, indexOffset);
+			final int n = index.getInt();
+			for(int i=0;i< n;i++) {
+				final String contig = readString(index);
+				final long offset = index.getLong();
+				final long length = index.getLong();
+				final int nGenes = index.getInt();
+				this.contig2index.put(contig, new ContigIndex(contig, offset, length, nGenes));
+				}
+			}
+		catch(final IOException|RuntimeException err) {
+			this.channel.close();
+			throw err;
+			}
+		}
+	
+	/** open the gene cache for this GTF file, build the cache if needed */
+	public static GeneModelCache open(final Path gtf) throws IOException {
+		IOUtil.assertFileIsReadable(gtf);
+		Path cachePath = getDefaultCachePath(gtf);
+		if(!isUpToDate(gtf, cachePath)) {
+			final Path dir = cachePath.toAbsolutePath().getParent();
+			if(dir==null || !Files.isWritable(dir)) {
+				cachePath = Paths.get(System.getProperty("java.io.tmpdir"), StringUtils.md5(gtf.toAbsolutePath().toString()) + SUFFIX);
+				}
+			if(!isUpToDate(gtf, cachePath)) {
+				build(gtf, cachePath);
+				}
+			}
+		return new GeneModelCache(gtf, cachePath);
+		}
+	
+	/** return the default path of the cache for this GTF */
+	public static Path getDefaultCachePath(final Path gtf) {
+		return gtf.resolveSibling(gtf.getFileName().toString() + SUFFIX);
+		}
+	
+	/** return true if 'cachePath' exists and was built from the current version of 'gtf' */
+	private static boolean isUpToDate(final Path gtf,final Path cachePath) {
+		if(!Files.exists(cachePath)) return false;
+		try(InputStream in = Files.newInputStream(cachePath)) {
+			final DataInputStream dis = new DataInputStream(new BufferedInputStream(in));
+			return dis.readInt() == MAGIC &&
+				dis.readInt() == VERSION &&
+				dis.readLong() == Files.size(gtf) &&
+				dis.readLong() == Files.getLastModifiedTime(gtf).toMillis();
+			}
+		catch(final IOException err) {
+			return false;
+			}
+		}
+	
+	/** parse the GTF and write the cache */
+	private static void build(final Path gtf,final Path cachePath) throws IOException {
+		LOG.info("building gene cache "+cachePath+" for "+gtf);
+		final Map<String,List<Gene>> contig2genes = new LinkedHashMap<>();
+		try(GtfReader gtfReader = new GtfReader(gtf)) {
+			gtfReader.setUseGeneModelCache(false);
+			for(final Gene gene: gtfReader.getAllGenes()) {
+				final String contig = gene.getContig()==null?"":gene.getContig();
+				List<Gene> L = contig2genes.get(contig);
+				if(L==null) {
+					L = new ArrayList<>();
+					contig2genes.put(contig, L);
+					}
+				L.add(gene);
+				}
+			}
+		final Path tmpPath = Files.createTempFile(cachePath.toAbsolutePath().getParent(), "tmp.", SUFFIX);
+		try {
+			final List<ContigIndex> indexes = new ArrayList<>(contig2genes.size());
+			try(OutputStream os = Files.newOutputStream(tmpPath)) {
+				final DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(os));
+				dos.writeInt(MAGIC);
+				dos.writeInt(VERSION);
+				dos.writeLong(Files.size(gtf));
+				dos.writeLong(Files.getLastModifiedTime(gtf).toMillis());
+				for(final String contig: contig2genes.keySet()) {
+					final List<Gene> genes = contig2genes.get(contig);
+					final byte[] section = new SectionWriter().write(genes);
+					indexes.add(new ContigIndex(contig, dos.size(), section.length, genes.size()));
+					dos.write(section);
+					}
+				final long indexOffset = dos.size();
+				dos.writeInt(indexes.size());
+				for(final ContigIndex ci:indexes) {
+					writeString(dos, ci.contig);
+					dos.writeLong(ci.offset);
+					dos.writeLong(ci.length);
+					dos.writeInt(ci.nGenes);
+					}
+				dos.writeLong(indexOffset);
+				dos.flush();
+				}
+			try {
+				Files.move(tmpPath, cachePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				}
+			catch(final AtomicMoveNotSupportedException err) {
+				Files.move(tmpPath, cachePath, StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+		finally
+			{
+			Files.deleteIfExists(tmpPath);
+			}
+		}
+	
+	/** serialize the genes of one contig: a table of strings followed by the genes */
+	private static class SectionWriter {
+		private final Map<String,Integer> string2index = new LinkedHashMap<>();
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		private final DataOutputStream dos = new DataOutputStream(body);
+		
+		byte[] write(final List<Gene> genes) throws IOException {
+			this.dos.writeInt(genes.size());
+			for(final Gene gene: genes) {
+				writeGene(gene);
+				}
+			this.dos.flush();
+			final ByteArrayOutputStream section = new ByteArrayOutputStream(this.body.size() + this.string2index.size() * 16);
+			final DataOutputStream out = new DataOutputStream(section);
+			out.writeInt(this.string2index.size());
+			for(final String s: this.string2index.keySet()) {
+				writeString(out, s);
+				}
+			this.body.writeTo(out);
+			out.flush();
+			return section.toByteArray();
+			}
+		
+		private void str(final String s) throws IOException {
+			if(s==null) {
+				this.dos.writeInt(NULL_STRING);
+				return;
+				}
+			Integer idx = this.string2index.get(s);
+			if(idx==null) {
+				idx = this.string2index.size();
+				this.string2index.put(s, idx);
+				}
+			this.dos.writeInt(idx);
+			}
+		
+		private void properties(final Map<String,String> properties) throws IOException {
+			this.dos.writeInt(properties.size());
+			for(final String key: properties.keySet()) {
+				str(key);
+				str(properties.get(key));
+				}
+			}
+		
+		private void codon(final TranscriptImpl.AbstractCodonImpl codon) throws IOException {
+			this.dos.writeBoolean(codon!=null);
+			if(codon==null) return;
+			for(int i=0;i< codon.pos.length;i++) this.dos.writeInt(codon.pos[i]);
+			}
+		
+		private void writeGene(final Gene g) throws IOException {
+			final GeneImpl gene = GeneImpl.class.cast(g);
+			str(gene.gene_id);
+			str(gene.contig);
+			this.dos.writeInt(gene.start);
+			this.dos.writeInt(gene.end);
+			this.dos.writeChar(gene.strand);
+			properties(gene.properties);
+			this.dos.writeInt(gene.transcripts.size());
+			for(final Transcript t: gene.transcripts) {
+				final TranscriptImpl tr = TranscriptImpl.class.cast(t);
+				str(tr.transcript_id);
+				this.dos.writeInt(tr.txStart);
+				this.dos.writeInt(tr.txEnd);
+				this.dos.writeChar(tr.strand);
+				this.dos.writeBoolean(tr.coding);
+				this.dos.writeBoolean(tr.saw_cds_flag);
+				codon(tr.codon_start);
+				codon(tr.codon_end);
+				final int nExons = tr.exonStarts==null?-1:tr.exonStarts.length;
+				this.dos.writeInt(nExons);
+				for(int i=0;i< nExons;i++) {
+					this.dos.writeInt(tr.exonStarts[i]);
+					this.dos.writeInt(tr.exonEnds[i]);
+					}
+				properties(tr.properties);
+				}
+			}
+		}
+	
+	/** decode the genes of one contig */
+	private static List<Gene> readSection(final ByteBuffer buf) {
+		final String[] strings = new String[buf.getInt()];
+		for(int i=0;i< strings.length;i++) {
+			strings[i] = readString(buf);
+			}
+		final int nGenes = buf.getInt();
+		final List<Gene> genes = new ArrayList<>(nGenes);
+		for(int g=0;g< nGenes;g++) {
+			final GeneImpl gene = new GeneImpl();
+			gene.gene_id = str(strings, buf);
+			gene.contig = str(strings, buf);
+			gene.start = buf.getInt();
+			gene.end = buf.getInt();
+			gene.strand = buf.getChar();
+			readProperties(strings, buf, gene.properties);
+			final int nTranscripts = buf.getInt();
+			for(int t=0;t< nTranscripts;t++) {
+				final TranscriptImpl tr = new TranscriptImpl();
+				tr.gene = gene;
+				tr.transcript_id = str(strings, buf);
+				tr.txStart = buf.getInt();
+				tr.txEnd = buf.getInt();
+				tr.strand = buf.getChar();
+				tr.coding = buf.get()!=0;
+				tr.saw_cds_flag = buf.get()!=0;
+				if(buf.get()!=0) {
+					tr.codon_start = tr.new StartCodonImpl();
+					for(int i=0;i< tr.codon_start.pos.length;i++) tr.codon_start.pos[i] = buf.getInt();
+					}
+				if(buf.get()!=0) {
+					tr.codon_end = tr.new StopCodonImpl();
+					for(int i=0;i< tr.codon_end.pos.length;i++) tr.codon_end.pos[i] = buf.getInt();
+					}
+				final int nExons = buf.getInt();
+				if(nExons>=0) {
+					tr.exonStarts = new int[nExons];
+					tr.exonEnds = new int[nExons];
+					for(int i=0;i< nExons;i++) {
+						tr.exonStarts[i] = buf.getInt();
+						tr.exonEnds[i] = buf.getInt();
+						}
+					}
+				readProperties(strings, buf, tr.properties);
+				gene.transcripts.add(tr);
+				}
+			genes.add(gene);
+			}
+		return genes;
+		}
+	
+	private static String str(final String[] strings,final ByteBuffer buf) {
+		final int idx = buf.getInt();
+		return idx==NULL_STRING?null:strings[idx];
+		}
+	
+	private static void readProperties(final String[] strings,final ByteBuffer buf,final Map<String,String> properties) {
+		final int n = buf.getInt();
+		for(int i=0;i< n;i++) {
+			final String key = str(strings, buf);
+			properties.put(key, str(strings, buf));
+			}
+		}
+	
+	private static void writeString(final DataOutputStream dos,final String s) throws IOException {
+		final byte[] array = s.getBytes(StandardCharsets.UTF_8);
+		dos.writeInt(array.length);
+		dos.write(array);
+		}
+	
+	private static String readString(final ByteBuffer buf) {
+		final byte[] array = new byte[buf.getInt()];
+		buf.get(array);
+		return new String(array, StandardCharsets.UTF_8);
+		}
+	
+	private static void readFully(final FileChannel ch,final ByteBuffer buffer,long position) throws IOException {
+		while(buffer.hasRemaining()) {
+			final int n = ch.read(buffer, position);
+			if(n<0) throw new IOException("unexpected end of file");
+			position += n;
+			}
+		buffer.flip();
+		}
+	
+	/** return the original GTF file */
+	public Path getGtfPath() {
+		return this.gtfPath;
+		}
+	
+	/** return the cache file */
+	public Path getCachePath() {
+		return this.cachePath;
+		}
+	
+	/** return the contigs, as found in the GTF */
+	public Set<String> getContigs() {
+		return Collections.unmodifiableSet(this.contig2index.keySet());
+		}
+	
+	/** return the genes on this contig, or an empty list if the contig is not in the GTF. */
+	public List<Gene> getGenes(final String contig) {
+		synchronized(this.contig2genes) {
+			List<Gene> genes = this.contig2genes.get(contig);
+			if(genes!=null) return genes;
+			final ContigIndex ci = this.contig2index.get(contig);
+			if(ci==null) return Collections.emptyList();
+			try {
+				genes = Collections.unmodifiableList(readSection(this.channel.map(FileChannel.MapMode.READ_ONLY, ci.offset, ci.length)));
+				}
+			catch(final IOException err) {
+				throw new RuntimeIOException(err);
+				}
+			this.contig2genes.put(contig, genes);
+			return genes;
+			}
+		}
+	
+	/** return all the genes */
+	public List<Gene> getAllGenes() {
+		final List<Gene> genes = new ArrayList<>();
+		for(final String contig: this.contig2index.keySet()) {
+			genes.addAll(getGenes(contig));
+			}
+		return genes;
+		}
+	
+	@Override
+	public void close() {
+		synchronized(this.contig2genes) {
+			this.contig2genes.clear();
+			}
+		try {
+			this.channel.close();
+			}
+		catch(final IOException err) {
+			LOG.warn(err);
+			}
+		}
+	}
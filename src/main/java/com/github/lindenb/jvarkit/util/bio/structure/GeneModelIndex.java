@@ -0,0 +1,295 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.util.bio.structure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import htsjdk.samtools.util.Locatable;
+
+/**
+ * Immutable interval index over the features of the gene model (genes, transcripts, exons...).
+ * 
+ * For each contig, the features are sorted on their start and stored in primitive arrays
+ * organized as an implicit augmented interval tree (see Heng Li's cgranges
+ * https://github.com/lh3/cgranges ): the tree is never materialized, a node is an index in the arrays.
+ * The index is built once, queries don't allocate any iterator, they can be run concurrently and
+ * can be nested (a query can be run from the consumer of another query).
+ */
+public class GeneModelIndex<T extends Locatable> {
+	/** under this level, the sub-tree is scanned linearly */
+	private static final int LINEAR_SCAN_LEVEL = 3;
+	/** size of the stack for the tree traversal. 3 ints per item, depth is at most 31 * 2 */
+	private static final int STACK_SIZE = 3 * 64;
+	
+	private final Map<String,ContigTree<T>> contig2tree;
+	private final int size;
+	
+	/** the features on one contig */
+	private static class ContigTree<T> {
+		final Object[] items;
+		/** 0-based start */
+		final int[] starts;
+		/** 0-based end, excluded */
+		final int[] ends;
+		/** max end of the sub-tree rooted at 'i' */
+		final int[] maxEnds;
+		/** index of the feature with the greatest end in [0..i] */
+		final int[] prefixMaxEnd;
+		/** level of the root of the tree */
+		final int maxLevel;
+		
+		ContigTree(final List<? extends Locatable> L) {
+			final int n = L.size();
+			this.items = new Object[n];
+			this.starts = new int[n];
+			this.ends = new int[n];
+			this.maxEnds = new int[n];
+			this.prefixMaxEnd = new int[n];
+			for(int i=0;i< n;i++) {
+				final Locatable loc = L.get(i);
+				this.items[i] = loc;
+				this.starts[i] = loc.getStart() - 1;
+				this.ends[i] = loc.getEnd();
+				this.prefixMaxEnd[i] = (i==0 || this.ends[i] >= this.ends[this.prefixMaxEnd[i-1]] ? i : this.prefixMaxEnd[i-1]);
+				}
+			this.maxLevel = buildIndex();
+			}
+		
+		/** compute maxEnds, return the level of the root */
+		private int buildIndex() {
+			final int n = this.starts.length;
+			if(n==0) return -1;
+			int last_i = 0;
+			int last = 0;
+			for(int i=0;i< n;i+=2) {
+				last_i = i;
+				last = this.maxEnds[i] = this.ends[i];
+				}
+			int k;
+			for(k=1; (1L<<k) <= n; ++k) {
+				final int x = 1 << (k-1);
+				final int i0 = (x << 1) - 1;
+				final int step = x << 2;
+				for(int i=i0; i< n; i+= step) {
+					final int el = this.maxEnds[i - x];
+					final int er = i + x < n ? this.maxEnds[i + x] : last;
+					this.maxEnds[i] = Math.max(this.ends[i], Math.max(el, er));
+					}
+				last_i = ((last_i >> k) & 1) != 0 ? last_i - x : last_i + x;
+				if(last_i < n && this.maxEnds[last_i] > last) last = this.maxEnds[last_i];
+				}
+			return k - 1;
+			}
+		
+		/** visit the features overlapping [st,en) (0-based), return the number of features found */
+		@SuppressWarnings("unchecked")
+		int overlap(final int st,final int en,final Consumer<? super T> consumer) {
+			final int n = this.starts.length;
+			if(n==0) return 0;
+			/* allocated for each call, so a consumer can query any index (re-entrant) */
+			final int[] stack = new int[STACK_SIZE];
+			int t = 0;
+			int count = 0;
+			stack[t++] = (1 << this.maxLevel) - 1;
+			stack[t++] = this.maxLevel;
+			stack[t++] = 0;
+			while(t > 0) {
+				final int w = stack[--t];
+				final int k = stack[--t];
+				final int x = stack[--t];
+				if(k <= LINEAR_SCAN_LEVEL) {
+					final int i0 = x >> k << k;
+					final int i1 = Math.min(n, i0 + (1 << (k + 1)) - 1);
+					for(int i = i0; i < i1 && this.starts[i] < en; ++i) {
+						if(st < this.ends[i]) {
+							count++;
+							if(consumer!=null) consumer.accept((T)this.items[i]);
+							}
+						}
+					}
+				else if(w == 0) {
+					final int y = x - (1 << (k - 1));
+					stack[t++] = x;
+					stack[t++] = k;
+					stack[t++] = 1;
+					if(y >= n || this.maxEnds[y] > st) {
+						stack[t++] = y;
+						stack[t++] = k - 1;
+						stack[t++] = 0;
+						}
+					}
+				else if(x < n && this.starts[x] < en) {
+					if(st < this.ends[x]) {
+						count++;
+						if(consumer!=null) consumer.accept((T)this.items[x]);
+						}
+					stack[t++] = x + (1 << (k - 1));
+					stack[t++] = k - 1;
+					stack[t++] = 0;
+					}
+				}
+			return count;
+			}
+		
+		/** index of the first feature with start >= pos0 */
+		int lowerBound(final int pos0) {
+			int lo = 0;
+			int hi = this.starts.length;
+			while(lo < hi) {
+				final int mid = (lo + hi) >>> 1;
+				if(this.starts[mid] < pos0) {
+					lo = mid + 1;
+					}
+				else
+					{
+					hi = mid;
+					}
+				}
+			return lo;
+			}
+		}
+	
+	private GeneModelIndex(final Collection<? extends T> features) {
+		final Map<String,List<T>> contig2list = new HashMap<>();
+		for(final T feature: features) {
+			List<T> L = contig2list.get(feature.getContig());
+			if(L==null) {
+				L = new ArrayList<>();
+				contig2list.put(feature.getContig(), L);
+				}
+			L.add(feature);
+			}
+		final Map<String,ContigTree<T>> map = new HashMap<>(contig2list.size());
+		final Comparator<T> cmp = Comparator.comparingInt(T::getStart);
+		for(final String contig: contig2list.keySet()) {
+			final List<T> L = contig2list.get(contig);
+			Collections.sort(L, cmp.thenComparingInt(T::getEnd));
+			map.put(contig, new ContigTree<>(L));
+			}
+		this.contig2tree = Collections.unmodifiableMap(map);
+		this.size = features.size();
+		}
+	
+	/** create an index over any collection of features */
+	public static <T extends Locatable> GeneModelIndex<T> of(final Collection<? extends T> features) {
+		return new GeneModelIndex<>(features);
+		}
+	
+	/** create an index of the genes */
+	public static GeneModelIndex<Gene> ofGenes(final Collection<? extends Gene> genes) {
+		return of(genes);
+		}
+	
+	/** create an index of the transcripts of the genes */
+	public static GeneModelIndex<Transcript> ofTranscripts(final Collection<? extends Gene> genes) {
+		return of(genes.stream().
+				flatMap(G->G.getTranscripts().stream()).
+				collect(Collectors.toList()));
+		}
+	
+	/** create an index of the exons of the genes */
+	public static GeneModelIndex<Exon> ofExons(final Collection<? extends Gene> genes) {
+		return of(genes.stream().
+				flatMap(G->G.getTranscripts().stream()).
+				flatMap(T->T.getExons().stream()).
+				collect(Collectors.toList()));
+		}
+	
+	/** number of indexed features */
+	public int size() {
+		return this.size;
+		}
+	
+	/** contigs having at least one feature */
+	public Set<String> getContigs() {
+		return this.contig2tree.keySet();
+		}
+	
+	/** visit each feature overlapping 'loc'. Return the number of features found */
+	public int forEachOverlapping(final Locatable loc,final Consumer<? super T> consumer) {
+		final ContigTree<T> tree = this.contig2tree.get(loc.getContig());
+		if(tree==null) return 0;
+		return tree.overlap(loc.getStart() - 1, loc.getEnd(), consumer);
+		}
+	
+	/** return true if any feature overlaps 'loc' */
+	public boolean containsOverlapping(final Locatable loc) {
+		return countOverlapping(loc) > 0;
+		}
+	
+	/** return the number of features overlapping 'loc' */
+	public int countOverlapping(final Locatable loc) {
+		return forEachOverlapping(loc, null);
+		}
+	
+	/** return the features overlapping 'loc', sorted on start/end */
+	public List<T> getOverlapping(final Locatable loc) {
+		final List<T> L = new ArrayList<>();
+		forEachOverlapping(loc, L::add);
+		L.sort(Comparator.comparingInt((T F)->F.getStart()).thenComparingInt(F->F.getEnd()));
+		return L;
+		}
+	
+	/** return the distance between 'loc' and the feature at index 'i' of the tree, 0 if they overlap */
+	private static int distance(final ContigTree<?> tree,final int i,final Locatable loc) {
+		if(tree.ends[i] < loc.getStart()) return loc.getStart() - tree.ends[i];
+		if(tree.starts[i] >= loc.getEnd()) return tree.starts[i] + 1 - loc.getEnd();
+		return 0;
+		}
+	
+	/** return the feature overlapping 'loc' or the closest feature on the same contig.
+	 * When two features are at the same distance, the upstream one is returned */
+	@SuppressWarnings("unchecked")
+	public Optional<T> getNearest(final Locatable loc) {
+		final ContigTree<T> tree = this.contig2tree.get(loc.getContig());
+		if(tree==null || tree.starts.length==0) return Optional.empty();
+		final Object[] best = new Object[1];
+		if(tree.overlap(loc.getStart() - 1, loc.getEnd(), F->{ if(best[0]==null) best[0]=F;}) > 0) {
+			return Optional.of((T)best[0]);
+			}
+		/* first feature starting after the end of loc */
+		final int after = tree.lowerBound(loc.getEnd());
+		/* feature with the greatest end among the features starting before loc */
+		final int before = after > 0 ? tree.prefixMaxEnd[after-1] : -1;
+		if(before < 0) return Optional.of((T)tree.items[after]);
+		if(after >= tree.starts.length) return Optional.of((T)tree.items[before]);
+		return Optional.of((T)(distance(tree, before, loc) <= distance(tree, after, loc) ? tree.items[before] : tree.items[after]));
+		}
+	
+	@Override
+	public String toString() {
+		return "GeneModelIndex(size:"+this.size+", contigs:"+Arrays.toString(this.contig2tree.keySet().toArray())+")";
+		}
+	}
@@ -72,6 +72,8 @@ public class GtfReader extends AbstractGxxReader {
 	private Function<String,String> contigNameConverter  = S->S;
 	private TabixReader tabixReader = null;
 	private static final boolean SUPPORTS_GFF = false;
+	/** use a binary cache of the genes for local GTF files. See {@link GeneModelCache} */
+	private boolean useGeneModelCache = "true".equals(System.getProperty("jvarkit.gtf.cache", ""));
 	
 	public GtfReader(final InputStream in) {
 		this.resource = new InputStreamGtfResource(in);
@@ -112,6 +114,13 @@ public class GtfReader extends AbstractGxxReader {
 		this.contigNameConverter = contigNameConverter;
 		}
 	
+	/** when reading a local GTF file, load the genes from a binary cache, built on the first call.
+	 * Default is the value of the system property <code>jvarkit.gtf.cache</code> */
+	public GtfReader setUseGeneModelCache(final boolean useGeneModelCache) {
+		this.useGeneModelCache = useGeneModelCache;
+		return this;
+		}
+	
 	private class State {
 		final Map<String,GeneImpl> id2gene = new HashMap<>();
 		final Map<String,TranscriptImpl> id2transcript = new HashMap<>();
@@ -437,9 +446,31 @@ public class GtfReader extends AbstractGxxReader {
 		}
 	
 	public List<Gene> getAllGenes() {
+		if(this.useGeneModelCache && this.resource instanceof PathGtfResource) {
+			return fetchCachedGenes(PathGtfResource.class.cast(this.resource).path);
+			}
 		return fetchGenes(null);
 		}
 	
+	/** load the genes from the binary cache, contig names are converted after loading */
+	private List<Gene> fetchCachedGenes(final Path gtfPath) {
+		try(GeneModelCache cache = GeneModelCache.open(gtfPath)) {
+			final List<Gene> genes = new ArrayList<>();
+			for(final String contig : cache.getContigs()) {
+				final String newContig = contig.isEmpty()?null:this.contigNameConverter.apply(contig);
+				if(!contig.isEmpty() && StringUtils.isBlank(newContig)) continue;
+				for(final Gene gene: cache.getGenes(contig)) {
+					GeneImpl.class.cast(gene).contig = newContig;
+					genes.add(gene);
+					}
+				}
+			return genes;
+			}
+		catch(final IOException err) {
+			throw new RuntimeIOException(err);
+			}
+		}
+	
 	/** not tested */
 	private List<Gene> queryGenes(final Locatable interval) {
 		if(interval==null) throw new IllegalArgumentException("interval cannot be null");
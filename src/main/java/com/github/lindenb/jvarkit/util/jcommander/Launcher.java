@@ -36,6 +36,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -57,6 +58,8 @@ import com.github.lindenb.jvarkit.tests.TestRunnerImpl;
 import com.github.lindenb.jvarkit.util.bio.bed.BedLineCodec;
 import com.github.lindenb.jvarkit.util.bio.samfilter.SamRecordFilterFactory;
 import com.github.lindenb.jvarkit.util.log.Logger;
+import com.github.lindenb.jvarkit.util.picard.ExternalSorter;
+import com.github.lindenb.jvarkit.util.picard.ParallelSortingCollection;
 import com.github.lindenb.jvarkit.util.vcf.VCFUtils;
 import com.github.lindenb.jvarkit.variant.variantcontext.writer.WritingVariantsDelegate;
 
@@ -70,6 +73,7 @@ import htsjdk.samtools.util.FileExtensions;
 import htsjdk.samtools.util.Interval;
 import htsjdk.samtools.util.IntervalTreeMap;
 import htsjdk.samtools.util.ProgressLoggerInterface;
+import htsjdk.samtools.util.SortingCollection;
 import htsjdk.samtools.util.StringUtil;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
@@ -131,6 +135,9 @@ private final JCommander jcommander = new MyJCommander();
 @Parameter(description = "Files")
 private List<String> files = new ArrayList<>();
 
+@Parameter(names={"--bgzf-threads"},description="Number of threads used to compress/uncompress the BGZF files (*.vcf.gz, *.bgz...) opened through jvarkit's IO utilities. 1: use htsjdk's single-threaded codec.")
+private int bgzfThreads = 1;
+
 private String programName="";
 
 
@@ -142,6 +149,9 @@ public class WritingSortingCollection
 	@Parameter(names={"--tmpDir"},description= "tmp working directory. Default: java.io.tmpDir")
 	private List<File> tmpDirs=new ArrayList<>();
 	
+	@Parameter(names={"--sort-threads"},description= "Number of threads used by the external sorter. When greater than 1, chunks of 'maxRecordsInRam' records are sorted and written to disk (BGZF-compressed) in background while the records keep flowing, and the temporary files are merged in parallel. Memory usage can grow up to (sort-threads+1)*maxRecordsInRam records. Otherwise, use the htsjdk SortingCollection.")
+	private int sortThreads = 1;
+	
 	
 	public WritingSortingCollection maxRecordsInRam(final int n)
 		{
@@ -167,6 +177,20 @@ public class WritingSortingCollection
 	public Path getTmpPath() {
 		return getTmpPaths()[0];
 		}
+	public WritingSortingCollection sortThreads(final int n)
+		{
+		this.sortThreads = n;
+		return this;
+		}
+	public int getSortThreads() { return this.sortThreads;}
+	/** creates a new external sorter using the current options: htsjdk SortingCollection or ParallelSortingCollection if sort-threads &gt; 1 */
+	public <T> ExternalSorter<T> newExternalSorter(final Class<T> componentType,final SortingCollection.Codec<T> codec,final Comparator<T> comparator)
+		{
+		if(this.sortThreads > 1) {
+			return ParallelSortingCollection.newInstance(componentType, codec, comparator, getMaxRecordsInRam(), this.sortThreads, getTmpPaths());
+			}
+		return ExternalSorter.wrap(SortingCollection.newInstance(componentType, codec, comparator, getMaxRecordsInRam(), getTmpPaths()));
+		}
 	}	
 
 public static enum WritingSamReaderType
@@ -703,6 +727,7 @@ public final int instanceMain(final List<String> args) {
 	
 public int instanceMain(final String args[]) {
 	int ret=RETURN_OK;
+	final int previousBgzfThreads = IOUtils.getBgzfThreads();
 	try 
 		{
 		final Status status = parseArgs(args);
@@ -715,6 +740,11 @@ public int instanceMain(final String args[]) {
 			case RUN_TESTS: return this.runInternalTests();
 			case OK:break;
 			}
+		if(this.bgzfThreads<1) {
+			LOG.error("bad value for --bgzf-threads: "+this.bgzfThreads);
+			return -1;
+			}
+		IOUtils.setBgzfThreads(this.bgzfThreads);
 		
 		try 
 			{
@@ -740,6 +770,7 @@ public int instanceMain(final String args[]) {
 	finally
 		{
 		cleanup();
+		IOUtils.setBgzfThreads(previousBgzfThreads);
 		}
 	return 0;
 	}
@@ -261,6 +261,84 @@ public <T extends Locatable> Watcher<T> build() {
 	return w;
 	}
 
+/** build a watcher for a known number of tasks that are not {@link Locatable}, e.g: BAM files processed in parallel */
+public TaskWatcher buildTaskWatcher(final long expectedCount) {
+	if(this._silent) return new SilentTaskWatcher();
+	final TaskWatcherImpl w = new TaskWatcherImpl();
+	w._logger = this.getLogger();
+	w._everySeconds = this.getEverySeconds();
+	w._expectedCount = expectedCount;
+	w._logPrefix=(StringUtil.isBlank( this.getPrefix())?"":"["+ this.getPrefix()+"]");
+	return w;
+	}
+
+/** counts the completed tasks. Must be thread-safe */
+public static interface TaskWatcher
+	extends Closeable
+	{
+	/** called when a task was completed */
+	public void done();
+	@Override
+	public void close();
+	}
+
+private static class SilentTaskWatcher
+	implements TaskWatcher
+	{
+	@Override
+	public void done() {
+		}
+	@Override
+	public void close() {
+		}
+	}
+
+private static class TaskWatcherImpl
+	implements TaskWatcher
+	{
+	private Logger _logger = LOG;
+	private int _everySeconds = 10;
+	private long _expectedCount = 0L;
+	private String _logPrefix = "";
+	private final long startMillisec = System.currentTimeMillis();
+	private long lastCallMillisec = startMillisec;
+	private long count_items = 0L;
+	private boolean EOF_flag = false;
+
+	@Override
+	public synchronized void done() {
+		if(this.EOF_flag) throw new IllegalStateException("Watcher was closed");
+		this.count_items++;
+		final long now = System.currentTimeMillis();
+		if((now - this.lastCallMillisec) / 1_000 <= this._everySeconds) return;
+		this.lastCallMillisec = now;
+		final long elapsed = now - this.startMillisec;
+		if(this._expectedCount <= 0L || this.count_items > this._expectedCount) {
+			this._logger.info(this._logPrefix+"Count: "+StringUtils.niceInt(this.count_items)+" Elapsed: "+duration(elapsed));
+			return;
+			}
+		final double fraction = this.count_items/(double)this._expectedCount;
+		final long timeRemain = (long)(elapsed/fraction) - elapsed;
+		this._logger.info(String.format(
+				"%sCount: %s/%s Elapsed: %s(%.2f%%) Remains: %s(%.2f%%)",
+				this._logPrefix,
+				StringUtils.niceInt(this.count_items),
+				StringUtils.niceInt(this._expectedCount),
+				duration(elapsed),
+				fraction*100.0,
+				duration(timeRemain),
+				100.0-fraction*100.0
+				));
+		}
+
+	@Override
+	public synchronized void close() {
+		if(this.EOF_flag) return;
+		this.EOF_flag = true;
+		this._logger.info(this._logPrefix +". Completed. N="+StringUtils.niceInt(this.count_items)+". That took:"+duration(System.currentTimeMillis()-this.startMillisec));
+		}
+	}
+
 public static interface Watcher<T extends Locatable>
 	extends Closeable,Function<T, T>
 	{
@@ -0,0 +1,76 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.util.picard;
+
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.samtools.util.SortingCollection;
+
+/**
+ * Common interface for the external sorters: htsjdk {@link SortingCollection}
+ * and jvarkit {@link ParallelSortingCollection}. Instances are usually created with
+ * <code>Launcher.WritingSortingCollection.newExternalSorter</code>
+ */
+public interface ExternalSorter<T> extends Iterable<T> {
+	/** add a new record. Cannot be called after doneAdding() */
+	public void add(final T o);
+	/** signal that no more record will be added */
+	public void doneAdding();
+	/** if true, the records are removed from memory/disk as they are read */
+	public void setDestructiveIteration(final boolean destructiveIteration);
+	/** iterate over the sorted records */
+	@Override
+	public CloseableIterator<T> iterator();
+	/** remove the temporary files */
+	public void cleanup();
+	
+	/** wraps a htsjdk SortingCollection */
+	public static <T> ExternalSorter<T> wrap(final SortingCollection<T> delegate) {
+		return new ExternalSorter<T>() {
+			@Override
+			public void add(final T o) {
+				delegate.add(o);
+				}
+			@Override
+			public void doneAdding() {
+				delegate.doneAdding();
+				}
+			@Override
+			public void setDestructiveIteration(final boolean destructiveIteration) {
+				delegate.setDestructiveIteration(destructiveIteration);
+				}
+			@Override
+			public CloseableIterator<T> iterator() {
+				return delegate.iterator();
+				}
+			@Override
+			public void cleanup() {
+				delegate.cleanup();
+				}
+			@Override
+			public String toString() {
+				return delegate.toString();
+				}
+			};
+		}
+	}
@@ -37,6 +37,7 @@ import java.util.OptionalInt;
 
 import com.github.lindenb.jvarkit.lang.AbstractCharSequence;
 import com.github.lindenb.jvarkit.lang.JvarkitException;
+import com.github.lindenb.jvarkit.reference.GCContentIndex;
 import com.github.lindenb.jvarkit.util.bio.ChromosomeSequence;
 import com.github.lindenb.jvarkit.util.bio.SequenceDictionaryUtils;
 
@@ -55,6 +56,9 @@ public class GenomicSequence
 	private byte buffer[]=null;
 	private int buffer_pos=-1;
 	private int half_buffer_capacity = 1_000_000;
+	/** prefix-sum GC index, built once getGCPercent has scanned more bases than the length of the contig */
+	private GCContentIndex.ContigGC gcIndex = null;
+	private long gcScanned = 0L;
 	
 	public static interface GCPercent extends Locatable
 		{
@@ -74,7 +78,14 @@ public class GenomicSequence
 					OptionalInt.of(getGCPercentAsInteger())
 					;
 			}
-
+		/** create a new GCPercent for the interval contig:start1-end1 */
+		public static GCPercent of(final String contig,int start1,int end1,int count,int count_gc,int count_at) {
+			final GCPercentImpl gcp = new GCPercentImpl(contig, start1, end1);
+			gcp.count = count;
+			gcp.count_gc = count_gc;
+			gcp.count_at = count_at;
+			return gcp;
+			}
 		}
 	
 	private static class GCPercentImpl
@@ -199,9 +210,24 @@ public class GenomicSequence
 		return (char)buffer[index0-minStart];
 		}
 	
+	/** use the GC-content index 'index' (e.g. persisted next to the fasta) in getGCPercent */
+	public GenomicSequence setGCContentIndex(final GCContentIndex index) {
+		this.gcIndex = (index==null?null:index.getContigGC(getChrom()));
+		return this;
+		}
+	
 	/** return GC% between start (inclusive, 0 based) and end (exclusive)) */
 	public GCPercent getGCPercent(int start,int end) {
 		final int L=this.length();
+		if(start>=0 && this.gcIndex==null && end>start) {
+			this.gcScanned += Math.max(0, Math.min(end, L) - start);
+			if(this.gcScanned > L) {
+				this.gcIndex = GCContentIndex.ContigGC.build(getChrom(), this);
+				}
+			}
+		if(start>=0 && this.gcIndex!=null) {
+			return this.gcIndex.getGCPercent(this, start, end);
+			}
 		final GCPercentImpl gcp = new GCPercentImpl(
 				this.getChrom(),
 				start+1,
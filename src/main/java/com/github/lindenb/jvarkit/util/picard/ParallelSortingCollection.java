@@ -0,0 +1,507 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.util.picard;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.samtools.util.CloserUtil;
+import htsjdk.samtools.util.RuntimeIOException;
+import htsjdk.samtools.util.SortingCollection;
+
+/**
+ * Multi-threaded external sorter using the same {@link SortingCollection.Codec} as htsjdk.
+ * <ul>
+ * <li>When the buffer of 'maxRecordsInRam' records is full, it is sorted and written to disk
+ * by a background thread while the caller keeps adding records. At most 'nThreads' buffers
+ * are pending, so memory usage is bounded by (nThreads+1)*maxRecordsInRam records.</li>
+ * <li>Temporary files are BGZF-compressed with a low compression level.</li>
+ * <li>Iteration is a two-level tournament: the temporary files are split into 'nThreads'
+ * contiguous ranges, each worker decoding and merging its own range into a queue of sorted batches,
+ * and the caller merges the heads of those queues.</li>
+ * <li>Like htsjdk's SortingCollection, records comparing as equal are returned in insertion order:
+ * ties are broken by file ordinal, then by worker index.</li>
+ * </ul>
+ */
+public class ParallelSortingCollection<T> implements ExternalSorter<T> {
+	/** compression level of the temporary files */
+	private static final int COMPRESSION_LEVEL = 1;
+	/** number of records in a batch sent by a merging worker */
+	private static final int BATCH_SIZE = 1_000;
+	/** number of batches buffered per merging worker */
+	private static final int QUEUE_CAPACITY = 4;
+	/** size of the buffers wrapping the temporary files */
+	private static final int BUFFER_SIZE = 8192;
+
+	private final Class<T> componentType;
+	private final SortingCollection.Codec<T> codec;
+	private final Comparator<T> comparator;
+	private final int maxRecordsInRam;
+	private final Path[] tmpDirs;
+	private final int nThreads;
+	private T[] ramRecords;
+	private int numRecordsInRam = 0;
+	private ExecutorService sortExecutor = null;
+	private final List<Future<Path>> pendingSpills = new ArrayList<>();
+	private final List<Path> files = new ArrayList<>();
+	private boolean doneAdding = false;
+	private boolean destructiveIteration = true;
+	private boolean cleanedUp = false;
+	private int tmpDirIndex = 0;
+
+	private ParallelSortingCollection(
+			final Class<T> componentType,
+			final SortingCollection.Codec<T> codec,
+			final Comparator<T> comparator,
+			final int maxRecordsInRam,
+			final int nThreads,
+			final Path[] tmpDirs) {
+		if (maxRecordsInRam <= 0) throw new IllegalArgumentException("maxRecordsInRam must be > 0");
+		if (nThreads <= 0) throw new IllegalArgumentException("nThreads must be > 0");
+		if (tmpDirs == null || tmpDirs.length == 0) throw new IllegalArgumentException("At least one temp directory must be provided.");
+		this.componentType = componentType;
+		this.codec = codec;
+		this.comparator = comparator;
+		this.maxRecordsInRam = maxRecordsInRam;
+		this.nThreads = nThreads;
+		this.tmpDirs = tmpDirs;
+		this.ramRecords = newArray();
+		}
+
+	/** create a new ParallelSortingCollection */
+	public static <T> ParallelSortingCollection<T> newInstance(
+			final Class<T> componentType,
+			final SortingCollection.Codec<T> codec,
+			final Comparator<T> comparator,
+			final int maxRecordsInRam,
+			final int nThreads,
+			final Path... tmpDirs) {
+		return new ParallelSortingCollection<>(componentType, codec, comparator, maxRecordsInRam, nThreads, tmpDirs);
+		}
+
+	/** threads must not prevent the JVM from exiting if the caller forgets cleanup() */
+	private static Thread newDaemonThread(final Runnable r) {
+		final Thread t = new Thread(r, "sorting-collection");
+		t.setDaemon(true);
+		return t;
+		}
+
+	@SuppressWarnings("unchecked")
+	private T[] newArray() {
+		return (T[])Array.newInstance(this.componentType, this.maxRecordsInRam);
+		}
+
+	@Override
+	public void setDestructiveIteration(final boolean destructiveIteration) {
+		this.destructiveIteration = destructiveIteration;
+		}
+
+	@Override
+	public void add(final T rec) {
+		if (this.doneAdding) throw new IllegalStateException("Cannot add after calling doneAdding()");
+		if (this.cleanedUp) throw new IllegalStateException("Cannot add after calling cleanup()");
+		if (this.numRecordsInRam == this.maxRecordsInRam) {
+			spill();
+			}
+		this.ramRecords[this.numRecordsInRam++] = rec;
+		}
+
+	private Path createTempFile() throws IOException {
+		final Path dir = this.tmpDirs[this.tmpDirIndex % this.tmpDirs.length];
+		this.tmpDirIndex++;
+		final Path tmp = Files.createTempFile(dir, "sortingcollection.", ".tmp.gz");
+		tmp.toFile().deleteOnExit();
+		return tmp;
+		}
+
+	private static <T> T waitFor(final Future<T> future) {
+		try {
+			return future.get();
+			}
+		catch (final InterruptedException err) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(err);
+			}
+		catch (final ExecutionException err) {
+			final Throwable cause = err.getCause();
+			if (cause instanceof RuntimeException) throw RuntimeException.class.cast(cause);
+			if (cause instanceof IOException) throw new RuntimeIOException(cause);
+			throw new RuntimeException(cause);
+			}
+		}
+
+	/** sort and write the current buffer in background */
+	private void spill() {
+		if (this.numRecordsInRam == 0) return;
+		if (this.sortExecutor == null) {
+			this.sortExecutor = Executors.newFixedThreadPool(this.nThreads, ParallelSortingCollection::newDaemonThread);
+			}
+		/* bound the memory: wait for the oldest pending buffer */
+		while (this.pendingSpills.size() >= this.nThreads) {
+			this.files.add(waitFor(this.pendingSpills.remove(0)));
+			}
+		final T[] array = this.ramRecords;
+		final int count = this.numRecordsInRam;
+		final Path tmpFile;
+		try {
+			tmpFile = createTempFile();
+			}
+		catch (final IOException err) {
+			throw new RuntimeIOException(err);
+			}
+		this.pendingSpills.add(this.sortExecutor.submit(() -> {
+			Arrays.sort(array, 0, count, this.comparator);
+			final SortingCollection.Codec<T> encoder = this.codec.clone();
+			try (BlockCompressedOutputStream bgzf = new BlockCompressedOutputStream(Files.newOutputStream(tmpFile), (Path)null, COMPRESSION_LEVEL)) {
+				final DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(bgzf, BUFFER_SIZE));
+				encoder.setOutputStream(dos);
+				for (int i = 0; i < count; i++) {
+					encoder.encode(array[i]);
+					array[i] = null;
+					}
+				dos.flush();
+				}
+			return tmpFile;
+			}));
+		this.ramRecords = newArray();
+		this.numRecordsInRam = 0;
+		}
+
+	@Override
+	public void doneAdding() {
+		if (this.cleanedUp) throw new IllegalStateException("Cannot call doneAdding() after cleanup()");
+		if (this.doneAdding) return;
+		this.doneAdding = true;
+		if (this.sortExecutor == null) {
+			/* everything fits in memory */
+			if (this.nThreads > 1) {
+				Arrays.parallelSort(this.ramRecords, 0, this.numRecordsInRam, this.comparator);
+				}
+			else {
+				Arrays.sort(this.ramRecords, 0, this.numRecordsInRam, this.comparator);
+				}
+			return;
+			}
+		try {
+			spill();
+			for (final Future<Path> future : this.pendingSpills) {
+				this.files.add(waitFor(future));
+				}
+			this.pendingSpills.clear();
+			}
+		finally {
+			this.sortExecutor.shutdown();
+			this.sortExecutor = null;
+			}
+		this.ramRecords = null;
+		}
+
+	@Override
+	public CloseableIterator<T> iterator() {
+		if (this.cleanedUp) throw new IllegalStateException("Cannot call iterator() after cleanup()");
+		doneAdding();
+		if (this.files.isEmpty()) {
+			return new InMemoryIterator();
+			}
+		return new MergingIterator();
+		}
+
+	@Override
+	public void cleanup() {
+		this.cleanedUp = true;
+		this.ramRecords = null;
+		this.numRecordsInRam = 0;
+		if (this.sortExecutor != null) {
+			this.sortExecutor.shutdownNow();
+			this.sortExecutor = null;
+			}
+		for (final Future<Path> future : this.pendingSpills) {
+			try {
+				this.files.add(future.get());
+				}
+			catch (final Throwable err) {
+				/* ignore */
+				}
+			}
+		this.pendingSpills.clear();
+		for (final Path f : this.files) {
+			try {
+				Files.deleteIfExists(f);
+				}
+			catch (final IOException err) {
+				/* ignore */
+				}
+			}
+		this.files.clear();
+		}
+
+	@Override
+	public String toString() {
+		return "ParallelSortingCollection(threads:" + this.nThreads + ",maxRecordsInRam:" + this.maxRecordsInRam + ",files:" + this.files.size() + ")";
+		}
+
+	private class InMemoryIterator implements CloseableIterator<T> {
+		private final T[] array = ParallelSortingCollection.this.ramRecords;
+		private final int count = ParallelSortingCollection.this.numRecordsInRam;
+		private int index = 0;
+
+		@Override
+		public boolean hasNext() {
+			return this.index < this.count;
+			}
+
+		@Override
+		public T next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			final T rec = this.array[this.index];
+			if (ParallelSortingCollection.this.destructiveIteration) this.array[this.index] = null;
+			this.index++;
+			return rec;
+			}
+
+		@Override
+		public void close() {
+			this.index = this.count;
+			}
+		}
+
+	/** reads the records of one temporary file */
+	private class FileReader implements Comparable<FileReader> {
+		/** index of the file in 'files', records of a lower ordinal were added first */
+		private final int ordinal;
+		private final InputStream in;
+		private final SortingCollection.Codec<T> decoder;
+		private T head;
+
+		FileReader(final int ordinal, final Path path) throws IOException {
+			this.ordinal = ordinal;
+			this.in = new DataInputStream(new BlockCompressedInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE)));
+			this.decoder = ParallelSortingCollection.this.codec.clone();
+			this.decoder.setInputStream(this.in);
+			this.head = this.decoder.decode();
+			}
+
+		/** return the current head and read the next record */
+		T pop() {
+			final T rec = this.head;
+			this.head = this.decoder.decode();
+			return rec;
+			}
+
+		@Override
+		public int compareTo(final FileReader o) {
+			final int i = ParallelSortingCollection.this.comparator.compare(this.head, o.head);
+			if (i != 0) return i;
+			return Integer.compare(this.ordinal, o.ordinal);
+			}
+		}
+
+	/** merges a contiguous range of the temporary files into a queue of sorted batches */
+	private class MergingWorker implements Runnable {
+		/** index of the worker; workers of a lower index own the files written first */
+		private final int workerIndex;
+		/** index of the first file in 'files' */
+		private final int firstOrdinal;
+		private final List<Path> paths;
+		private final BlockingQueue<List<T>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+		private final List<T> endOfQueue = new ArrayList<>(0);
+		private volatile Throwable error = null;
+		/* consumer side */
+		private List<T> batch = Collections.emptyList();
+		private int index = 0;
+
+		MergingWorker(final int workerIndex, final int firstOrdinal, final List<Path> paths) {
+			this.workerIndex = workerIndex;
+			this.firstOrdinal = firstOrdinal;
+			this.paths = paths;
+			}
+
+		@Override
+		public void run() {
+			final List<FileReader> readers = new ArrayList<>(this.paths.size());
+			try {
+				final PriorityQueue<FileReader> heap = new PriorityQueue<>(Math.max(1, this.paths.size()));
+				for (int i = 0; i < this.paths.size(); i++) {
+					final FileReader r = new FileReader(this.firstOrdinal + i, this.paths.get(i));
+					readers.add(r);
+					if (r.head != null) heap.add(r);
+					}
+				List<T> buffer = new ArrayList<>(BATCH_SIZE);
+				while (!heap.isEmpty()) {
+					final FileReader r = heap.poll();
+					buffer.add(r.pop());
+					if (r.head != null) heap.add(r);
+					if (buffer.size() == BATCH_SIZE) {
+						this.queue.put(buffer);
+						buffer = new ArrayList<>(BATCH_SIZE);
+						}
+					}
+				if (!buffer.isEmpty()) this.queue.put(buffer);
+				this.queue.put(this.endOfQueue);
+				}
+			catch (final InterruptedException err) {
+				/* iterator was closed */
+				}
+			catch (final Throwable err) {
+				this.error = err;
+				this.queue.clear();
+				this.queue.offer(this.endOfQueue);
+				}
+			finally {
+				for (final FileReader r : readers) CloserUtil.close(r.in);
+				if (ParallelSortingCollection.this.destructiveIteration) {
+					for (final Path path : this.paths) {
+						try {
+							Files.deleteIfExists(path);
+							}
+						catch (final IOException err) {
+							/* ignore */
+							}
+						}
+					}
+				}
+			}
+
+		/** move to the next batch, return false at the end of the queue */
+		boolean fill() {
+			try {
+				for (;;) {
+					final List<T> L = this.queue.take();
+					if (L == this.endOfQueue) {
+						if (this.error instanceof RuntimeException) throw RuntimeException.class.cast(this.error);
+						if (this.error instanceof IOException) throw new RuntimeIOException(this.error);
+						if (this.error != null) throw new RuntimeException(this.error);
+						return false;
+						}
+					if (L.isEmpty()) continue;
+					this.batch = L;
+					this.index = 0;
+					return true;
+					}
+				}
+			catch (final InterruptedException err) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(err);
+				}
+			}
+
+		T peek() {
+			return this.batch.get(this.index);
+			}
+		}
+
+	private class MergingIterator implements CloseableIterator<T> {
+		private final ExecutorService executor;
+		private final PriorityQueue<MergingWorker> heap;
+		private boolean closed = false;
+
+		MergingIterator() {
+			final int nWorkers = Math.min(ParallelSortingCollection.this.nThreads, ParallelSortingCollection.this.files.size());
+			final int nFiles = ParallelSortingCollection.this.files.size();
+			final List<MergingWorker> workers = new ArrayList<>(nWorkers);
+			for (int i = 0; i < nWorkers; i++) {
+				final int start = (int)(((long)i * nFiles) / nWorkers);
+				final int end = (int)(((long)(i + 1) * nFiles) / nWorkers);
+				final List<Path> paths = new ArrayList<>(ParallelSortingCollection.this.files.subList(start, end));
+				workers.add(new MergingWorker(i, start, paths));
+				}
+			this.executor = Executors.newFixedThreadPool(nWorkers, ParallelSortingCollection::newDaemonThread);
+			workers.forEach(W -> this.executor.execute(W));
+			this.heap = new PriorityQueue<>(nWorkers, (A, B) -> {
+				final int i = ParallelSortingCollection.this.comparator.compare(A.peek(), B.peek());
+				if (i != 0) return i;
+				return Integer.compare(A.workerIndex, B.workerIndex);
+				});
+			try {
+				for (final MergingWorker w : workers) {
+					if (w.fill()) this.heap.add(w);
+					}
+				}
+			catch (final RuntimeException err) {
+				close();
+				throw err;
+				}
+			}
+
+		@Override
+		public boolean hasNext() {
+			if (this.closed) return false;
+			if (this.heap.isEmpty()) {
+				close();
+				return false;
+				}
+			return true;
+			}
+
+		@Override
+		public T next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			final MergingWorker w = this.heap.poll();
+			final T rec = w.peek();
+			w.index++;
+			if (w.index < w.batch.size() || w.fill()) {
+				this.heap.add(w);
+				}
+			return rec;
+			}
+
+		@Override
+		public void close() {
+			if (this.closed) return;
+			this.closed = true;
+			this.heap.clear();
+			this.executor.shutdownNow();
+			try {
+				this.executor.awaitTermination(1L, TimeUnit.MINUTES);
+				}
+			catch (final InterruptedException err) {
+				Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
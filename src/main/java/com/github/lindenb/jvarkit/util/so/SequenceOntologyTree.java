@@ -31,6 +31,7 @@ package com.github.lindenb.jvarkit.util.so;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -41,6 +42,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
@@ -68,6 +70,10 @@ public class SequenceOntologyTree
 	private static SequenceOntologyTree INSTANCE=null;
 	private final Map<String,TermImpl> acn2term=new HashMap<>(3000);
 	private final Map<String,TermImpl> label2term=new HashMap<>(3000);
+	/** terms indexed by TermImpl.index */
+	private final List<TermImpl> index2term = new ArrayList<>(3000);
+	/** true when the ancestors/descendants of each term have been computed */
+	private volatile boolean closureComputed = false;
 	
 	
 	public interface Term
@@ -91,15 +97,27 @@ public class SequenceOntologyTree
 		{
 		final String accession;
 		final int _hash;
+		/** dense index of this term in the tree */
+		final int index;
 		String label;
 		final Set<Term> parents=new HashSet<>();
 		final Set<Term> children=new HashSet<>();
+		/** indexes of all the ancestors, including self. Filled by computeClosure */
+		BitSet ancestors = null;
+		/** all the descendants, including self. Filled by computeClosure */
+		Set<Term> allDescendants = null;
 		
 		TermImpl(final String accession,final String label) {
 			this.accession = accession;
 			this._hash = accession.hashCode();
 			this.label = label;/* may be null */
+			this.index = SequenceOntologyTree.this.index2term.size();
+			SequenceOntologyTree.this.index2term.add(this);
 		}
+		
+		private SequenceOntologyTree getTree() {
+			return SequenceOntologyTree.this;
+			}
 		/** get URL "http://purl.obolibrary.org/obo/..."  */
 		@Override
 		public String getUri() {
@@ -122,16 +140,19 @@ public class SequenceOntologyTree
 			return Collections.unmodifiableSet(this.children);
 			}
 		
-		/** recursive operation on getChildren, including self */
+		/** recursive operation on getChildren, including self. The returned set is unmodifiable */
 		@Override
 		public Set<Term> getAllDescendants()
 			{
-			final Set<Term> set=new HashSet<Term>();
-			_getAllDescendants(this,set);
-			return set;
+			computeClosure();
+			return this.allDescendants;
 			}
 		/** return true if term is children of parent */
 		public boolean isChildrenOf(final Term t) {
+			if(t instanceof TermImpl && TermImpl.class.cast(t).getTree()==getTree()) {
+				computeClosure();
+				return this.ancestors.get(TermImpl.class.cast(t).index);
+				}
 			return _isChildrenOf(this,t);
 			}	
 
@@ -167,13 +188,52 @@ public class SequenceOntologyTree
 	
 
 	
-	private static void _getAllDescendants(final Term term,final Set<Term> set)
+	/** compute, once, the ancestors and the descendants of each term so isChildrenOf and getAllDescendants don't walk the graph */
+	private void computeClosure() {
+		if(this.closureComputed) return;
+		synchronized(this) {
+			if(this.closureComputed) return;
+			final int n = this.index2term.size();
+			final BitSet[] ancestors = new BitSet[n];
+			for(final TermImpl t: this.index2term) {
+				_getAncestors(t,ancestors);
+				}
+			final BitSet[] descendants = new BitSet[n];
+			for(int i=0;i< n;i++) descendants[i] = new BitSet(n);
+			for(int i=0;i< n;i++) {
+				final BitSet bits = ancestors[i];
+				for(int j = bits.nextSetBit(0); j>=0; j = bits.nextSetBit(j+1)) {
+					descendants[j].set(i);
+					}
+				}
+			for(final TermImpl t: this.index2term) {
+				t.ancestors = ancestors[t.index];
+				t.allDescendants = Collections.unmodifiableSet(toTermSet(descendants[t.index]));
+				}
+			this.closureComputed = true;
+			}
+		}
+	
+	private static BitSet _getAncestors(final TermImpl term,final BitSet[] ancestors)
 		{
-		set.add(term);
-		for(final Term c:term.getChildren())
+		BitSet bits = ancestors[term.index];
+		if(bits!=null) return bits;
+		bits = new BitSet();
+		bits.set(term.index);
+		for(final Term p:term.parents)
 			{
-			_getAllDescendants(c,set);
+			bits.or(_getAncestors(TermImpl.class.cast(p),ancestors));
 			}
+		ancestors[term.index] = bits;
+		return bits;
+		}
+	
+	private Set<Term> toTermSet(final BitSet bits) {
+		final Set<Term> set = new HashSet<>(bits.cardinality());
+		for(int i = bits.nextSetBit(0); i>=0; i = bits.nextSetBit(i+1)) {
+			set.add(this.index2term.get(i));
+			}
+		return set;
 		}
 
 	private static boolean _isChildrenOf(final Term term,final Term parent)
@@ -235,6 +295,39 @@ public class SequenceOntologyTree
 				replaceAll(" ", "_");
 		}
 	
+	/**
+	 * compile a collection of terms to a Predicate backed by a BitSet.
+	 * @param terms the terms
+	 * @param withDescendants if true, the predicate also accepts all the descendants of the terms
+	 * @return a predicate accepting the terms of this tree found in 'terms'
+	 */
+	public Predicate<Term> createTermPredicate(final Collection<? extends Term> terms,final boolean withDescendants) {
+		computeClosure();
+		final BitSet mask = new BitSet(this.index2term.size());
+		for(final Term t: terms) {
+			final TermImpl t2 = this.acn2term.get(t.getAcn());
+			if(t2==null) continue;
+			if(withDescendants) {
+				for(final Term c: t2.getAllDescendants()) {
+					mask.set(TermImpl.class.cast(c).index);
+					}
+				}
+			else
+				{
+				mask.set(t2.index);
+				}
+			}
+		return T->{
+			if(T==null) return false;
+			if(T instanceof TermImpl && TermImpl.class.cast(T).getTree()==this) {
+				return mask.get(TermImpl.class.cast(T).index);
+				}
+			/* term from another tree */
+			final TermImpl t2 = this.acn2term.get(T.getAcn());
+			return t2!=null && mask.get(t2.index);
+			};
+		}
+	
 	/** loop over terms and find a term.label==user.label */ 
 	public Term getTermByLabel(final String s)
 		{
@@ -0,0 +1,324 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.util.vcf;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.lindenb.jvarkit.util.picard.AbstractDataCodec;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.GenotypesContext;
+import htsjdk.variant.variantcontext.LazyGenotypesContext;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFEncoder;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderVersion;
+import htsjdk.variant.vcf.VCFIDHeaderLine;
+
+/**
+ * Compact binary codec for VariantContext, to be used by the sorting collections instead of htsjdk VCFRecordCodec.
+ * The site is stored in a BCF-like way: contig, INFO and FILTER names are indexes in the dictionary of the fixed header,
+ * INFO values keep their java type (Integer, Double, String, List...) and are not formatted/parsed as text.
+ * The genotypes are stored as VCF text and are only decoded (lazily) when they're needed, so merging the
+ * temporary files only costs the decoding of the site.
+ */
+public class BinaryVariantContextCodec extends AbstractDataCodec<VariantContext> {
+	private static final byte FILTERS_UNFILTERED = 0;
+	private static final byte FILTERS_PASS = 1;
+	private static final byte FILTERS_FAILED = 2;
+	private static final byte GENOTYPES_NONE = 0;
+	private static final byte GENOTYPES_TEXT = 1;
+	private static final byte TYPE_NULL = 0;
+	private static final byte TYPE_BOOLEAN = 1;
+	private static final byte TYPE_INT = 2;
+	private static final byte TYPE_LONG = 3;
+	private static final byte TYPE_FLOAT = 4;
+	private static final byte TYPE_DOUBLE = 5;
+	private static final byte TYPE_STRING = 6;
+	private static final byte TYPE_LIST = 7;
+
+	private final VCFHeader header;
+	/** dictionary of contigs, FILTER, INFO and FORMAT ids */
+	private final List<String> index2key;
+	private final Map<String,Integer> key2index;
+	private final boolean hasGenotypes;
+	/* the following are specific to this instance and are not shared with the clones */
+	private final VCFEncoder vcfEncoder;
+	private final VCFCodec vcfCodec;
+
+	public BinaryVariantContextCodec(final VCFHeader header) {
+		this(header, buildDictionary(header));
+		}
+
+	private BinaryVariantContextCodec(final VCFHeader header, final List<String> index2key) {
+		this.header = header;
+		this.index2key = index2key;
+		this.key2index = new HashMap<>(index2key.size());
+		for(int i=0;i< index2key.size();i++) {
+			this.key2index.putIfAbsent(index2key.get(i), i);
+			}
+		this.hasGenotypes = header.hasGenotypingData();
+		this.vcfEncoder = new VCFEncoder(header, true, false);
+		this.vcfCodec = new VCFCodec();
+		this.vcfCodec.setVCFHeader(header, VCFHeaderVersion.VCF4_2);
+		}
+
+	private static List<String> buildDictionary(final VCFHeader header) {
+		final List<String> L = new ArrayList<>();
+		final SAMSequenceDictionary dict = header.getSequenceDictionary();
+		if(dict!=null) dict.getSequences().forEach(SSR->L.add(SSR.getSequenceName()));
+		header.getFilterLines().stream().map(VCFIDHeaderLine::getID).forEach(L::add);
+		header.getInfoHeaderLines().stream().map(VCFIDHeaderLine::getID).forEach(L::add);
+		header.getFormatHeaderLines().stream().map(VCFIDHeaderLine::getID).forEach(L::add);
+		return L;
+		}
+
+	/** write a positive integer using 1 to 5 bytes */
+	private static void writeVarInt(final DataOutputStream dos, int v) throws IOException {
+		while((v & ~0x7F) != 0) {
+			dos.writeByte((v & 0x7F) | 0x80);
+			v >>>= 7;
+			}
+		dos.writeByte(v);
+		}
+
+	private static int readVarInt(final DataInputStream dis) throws IOException {
+		int v = 0;
+		int shift = 0;
+		for(;;) {
+			final int b = dis.readUnsignedByte();
+			v |= (b & 0x7F) << shift;
+			if((b & 0x80) == 0) return v;
+			shift += 7;
+			}
+		}
+
+	/** write the index of a key in the header dictionary, or the key itself */
+	private void writeKey(final DataOutputStream dos, final String key) throws IOException {
+		final Integer idx = this.key2index.get(key);
+		if(idx == null) {
+			writeVarInt(dos, 0);
+			writeString(dos, key);
+			}
+		else
+			{
+			writeVarInt(dos, idx + 1);
+			}
+		}
+
+	private String readKey(final DataInputStream dis) throws IOException {
+		final int idx = readVarInt(dis);
+		if(idx == 0) return readString(dis);
+		return this.index2key.get(idx - 1);
+		}
+
+	private void writeValue(final DataOutputStream dos, final Object o) throws IOException {
+		if(o == null) {
+			dos.writeByte(TYPE_NULL);
+			}
+		else if(o instanceof Boolean) {
+			dos.writeByte(TYPE_BOOLEAN);
+			dos.writeBoolean(Boolean.class.cast(o));
+			}
+		else if(o instanceof Integer) {
+			dos.writeByte(TYPE_INT);
+			dos.writeInt(Integer.class.cast(o));
+			}
+		else if(o instanceof Long) {
+			dos.writeByte(TYPE_LONG);
+			dos.writeLong(Long.class.cast(o));
+			}
+		else if(o instanceof Float) {
+			dos.writeByte(TYPE_FLOAT);
+			dos.writeFloat(Float.class.cast(o));
+			}
+		else if(o instanceof Double) {
+			dos.writeByte(TYPE_DOUBLE);
+			dos.writeDouble(Double.class.cast(o));
+			}
+		else if(o instanceof Collection) {
+			final Collection<?> col = Collection.class.cast(o);
+			dos.writeByte(TYPE_LIST);
+			writeVarInt(dos, col.size());
+			for(final Object item : col) writeValue(dos, item);
+			}
+		else if(o.getClass().isArray()) {
+			final int n = Array.getLength(o);
+			dos.writeByte(TYPE_LIST);
+			writeVarInt(dos, n);
+			for(int i=0;i< n;i++) writeValue(dos, Array.get(o, i));
+			}
+		else
+			{
+			dos.writeByte(TYPE_STRING);
+			writeString(dos, o.toString());
+			}
+		}
+
+	private Object readValue(final DataInputStream dis) throws IOException {
+		final byte type = dis.readByte();
+		switch(type) {
+			case TYPE_NULL: return null;
+			case TYPE_BOOLEAN: return dis.readBoolean();
+			case TYPE_INT: return dis.readInt();
+			case TYPE_LONG: return dis.readLong();
+			case TYPE_FLOAT: return dis.readFloat();
+			case TYPE_DOUBLE: return dis.readDouble();
+			case TYPE_STRING: return readString(dis);
+			case TYPE_LIST: {
+				final int n = readVarInt(dis);
+				final List<Object> L = new ArrayList<>(n);
+				for(int i=0;i< n;i++) L.add(readValue(dis));
+				return L;
+				}
+			default: throw new IOException("unknown type "+type);
+			}
+		}
+
+	@Override
+	public void encode(final DataOutputStream dos, final VariantContext ctx) throws IOException {
+		writeKey(dos, ctx.getContig());
+		dos.writeInt(ctx.getStart());
+		dos.writeInt(ctx.getEnd());
+		writeString(dos, ctx.getID());
+		final List<Allele> alleles = ctx.getAlleles();
+		writeVarInt(dos, alleles.size());
+		for(final Allele a : alleles) {
+			writeString(dos, a.getDisplayString());
+			}
+		dos.writeDouble(ctx.getLog10PError());
+		if(!ctx.filtersWereApplied()) {
+			dos.writeByte(FILTERS_UNFILTERED);
+			}
+		else if(ctx.isNotFiltered()) {
+			dos.writeByte(FILTERS_PASS);
+			}
+		else
+			{
+			dos.writeByte(FILTERS_FAILED);
+			final Set<String> filters = ctx.getFilters();
+			writeVarInt(dos, filters.size());
+			for(final String f : filters) writeKey(dos, f);
+			}
+		final Map<String,Object> atts = ctx.getAttributes();
+		writeVarInt(dos, atts.size());
+		for(final Map.Entry<String,Object> kv : atts.entrySet()) {
+			writeKey(dos, kv.getKey());
+			writeValue(dos, kv.getValue());
+			}
+		final String genotypes = this.hasGenotypes ? encodeGenotypes(ctx) : null;
+		if(genotypes == null) {
+			dos.writeByte(GENOTYPES_NONE);
+			}
+		else
+			{
+			dos.writeByte(GENOTYPES_TEXT);
+			writeString(dos, genotypes);
+			}
+		}
+
+	/** encode the FORMAT and the genotypes columns as VCF text, return null if there is no genotype */
+	private String encodeGenotypes(final VariantContext ctx) {
+		final GenotypesContext gc = ctx.getGenotypes();
+		/* genotypes were never decoded: same shortcut as htsjdk VCFEncoder */
+		if(gc.isLazyWithData() && LazyGenotypesContext.class.cast(gc).getUnparsedGenotypeData() instanceof String) {
+			return LazyGenotypesContext.class.cast(gc).getUnparsedGenotypeData().toString();
+			}
+		final List<String> keys = ctx.calcVCFGenotypeKeys(this.header);
+		if(keys.isEmpty()) return null;
+		final StringBuilder sb = new StringBuilder(String.join(":", keys));
+		this.vcfEncoder.addGenotypeData(ctx, VCFEncoder.buildAlleleStrings(ctx), keys, sb);
+		return sb.toString();
+		}
+
+	@Override
+	public VariantContext decode(final DataInputStream dis) throws IOException {
+		final String contig;
+		try {
+			contig = readKey(dis);
+			}
+		catch(final EOFException err) {
+			return null;
+			}
+		final int start = dis.readInt();
+		final int end = dis.readInt();
+		final String id = readString(dis);
+		final int nAlleles = readVarInt(dis);
+		final List<Allele> alleles = new ArrayList<>(nAlleles);
+		for(int i=0;i< nAlleles;i++) {
+			alleles.add(Allele.create(readString(dis), i==0));
+			}
+		final VariantContextBuilder vcb = new VariantContextBuilder(null, contig, start, end, alleles);
+		vcb.id(id);
+		vcb.log10PError(dis.readDouble());
+		switch(dis.readByte()) {
+			case FILTERS_UNFILTERED: vcb.unfiltered(); break;
+			case FILTERS_PASS: vcb.passFilters(); break;
+			default: {
+				final int n = readVarInt(dis);
+				final Set<String> filters = new HashSet<>(n);
+				for(int i=0;i< n;i++) filters.add(readKey(dis));
+				vcb.filters(filters);
+				break;
+				}
+			}
+		final int nAtts = readVarInt(dis);
+		final Map<String,Object> atts = new HashMap<>(nAtts);
+		for(int i=0;i< nAtts;i++) {
+			final String key = readKey(dis);
+			atts.put(key, readValue(dis));
+			}
+		vcb.attributes(atts);
+		if(dis.readByte() == GENOTYPES_TEXT) {
+			final String genotypes = readString(dis);
+			final LazyGenotypesContext.LazyParser parser = (DATA) -> {
+				/* the genotypes may be decoded by another thread */
+				synchronized(this.vcfCodec) {
+					return this.vcfCodec.createGenotypeMap(DATA.toString(), alleles, contig, start);
+					}
+				};
+			vcb.genotypesNoValidation(new LazyGenotypesContext(parser, genotypes, this.header.getNGenotypeSamples()));
+			}
+		return vcb.make();
+		}
+
+	@Override
+	public BinaryVariantContextCodec clone() {
+		return new BinaryVariantContextCodec(this.header, this.index2key);
+		}
+	}
@@ -86,15 +86,14 @@ public class JexlGenotypePredicate implements BiPredicate<VariantContext,Genotyp
 	}
 	
 	private final List<JexlVCMatchExp> jexlVCMatchExps; 
+	private final JexlVariantEvaluator evaluator;
 	private JexlGenotypePredicate(final List<JexlVCMatchExp> jexlVCMatchExps) {
 		this.jexlVCMatchExps = jexlVCMatchExps;
+		this.evaluator = new JexlVariantEvaluator(jexlVCMatchExps);
 		}
 	@Override
 	public boolean test(final VariantContext ctx,Genotype gt) {
-		return VariantContextUtils.match(ctx,gt,this.jexlVCMatchExps).
-			values().
-			stream().
-			anyMatch(B->B.booleanValue());
+		return this.evaluator.test(ctx, gt);
 		}
 	@Override
 	public String toString() {
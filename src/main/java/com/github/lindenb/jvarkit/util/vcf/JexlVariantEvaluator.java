@@ -0,0 +1,155 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.util.vcf;
+
+import java.util.List;
+
+import org.apache.commons.jexl2.JexlContext;
+import org.apache.commons.jexl2.JexlException;
+
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextUtils.JexlVCMatchExp;
+import htsjdk.variant.vcf.VCFConstants;
+
+/**
+ * Evaluates a list of JEXL expressions on a variant or a genotype, returns true if any expression matches.
+ * 
+ * This gives the same answer as <code>VariantContextUtils.match(...).values().stream().anyMatch(...)</code>
+ * but it doesn't create a Map of results nor a new JexlContext for each call: each thread re-uses
+ * its own context, the expressions are evaluated in order and the evaluation stops at the first match.
+ * The context only reads the attributes referenced by the expressions, so the genotypes
+ * are not decoded if the expression doesn't use them.
+ */
+class JexlVariantEvaluator {
+	private static final String TRUE_STRING = "1";
+	private static final String FALSE_STRING = "0";
+	private final List<JexlVCMatchExp> jexlVCMatchExps;
+	private final ThreadLocal<ReusableContext> contexts = ThreadLocal.withInitial(ReusableContext::new);
+	
+	/** re-usable context. Same semantics as htsjdk VariantJEXLContext and GenotypeJEXLContext */
+	private static class ReusableContext implements JexlContext {
+		VariantContext vc = null;
+		Genotype genotype = null;
+		
+		private static String bool(final boolean b) {
+			return b ? TRUE_STRING : FALSE_STRING;
+			}
+		
+		private Object getGenotypeValue(final String name) {
+			final Genotype g = this.genotype;
+			switch(name) {
+				case "g": return g;
+				case VCFConstants.GENOTYPE_KEY: return g.getGenotypeString();
+				case "isHom": return bool(g.isHom());
+				case "isHomRef": return bool(g.isHomRef());
+				case "isHet": return bool(g.isHet());
+				case "isHomVar": return bool(g.isHomVar());
+				case "isCalled": return bool(g.isCalled());
+				case "isNoCall": return bool(g.isNoCall());
+				case "isMixed": return bool(g.isMixed());
+				case "isAvailable": return bool(g.isAvailable());
+				case "isPassFT": return bool(!g.isFiltered());
+				case VCFConstants.GENOTYPE_FILTER_KEY: return g.isFiltered() ? g.getFilters() : VCFConstants.PASSES_FILTERS_v4;
+				case VCFConstants.GENOTYPE_QUALITY_KEY: return g.getGQ();
+				default: break;
+				}
+			if(g.hasAnyAttribute(name)) return g.getAnyAttribute(name);
+			if(g.getFilters()!=null && g.getFilters().contains(name)) return TRUE_STRING;
+			return getVariantValue(name);
+			}
+		
+		private Object getVariantValue(final String name) {
+			final VariantContext ctx = this.vc;
+			switch(name) {
+				case "vc": return ctx;
+				case "CHROM": return ctx.getContig();
+				case "POS": return ctx.getStart();
+				case "TYPE": return ctx.getType().toString();
+				case "QUAL": return -10.0 * ctx.getLog10PError();
+				case "ALLELES": return ctx.getAlleles();
+				case "N_ALLELES": return ctx.getNAlleles();
+				case "FILTER": return bool(ctx.isFiltered());
+				case "homRefCount": return ctx.getHomRefCount();
+				case "hetCount": return ctx.getHetCount();
+				case "homVarCount": return ctx.getHomVarCount();
+				default: break;
+				}
+			if(ctx.hasAttribute(name)) return ctx.getAttribute(name);
+			if(ctx.getFilters().contains(name)) return TRUE_STRING;
+			return null;
+			}
+		
+		@Override
+		public Object get(final String name) {
+			return this.genotype == null ? getVariantValue(name) : getGenotypeValue(name);
+			}
+		
+		@Override
+		public boolean has(final String name) {
+			return get(name) != null;
+			}
+		
+		@Override
+		public void set(final String name,final Object value) {
+			throw new UnsupportedOperationException("set() not supported on a JEXL variant context");
+			}
+		}
+	
+	JexlVariantEvaluator(final List<JexlVCMatchExp> jexlVCMatchExps) {
+		this.jexlVCMatchExps = jexlVCMatchExps;
+		}
+	
+	/** @param genotype may be null */
+	boolean test(final VariantContext ctx,final Genotype genotype) {
+		final ReusableContext context = this.contexts.get();
+		context.vc = ctx;
+		context.genotype = genotype;
+		try {
+			for(int i=0;i< this.jexlVCMatchExps.size();i++) {
+				if(evaluate(this.jexlVCMatchExps.get(i), context)) return true;
+				}
+			return false;
+			}
+		finally
+			{
+			context.vc = null;
+			context.genotype = null;
+			}
+		}
+	
+	/** same error handling as htsjdk JEXLMap: missing values don't match */
+	private static boolean evaluate(final JexlVCMatchExp exp,final JexlContext context) {
+		try {
+			final Boolean value = (Boolean)exp.exp.evaluate(context);
+			return value != null && value.booleanValue();
+			}
+		catch(final JexlException.Variable err) {
+			return false;
+			}
+		catch(final JexlException err) {
+			throw new IllegalArgumentException(String.format("Invalid JEXL expression detected for %s", exp.name), err);
+			}
+		}
+	}
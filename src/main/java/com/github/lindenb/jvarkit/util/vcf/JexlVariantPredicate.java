@@ -90,6 +90,7 @@ public class JexlVariantPredicate extends PredicateVariantAnnotator {
 		}
 	/*******************************************************************************************/
 	private final List<JexlVCMatchExp> jexlVCMatchExps;
+	private final JexlVariantEvaluator evaluator;
 	
 	public JexlVariantPredicate(final String expression) {
 		this(Collections.singletonList(expression));
@@ -106,15 +107,13 @@ public class JexlVariantPredicate extends PredicateVariantAnnotator {
 			LOG.error(err);
 			throw new RuntimeException("Cannot compile :"+String.join(",", expressions),err);
 			}
+		this.evaluator = new JexlVariantEvaluator(this.jexlVCMatchExps);
 		}
 	
 	@Override
 	public boolean test(final VariantContext ctx) {
 		try {
-			return VariantContextUtils.match(ctx,this.jexlVCMatchExps).
-				values().
-				stream().
-				anyMatch(B->B.booleanValue());
+			return this.evaluator.test(ctx, null);
 			}
 		catch(final Throwable err) {
 			throw new RuntimeException("JEXL Failed for variant "+ctx.getContig()+":"+ctx.getStart(),err);
@@ -387,7 +387,14 @@ public class VCFUtils
 		vcwb.setCreateMD5(false);
 		vcwb.setReferenceDictionary(null);
 		vcwb.clearOptions();
-		vcwb.setOutputPath(pathorNull);
+		if(IOUtils.getBgzfThreads()>1 && pathorNull.getFileName().toString().endsWith(FileExtensions.COMPRESSED_VCF)) {
+			/* compress the blocks on several threads */
+			vcwb.setOutputVCFStream(IOUtils.openBgzfOutputStream(pathorNull));
+			}
+		else
+			{
+			vcwb.setOutputPath(pathorNull);
+			}
 		return new VariantContextWriterDelayedFlush(vcwb.build());
 		}
 	
@@ -26,7 +26,7 @@ package com.github.lindenb.jvarkit.util.vcf;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Predicate;
 
 import com.github.lindenb.jvarkit.annotproc.IncludeSourceInJar;
 import com.github.lindenb.jvarkit.tools.vcftrios.DeNovoDetector;
@@ -179,18 +179,18 @@ public boolean hasSequenceOntologyAccession(final VariantContext ctx,final Strin
 public boolean hasSequenceOntologyTerm(final VariantContext ctx,final SequenceOntologyTree.Term t)
 	{
 	if(t==null) return false;
-	final Set<SequenceOntologyTree.Term> children=t.getAllDescendants();
+	final Predicate<SequenceOntologyTree.Term> isChild = T->T.isChildrenOf(t);
 	for(final AnnPredictionParser.AnnPrediction a: getAnnPredictions(ctx)) {
-		if(!Collections.disjoint(a.getSOTerms(),children)) return true;
+		if(a.getSOTerms().stream().anyMatch(isChild)) return true;
 		}
 	for(final VepPredictionParser.VepPrediction a: getVepPredictions(ctx)) {
-		if(!Collections.disjoint(a.getSOTerms(),children)) return true;
+		if(a.getSOTerms().stream().anyMatch(isChild)) return true;
 		}
 	for(final SnpEffPredictionParser.SnpEffPrediction a: getSnpEffPredictions(ctx)) {
-		if(!Collections.disjoint(a.getSOTerms(),children)) return true;
+		if(a.getSOTerms().stream().anyMatch(isChild)) return true;
 		}
 	for(final BcfToolsPredictionParser.BcfToolsPrediction a: getBcftoolsPredictions(ctx)) {
-		if(!Collections.disjoint(a.getSOTerms(),children)) return true;
+		if(a.getSOTerms().stream().anyMatch(isChild)) return true;
 		}
 	
 	return false;
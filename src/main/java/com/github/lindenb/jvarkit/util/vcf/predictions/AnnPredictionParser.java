@@ -33,14 +33,15 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import htsjdk.samtools.util.StringUtil;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFInfoHeaderLine;
 
-import com.github.lindenb.jvarkit.lang.CharSplitter;
 import com.github.lindenb.jvarkit.util.log.Logger;
 import com.github.lindenb.jvarkit.util.so.SequenceOntologyTree;
 
@@ -79,12 +80,10 @@ public class AnnPredictionParser
 		}
 	private static final Logger LOG=Logger.build(AnnPredictionParser.class).make();
 
-	private final CharSplitter pipeRegex= CharSplitter.PIPE;
-	private final CharSplitter ampRegex = CharSplitter.of('&');
-
 	private final String tag;
 	private final boolean valid;
 	private SequenceOntologyTree soTree = SequenceOntologyTree.getInstance();
+	private SequenceOntologyTermsCache soCache = createSequenceOntologyTermsCache();
 	
 	AnnPredictionParser(final VCFHeader header)
 		{		
@@ -93,9 +92,20 @@ public class AnnPredictionParser
 	
 	public AnnPredictionParser sequenceOntologyTree( final SequenceOntologyTree soTree) {
 		this.soTree = soTree;
+		this.soCache = createSequenceOntologyTermsCache();
 		return this;
 		}
 	
+	private SequenceOntologyTermsCache createSequenceOntologyTermsCache() {
+		return new SequenceOntologyTermsCache(label->{
+			final SequenceOntologyTree.Term t = this.soTree.getTermByLabel(label);
+			if(t==null) {
+				LOG.warning("Current Sequence Ontology Tree doesn't contain \""+ label+"\". May be it's a deprecated term or the current version of this package is obsolete.");
+				}
+			return t;
+			});
+		}
+	
 	public static final String getDefaultTag()
 		{
 		return "ANN";
@@ -125,21 +135,37 @@ public class AnnPredictionParser
 		return valid;
 		}
 
+	/** returns the 'Annotation' column of each prediction, without creating the AnnPrediction objects */
+	private Stream<String> streamSOTermsString(final VariantContext ctx) {
+		if(!isValid() || !ctx.hasAttribute(getTag())) return Stream.empty();
+		return ctx.getAttributeAsList(getTag()).stream().
+				filter(O->O!=null).
+				map(O->DelimitedFields.get(O.toString().trim(), '|', 1)).
+				filter(S->!StringUtil.isBlank(S));
+		}
+	
 	/** returns all the SO terms String found in this variant */
 	public Set<String> getSOTermsStrings(final VariantContext ctx) {
 		if(!isValid()) return Collections.emptySet();
-		return getPredictions(ctx).stream().
-				flatMap(P->P.getSOTermsStrings().stream()).
+		return streamSOTermsString(ctx).
+				flatMap(S->this.soCache.getLabels(S).stream()).
 				collect(Collectors.toSet());
 		}
 
 	/** returns all the SO terms found in this variant */
 	public Set<SequenceOntologyTree.Term> getSOTerms(final VariantContext ctx) {
 		if(!isValid()) return Collections.emptySet();
-		return getPredictions(ctx).stream().
-				flatMap(P->P.getSOTerms().stream()).
+		return streamSOTermsString(ctx).
+				flatMap(S->this.soCache.getTerms(S).stream()).
 				collect(Collectors.toSet());
 		}
+	
+	/** returns true if any prediction contains a SO term matching the predicate. Faster than looping over getPredictions */
+	public boolean anySOTermMatches(final VariantContext ctx, final Predicate<SequenceOntologyTree.Term> predicate) {
+		if(!isValid()) return false;
+		return streamSOTermsString(ctx).
+				anyMatch(S->this.soCache.getTerms(S).stream().anyMatch(predicate));
+		}
 
 	
 	public List<AnnPrediction> getPredictions(final VariantContext ctx)
@@ -167,8 +193,7 @@ public class AnnPredictionParser
 			return parseOnePrediction( o.toString());
 			}
 		final String s=String.class.cast(o).trim();
-		final List<CharSequence> tokens=this.pipeRegex.splitAsCharSequenceList(s);
-		return new AnnPrediction(s,tokens);
+		return new AnnPrediction(s,new DelimitedFields(s, '|'));
 		}
 	
 	/*
@@ -184,16 +209,16 @@ public class AnnPredictionParser
 		implements Prediction
 		{
 		private final String originalStr;
-		private final List<CharSequence> _tokens;
-		private AnnPrediction(final String originalStr,final List<CharSequence> tokens)
+		private final DelimitedFields fields;
+		private AnnPrediction(final String originalStr,final DelimitedFields fields)
 			{
 			this.originalStr = originalStr;
-			this._tokens=tokens;
+			this.fields = fields;
 			}
 		
 		private String at(int i)
 			{
-			return(i<0 || i>=_tokens.size() ? null:_tokens.get(i).toString());
+			return this.fields.get(i);
 			}
 		
 		public String getAllele()
@@ -286,27 +311,15 @@ public class AnnPredictionParser
 		public List<String> getSOTermsStrings() {
 			final String soterms = getSOTermsString();
 			if(StringUtil.isBlank(soterms)) return Collections.emptyList();
-			return AnnPredictionParser.this.ampRegex.splitAsStringList(soterms);
+			return new ArrayList<>(AnnPredictionParser.this.soCache.getLabels(soterms));
 			}
 		
 		//@Override
 		public Set<SequenceOntologyTree.Term> getSOTerms()
 			{
-			final List<String> effects = getSOTermsStrings();
-			if(effects.isEmpty()) return Collections.emptySet();
-			final Set<SequenceOntologyTree.Term> set=new HashSet<>(effects.size());
-			for(final String label:effects) {
-				if(label.isEmpty()) continue;
-				final SequenceOntologyTree.Term t = AnnPredictionParser.this.soTree.getTermByLabel(label);
-				if(t==null) {
-					LOG.warning("Current Sequence Ontology Tree doesn't contain \""+ label+"\". May be it's a deprecated term or the current version of this package is obsolete.");
-					} 
-				else
-					{
-					set.add(t);
-					}
-				}
-			return set;
+			final String soterms = getSOTermsString();
+			if(StringUtil.isBlank(soterms)) return Collections.emptySet();
+			return new HashSet<>(AnnPredictionParser.this.soCache.getTerms(soterms));
 			}
 		
 		public Impact getPutativeImpact()
@@ -318,16 +331,16 @@ public class AnnPredictionParser
 		
 		public String getGeneName()
 			{
-			return at(3);
+			return AnnPredictionParser.this.soCache.intern(at(3));
 			}
 		
 		public String getGeneId()
 			{
-			return at(4);
+			return AnnPredictionParser.this.soCache.intern(at(4));
 			}
 		public String getFeatureType()
 			{
-			return at(5);
+			return AnnPredictionParser.this.soCache.intern(at(5));
 			}
 		
 		public String getFeatureId()
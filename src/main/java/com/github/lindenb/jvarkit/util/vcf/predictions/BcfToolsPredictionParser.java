@@ -34,6 +34,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import htsjdk.samtools.util.StringUtil;
 import htsjdk.variant.variantcontext.VariantContext;
@@ -56,9 +59,9 @@ public class BcfToolsPredictionParser implements PredictionParser
 	
 	private final Map<String, Integer> col2colidx=new HashMap<String, Integer>();
 	private final CharSplitter pipe= CharSplitter.PIPE;
-	private final CharSplitter ampRegex = CharSplitter.of('&');
 	private final String tag;
 	private SequenceOntologyTree soTree = SequenceOntologyTree.getInstance();
+	private SequenceOntologyTermsCache soCache = createSequenceOntologyTermsCache();
 	private final boolean valid;
 	private final Map<String, String> bcftools2so = new HashMap<>();
 	
@@ -69,9 +72,26 @@ public class BcfToolsPredictionParser implements PredictionParser
 	
 	public BcfToolsPredictionParser sequenceOntologyTree( final SequenceOntologyTree soTree) {
 		this.soTree = soTree;
+		this.soCache = createSequenceOntologyTermsCache();
 		return this;
 		}
 	
+	private SequenceOntologyTermsCache createSequenceOntologyTermsCache() {
+		return new SequenceOntologyTermsCache(EFF->{
+			final String soTerm = mapSoTerm(EFF);
+			final SequenceOntologyTree.Term t = this.soTree.getTermByLabel(soTerm);
+			if(t==null) {
+				LOG.warn("Cannot get CSQ prediction \""+EFF+"\"/\""+soTerm+"\" in Sequence Ontology.");
+				}
+			return t;
+			});
+		}
+	
+	/** BCFtools csq doesn't use SO !!! */
+	private String mapSoTerm(final String s) {
+		return this.bcftools2so.getOrDefault(s, s);
+		}
+	
 	@Override
 	public String getTag()
 		{
@@ -151,6 +171,33 @@ public class BcfToolsPredictionParser implements PredictionParser
 		return preds;
 		}
 	
+	/** returns the 'Consequence' column of each prediction, without creating the BcfToolsPrediction objects */
+	private Stream<String> streamSOTermsString(final VariantContext ctx) {
+		final Integer idx = this.col2colidx.get("Consequence");
+		if(!isValid() || idx==null || !ctx.hasAttribute(getTag())) return Stream.empty();
+		return ctx.getAttributeAsList(getTag()).stream().
+				filter(O->O!=null).
+				map(O->O.toString().trim()).
+				/* reference to another position */
+				filter(S->!S.startsWith("@")).
+				map(S->DelimitedFields.get(S, '|', idx)).
+				filter(S->!StringUtil.isBlank(S)).
+				map(S->S.startsWith("*")?S.substring(1):S);
+		}
+	
+	/** returns all the SO terms found in this variant */
+	public Set<SequenceOntologyTree.Term> getSOTerms(final VariantContext ctx) {
+		return streamSOTermsString(ctx).
+				flatMap(S->this.soCache.getTerms(S).stream()).
+				collect(Collectors.toSet());
+		}
+	
+	/** returns true if any prediction contains a SO term matching the predicate. Faster than looping over getPredictions */
+	public boolean anySOTermMatches(final VariantContext ctx, final Predicate<SequenceOntologyTree.Term> predicate) {
+		return streamSOTermsString(ctx).
+				anyMatch(S->this.soCache.getTerms(S).stream().anyMatch(predicate));
+		}
+	
 	public BcfToolsPrediction parseOnePrediction(final VariantContext ctx,final Object o)
 		{
 		if(o==null || !isValid()) return null;
@@ -159,8 +206,7 @@ public class BcfToolsPredictionParser implements PredictionParser
 			return parseOnePrediction(ctx,o.toString());
 			}
 		final String s=String.class.cast(o).trim();
-		final String tokens[]= this.pipe.split(s);
-		return new BcfToolsPrediction(ctx,s,tokens);
+		return new BcfToolsPrediction(ctx,s,new DelimitedFields(s, '|'));
 		}
 	
 	private void _predictions(final List<BcfToolsPrediction> preds,final Object o,final VariantContext ctx)
@@ -174,20 +220,20 @@ public class BcfToolsPredictionParser implements PredictionParser
 		implements Prediction
 		{
 		private final String originalAttributeAsString;
-		private final String tokens[];
+		private final DelimitedFields fields;
 		private final VariantContext ctx;
-		BcfToolsPrediction(final VariantContext ctx,final String originalAttributeAsString,final String tokens[])
+		BcfToolsPrediction(final VariantContext ctx,final String originalAttributeAsString,final DelimitedFields fields)
 			{
 			this.originalAttributeAsString = originalAttributeAsString;
-			this.tokens=tokens;
+			this.fields=fields;
 			this.ctx = ctx;
 			}
 		/** get column by name, may return null. Returns null if column is empty */
 		public String getByCol(final String col)
 			{
 			final Integer idx=col2colidx.get(col);
-			if(idx==null || idx>=this.tokens.length || tokens[idx].isEmpty()) return null;
-			return tokens[idx];
+			if(idx==null || this.fields.isEmpty(idx)) return null;
+			return this.fields.get(idx);
 			}
 		
 		public boolean isIntergenicRegion() {
@@ -196,11 +242,11 @@ public class BcfToolsPredictionParser implements PredictionParser
 		
 		public String getGeneName()
 			{
-			return getByCol("gene");
+			return BcfToolsPredictionParser.this.soCache.intern(getByCol("gene"));
 			}
 		public String getTranscript()
 			{
-			return getByCol("transcript");
+			return BcfToolsPredictionParser.this.soCache.intern(getByCol("transcript"));
 			}
 		public String getTranscriptBioType() {
 			return getByCol("biotype");
@@ -228,8 +274,8 @@ public class BcfToolsPredictionParser implements PredictionParser
 			for(final String c: col2colidx.keySet())
 				{
 				int idx=col2colidx.get(c);
-				if(idx>=this.tokens.length) continue;
-				hash.put(c, tokens[idx]);
+				if(idx>=this.fields.size()) continue;
+				hash.put(c, this.fields.get(idx));
 				}
 			return hash;
 			}
@@ -255,27 +301,11 @@ public class BcfToolsPredictionParser implements PredictionParser
 			return OptionalInt.of(Integer.parseInt(this.originalAttributeAsString.substring(1)));
 		}
 		
-		/** BCFtools csq doesn't use SO !!! */
-		private String mapSoTerm(final String s) {
-			return bcftools2so.getOrDefault(s, s);
-		}
-		
 		public Set<SequenceOntologyTree.Term> getSOTerms()
 			{
 			final String EFFs=getSOTermsString();
 			if(StringUtil.isBlank(EFFs)) return Collections.emptySet();
-			final String tokens[] = ampRegex.split(EFFs);
-			final Set<SequenceOntologyTree.Term> set=new LinkedHashSet<>(tokens.length);
-
-			for(final String EFF: tokens) {
-				final String soTerm = mapSoTerm(EFF);
-				final SequenceOntologyTree.Term t = BcfToolsPredictionParser.this.soTree.getTermByLabel(soTerm);
-				if(t==null) {
-					LOG.warn("Cannot get CSQ prediction \""+EFF+"\"/\""+soTerm+"\" in Sequence Ontology.");
-					}
-				set.add(t);
-				}
-			return set;
+			return new LinkedHashSet<>(BcfToolsPredictionParser.this.soCache.getTerms(EFFs));
 			}
 		
 		/** return ALT allele DNA change e.g: 48305542T>TGGGCCTGGGATC+48305543C>A */
@@ -296,7 +326,7 @@ public class BcfToolsPredictionParser implements PredictionParser
 		
 		@Override
 		public String toString() {
-			return getMap().toString()+ " "+Arrays.asList(tokens);
+			return getMap().toString()+ " "+Arrays.asList(this.fields.toArray());
 			}
 		}
 		
@@ -0,0 +1,104 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.util.vcf.predictions;
+
+/**
+ * Lazy, offset-indexed view over one prediction (ANN/CSQ/BCSQ...) e.g. 'A|missense_variant|MODERATE|...'.
+ * The String is scanned once to find the delimiters, the fields are only extracted on demand.
+ * Like CharSplitter, the trailing delimiters are ignored.
+ */
+final class DelimitedFields {
+	private final String str;
+	/** ends[i] is the (exclusive) end of the i-th field */
+	private final int[] ends;
+
+	DelimitedFields(final String str, final char delim) {
+		this.str = str;
+		final int len = trimmedLength(str, delim);
+		int n = 1;
+		for(int i=0;i< len;i++) {
+			if(str.charAt(i)==delim) n++;
+			}
+		this.ends = new int[n];
+		int k = 0;
+		for(int i=0;i< len;i++) {
+			if(str.charAt(i)==delim) this.ends[k++] = i;
+			}
+		this.ends[k] = len;
+		}
+
+	private static int trimmedLength(final String str, final char delim) {
+		int len = str.length();
+		while(len > 0 && str.charAt(len-1)==delim) len--;
+		return len;
+		}
+
+	/** number of fields */
+	int size() {
+		return this.ends.length;
+		}
+
+	private int start(final int i) {
+		return i==0 ? 0 : this.ends[i-1] + 1;
+		}
+
+	/** return the i-th field or null if out of range */
+	String get(final int i) {
+		if(i < 0 || i >= this.ends.length) return null;
+		return this.str.substring(start(i), this.ends[i]);
+		}
+
+	/** return true if the i-th field is out of range or empty */
+	boolean isEmpty(final int i) {
+		return i < 0 || i >= this.ends.length || start(i) == this.ends[i];
+		}
+
+	/** return the fields as an array of String */
+	String[] toArray() {
+		final String[] array = new String[size()];
+		for(int i=0;i< array.length;i++) array[i] = get(i);
+		return array;
+		}
+
+	/** extract the idx-th field of 'str' without indexing the whole String. Return null if out of range */
+	static String get(final String str, final char delim, final int idx) {
+		if(idx < 0) return null;
+		final int len = trimmedLength(str, delim);
+		int start = 0;
+		int n = 0;
+		for(;;) {
+			int end = str.indexOf(delim, start);
+			if(end == -1 || end > len) end = len;
+			if(n == idx) return str.substring(start, end);
+			if(end >= len) return null;
+			start = end + 1;
+			n++;
+			}
+		}
+
+	@Override
+	public String toString() {
+		return this.str;
+		}
+	}
@@ -0,0 +1,97 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.util.vcf.predictions;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.github.lindenb.jvarkit.lang.CharSplitter;
+import com.github.lindenb.jvarkit.util.so.SequenceOntologyTree;
+
+import htsjdk.samtools.util.StringUtil;
+
+/**
+ * Cache shared by the predictions of a parser. A VCF only contains a few distinct
+ * combinations of SO terms (e.g. 'missense_variant&amp;splice_region_variant') and genes,
+ * so they're split/resolved once and the same instances are returned.
+ */
+final class SequenceOntologyTermsCache {
+	/** stop caching when there are too many distinct keys */
+	private static final int MAX_SIZE = 100_000;
+	private final CharSplitter ampSplitter = CharSplitter.of('&');
+	private final Function<String, SequenceOntologyTree.Term> labelToTerm;
+	private final Map<String, List<String>> labels = new ConcurrentHashMap<>();
+	private final Map<String, Set<SequenceOntologyTree.Term>> terms = new ConcurrentHashMap<>();
+	private final Map<String, String> strings = new ConcurrentHashMap<>();
+
+	/** @param labelToTerm convert a label to a Term, may return null */
+	SequenceOntologyTermsCache(final Function<String, SequenceOntologyTree.Term> labelToTerm) {
+		this.labelToTerm = labelToTerm;
+		}
+
+	/** return the unique instance of this String */
+	String intern(final String s) {
+		if(s == null) return null;
+		final String prev = this.strings.get(s);
+		if(prev != null) return prev;
+		if(this.strings.size() < MAX_SIZE) this.strings.putIfAbsent(s, s);
+		return s;
+		}
+
+	/** split the SO terms separated with '&amp;'. Returned list is unmodifiable */
+	List<String> getLabels(final String soTerms) {
+		if(StringUtil.isBlank(soTerms)) return Collections.emptyList();
+		List<String> L = this.labels.get(soTerms);
+		if(L == null) {
+			L = this.ampSplitter.splitAsStringList(soTerms);
+			L.replaceAll(S->intern(S));
+			L = Collections.unmodifiableList(L);
+			if(this.labels.size() < MAX_SIZE) this.labels.putIfAbsent(soTerms, L);
+			}
+		return L;
+		}
+
+	/** convert the SO terms separated with '&amp;'. Returned set is unmodifiable */
+	Set<SequenceOntologyTree.Term> getTerms(final String soTerms) {
+		if(StringUtil.isBlank(soTerms)) return Collections.emptySet();
+		Set<SequenceOntologyTree.Term> set = this.terms.get(soTerms);
+		if(set == null) {
+			final List<String> L = getLabels(soTerms);
+			set = new LinkedHashSet<>(L.size());
+			for(final String label : L) {
+				if(label.isEmpty()) continue;
+				set.add(this.labelToTerm.apply(label));
+				}
+			set.remove(null);
+			set = Collections.unmodifiableSet(set);
+			if(this.terms.size() < MAX_SIZE) this.terms.putIfAbsent(soTerms, set);
+			}
+		return set;
+		}
+	}
@@ -36,6 +36,9 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import htsjdk.samtools.util.StringUtil;
 import htsjdk.variant.variantcontext.Allele;
@@ -90,9 +93,9 @@ public class VepPredictionParser implements PredictionParser
 		*/
 	private final Map<String, Integer> col2colidx=new HashMap<String, Integer>();
 	private final CharSplitter pipe= CharSplitter.PIPE;
-	private final CharSplitter ampRegex = CharSplitter.of('&');
 	private final String tag;
 	private SequenceOntologyTree soTree = SequenceOntologyTree.getInstance();
+	private SequenceOntologyTermsCache soCache = createSequenceOntologyTermsCache();
 	private final boolean valid;
 	
 	VepPredictionParser(final VCFHeader header)
@@ -102,9 +105,20 @@ public class VepPredictionParser implements PredictionParser
 	
 	public VepPredictionParser sequenceOntologyTree( final SequenceOntologyTree soTree) {
 		this.soTree = soTree;
+		this.soCache = createSequenceOntologyTermsCache();
 		return this;
 		}
 	
+	private SequenceOntologyTermsCache createSequenceOntologyTermsCache() {
+		return new SequenceOntologyTermsCache(label->{
+			final SequenceOntologyTree.Term t = this.soTree.getTermByLabel(label);
+			if(t==null) {
+				LOG.warning("Current Sequence Ontology Tree doesn't contain "+ label);
+				}
+			return t;
+			});
+		}
+	
 	@Override
 	public String getTag()
 		{
@@ -170,6 +184,36 @@ public class VepPredictionParser implements PredictionParser
 		return preds;
 		}
 	
+	/** returns the 'Consequence' column of each prediction, without creating the VepPrediction objects */
+	private Stream<String> streamSOTermsString(final VariantContext ctx) {
+		final Integer idx = this.col2colidx.get("Consequence");
+		if(!isValid() || idx==null || !ctx.hasAttribute(getTag())) return Stream.empty();
+		return ctx.getAttributeAsList(getTag()).stream().
+				filter(O->O!=null).
+				map(O->DelimitedFields.get(O.toString().trim(), '|', idx)).
+				filter(S->!StringUtil.isBlank(S));
+		}
+	
+	/** returns all the SO terms String found in this variant */
+	public Set<String> getSOTermsStrings(final VariantContext ctx) {
+		return streamSOTermsString(ctx).
+				flatMap(S->this.soCache.getLabels(S).stream()).
+				collect(Collectors.toSet());
+		}
+
+	/** returns all the SO terms found in this variant */
+	public Set<SequenceOntologyTree.Term> getSOTerms(final VariantContext ctx) {
+		return streamSOTermsString(ctx).
+				flatMap(S->this.soCache.getTerms(S).stream()).
+				collect(Collectors.toSet());
+		}
+	
+	/** returns true if any prediction contains a SO term matching the predicate. Faster than looping over getPredictions */
+	public boolean anySOTermMatches(final VariantContext ctx, final Predicate<SequenceOntologyTree.Term> predicate) {
+		return streamSOTermsString(ctx).
+				anyMatch(S->this.soCache.getTerms(S).stream().anyMatch(predicate));
+		}
+	
 	public VepPrediction parseOnePrediction(final VariantContext ctx,final Object o)
 		{
 		if(o==null || !isValid()) return null;
@@ -178,8 +222,7 @@ public class VepPredictionParser implements PredictionParser
 			return parseOnePrediction(ctx,o.toString());
 			}
 		final String s=String.class.cast(o).trim();
-		final String tokens[]= this.pipe.split(s);
-		return new VepPrediction(tokens,s,ctx);
+		return new VepPrediction(new DelimitedFields(s, '|'),s,ctx);
 		}
 	
 	private void _predictions(final List<VepPrediction> preds,final Object o,final VariantContext ctx)
@@ -193,38 +236,51 @@ public class VepPredictionParser implements PredictionParser
 		implements Prediction
 		{
 		private final String source;
-		private final String tokens[];
+		private final DelimitedFields fields;
 		private final List<Allele> alleles;
-		VepPrediction(final String tokens[],final String source,final VariantContext ctx)
+		/** index of the 'Allele' column and its value, when it was '-' */
+		private int idx_allele = -1;
+		private String alleleOverride = null;
+		VepPrediction(final DelimitedFields fields,final String source,final VariantContext ctx)
 			{
 			this.source=source;
-			this.tokens=tokens;
+			this.fields=fields;
 			this.alleles = Collections.unmodifiableList(ctx.getAlleles());
 			/** special case for ALT, can be '-' */
-			Integer idx_allele = VepPredictionParser.this.col2colidx.get("Allele");
-			if(	idx_allele!=null && 
-				idx_allele<tokens.length &&
-				tokens[idx_allele].equals("-"))
+			final Integer idx = VepPredictionParser.this.col2colidx.get("Allele");
+			if(	idx!=null && 
+				"-".equals(fields.get(idx)))
 				{
+				this.idx_allele = idx;
 				if(ctx.getAlternateAlleles().size()==1)
 					{
-					this.tokens[idx_allele]=ctx.getAlternateAlleles().get(0).getDisplayString();
+					this.alleleOverride=ctx.getAlternateAlleles().get(0).getDisplayString();
 					}
 				else
 					{
-					this.tokens[idx_allele]=INDEL_SYMBOL_STR;
+					this.alleleOverride=INDEL_SYMBOL_STR;
 					}
 				}
 			}
+		
+		private String at(final int idx) {
+			if(idx==this.idx_allele) return this.alleleOverride;
+			return this.fields.get(idx);
+			}
+		
 		public String getByCol(final String col)
 			{
 			if(col==null || col.isEmpty()) return null;
 			final Integer idx= VepPredictionParser.this.col2colidx.get(col);
-			if(idx==null || idx>=tokens.length || tokens[idx].isEmpty())
+			if(idx==null || (idx!=this.idx_allele && this.fields.isEmpty(idx)))
 				{
 				return null;
 				}
-			return this.tokens[idx];
+			return at(idx);
+			}
+		
+		private String getInternedByCol(final String col) {
+			return VepPredictionParser.this.soCache.intern(getByCol(col));
 			}
 		
 		/** alias of getByColl */
@@ -316,14 +372,14 @@ public class VepPredictionParser implements PredictionParser
 		/**  getHGNC || getSymbol */
 		public String getGeneName()
 			{
-			String s= getByCol("HGNC");
+			String s= getHGNC();
 			if(StringUtils.isBlank(s)) s = getSymbol();
 			return s;
 			}
 		
 		public String getHGNC()
 			{
-			return getByCol("HGNC");
+			return getInternedByCol("HGNC");
 			}
 		public String getHgncId()
 			{
@@ -332,7 +388,7 @@ public class VepPredictionParser implements PredictionParser
 		
 		public String getSymbol()
 			{
-			return getByCol("SYMBOL");
+			return getInternedByCol("SYMBOL");
 			}
 		
 		public String getRefSeq()
@@ -342,16 +398,16 @@ public class VepPredictionParser implements PredictionParser
 		
 		public String getFeature()
 			{
-			return getByCol("Feature");
+			return getInternedByCol("Feature");
 			}
 		public String getFeatureType()
 			{
-			return getByCol("Feature_type");
+			return getInternedByCol("Feature_type");
 			}
 
 		public String getGene()
 			{
-			return getByCol("Gene");
+			return getInternedByCol("Gene");
 			}
 		
 		public String getENSP()
@@ -378,8 +434,8 @@ public class VepPredictionParser implements PredictionParser
 			for(final String c: col2colidx.keySet())
 				{
 				final int idx=col2colidx.get(c);
-				if(idx>=this.tokens.length) continue;
-				hash.put(c, tokens[idx]);
+				if(idx>=this.fields.size()) continue;
+				hash.put(c, at(idx));
 				}
 			return hash;
 			}
@@ -430,27 +486,15 @@ public class VepPredictionParser implements PredictionParser
 		{
 			final String EFF = getSOTermsString();
 			if(EFF==null || EFF.isEmpty()) return Collections.emptyList();
-			return VepPredictionParser.this.ampRegex.splitAsStringList(EFF);
+			return new ArrayList<>(VepPredictionParser.this.soCache.getLabels(EFF));
 		}
 	
 		/** convert the list of getConsequences() to a list of SequenceOntology Terms */
 		public Set<SequenceOntologyTree.Term> getSOTerms()
 			{
-			final List<String> effects = getSOTermsStrings();
-			if(effects.isEmpty()) return Collections.emptySet();
-			final Set<SequenceOntologyTree.Term> set=new HashSet<>(effects.size());
-			for(final String label:effects) {
-				if(label.isEmpty()) continue;
-				final SequenceOntologyTree.Term t =VepPredictionParser.this.soTree.getTermByLabel(label);
-				if(t==null) {
-					LOG.warning("Current Sequence Ontology Tree doesn't contain "+ label);
-					} 
-				else
-					{
-					set.add(t);
-					}
-				}
-			return set;
+			final String EFF = getSOTermsString();
+			if(EFF==null || EFF.isEmpty()) return Collections.emptySet();
+			return new HashSet<>(VepPredictionParser.this.soCache.getTerms(EFF));
 			}
 		
 		public Integer getPositionInCDna()
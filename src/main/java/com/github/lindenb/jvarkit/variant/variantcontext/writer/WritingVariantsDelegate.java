@@ -24,11 +24,19 @@ SOFTWARE.
 */
 package com.github.lindenb.jvarkit.variant.variantcontext.writer;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 import com.beust.jcommander.Parameter;
+import com.github.lindenb.jvarkit.io.IOUtils;
+import com.github.lindenb.jvarkit.io.ParallelBlockCompressedOutputStream;
 
 import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.util.FileExtensions;
+import htsjdk.samtools.util.Md5CalculatingOutputStream;
+import htsjdk.samtools.util.RuntimeIOException;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.variantcontext.writer.VariantContextWriterBuilder;
 import htsjdk.variant.vcf.VCFHeader;
@@ -60,7 +68,21 @@ public VariantContextWriter open(final Path pathOrNull) {
 	if(this.dict!=null) vcwb.setReferenceDictionary(this.dict);
 	vcwb.clearOptions();
 	
-	if(pathOrNull!=null) {
+	if(pathOrNull!=null && IOUtils.getBgzfThreads()>1 && isBgzfVcf(pathOrNull)) {
+		/* compress the blocks on several threads (see --bgzf-threads) */
+		vcwb.setCreateMD5(false);
+		try {
+			OutputStream out = Files.newOutputStream(pathOrNull);
+			if(this.generate_md5) {
+				out = new Md5CalculatingOutputStream(out, pathOrNull.resolveSibling(pathOrNull.getFileName().toString()+FileExtensions.MD5));
+				}
+			vcwb.setOutputVCFStream(new ParallelBlockCompressedOutputStream(out, IOUtils.getBgzfThreads()));
+			}
+		catch(final IOException err) {
+			throw new RuntimeIOException(err);
+			}
+		}
+	else if(pathOrNull!=null) {
 		vcwb.setCreateMD5(this.generate_md5);
 		// output type : Determines file type implicitly from the filename.
 		vcwb.setOutputPath(pathOrNull);
@@ -80,4 +102,20 @@ public VariantContextWriter open(final Path pathOrNull) {
 	
 	return vcwb.build();
 	}
+
+/** return true if a MD5 checksum is generated for the output */
+public boolean isGenerateMd5() {
+	return this.generate_md5;
+	}
+
+/** return true if the output is forced to BCF */
+public boolean isForceBcfOutput() {
+	return this.force_bcf_output;
+	}
+
+/** return true if path is a VCF that would be compressed with BGZF */
+public static boolean isBgzfVcf(final Path path) {
+	final String fname = path.getFileName().toString();
+	return fname.endsWith(FileExtensions.COMPRESSED_VCF) || fname.endsWith(".vcf.bgz");
+	}
 }
@@ -27,9 +27,19 @@ package com.github.lindenb.jvarkit.variant.vcf;
 
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import com.beust.jcommander.Parameter;
 import com.github.lindenb.jvarkit.jcommander.OnePassVcfLauncher;
 import com.github.lindenb.jvarkit.util.JVarkitVersion;
 import com.github.lindenb.jvarkit.util.log.Logger;
@@ -44,11 +54,23 @@ import htsjdk.variant.vcf.VCFIterator;
 public abstract class AbstractOnePassVcfAnnotator extends OnePassVcfLauncher {
 	private static final Logger LOG = Logger.build(AbstractOnePassVcfAnnotator.class).make();
 
+	@Parameter(names={"--threads"},description="number of threads. When greater than 1, each thread uses its own set of annotators and the order of the variants is preserved.")
+	private int nThreads = 1;
+	@Parameter(names={"--threads-batch-size"},description="when using more than one thread, number of variants sent to a thread at once.")
+	private int threadBatchSize = 1_000;
+
 	private final List<VariantAnnotator> annotators =  new ArrayList<>();
+	/** extra sets of annotators, one per worker thread, when nThreads &gt; 1 */
+	private final List<List<VariantAnnotator>> workerAnnotators =  new ArrayList<>();
 	
-	/** return the {@link VariantAnnotator} . will be called in beforeVcf */
+	/** return the {@link VariantAnnotator} . will be called in beforeVcf , and once per thread if nThreads &gt; 1 */
 	protected abstract List<VariantAnnotator> createVariantAnnotators();
 	
+	/** return true if the tool can run with more than one thread. Each thread calls {@link #createVariantAnnotators()} and gets its own instances of the annotators */
+	protected boolean isMultiThreadSupported() {
+		return true;
+		}
+	
 	@Override
 	protected Logger getLogger() {
 		return LOG;
@@ -62,6 +84,19 @@ public abstract class AbstractOnePassVcfAnnotator extends OnePassVcfLauncher {
 			if(this.annotators.isEmpty()) {
 				LOG.warn("NO Variant Annotator was loaded !");
 				}
+			if(this.nThreads>1 && !isMultiThreadSupported()) {
+				LOG.warn("This tool doesn't support multiple threads. Using one thread.");
+				this.nThreads = 1;
+				}
+			if(this.nThreads>1) {
+				if(this.threadBatchSize<1) {
+					LOG.error("bad batch size : "+this.threadBatchSize);
+					return -1;
+					}
+				for(int i=1;i< this.nThreads;i++) {
+					this.workerAnnotators.add(new ArrayList<>(createVariantAnnotators()));
+					}
+				}
 			}
 		catch(Throwable err) {
 			getLogger().error(err);
@@ -70,6 +105,18 @@ public abstract class AbstractOnePassVcfAnnotator extends OnePassVcfLauncher {
 		return super.beforeVcf();
 		}
 	
+	private static void recursive(final List<VariantAnnotator> annotators,final List<VariantContext> w, final int annotator_idx, final VariantContext ctx) throws IOException {
+		if(annotator_idx==annotators.size()) {
+			w.add(ctx);
+			}
+		else
+			{
+			for(VariantContext ctx2: annotators.get(annotator_idx).annotate(ctx)) {
+				recursive(annotators,w,annotator_idx+1,ctx2);
+				}
+			}
+		}
+	
 	private void recursive(VariantContextWriter w, final int annotator_idx, final VariantContext ctx) throws IOException {
 		if(annotator_idx==this.annotators.size()) {
 			w.add(ctx);
@@ -82,6 +129,66 @@ public abstract class AbstractOnePassVcfAnnotator extends OnePassVcfLauncher {
 			}
 		}
 	
+	/** annotate a batch of variants. A set of annotators is borrowed from the pool while the batch is processed */
+	private static List<VariantContext> annotateBatch(final BlockingQueue<List<VariantAnnotator>> pool,final List<VariantContext> batch) throws IOException,InterruptedException {
+		final List<VariantAnnotator> annotators = pool.take();
+		try {
+			final List<VariantContext> L = new ArrayList<>(batch.size());
+			for(VariantContext ctx: batch) {
+				recursive(annotators,L,0,ctx);
+				}
+			return L;
+			}
+		finally {
+			pool.put(annotators);
+			}
+		}
+	
+	/** write the next pending batch, in the order the batches were submitted */
+	private static void writeBatch(final Deque<Future<List<VariantContext>>> pending,final VariantContextWriter w) throws IOException,InterruptedException {
+		try {
+			for(VariantContext ctx: pending.removeFirst().get()) {
+				w.add(ctx);
+				}
+			}
+		catch(final ExecutionException err) {
+			if(err.getCause() instanceof IOException) throw IOException.class.cast(err.getCause());
+			throw new RuntimeException(err.getCause());
+			}
+		}
+	
+	private void doVcfToVcfMultiThread(final VCFIterator r, final VariantContextWriter w) throws IOException,InterruptedException {
+		final List<List<VariantAnnotator>> allSets = new ArrayList<>(1+this.workerAnnotators.size());
+		allSets.add(this.annotators);
+		allSets.addAll(this.workerAnnotators);
+		final BlockingQueue<List<VariantAnnotator>> pool = new ArrayBlockingQueue<>(allSets.size());
+		pool.addAll(allSets);
+		
+		final ExecutorService executorService = Executors.newFixedThreadPool(allSets.size());
+		try {
+			/* batches submitted but not written yet. Bounded to keep memory under control */
+			final Deque<Future<List<VariantContext>>> pending = new ArrayDeque<>();
+			final int maxPending = 2 * allSets.size();
+			while(r.hasNext()) {
+				final List<VariantContext> batch = new ArrayList<>(this.threadBatchSize);
+				while(r.hasNext() && batch.size() < this.threadBatchSize) {
+					batch.add(r.next());
+					}
+				pending.addLast(executorService.submit(()->annotateBatch(pool,batch)));
+				while(pending.size() >= maxPending) {
+					writeBatch(pending,w);
+					}
+				}
+			while(!pending.isEmpty()) {
+				writeBatch(pending,w);
+				}
+			}
+		finally {
+			executorService.shutdownNow();
+			executorService.awaitTermination(1, TimeUnit.MINUTES);
+			}
+		}
+	
 	@Override
 	protected int doVcfToVcf(final String inputName, final VCFIterator r, final VariantContextWriter w) {
 		try {
@@ -90,13 +197,26 @@ public abstract class AbstractOnePassVcfAnnotator extends OnePassVcfLauncher {
 			for(VariantAnnotator ann:this.annotators) {
 				ann.fillHeader(h2);
 				}
+			/* other threads: header lines are the same, so a copy of the header is discarded */
+			for(List<VariantAnnotator> L: this.workerAnnotators) {
+				final VCFHeader h3=new VCFHeader(header);
+				for(VariantAnnotator ann:L) {
+					ann.fillHeader(h3);
+					}
+				}
 			
 			JVarkitVersion.getInstance().addMetaData(this, h2);			
 			w.writeHeader(h2);
 	
-			while(r.hasNext())
+			if(this.workerAnnotators.isEmpty()) {
+				while(r.hasNext())
+					{
+					recursive(w,0,r.next());
+					}
+				}
+			else
 				{
-				recursive(w,0,r.next());
+				doVcfToVcfMultiThread(r,w);
 				}
 			return 0;
 			} catch(final Throwable err ) {
@@ -110,6 +230,12 @@ public abstract class AbstractOnePassVcfAnnotator extends OnePassVcfLauncher {
 		for(VariantAnnotator ann: this.annotators) {
 			ann.close();
 			}
+		for(List<VariantAnnotator> L: this.workerAnnotators) {
+			for(VariantAnnotator ann: L) {
+				ann.close();
+				}
+			}
+		this.workerAnnotators.clear();
 		super.afterVcf();
 		}
 	}
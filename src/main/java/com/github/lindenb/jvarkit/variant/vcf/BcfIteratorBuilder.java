@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+import com.github.lindenb.jvarkit.io.IOUtils;
 import com.github.lindenb.jvarkit.lang.StringUtils;
 
 import htsjdk.samtools.util.CloseableIterator;
@@ -80,6 +81,10 @@ public VCFIterator open(final Path path) throws IOException {
 				}
 			};
 		}
+	if(IOUtils.getBgzfThreads()>1 && path.getFileName().toString().endsWith(".gz")) {
+		/* inflate the BGZF blocks on several threads */
+		return super.open(IOUtils.openPathForReading(path));
+		}
 	return super.open(path);
 	}
 
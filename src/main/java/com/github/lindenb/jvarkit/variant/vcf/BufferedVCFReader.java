@@ -39,42 +39,85 @@ import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFReader;
 
 /**
- * A buffered VCFReader that stores the last query in memory
- *
+ * A buffered VCFReader that stores the last query in memory.
+ * The variants of the buffer are sorted on start, with a prefix array of the max end,
+ * so a query jumps to the first variant that can overlap it using a binary search.
+ * The size of the window adapts to the distance between two consecutive queries: when the
+ * queries are too sparse for the window to be reused, only the query interval is loaded.
  */
 public class BufferedVCFReader implements VCFReader {
 	public static final String OPT_BUFFER_DESC = "When we're looking for variants in a lare VCF file, load the variants in an interval of 'N' bases instead of doing a random access for each variant.";
+	private static final VariantContext[] EMPTY_ARRAY = new VariantContext[0];
 	private final VCFReader delegate;
 	private final int buffSizeInBp;
-	private final List<VariantContext> buffer = new ArrayList<>();
+	/** variants in the buffer, sorted on start */
+	private VariantContext[] buffer = EMPTY_ARRAY;
+	/** maxEnds[i] is the max end of buffer[0..i] */
+	private int[] maxEnds = new int[0];
 	private Locatable lastInterval = null;
 	private UnaryOperator<VariantContext> simplifier = V->V;
+	/** previous query, used to estimate the stride between queries */
+	private Locatable prevQuery = null;
+	/** moving average of the distance between two consecutive queries on the same contig */
+	private double avgStride = 0.0;
 	
 	private class MyIter extends AbstractCloseableIterator<VariantContext> {
-		int i=0;
+		final VariantContext[] array;
 		final Locatable query;
+		int i;
 		MyIter(final Locatable query) {
+			this.array = buffer;
 			this.query = query;
+			this.i = lowerBound(query.getStart());
 			}
 		@Override
 		protected VariantContext advance() {
-			while(i< buffer.size()) {
-				final VariantContext ctx = buffer.get(i);
+			while(i< this.array.length) {
+				final VariantContext ctx = this.array[i];
 				i++;
 				if(ctx.getStart()>this.query.getEnd()) {
 					close();
 					return null;
 					}
-				if(this.query.overlaps(ctx)) return ctx;
+				if(ctx.getEnd()>=this.query.getStart()) return ctx;
 				}
 			return null;
 			}
 		@Override
 		public void close() {
-			i=buffer.size();
+			i=this.array.length;
 			}
 		}
 	
+	/** index of the first variant whose prefix max-end is &gt;= start. Variants before cannot overlap a query starting at 'start' */
+	private int lowerBound(final int start) {
+		int lo = 0;
+		int hi = this.maxEnds.length;
+		while(lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if(this.maxEnds[mid] < start) {
+				lo = mid + 1;
+				}
+			else
+				{
+				hi = mid;
+				}
+			}
+		return lo;
+		}
+	
+	/** update the moving average of the stride and return the size of the window to load */
+	private int getWindowSize(final Locatable query) {
+		if(this.prevQuery!=null && this.prevQuery.contigsMatch(query) && query.getStart() >= this.prevQuery.getStart()) {
+			final double stride = query.getStart() - this.prevQuery.getStart();
+			this.avgStride = 0.9 * this.avgStride + 0.1 * stride;
+			}
+		this.prevQuery = query;
+		/* queries are too sparse: the window would be loaded for a single query */
+		if(this.avgStride > this.buffSizeInBp) return 0;
+		return this.buffSizeInBp;
+		}
+	
 	/** set a function to simplify (eg. remove genotypes) the variants. */
 	public BufferedVCFReader setSimplifier(final UnaryOperator<VariantContext> simplifier) {
 		this.simplifier = simplifier;
@@ -99,7 +142,8 @@ public class BufferedVCFReader implements VCFReader {
 	@Override
 	public void close() throws IOException {
 		this.getDelegate().close();
-		this.buffer.clear();
+		this.buffer = EMPTY_ARRAY;
+		this.maxEnds = new int[0];
 	}
 
 	/* (non-Javadoc)
@@ -121,16 +165,27 @@ public class BufferedVCFReader implements VCFReader {
 	@Override
 	public CloseableIterator<VariantContext> query(final String chrom, int start, int end) {
 		final Locatable query = new SimpleInterval(chrom,start,end);
+		final int windowSize = getWindowSize(query);
 		if(this.lastInterval==null || !this.lastInterval.contains(query)) {
-			this.buffer.clear();
-			this.lastInterval = new SimpleInterval(chrom, start, Math.max(end, start+this.buffSizeInBp));
+			this.lastInterval = new SimpleInterval(chrom, start, Math.max(end, start+windowSize));
+			final List<VariantContext> L = new ArrayList<>();
+			boolean sorted = true;
 			try(CloseableIterator<VariantContext> iter = this.getDelegate().query(this.lastInterval)) {
 				while(iter.hasNext()) {
 					final VariantContext ctx=simplify(iter.next());
 					if(ctx==null) continue;
-					this.buffer.add(ctx);
+					if(!L.isEmpty() && L.get(L.size()-1).getStart() > ctx.getStart()) sorted = false;
+					L.add(ctx);
 					}
 				}
+			if(!sorted) L.sort((A,B)->Integer.compare(A.getStart(), B.getStart()));
+			this.buffer = L.toArray(EMPTY_ARRAY);
+			this.maxEnds = new int[this.buffer.length];
+			int maxEnd = 0;
+			for(int i=0;i< this.buffer.length;i++) {
+				maxEnd = Math.max(maxEnd, this.buffer[i].getEnd());
+				this.maxEnds[i] = maxEnd;
+				}
 			}
 		return new MyIter(query);
 		}
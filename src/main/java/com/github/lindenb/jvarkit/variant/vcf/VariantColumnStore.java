@@ -0,0 +1,551 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.variant.vcf;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import com.github.lindenb.jvarkit.lang.StringUtils;
+import com.github.lindenb.jvarkit.util.log.Logger;
+import com.github.lindenb.jvarkit.util.log.ProgressFactory;
+
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFFilterHeaderLine;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderLineCount;
+import htsjdk.variant.vcf.VCFInfoHeaderLine;
+import htsjdk.variant.vcf.VCFReader;
+
+/**
+ * A compact, memory-mapped, position-sorted column store of a few numeric INFO fields of a VCF.
+ * The VCF (e.g. gnomAD) is 'compiled' once into a directory, one set of column files per contig.
+ * There is one row per ALT allele. Columns are:  start, end, record ordinal, REF hash, ALT hash,
+ * FILTER bitmask, one float per INFO field (NaN if missing), the variant IDs and the bases of the REF and ALT alleles.
+ * Alleles are compared using their hash, then using their bases, so a collision of the hashes cannot match another allele.
+ * Lookups don't allocate: they work on row indexes.
+ */
+public class VariantColumnStore implements Closeable {
+	private static final Logger LOG = Logger.build(VariantColumnStore.class).make();
+	public static final String OPT_DESC = "Directory of a compact, memory-mapped, columnar cache of the INFO fields of the database VCF. "
+			+ "It is created on the first use and re-used as long as the VCF and the requested fields don't change, skipping the VCF parsing.";
+	private static final String MANIFEST = "store.properties";
+	private static final int VERSION = 2;
+	private static final String[] INT_COLUMNS = new String[] {"start","end","rec","ref","alt","filters"};
+	private static final int COL_START = 0;
+	private static final int COL_END = 1;
+	private static final int COL_REC = 2;
+	private static final int COL_REF = 3;
+	private static final int COL_ALT = 4;
+	private static final int COL_FILTERS = 5;
+
+	private final Path directory;
+	private final List<String> fields;
+	private final List<String> filters;
+	private final Map<String,Integer> contig2index = new HashMap<>();
+	private final Contig[] contigs;
+
+	/** hash of the bases of an allele, case insensitive */
+	public static int hash(final Allele a) {
+		final byte[] bases = a.getDisplayBases();
+		int h = 0x811c9dc5;
+		for(int i=0;i< bases.length;i++) {
+			h ^= upper(bases[i]);
+			h *= 0x01000193;
+			}
+		return h;
+		}
+	
+	private static byte upper(final byte b) {
+		return (byte)Character.toUpperCase(b);
+		}
+	
+	/** return true if the bases stored at 'index' are the bases of the allele, case insensitive */
+	private static boolean basesMatch(final IntBuffer offsets,final ByteBuffer bytes,final int index,final Allele a) {
+		final byte[] bases = a.getDisplayBases();
+		final int beg = offsets.get(index);
+		if(offsets.get(index+1) - beg != bases.length) return false;
+		for(int i=0;i< bases.length;i++) {
+			if(bytes.get(beg+i) != upper(bases[i])) return false;
+			}
+		return true;
+		}
+	
+	/** write the upper-case bases of the allele and its offset, return the offset of the next allele */
+	private static int writeBases(final DataOutputStream offsets,final OutputStream bytes,int offset,final Allele a) throws IOException {
+		offsets.writeInt(offset);
+		final byte[] bases = a.getDisplayBases();
+		for(int i=0;i< bases.length;i++) {
+			bytes.write(upper(bases[i]));
+			}
+		return offset + bases.length;
+		}
+
+	/** one contig of the store, columns are memory-mapped on first use */
+	public class Contig {
+		private final int index;
+		private final String name;
+		private final int count;
+		private final int maxLength;
+		private volatile IntBuffer[] intColumns = null;
+		private FloatBuffer[] floatColumns = null;
+		private IntBuffer idOffsets = null;
+		private ByteBuffer idBytes = null;
+		/** bases of REF, indexed by record */
+		private IntBuffer refOffsets = null;
+		private ByteBuffer refBytes = null;
+		/** bases of ALT, indexed by row */
+		private IntBuffer altOffsets = null;
+		private ByteBuffer altBytes = null;
+
+		private Contig(final int index,final String name,final int count,final int maxLength) {
+			this.index = index;
+			this.name = name;
+			this.count = count;
+			this.maxLength = maxLength;
+			}
+		private void load() {
+			if(this.intColumns==null) mapColumns();
+			}
+		private synchronized void mapColumns() {
+			if(this.intColumns!=null) return;
+			try {
+				final IntBuffer[] ints = new IntBuffer[INT_COLUMNS.length];
+				for(int i=0;i< INT_COLUMNS.length;i++) {
+					ints[i] = map(INT_COLUMNS[i]).asIntBuffer();
+					}
+				final FloatBuffer[] floats = new FloatBuffer[fields.size()];
+				for(int i=0;i< floats.length;i++) {
+					floats[i] = map("f"+i).asFloatBuffer();
+					}
+				this.idOffsets = map("id.off").asIntBuffer();
+				this.idBytes = map("id.bytes");
+				this.refOffsets = map("ref.off").asIntBuffer();
+				this.refBytes = map("ref.bytes");
+				this.altOffsets = map("alt.off").asIntBuffer();
+				this.altBytes = map("alt.bytes");
+				this.floatColumns = floats;
+				this.intColumns = ints;
+				}
+			catch(final IOException err) {
+				throw new htsjdk.samtools.util.RuntimeIOException(err);
+				}
+			}
+		private ByteBuffer map(final String suffix) throws IOException {
+			try(FileChannel fc = FileChannel.open(columnPath(directory, this.index, suffix), StandardOpenOption.READ)) {
+				return fc.map(FileChannel.MapMode.READ_ONLY, 0L, fc.size());
+				}
+			}
+		public String getName() {
+			return this.name;
+			}
+		/** number of rows */
+		public int size() {
+			return this.count;
+			}
+		/** longest (end-start) in this contig */
+		public int getMaxLength() {
+			return this.maxLength;
+			}
+		public int getStart(final int row) {
+			load();
+			return this.intColumns[COL_START].get(row);
+			}
+		public int getEnd(final int row) {
+			load();
+			return this.intColumns[COL_END].get(row);
+			}
+		/** ordinal of the VCF record in this contig. Rows of the same record are consecutive */
+		public int getRecord(final int row) {
+			load();
+			return this.intColumns[COL_REC].get(row);
+			}
+		/** index of the first row with start &gt;= pos */
+		public int lowerBound(final int pos) {
+			load();
+			final IntBuffer starts = this.intColumns[COL_START];
+			int lo = 0;
+			int hi = this.count;
+			while(lo < hi) {
+				final int mid = (lo + hi) >>> 1;
+				if(starts.get(mid) < pos) {
+					lo = mid + 1;
+					}
+				else
+					{
+					hi = mid;
+					}
+				}
+			return lo;
+			}
+		/** index of the first row that may overlap a variant starting at 'pos' */
+		public int firstOverlapping(final int pos) {
+			return lowerBound(pos - this.maxLength);
+			}
+		/** return true if the REF of this row is 'ref'. 'refHash' is {@link VariantColumnStore#hash(Allele)} of 'ref' */
+		public boolean refMatches(final int row,final int refHash,final Allele ref) {
+			load();
+			if(this.intColumns[COL_REF].get(row) != refHash) return false;
+			return basesMatch(this.refOffsets, this.refBytes, getRecord(row), ref);
+			}
+		/** return true if the ALT of this row is 'alt'. 'altHash' is {@link VariantColumnStore#hash(Allele)} of 'alt' */
+		public boolean altMatches(final int row,final int altHash,final Allele alt) {
+			load();
+			if(this.intColumns[COL_ALT].get(row) != altHash) return false;
+			return basesMatch(this.altOffsets, this.altBytes, row, alt);
+			}
+		/** bitmask of the filters. see {@link VariantColumnStore#getFilters()} */
+		public int getFilters(final int row) {
+			load();
+			return this.intColumns[COL_FILTERS].get(row);
+			}
+		/** value of the INFO field for this row, NaN if it was missing */
+		public float getValue(final int row,final int fieldIndex) {
+			load();
+			return this.floatColumns[fieldIndex].get(row);
+			}
+		/** ID of the variant of this row, or null */
+		public String getId(final int row) {
+			load();
+			final int rec = getRecord(row);
+			final int beg = this.idOffsets.get(rec);
+			final int end = this.idOffsets.get(rec+1);
+			if(beg==end) return null;
+			final byte[] array = new byte[end-beg];
+			for(int i=0;i< array.length;i++) {
+				array[i] = this.idBytes.get(beg+i);
+				}
+			return new String(array,StandardCharsets.UTF_8);
+			}
+		}
+
+	private VariantColumnStore(final Path directory,final Properties props) throws IOException {
+		this.directory = directory;
+		this.fields = split(props.getProperty("fields",""));
+		this.filters = split(props.getProperty("filters",""));
+		final int n = Integer.parseInt(props.getProperty("contigs","0"));
+		this.contigs = new Contig[n];
+		for(int i=0;i< n;i++) {
+			final String name = props.getProperty("contig."+i+".name");
+			if(StringUtils.isBlank(name)) throw new IOException("bad manifest in "+directory);
+			this.contigs[i] = new Contig(i,name,
+					Integer.parseInt(props.getProperty("contig."+i+".count")),
+					Integer.parseInt(props.getProperty("contig."+i+".maxlen"))
+					);
+			this.contig2index.put(name, i);
+			}
+		}
+
+	private static List<String> split(final String s) {
+		if(StringUtils.isBlank(s)) return Collections.emptyList();
+		return Collections.unmodifiableList(Arrays.asList(s.split("[,]")));
+		}
+
+	private static Path columnPath(final Path dir,final int contigIndex,final String suffix) {
+		return dir.resolve("c"+contigIndex+"."+suffix);
+		}
+
+	/** INFO fields in this store */
+	public List<String> getFields() {
+		return this.fields;
+		}
+	/** index of the INFO field in this store or -1 */
+	public int getFieldIndex(final String field) {
+		return this.fields.indexOf(field);
+		}
+	/** FILTERs of the VCF. bit 'i' of a row's mask is set if the variant is filtered by getFilters().get(i) */
+	public List<String> getFilters() {
+		return this.filters;
+		}
+	/** get the contig or null if there is no such contig */
+	public Contig getContig(final String name) {
+		final Integer idx = this.contig2index.get(name);
+		return idx==null?null:this.contigs[idx.intValue()];
+		}
+
+	/** open an existing store */
+	public static VariantColumnStore open(final Path directory) throws IOException {
+		return new VariantColumnStore(directory, readManifest(directory));
+		}
+
+	private static Properties readManifest(final Path directory) throws IOException {
+		final Properties props = new Properties();
+		try(InputStream in = Files.newInputStream(directory.resolve(MANIFEST))) {
+			props.load(in);
+			}
+		return props;
+		}
+
+	/** signature of the source: path, size and modification time */
+	private static String signature(final Path source) throws IOException {
+		return source.toAbsolutePath().toString()+":"+Files.size(source)+":"+Files.getLastModifiedTime(source).toMillis();
+		}
+
+	/** return true if the store exists, was compiled from this source (same path, size, mtime) and contains all those fields */
+	public static boolean isUpToDate(final Path directory,final Path source,final List<String> fields) {
+		try {
+			if(!Files.exists(directory.resolve(MANIFEST))) return false;
+			final Properties props = readManifest(directory);
+			if(!String.valueOf(VERSION).equals(props.getProperty("version"))) return false;
+			if(!signature(source).equals(props.getProperty("source"))) return false;
+			return split(props.getProperty("fields","")).containsAll(fields);
+			}
+		catch(final Throwable err) {
+			return false;
+			}
+		}
+
+	/**
+	 * open the store if it is up to date, otherwise compile it from the source VCF
+	 * @param directory the store directory
+	 * @param source path to the source VCF
+	 * @param reader the opened source VCF
+	 * @param fields INFO fields to be stored
+	 */
+	public static VariantColumnStore openOrCompile(final Path directory,final Path source,final VCFReader reader,final List<String> fields) throws IOException {
+		if(!isUpToDate(directory, source, fields)) {
+			LOG.info("compiling "+source+" into "+directory);
+			compile(reader, fields, source, directory);
+			}
+		return open(directory);
+		}
+
+	/** convert the INFO values to double. Missing values are converted to NaN */
+	private static List<Double> toDoubles(final List<String> L) {
+		final List<Double> array = new ArrayList<>(L.size());
+		for(final String s: L) {
+			array.add(StringUtils.isBlank(s) || s.equals(VCFConstants.MISSING_VALUE_v4)?Double.NaN:Double.parseDouble(s));
+			}
+		return array;
+		}
+
+	/** one output column file of the contig being compiled */
+	private static DataOutputStream openColumn(final Path dir,final int contigIndex,final String suffix) throws IOException {
+		return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(columnPath(dir, contigIndex, suffix)),1<<16));
+		}
+
+	/**
+	 * compile the store. The variants of the VCF must be sorted on coordinate
+	 * @param reader the source VCF
+	 * @param fields INFO fields to be stored
+	 * @param source path of the source, used to check if the store is up to date
+	 * @param directory output directory
+	 */
+	public static void compile(final VCFReader reader,final List<String> fields,final Path source,final Path directory) throws IOException {
+		final VCFHeader header = reader.getHeader();
+		final List<VCFInfoHeaderLine> infos = new ArrayList<>(fields.size());
+		for(final String field: fields) {
+			final VCFInfoHeaderLine info = header.getInfoHeaderLine(field);
+			if(info==null) throw new IOException("INFO/"+field+" is not defined in "+source);
+			if(field.contains(",")) throw new IOException("bad INFO field name "+field);
+			infos.add(info);
+			}
+		final List<String> filters = new ArrayList<>();
+		for(final VCFFilterHeaderLine fh: header.getFilterLines()) {
+			if(fh.getID().equals(VCFConstants.PASSES_FILTERS_v4)) continue;
+			filters.add(fh.getID());
+			}
+		if(filters.size()>32) throw new IOException("too many FILTERs in "+source);
+
+		Files.createDirectories(directory);
+		Files.deleteIfExists(directory.resolve(MANIFEST));
+
+		final Properties props = new Properties();
+		props.setProperty("version", String.valueOf(VERSION));
+		props.setProperty("fields", String.join(",", fields));
+		props.setProperty("filters", String.join(",", filters));
+
+		final Set<String> seen_contigs = new HashSet<>();
+		final DataOutputStream[] intOut = new DataOutputStream[INT_COLUMNS.length];
+		final DataOutputStream[] floatOut = new DataOutputStream[fields.size()];
+		DataOutputStream idOff = null;
+		OutputStream idBytes = null;
+		DataOutputStream refOff = null;
+		OutputStream refBytes = null;
+		DataOutputStream altOff = null;
+		OutputStream altBytes = null;
+		String prevContig = null;
+		int prevStart = 0;
+		int contigIndex = -1;
+		int count = 0;
+		int nRecords = 0;
+		int idOffset = 0;
+		int refOffset = 0;
+		int altOffset = 0;
+		int maxLength = 0;
+		try(CloseableIterator<VariantContext> iter = reader.iterator()) {
+			final ProgressFactory.Watcher<VariantContext> progress = ProgressFactory.newInstance().dictionary(header).logger(LOG).build();
+			for(;;) {
+				final VariantContext ctx = iter.hasNext()?progress.apply(iter.next()):null;
+				if(ctx==null || !ctx.getContig().equals(prevContig)) {
+					/* close previous contig */
+					if(prevContig!=null) {
+						idOff.writeInt(idOffset);
+						refOff.writeInt(refOffset);
+						altOff.writeInt(altOffset);
+						for(DataOutputStream out: intOut) out.close();
+						for(DataOutputStream out: floatOut) out.close();
+						idOff.close();
+						idBytes.close();
+						refOff.close();
+						refBytes.close();
+						altOff.close();
+						altBytes.close();
+						props.setProperty("contig."+contigIndex+".name", prevContig);
+						props.setProperty("contig."+contigIndex+".count", String.valueOf(count));
+						props.setProperty("contig."+contigIndex+".maxlen", String.valueOf(maxLength));
+						}
+					if(ctx==null) break;
+					if(!seen_contigs.add(ctx.getContig())) {
+						throw new IOException("VCF is not sorted: got "+ctx.getContig()+" twice in "+source);
+						}
+					contigIndex++;
+					for(int i=0;i< INT_COLUMNS.length;i++) {
+						intOut[i] = openColumn(directory, contigIndex, INT_COLUMNS[i]);
+						}
+					for(int i=0;i< floatOut.length;i++) {
+						floatOut[i] = openColumn(directory, contigIndex, "f"+i);
+						}
+					idOff = openColumn(directory, contigIndex, "id.off");
+					idBytes = openColumn(directory, contigIndex, "id.bytes");
+					refOff = openColumn(directory, contigIndex, "ref.off");
+					refBytes = openColumn(directory, contigIndex, "ref.bytes");
+					altOff = openColumn(directory, contigIndex, "alt.off");
+					altBytes = openColumn(directory, contigIndex, "alt.bytes");
+					prevContig = ctx.getContig();
+					prevStart = 0;
+					count = 0;
+					nRecords = 0;
+					idOffset = 0;
+					refOffset = 0;
+					altOffset = 0;
+					maxLength = 0;
+					}
+				if(ctx.getStart() < prevStart) {
+					throw new IOException("VCF is not sorted: got "+ctx.getContig()+":"+ctx.getStart()+" after "+prevStart+" in "+source);
+					}
+				prevStart = ctx.getStart();
+				maxLength = Math.max(maxLength, ctx.getEnd()-ctx.getStart());
+
+				int filterMask = 0;
+				if(ctx.isFiltered()) {
+					for(final String f: ctx.getFilters()) {
+						final int idx = filters.indexOf(f);
+						if(idx!=-1) filterMask |= (1 << idx);
+						}
+					}
+				final int refHash = hash(ctx.getReference());
+				final List<Allele> alts = ctx.getAlternateAlleles();
+				final List<List<Double>> values = new ArrayList<>(infos.size());
+				for(final VCFInfoHeaderLine info: infos) {
+					values.add(ctx.hasAttribute(info.getID())?toDoubles(ctx.getAttributeAsStringList(info.getID(), VCFConstants.MISSING_VALUE_v4)):Collections.emptyList());
+					}
+				for(int a=0;a< alts.size();a++) {
+					intOut[COL_START].writeInt(ctx.getStart());
+					intOut[COL_END].writeInt(ctx.getEnd());
+					intOut[COL_REC].writeInt(nRecords);
+					intOut[COL_REF].writeInt(refHash);
+					intOut[COL_ALT].writeInt(hash(alts.get(a)));
+					altOffset = writeBases(altOff, altBytes, altOffset, alts.get(a));
+					intOut[COL_FILTERS].writeInt(filterMask);
+					for(int f=0;f< infos.size();f++) {
+						final List<Double> L = values.get(f);
+						final int idx;
+						if(infos.get(f).getCountType()==VCFHeaderLineCount.A) {
+							idx = a;
+							}
+						else if(infos.get(f).getCountType()==VCFHeaderLineCount.R) {
+							idx = a + 1;
+							}
+						else
+							{
+							idx = 0;
+							}
+						final Double v = idx < L.size() ? L.get(idx) : null;
+						floatOut[f].writeFloat(v==null?Float.NaN:v.floatValue());
+						}
+					count++;
+					}
+				idOff.writeInt(idOffset);
+				refOffset = writeBases(refOff, refBytes, refOffset, ctx.getReference());
+				if(ctx.hasID()) {
+					final byte[] id = ctx.getID().getBytes(StandardCharsets.UTF_8);
+					idBytes.write(id);
+					idOffset += id.length;
+					}
+				nRecords++;
+				}
+			progress.close();
+			}
+		finally {
+			for(DataOutputStream out: intOut) if(out!=null) out.close();
+			for(DataOutputStream out: floatOut) if(out!=null) out.close();
+			if(idOff!=null) idOff.close();
+			if(idBytes!=null) idBytes.close();
+			if(refOff!=null) refOff.close();
+			if(refBytes!=null) refBytes.close();
+			if(altOff!=null) altOff.close();
+			if(altBytes!=null) altBytes.close();
+			}
+		props.setProperty("contigs", String.valueOf(contigIndex+1));
+		/* written last: the store is valid only if the manifest exists */
+		props.setProperty("source", signature(source));
+		try(OutputStream out = Files.newOutputStream(directory.resolve(MANIFEST))) {
+			props.store(out, "jvarkit "+VariantColumnStore.class.getSimpleName());
+			}
+		}
+
+	@Override
+	public void close() {
+		/* mapped buffers are released by the garbage collector */
+		}
+
+	@Override
+	public String toString() {
+		return this.directory.toString();
+		}
+	}
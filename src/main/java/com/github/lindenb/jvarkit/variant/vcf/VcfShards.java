@@ -0,0 +1,237 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.variant.vcf;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.lindenb.jvarkit.samtools.util.SimpleInterval;
+
+import htsjdk.samtools.BinningIndexContent;
+import htsjdk.samtools.Chunk;
+import htsjdk.samtools.LinearIndex;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.util.AbstractIterator;
+import htsjdk.samtools.util.BlockCompressedFilePointerUtil;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.samtools.util.Locatable;
+import htsjdk.tribble.index.tabix.TabixIndex;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFIterator;
+import htsjdk.variant.vcf.VCFReader;
+
+/**
+ * Split a tabix-indexed VCF into consecutive genomic shards holding about the
+ * same amount of compressed data. The size of a genomic window is estimated from
+ * the file offset of its first record in the index.
+ * A variant belongs to the window containing its start, so the concatenation
+ * of the shards, in order, is the original VCF.
+ */
+public class VcfShards {
+	/** max position in a tabix index */
+	private static final int TABIX_MAX_POS = 1<<29;
+	/** default size of the genomic windows */
+	public static final int DEFAULT_WINDOW_SIZE = 1_000_000;
+	/** usual compression ratio of a bgzipped VCF */
+	private static final int COMPRESSION_RATIO = 4;
+	private final List<List<Locatable>> shards;
+	
+	private static class Window {
+		final Locatable loc;
+		long offset = -1L;
+		long size = 0L;
+		Window(final String contig,int start,int end) {
+			this.loc = new SimpleInterval(contig, start, end);
+			}
+		}
+	
+	private VcfShards(final List<List<Locatable>> shards) {
+		this.shards = Collections.unmodifiableList(shards);
+		}
+	
+	/** split the vcf using the default window size */
+	public static VcfShards split(final Path vcf,final SAMSequenceDictionary dictOrNull,final int nShards) throws IOException {
+		return split(vcf, dictOrNull, nShards, DEFAULT_WINDOW_SIZE);
+		}
+	
+	/**
+	 * split the vcf
+	 * @param vcf a bgzip-compressed VCF with a tabix index
+	 * @param dictOrNull the dictionary of the VCF, used to get the length of the contigs. May be null
+	 * @param nShards the number of shards wanted
+	 * @param windowSize size of the genomic windows, the smallest unit of a shard
+	 */
+	public static VcfShards split(final Path vcf,final SAMSequenceDictionary dictOrNull,final int nShards,final int windowSize) throws IOException {
+		if(nShards<1) throw new IllegalArgumentException("bad number of shards: "+nShards);
+		if(windowSize<1) throw new IllegalArgumentException("bad window size: "+windowSize);
+		final TabixIndex index = new TabixIndex(getTabixIndexPath(vcf));
+		final BinningIndexContent[] contents = index.getIndices();
+		final List<String> contigs = index.getSequenceNames();
+		
+		/* contigs are listed in the order of the file */
+		final List<Window> windows = new ArrayList<>();
+		for(int tid=0;tid < contigs.size();++tid) {
+			final String contig = contigs.get(tid);
+			final SAMSequenceRecord ssr = dictOrNull==null?null:dictOrNull.getSequence(contig);
+			final BinningIndexContent content = tid < contents.length?contents[tid]:null;
+			final int contigLength;
+			if(ssr!=null && ssr.getSequenceLength()>0) {
+				contigLength = Math.min(TABIX_MAX_POS, ssr.getSequenceLength());
+				}
+			else if(content!=null && content.getLinearIndex()!=null) {
+				/* each slot of the linear index covers 16kb */
+				final LinearIndex linear = content.getLinearIndex();
+				contigLength = (int)Math.min((long)TABIX_MAX_POS,((long)linear.getIndexStart()+linear.size()) << LinearIndex.BAM_LIDX_SHIFT);
+				}
+			else
+				{
+				contigLength = TABIX_MAX_POS;
+				}
+			for(int start=1;start<=contigLength;start+=windowSize) {
+				final int end = (int)Math.min((long)contigLength, (long)start + windowSize - 1L);
+				/* last window spans the whole end of the contig */
+				final Window w = new Window(contig, start, end>=contigLength?TABIX_MAX_POS:end);
+				final List<Chunk> chunks = content==null?null:content.getChunksOverlapping(w.loc.getStart(),w.loc.getEnd());
+				if(chunks!=null) {
+					for(final Chunk chunk : chunks) {
+						final long offset = toFileOffset(chunk.getChunkStart());
+						if(w.offset<0L || offset< w.offset) w.offset = offset;
+						}
+					}
+				windows.add(w);
+				}
+			}
+		/* size of a window is the distance to the next non-empty window */
+		long next = Files.size(vcf);
+		for(int i=windows.size()-1;i>=0;i--) {
+			final Window w = windows.get(i);
+			if(w.offset<0L) continue;
+			w.size = Math.max(0L, next - w.offset);
+			next = Math.min(next, w.offset);
+			}
+		final long total = windows.stream().mapToLong(W->W.size).sum();
+		
+		final List<List<Locatable>> shards = new ArrayList<>(nShards);
+		List<Locatable> shard = new ArrayList<>();
+		long cumul = 0L;
+		for(final Window w: windows) {
+			/* merge with the previous window of the same contig */
+			final Locatable last = shard.isEmpty()?null:shard.get(shard.size()-1);
+			if(last!=null && last.contigsMatch(w.loc) && last.getEnd()+1==w.loc.getStart()) {
+				shard.set(shard.size()-1, new SimpleInterval(last.getContig(), last.getStart(), w.loc.getEnd()));
+				}
+			else
+				{
+				shard.add(w.loc);
+				}
+			cumul += w.size;
+			if(shards.size()+1 < nShards && cumul >= (total/(double)nShards)*(shards.size()+1)) {
+				shards.add(shard);
+				shard = new ArrayList<>();
+				}
+			}
+		if(!shard.isEmpty()) shards.add(shard);
+		return new VcfShards(shards);
+		}
+	
+	/** approximate position in the compressed file of a virtual file pointer. The offset in the uncompressed block is scaled using the usual compression ratio of a VCF */
+	private static long toFileOffset(final long virtualFilePointer) {
+		return BlockCompressedFilePointerUtil.getBlockAddress(virtualFilePointer) +
+			BlockCompressedFilePointerUtil.getBlockOffset(virtualFilePointer)/COMPRESSION_RATIO;
+		}
+	
+	/** return the path of the tabix index for this vcf */
+	public static Path getTabixIndexPath(final Path vcf) {
+		return vcf.resolveSibling(vcf.getFileName().toString()+ htsjdk.samtools.util.FileExtensions.TABIX_INDEX);
+		}
+	
+	/** return true if vcf is a bgzipped VCF having a tabix index */
+	public static boolean isShardable(final Path vcf) {
+		final String fname = vcf.getFileName().toString();
+		return (fname.endsWith(htsjdk.samtools.util.FileExtensions.COMPRESSED_VCF) || fname.endsWith(".vcf.bgz")) &&
+				Files.exists(getTabixIndexPath(vcf));
+		}
+	
+	/** get the shards. Each shard is a list of consecutive genomic intervals */
+	public List<List<Locatable>> getShards() {
+		return this.shards;
+		}
+	
+	/** number of shards. May be lower than the number of shards requested */
+	public int size() {
+		return this.shards.size();
+		}
+	
+	/** open a VCFIterator over the variants of the shard 'idx'. Closing the iterator doesn't close the reader. */
+	public VCFIterator open(final VCFReader reader,final int idx) {
+		return new ShardIterator(reader, this.shards.get(idx));
+		}
+	
+	private static class ShardIterator extends AbstractIterator<VariantContext> implements VCFIterator {
+		private final VCFReader reader;
+		private final List<Locatable> intervals;
+		private int interval_idx = 0;
+		private CloseableIterator<VariantContext> delegate = null;
+		ShardIterator(final VCFReader reader,final List<Locatable> intervals) {
+			this.reader = reader;
+			this.intervals = intervals;
+			}
+		@Override
+		public VCFHeader getHeader() {
+			return this.reader.getHeader();
+			}
+		@Override
+		protected VariantContext advance() {
+			for(;;) {
+				if(this.delegate==null) {
+					if(this.interval_idx>=this.intervals.size()) return null;
+					this.delegate = this.reader.query(this.intervals.get(this.interval_idx));
+					}
+				final Locatable loc = this.intervals.get(this.interval_idx);
+				while(this.delegate.hasNext()) {
+					final VariantContext ctx = this.delegate.next();
+					if(ctx.getStart() > loc.getEnd()) break;
+					/* variant was already returned by the previous interval */
+					if(loc.getStart()>1 && ctx.getStart() < loc.getStart()) continue;
+					return ctx;
+					}
+				this.delegate.close();
+				this.delegate = null;
+				this.interval_idx++;
+				}
+			}
+		@Override
+		public void close() {
+			if(this.delegate!=null) this.delegate.close();
+			this.delegate = null;
+			this.interval_idx = this.intervals.size();
+			}
+		}
+	}
@@ -0,0 +1,72 @@
+package com.github.lindenb.jvarkit.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class TaskExecutorTest {
+
+	@DataProvider(name = "threads")
+	public Object[][] createThreads() {
+		return new Object[][]{
+			{1},{2},{4}
+			};
+		}
+
+	@Test(dataProvider="threads")
+	public void testOrder(final int nThreads) throws Exception {
+		final List<Callable<Integer>> tasks = new ArrayList<>();
+		for(int i=0;i< 50;i++) {
+			final int n = i;
+			tasks.add(()->{
+				/* slow tasks first */
+				Thread.sleep(n%5==0?20:1);
+				return n;
+				});
+			}
+		try(TaskExecutor executor = new TaskExecutor(nThreads)) {
+			Assert.assertEquals(executor.getNumberOfThreads(), nThreads);
+			for(int loop=0;loop< 2;loop++) {
+				final List<Integer> L = executor.invokeAll(tasks);
+				Assert.assertEquals(L.size(), tasks.size());
+				for(int i=0;i< L.size();i++) {
+					Assert.assertEquals(L.get(i).intValue(), i);
+					}
+				}
+			}
+		}
+
+	@Test(dataProvider="threads")
+	public void testRunAll(final int nThreads) throws Exception {
+		final AtomicInteger count = new AtomicInteger(0);
+		final List<Runnable> tasks = new ArrayList<>();
+		for(int i=0;i< 100;i++) {
+			tasks.add(()->count.incrementAndGet());
+			}
+		try(TaskExecutor executor = new TaskExecutor(nThreads)) {
+			executor.runAll(tasks);
+			}
+		Assert.assertEquals(count.get(), 100);
+		}
+
+	@Test(dataProvider="threads",expectedExceptions=ExecutionException.class)
+	public void testError(final int nThreads) throws Exception {
+		final List<Callable<Integer>> tasks = new ArrayList<>();
+		for(int i=0;i< 10;i++) {
+			final int n = i;
+			tasks.add(()->{
+				if(n==5) throw new IllegalStateException("boum");
+				return n;
+				});
+			}
+		try(TaskExecutor executor = new TaskExecutor(nThreads)) {
+			executor.invokeAll(tasks);
+			}
+		}
+	}
@@ -0,0 +1,149 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.github.lindenb.jvarkit.tools.tests.TestSupport;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
+
+public class ParallelBlockCompressedStreamTest {
+	private final TestSupport support = new TestSupport();
+	
+	@DataProvider(name="sizes")
+	public Object[][] getSizes() {
+		final int B = BlockCompressedStreamConstants.DEFAULT_UNCOMPRESSED_BLOCK_SIZE;
+		return new Object[][] {
+			{0},{1},{B-1},{B},{B+1},{10*B+17},{1_000_000}
+			};
+		}
+	
+	/** some text, some random bytes (blocks that can't be compressed) */
+	private static byte[] makeData(final int size) {
+		final Random rand = new Random(size);
+		final byte[] data = new byte[size];
+		for(int i=0;i< size;i++) {
+			data[i] = (i/100_000)%2==0 ? (byte)"ACGT\t\n".charAt(rand.nextInt(6)) : (byte)rand.nextInt(256);
+			}
+		return data;
+		}
+	
+	private static byte[] readAll(final InputStream in) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		IOUtils.copyTo(in, baos);
+		in.close();
+		return baos.toByteArray();
+		}
+	
+	@Test(dataProvider="sizes")
+	public void testSameAsHtsjdk(final int size) throws IOException {
+		final byte[] data = makeData(size);
+		final ByteArrayOutputStream expect = new ByteArrayOutputStream();
+		try(BlockCompressedOutputStream bcos = new BlockCompressedOutputStream(expect, (Path)null)) {
+			bcos.write(data);
+			}
+		for(int nThreads=1;nThreads<=4;nThreads+=3) {
+			final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			try(OutputStream os = new ParallelBlockCompressedOutputStream(baos, nThreads)) {
+				/* mix write(int) and write(byte[]) */
+				int i=0;
+				while(i< data.length) {
+					if(i%7==0) {
+						os.write(data[i]);
+						i++;
+						}
+					else
+						{
+						final int n = Math.min(data.length-i, 1+i%10_000);
+						os.write(data, i, n);
+						i+=n;
+						}
+					}
+				}
+			Assert.assertEquals(baos.toByteArray(), expect.toByteArray());
+			
+			Assert.assertEquals(readAll(new ParallelBlockCompressedInputStream(new ByteArrayInputStream(expect.toByteArray()), nThreads)), data);
+			Assert.assertEquals(readAll(new BlockCompressedInputStream(new ByteArrayInputStream(baos.toByteArray()))), data);
+			Assert.assertEquals(readAll(new GZIPInputStream(new ByteArrayInputStream(baos.toByteArray()))), data);
+			}
+		}
+	
+	@Test
+	public void testFlushAndConcatenated() throws IOException {
+		final byte[] data = makeData(300_000);
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		for(int k=0;k<2;k++) {
+			try(OutputStream os = new ParallelBlockCompressedOutputStream(IOUtils.uncloseableOutputStream(baos), 3)) {
+				os.write(data, 0, 1_000);
+				os.flush();
+				os.write(data, 1_000, data.length - 1_000);
+				}
+			}
+		final byte[] expect = new byte[data.length*2];
+		System.arraycopy(data, 0, expect, 0, data.length);
+		System.arraycopy(data, 0, expect, data.length, data.length);
+		Assert.assertEquals(readAll(new ParallelBlockCompressedInputStream(new ByteArrayInputStream(baos.toByteArray()), 2)), expect);
+		}
+	
+	@Test
+	public void testIOUtils() throws IOException {
+		final byte[] data = makeData(500_000);
+		final int prev = IOUtils.setBgzfThreads(3);
+		try {
+			for(final String suffix: new String[] {".vcf.gz",".bgz",".txt.gz"}) {
+				final Path p = support.createTmpPath(suffix);
+				try(OutputStream os = IOUtils.openPathForWriting(p)) {
+					os.write(data);
+					}
+				Assert.assertEquals(readAll(new BlockCompressedInputStream(Files.newInputStream(p))), data);
+				/* openPathForReading only uncompresses '*.gz' */
+				if(!suffix.endsWith(".gz")) continue;
+				try(InputStream in = IOUtils.openPathForReading(p)) {
+					Assert.assertTrue(in instanceof ParallelBlockCompressedInputStream);
+					Assert.assertEquals(readAll(in), data);
+					}
+				}
+			}
+		finally
+			{
+			IOUtils.setBgzfThreads(prev);
+			support.removeTmpFiles();
+			}
+		}
+	}
@@ -0,0 +1,64 @@
+package com.github.lindenb.jvarkit.lang;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import htsjdk.samtools.util.IOUtil;
+
+public class OpenJdkCompilerTest {
+	private static String code(final String className,final String value) {
+		return "public class "+className+" implements java.util.function.Supplier<String> {\n"+
+				" public "+className+"() {}\n"+
+				" @Override public String get() { return \""+value+"\";}\n"+
+				"}\n";
+		}
+	
+	@SuppressWarnings("unchecked")
+	private static String invoke(final Class<?> c) throws Exception {
+		return ((Supplier<String>)c.getConstructor().newInstance()).get();
+		}
+	
+	private static long countJars(final Path dir) throws Exception {
+		try(Stream<Path> st = Files.list(dir)) {
+			return st.filter(F->F.getFileName().toString().endsWith(".jar")).collect(Collectors.counting());
+			}
+		}
+	
+	@Test
+	public void testCache() throws Exception {
+		final String prev = System.getProperty(OpenJdkCompiler.CACHE_PROPERTY);
+		final Path dir = Files.createTempDirectory("tmp.");
+		try {
+			System.setProperty(OpenJdkCompiler.CACHE_PROPERTY, dir.toString());
+			Assert.assertEquals(OpenJdkCompiler.getCacheDirectory(), dir);
+			final OpenJdkCompiler compiler = OpenJdkCompiler.getInstance();
+			final Class<?> c1 = compiler.compileClass("CachedCustom1", code("CachedCustom1","hello"));
+			Assert.assertEquals(invoke(c1), "hello");
+			Assert.assertEquals(countJars(dir), 1L);
+			/* same code, another random class name: loaded from the cache */
+			final Class<?> c2 = compiler.compileClass("CachedCustom2", code("CachedCustom2","hello"));
+			Assert.assertEquals(c2.getName(), "CachedCustom1");
+			Assert.assertEquals(invoke(c2), "hello");
+			Assert.assertEquals(countJars(dir), 1L);
+			/* other code */
+			final Class<?> c3 = compiler.compileClass("CachedCustom3", code("CachedCustom3","world"));
+			Assert.assertEquals(invoke(c3), "world");
+			Assert.assertEquals(countJars(dir), 2L);
+			
+			System.setProperty(OpenJdkCompiler.CACHE_PROPERTY, "false");
+			Assert.assertNull(OpenJdkCompiler.getCacheDirectory());
+			}
+		finally
+			{
+			if(prev==null) System.clearProperty(OpenJdkCompiler.CACHE_PROPERTY);
+			else System.setProperty(OpenJdkCompiler.CACHE_PROPERTY, prev);
+			IOUtil.deleteDirectoryTree(dir.toFile());
+			}
+		}
+	}
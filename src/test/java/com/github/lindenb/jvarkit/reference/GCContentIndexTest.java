@@ -0,0 +1,159 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.reference;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.lindenb.jvarkit.util.picard.GenomicSequence;
+
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.reference.FastaReferenceWriter;
+import htsjdk.samtools.reference.FastaReferenceWriterBuilder;
+import htsjdk.samtools.reference.ReferenceSequenceFile;
+import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
+import htsjdk.samtools.util.IOUtil;
+
+public class GCContentIndexTest {
+	
+	private static void assertSame(final GenomicSequence.GCPercent gc1,final GenomicSequence.GCPercent gc2) {
+		Assert.assertEquals(gc2.getContig(), gc1.getContig());
+		Assert.assertEquals(gc2.getStart(), gc1.getStart());
+		Assert.assertEquals(gc2.getEnd(), gc1.getEnd());
+		Assert.assertEquals(gc2.getAllCount(), gc1.getAllCount());
+		Assert.assertEquals(gc2.getGCCount(), gc1.getGCCount());
+		Assert.assertEquals(gc2.getATCount(), gc1.getATCount());
+		}
+	
+	/** naive scan of the sequence */
+	private static GenomicSequence.GCPercent scan(final String contig,final CharSequence seq,final int start,final int end) {
+		final int end0 = Math.min(end, seq.length());
+		int gc=0,at=0;
+		for(int i=start;i< end0;i++) {
+			switch(Character.toUpperCase(seq.charAt(i))) {
+				case 'G': case 'C': case 'S': gc++; break;
+				case 'A': case 'T': case 'W': at++; break;
+				default: break;
+				}
+			}
+		return GenomicSequence.GCPercent.of(contig, start+1, end0, Math.max(0, end0-start), gc, at);
+		}
+	
+	private static Path writeFasta(final Path dir,final Random rand) throws IOException {
+		final Path fasta = dir.resolve("ref.fa");
+		final String alphabet = "ACGTACGTacgtNNnSWRYsw";
+		try(FastaReferenceWriter w = new FastaReferenceWriterBuilder().
+				setFastaFile(fasta).
+				setMakeFaiOutput(true).
+				setMakeDictOutput(true).
+				build()) {
+			for(final int len: new int[] {1,GCContentIndex.STEP-1,GCContentIndex.STEP,GCContentIndex.STEP+1,1_000,10_003}) {
+				final byte[] bases = new byte[len];
+				for(int i=0;i< len;i++) {
+					bases[i] = (byte)alphabet.charAt(rand.nextInt(alphabet.length()));
+					}
+				w.appendSequence("chr"+len, null, bases);
+				}
+			}
+		return fasta;
+		}
+	
+	@Test
+	public void testContigGC() {
+		final Random rand = new Random(0L);
+		final StringBuilder sb = new StringBuilder();
+		for(int i=0;i< 5 * GCContentIndex.STEP + 17;i++) {
+			sb.append("ACGTNSWacgtn".charAt(rand.nextInt(12)));
+			}
+		final GCContentIndex.ContigGC index = GCContentIndex.ContigGC.build("chr1", sb);
+		Assert.assertEquals(index.length(), sb.length());
+		for(int start=0;start <= sb.length()+1;start++) {
+			for(int end=start;end <= sb.length()+1;end++) {
+				assertSame(scan("chr1", sb, start, end), index.getGCPercent(sb, start, end));
+				}
+			}
+		}
+	
+	@Test
+	public void testPersistedIndex() throws IOException {
+		final Path dir = Files.createTempDirectory("tmp.");
+		try {
+			final Random rand = new Random(0L);
+			final Path fasta = writeFasta(dir, rand);
+			final GCContentIndex index = GCContentIndex.open(fasta);
+			Assert.assertEquals(index.getIndexPath(), GCContentIndex.getDefaultIndexPath(fasta));
+			Assert.assertTrue(Files.exists(index.getIndexPath()));
+			try(ReferenceSequenceFile ref = ReferenceSequenceFileFactory.getReferenceSequenceFile(fasta)) {
+				Assert.assertEquals(index.getSequenceDictionary().size(), ref.getSequenceDictionary().size());
+				for(final SAMSequenceRecord ssr: ref.getSequenceDictionary().getSequences()) {
+					final String seq = new String(ref.getSequence(ssr.getSequenceName()).getBases());
+					final GCContentIndex.ContigGC contigGC = index.getContigGC(ssr.getSequenceName());
+					Assert.assertEquals(contigGC.length(), seq.length());
+					final GenomicSequence genomic = new GenomicSequence(ref, ssr.getSequenceName()).setGCContentIndex(GCContentIndex.open(fasta));
+					for(int n=0;n< 1_000;n++) {
+						final int start = rand.nextInt(seq.length());
+						final int end = start + rand.nextInt(2 * GCContentIndex.STEP + 10);
+						final GenomicSequence.GCPercent expect = scan(ssr.getSequenceName(), seq, start, end);
+						assertSame(expect, contigGC.getGCPercent(seq, start, end));
+						assertSame(expect, genomic.getGCPercent(start, end));
+						}
+					}
+				}
+			}
+		finally
+			{
+			IOUtil.deleteDirectoryTree(dir.toFile());
+			}
+		}
+	
+	@Test
+	public void testLazyIndex() throws IOException {
+		final Path dir = Files.createTempDirectory("tmp.");
+		try {
+			final Random rand = new Random(1L);
+			final Path fasta = writeFasta(dir, rand);
+			try(ReferenceSequenceFile ref = ReferenceSequenceFileFactory.getReferenceSequenceFile(fasta)) {
+				final String contig = "chr10003";
+				final String seq = new String(ref.getSequence(contig).getBases());
+				final GenomicSequence genomic = new GenomicSequence(ref, contig);
+				/* the index is built after the first windows */
+				for(int n=0;n< 1_000;n++) {
+					final int start = rand.nextInt(seq.length());
+					final int end = start + rand.nextInt(1_000);
+					assertSame(scan(contig, seq, start, end), genomic.getGCPercent(start, end));
+					}
+				}
+			Assert.assertFalse(Files.exists(GCContentIndex.getDefaultIndexPath(fasta)));
+			}
+		finally
+			{
+			IOUtil.deleteDirectoryTree(dir.toFile());
+			}
+		}
+	}
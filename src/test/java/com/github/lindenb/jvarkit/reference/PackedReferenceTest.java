@@ -0,0 +1,135 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2025 Pierre Lindenbaum
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.github.lindenb.jvarkit.reference;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.lindenb.jvarkit.tools.tests.TestSupport;
+import com.github.lindenb.jvarkit.util.picard.GenomicSequence;
+
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.reference.FastaReferenceWriter;
+import htsjdk.samtools.reference.FastaReferenceWriterBuilder;
+import htsjdk.samtools.reference.ReferenceSequenceFile;
+import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
+import htsjdk.samtools.util.IOUtil;
+
+public class PackedReferenceTest {
+	private final TestSupport support = new TestSupport();
+	
+	/** compare all the bases and some GC windows with GenomicSequence */
+	private void compare(final Path fasta) throws IOException {
+		try(ReferenceSequenceFile ref = ReferenceSequenceFileFactory.getReferenceSequenceFile(fasta)) {
+			try(PackedReference packed = PackedReference.open(fasta)) {
+				Assert.assertTrue(Files.exists(packed.getPackedPath()));
+				Assert.assertEquals(packed.getSequenceDictionary().size(), ref.getSequenceDictionary().size());
+				for(final SAMSequenceRecord ssr: ref.getSequenceDictionary().getSequences()) {
+					final GenomicSequence expect = new GenomicSequence(ref, ssr.getSequenceName());
+					final PackedSequence seq = packed.getSequence(ssr.getSequenceName());
+					Assert.assertEquals(seq.length(), expect.length());
+					Assert.assertTrue(seq.hasName(ssr.getSequenceName()));
+					for(int i=0;i< seq.length();i++) {
+						Assert.assertEquals(seq.charAt(i), expect.charAt(i), "index "+i);
+						}
+					for(int w=1;w< 200;w+=7) {
+						for(int i=0;i< seq.length();i+=w/2+1) {
+							final GenomicSequence.GCPercent gc1 = expect.getGCPercent(i, i+w);
+							final GenomicSequence.GCPercent gc2 = seq.getGCPercent(i, i+w);
+							Assert.assertEquals(gc2.getAllCount(), gc1.getAllCount());
+							Assert.assertEquals(gc2.getGCCount(), gc1.getGCCount());
+							Assert.assertEquals(gc2.getATCount(), gc1.getATCount());
+							Assert.assertEquals(gc2.getStart(), gc1.getStart());
+							Assert.assertEquals(gc2.getEnd(), gc1.getEnd());
+							}
+						}
+					}
+				}
+			}
+		}
+	
+	@Test
+	public void testRotavirus() throws IOException {
+		final Path dir = Files.createTempDirectory("tmp.");
+		try {
+			for(final String suffix: new String[] {".fa",".fa.fai",".dict"}) {
+				Files.copy(Paths.get(support.resource("rotavirus_rf"+suffix)), dir.resolve("rotavirus_rf"+suffix));
+				}
+			compare(dir.resolve("rotavirus_rf.fa"));
+			}
+		finally
+			{
+			IOUtil.deleteDirectoryTree(dir.toFile());
+			}
+		}
+	
+	@Test
+	public void testMaskedBases() throws IOException {
+		final Path dir = Files.createTempDirectory("tmp.");
+		try {
+			final Path fasta = dir.resolve("ref.fa");
+			final Random rand = new Random(0L);
+			final String alphabet = "ACGTACGTACGTacgtNNNNnSWRYsw";
+			try(FastaReferenceWriter w = new FastaReferenceWriterBuilder().
+					setFastaFile(fasta).
+					setMakeFaiOutput(true).
+					setMakeDictOutput(true).
+					build()) {
+				for(final int len: new int[] {1,3,4,63,64,65,1_000,10_003}) {
+					final byte[] bases = new byte[len];
+					int i=0;
+					while(i< len) {
+						final byte c = (byte)alphabet.charAt(rand.nextInt(alphabet.length()));
+						/* make runs of the same base */
+						final int n = 1 + rand.nextInt(rand.nextInt(10)==0?100:3);
+						for(int j=0;j< n && i< len;j++) bases[i++]=c;
+						}
+					w.appendSequence("chr"+len, null, bases);
+					}
+				}
+			compare(fasta);
+			final Path packedPath = PackedReference.getDefaultPackedPath(fasta);
+			final FileTime t1 = Files.getLastModifiedTime(packedPath);
+			/* not rebuilt */
+			PackedReference.open(fasta).close();
+			Assert.assertEquals(Files.getLastModifiedTime(packedPath), t1);
+			/* rebuilt if the fasta changes */
+			Files.setLastModifiedTime(fasta, FileTime.fromMillis(Files.getLastModifiedTime(fasta).toMillis() + 60_000L));
+			Files.setLastModifiedTime(packedPath, FileTime.fromMillis(0L));
+			compare(fasta);
+			Assert.assertNotEquals(Files.getLastModifiedTime(packedPath).toMillis(), 0L);
+			}
+		finally
+			{
+			IOUtil.deleteDirectoryTree(dir.toFile());
+			}
+		}
+	}
@@ -0,0 +1,139 @@
+package com.github.lindenb.jvarkit.samtools;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.lindenb.jvarkit.tools.tests.TestSupport;
+
+import htsjdk.samtools.AlignmentBlock;
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMRecordIterator;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
+import htsjdk.samtools.TextCigarCodec;
+
+public class DepthAccumulatorTest {
+	private final TestSupport support = new TestSupport();
+
+	private List<SAMRecord> readAll(final String contig) throws IOException {
+		final List<SAMRecord> L = new ArrayList<>();
+		try(SamReader sr = SamReaderFactory.makeDefault().open(Paths.get(support.resource("S1.bam")))) {
+			try(SAMRecordIterator iter = sr.query(contig, 0, 0, false)) {
+				while(iter.hasNext()) L.add(iter.next());
+				}
+			}
+		return L;
+		}
+
+	@Test
+	public void testSameAsAlignmentBlocks() throws IOException {
+		final int start=100,end=1000;
+		final DepthAccumulator depth = new DepthAccumulator().setMappingQuality(10);
+		for(final String contig: new String[] {"RF01","RF02"}) {
+			final int[] expect = new int[end-start+1];
+			final List<SAMRecord> records = readAll(contig);
+			for(final SAMRecord rec:records) {
+				if(rec.getReadUnmappedFlag() || rec.getMappingQuality()<10) continue;
+				for(final AlignmentBlock ab:rec.getAlignmentBlocks()) {
+					for(int i=0;i< ab.getLength();i++) {
+						final int pos1 = ab.getReferenceStart()+i;
+						if(pos1>=start && pos1<=end) expect[pos1-start]++;
+						}
+					}
+				}
+			// buffer is re-used for the second contig
+			depth.reset(contig, start, end);
+			records.forEach(R->depth.add(R));
+			Assert.assertEquals(depth.getLength(), expect.length);
+			Assert.assertEquals(depth.toIntArray(), expect);
+			final int[] copy = new int[expect.length+2];
+			depth.copyTo(copy, 1);
+			for(int i=0;i< expect.length;i++) {
+				Assert.assertEquals(copy[i+1], expect[i]);
+				Assert.assertEquals(depth.getDepth(start+i), expect[i]);
+				}
+			}
+		}
+
+	private SAMRecord makeRecord(final SAMFileHeader header,final int start,final String cigar,final int mateStart) {
+		final SAMRecord rec = new SAMRecord(header);
+		rec.setReadName("r1");
+		rec.setReferenceName("chr1");
+		rec.setAlignmentStart(start);
+		rec.setCigar(TextCigarCodec.decode(cigar));
+		rec.setMappingQuality(60);
+		rec.setReadPairedFlag(true);
+		rec.setMateReferenceName("chr1");
+		rec.setMateAlignmentStart(mateStart);
+		return rec;
+		}
+
+	@Test
+	public void testMateOverlapAndClipping() {
+		final SAMFileHeader header = new SAMFileHeader();
+		header.addSequence(new SAMSequenceRecord("chr1", 100));
+		final SAMRecord rec = makeRecord(header, 10, "2S5M2D5M", 15);
+		final DepthAccumulator depth = new DepthAccumulator().reset("chr1", 1, 30);
+
+		depth.add(rec);
+		Assert.assertEquals(depth.getDepth(9), 0);
+		Assert.assertEquals(depth.getDepth(10), 1);
+		Assert.assertEquals(depth.getDepth(14), 1);
+		Assert.assertEquals(depth.getDepth(15), 0);
+		Assert.assertEquals(depth.getDepth(16), 0);
+		Assert.assertEquals(depth.getDepth(17), 1);
+		Assert.assertEquals(depth.getDepth(21), 1);
+		Assert.assertEquals(depth.getDepth(22), 0);
+
+		depth.reset("chr1", 1, 30).setMateOverlapRemoval(true);
+		depth.add(rec);
+		Assert.assertEquals(depth.getDepth(14), 1);
+		Assert.assertEquals(depth.getDepth(15), 0);
+		Assert.assertEquals(depth.getDepth(17), 0);
+
+		depth.reset("chr1", 1, 30).setMateOverlapRemoval(false).setUseClipping(true);
+		depth.add(rec);
+		Assert.assertEquals(depth.getDepth(7), 0);
+		Assert.assertEquals(depth.getDepth(8), 1);
+		Assert.assertEquals(depth.getDepth(9), 1);
+		Assert.assertEquals(depth.getDepth(21), 1);
+
+		depth.reset("chr1", 1, 30).setUseClipping(false).setMappingQuality(61);
+		Assert.assertFalse(depth.add(rec));
+		Assert.assertEquals(depth.getDepth(10), 0);
+		}
+	
+	@Test
+	public void testAddAfterDepth() {
+		final DepthAccumulator depth = new DepthAccumulator().reset("chr1", 1, 10);
+		depth.addBlock(2, 5);
+		Assert.assertEquals(depth.toIntArray(), new int[] {0,1,1,1,1,0,0,0,0,0});
+		// prefix-sum was done in place, adding a block must still work
+		depth.addBlock(4, 10);
+		depth.addBlock(1, 1);
+		Assert.assertEquals(depth.toIntArray(), new int[] {1,1,1,2,2,1,1,1,1,1});
+		Assert.assertEquals(depth.getDepth(10), 1);
+		}
+	
+	@Test
+	public void testCallerBuffer() {
+		final int[] buffer = new int[] {9,9,9,9,9};
+		final DepthAccumulator depth = new DepthAccumulator().reset("chr1", 11, buffer);
+		Assert.assertEquals(depth.getEnd(), 15);
+		depth.addBlock(1, 12);
+		depth.addBlock(14, 100);
+		Assert.assertSame(depth.getDepthArray(), buffer);
+		Assert.assertEquals(buffer, new int[] {1,1,0,1,1});
+		// the caller's buffer is not re-used for the next window
+		depth.reset("chr1", 1, 5);
+		Assert.assertNotSame(depth.getDepthArray(), buffer);
+		Assert.assertEquals(buffer, new int[] {1,1,0,1,1});
+		}
+	}
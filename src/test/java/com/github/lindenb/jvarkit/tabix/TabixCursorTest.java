@@ -0,0 +1,67 @@
+package com.github.lindenb.jvarkit.tabix;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.github.lindenb.jvarkit.tools.tests.TestSupport;
+
+import htsjdk.tribble.readers.TabixReader;
+
+public class TabixCursorTest {
+	private final TestSupport support = new TestSupport();
+
+	@DataProvider(name = "src1")
+	public Object[][] createData1() {
+		return new Object[][]{
+			{support.resource("Homo_sapiens.GRCh37.87.gtf.gz")},
+			{support.resource("gnomad_v2_sv.sites.vcf.gz")},
+			{support.resource("toy.bed.gz")},
+			{support.resource("rotavirus_rf.vcf.gz")}
+			};
+		}
+
+	private static List<String> toList(final TabixReader.Iterator iter) throws IOException {
+		final List<String> L = new ArrayList<>();
+		for(;;) {
+			final String s = iter.next();
+			if(s==null) break;
+			L.add(s);
+			}
+		return L;
+		}
+
+	@Test(dataProvider="src1")
+	public void testSortedQueries(final String uri) throws IOException {
+		try(TabixReader tbr = new TabixReader(uri)) {
+			try(TabixCursor cursor = TabixCursor.open(uri)) {
+				Assert.assertNotNull(cursor);
+				for(final String contig: new java.util.TreeSet<>(tbr.getChromosomes())) {
+					int beg = 0;
+					for(int i=0;i< 200;i++) {
+						beg += support.random.nextInt(5_000);
+						final int end = beg + 1 + support.random.nextInt(10_000);
+						final List<String> L = cursor.query(contig, beg, end);
+						Assert.assertNotNull(L);
+						Assert.assertEquals(L, toList(tbr.query(contig, beg, end)));
+						}
+					}
+				}
+			}
+		}
+
+	@Test(dataProvider="src1")
+	public void testOutOfOrder(final String uri) throws IOException {
+		try(TabixReader tbr = new TabixReader(uri)) {
+			try(TabixCursor cursor = TabixCursor.open(uri)) {
+				final String contig = tbr.getChromosomes().iterator().next();
+				Assert.assertNotNull(cursor.query(contig, 1000, 2000));
+				Assert.assertNull(cursor.query(contig, 10, 20));
+				}
+			}
+		}
+}
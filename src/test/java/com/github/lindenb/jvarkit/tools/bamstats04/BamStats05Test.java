@@ -73,6 +73,14 @@ public void test1(final String inBam) throws IOException {
 	
 	Assert.assertEquals(new BamStats05().instanceMain(args),0);
 	support.assertTsvTableIsConsitent(out, null);
+	
+	// same output using several threads
+	final Path out2 = support.createTmpPath(".txt");
+	args.set(1, out2.toString());
+	args.add("--threads");
+	args.add("3");
+	Assert.assertEquals(new BamStats05().instanceMain(args),0);
+	Assert.assertEquals(Files.readAllLines(out2), Files.readAllLines(out));
 	} finally {
 		support.removeTmpFiles();
 	}
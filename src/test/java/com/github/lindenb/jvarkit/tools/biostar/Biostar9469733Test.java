@@ -0,0 +1,62 @@
+package com.github.lindenb.jvarkit.tools.biostar;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.lindenb.jvarkit.tools.tests.TestSupport;
+
+public class Biostar9469733Test {
+	private final TestSupport support = new TestSupport();
+
+	private List<String> reads(final Path bam) {
+		/* reads sharing the same coordinate in two BAMs may be merged in another order */
+		return support.samStream(bam).map(R->R.getSAMString()).sorted().collect(Collectors.toList());
+		}
+
+	@Test
+	public void testRegionParallel() throws IOException {
+		try {
+			final Path bed = support.createTmpPath(".bed");
+			try(BufferedWriter w = Files.newBufferedWriter(bed)) {
+				w.write("RF01\t100\t1500\nRF02\t0\t2000\nRF03\t500\t600\nRF03\t700\t2500\nRF05\t10\t1000\n");
+				}
+			final List<String> args = new ArrayList<>();
+			args.add("--regions");
+			args.add(bed.toString());
+			for(int i=1;i<=5;i++) args.add(support.resource("S"+i+".bam"));
+			
+			final Path out1 = support.createTmpPath(".bam");
+			final List<String> args1 = new ArrayList<>(args);
+			args1.add(0,out1.toString());
+			args1.add(0,"-o");
+			Assert.assertEquals(new Biostar9469733().instanceMain(args1),0);
+			support.assertIsValidBam(out1);
+			
+			final Path out2 = support.createTmpPath(".bam");
+			final List<String> args2 = new ArrayList<>(args);
+			args2.add(0,out2.toString());
+			args2.add(0,"-o");
+			args2.add(0,"3");
+			args2.add(0,"--threads");
+			args2.add(0,"200");
+			args2.add(0,"--chunk-size");
+			Assert.assertEquals(new Biostar9469733().instanceMain(args2),0);
+			support.assertIsValidBam(out2);
+			
+			final List<String> L1 = reads(out1);
+			Assert.assertFalse(L1.isEmpty());
+			Assert.assertEquals(reads(out2), L1);
+			}
+		finally {
+			support.removeTmpFiles();
+			}
+		}
+}
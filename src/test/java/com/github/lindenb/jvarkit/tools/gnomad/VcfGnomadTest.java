@@ -1,7 +1,9 @@
 package com.github.lindenb.jvarkit.tools.gnomad;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.stream.Collectors;
 
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
@@ -11,6 +13,8 @@ import com.github.lindenb.jvarkit.tests.AlsoTest;
 import com.github.lindenb.jvarkit.tools.tests.TestSupport;
 import com.github.lindenb.jvarkit.util.jcommander.LauncherTest;
 
+import htsjdk.samtools.util.IOUtil;
+
 
 @AlsoTest(LauncherTest.class)
 public class VcfGnomadTest {
@@ -45,4 +49,48 @@ public void test01(final String vcfpath,final String gnomad) throws IOException
 
 
 
+@DataProvider(name="src02")
+public Object[][] testData02() {
+	return new Object[][] {
+		{support.resource("test_vcf01.vcf"),support.resource("gnomad.exomes.r2.0.1.sites.vcf.gz")},
+		{support.resource("test_vcf01.vcf"),support.resource("gnomad.genomes.r2.0.1.sites.1.vcf.gz")}
+	};
+}
+
+@Test(dataProvider="src02")
+public void testColumnStore(final String vcfpath,final String gnomad) throws IOException {
+	Path storeDir = null;
+	try {
+		storeDir = Files.createTempDirectory("tmp.");
+		final Path vcfOut1 = support.createTmpPath(".vcf");
+		Assert.assertEquals(new VcfGnomad().instanceMain(new String[]{
+				"-o",vcfOut1.toString(),
+				"-g",gnomad,
+				"--max-af","0.01",
+				vcfpath
+				}),0);
+		support.assertIsVcf(vcfOut1);
+		
+		final Path vcfOut2 = support.createTmpPath(".vcf");
+		Assert.assertEquals(new VcfGnomad().instanceMain(new String[]{
+				"-o",vcfOut2.toString(),
+				"-g",gnomad,
+				"--max-af","0.01",
+				"--column-store",storeDir.toString(),
+				vcfpath
+				}),0);
+		support.assertIsVcf(vcfOut2);
+		
+		Assert.assertEquals(
+			Files.lines(vcfOut1).filter(L->!L.startsWith("#")).collect(Collectors.toList()),
+			Files.lines(vcfOut2).filter(L->!L.startsWith("#")).collect(Collectors.toList())
+			);
+		}
+	finally
+		{
+		if(storeDir!=null) IOUtil.deleteDirectoryTree(storeDir.toFile());
+		support.removeTmpFiles();
+		}
+	}
+
 }
@@ -0,0 +1,51 @@
+package com.github.lindenb.jvarkit.tools.misc;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.github.lindenb.jvarkit.tools.tests.TestSupport;
+
+public class VcfNoCallToHomRefTest {
+	private final TestSupport support  = new TestSupport();
+
+	@DataProvider(name = "src1")
+	public Object[][] createData1() {
+		return new Object[][]{
+			{"rotavirus_rf.vcf.gz",".vcf.gz"},
+			{"rotavirus_rf.vcf.gz",".vcf"},
+			{"S1.vcf.gz",".vcf.gz"}
+			};
+		}
+	
+	private List<String> variants(final Path vcf) {
+		return support.variantStream(vcf).map(V->V.toStringDecodeGenotypes()).collect(Collectors.toList());
+		}
+
+	@Test(dataProvider="src1")
+	public void testShards(final String vcf,final String suffix) throws IOException {
+		try {
+			final Path out1 = support.createTmpPath(suffix);
+			Assert.assertEquals(new VcfNoCallToHomRef().instanceMain(new String[] {
+				"-o",out1.toString(),
+				support.resource(vcf)
+				}),0);
+			final Path out2 = support.createTmpPath(suffix);
+			Assert.assertEquals(new VcfNoCallToHomRef().instanceMain(new String[] {
+				"-o",out2.toString(),
+				"--shards","3",
+				support.resource(vcf)
+				}),0);
+			support.assertIsVcf(out2);
+			Assert.assertEquals(variants(out2), variants(out1));
+			}
+		finally {
+			support.removeTmpFiles();
+			}
+		}
+}
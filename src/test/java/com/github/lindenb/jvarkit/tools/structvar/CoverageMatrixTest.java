@@ -0,0 +1,52 @@
+package com.github.lindenb.jvarkit.tools.structvar;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.lindenb.jvarkit.tests.AlsoTest;
+import com.github.lindenb.jvarkit.tools.tests.TestSupport;
+import com.github.lindenb.jvarkit.util.jcommander.LauncherTest;
+
+@AlsoTest(LauncherTest.class)
+public class CoverageMatrixTest {
+	private final TestSupport support = new TestSupport();
+
+	private List<String> run(final String... extra) throws IOException {
+		final Path out = support.createTmpPath(".vcf");
+		final List<String> args = new ArrayList<>(Arrays.asList(
+			"-R",support.resource("rotavirus_rf.fa"),
+			"--bin-size","50",
+			"-o",out.toString()
+			));
+		args.addAll(Arrays.asList(extra));
+		for(int i=1;i<=5;i++) args.add(support.resource("S"+i+".bam"));
+		Assert.assertEquals(new CoverageMatrix().instanceMain(args),0);
+		support.assertIsVcf(out);
+		return support.variantStream(out).
+			map(V->V.getContig()+":"+V.getStart()+":"+V.getGenotypes().stream().
+				map(G->G.getGenotypeString()+"/"+G.getExtendedAttribute("D")).
+				collect(Collectors.joining(";"))).
+			collect(Collectors.toList());
+		}
+
+	@Test
+	public void testThreads() throws IOException {
+		try {
+			final List<String> L1 = run();
+			Assert.assertFalse(L1.isEmpty());
+			Assert.assertEquals(run("--threads","3"),L1);
+			/* small number of records in RAM: matrix is memory-mapped */
+			Assert.assertEquals(run("--threads","2","--maxRecordsInRam","10"),L1);
+			}
+		finally {
+			support.removeTmpFiles();
+			}
+		}
+	}
@@ -3,6 +3,7 @@ package com.github.lindenb.jvarkit.tools.vcfcomposite;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.stream.Collectors;
 
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
@@ -54,4 +55,38 @@ public class VCFCompositeTest {
 			support.removeTmpFiles();
 			}
 		}
+	
+	@Test(dataProvider="src1")
+	public void testSortThreads(final String inputFile) 
+		throws IOException
+		{
+		try {
+			final Path ped = support.createRandomPedigreeFromFile(inputFile);
+			if(ped==null) return;
+			if(Files.lines(ped).noneMatch(L->L.endsWith("1"))) return;
+			if(Files.lines(ped).noneMatch(L->L.endsWith("0"))) return;
+			final Path output1 = support.createTmpPath(".vcf");
+	        Assert.assertEquals(new VCFComposite().instanceMain(new String[] {
+	        		"-o",output1.toString(),
+	        		"--pedigree",ped.toString(),
+	        		inputFile}),0);
+			final Path output2 = support.createTmpPath(".vcf");
+	        Assert.assertEquals(new VCFComposite().instanceMain(new String[] {
+	        		"-o",output2.toString(),
+	        		"--pedigree",ped.toString(),
+	        		"--sort-threads","3",
+	        		"--maxRecordsInRam","10",
+	        		inputFile}),0);
+	        support.assertIsVcf(output2);
+	        /* records at the same position are not in a stable order */
+	        Assert.assertEquals(
+	        	support.variantStream(output2).map(V->V.toStringDecodeGenotypes()).sorted().collect(Collectors.toList()),
+	        	support.variantStream(output1).map(V->V.toStringDecodeGenotypes()).sorted().collect(Collectors.toList())
+	        	);
+			} 
+		finally
+			{	
+			support.removeTmpFiles();
+			}
+		}
 }
@@ -1,11 +1,13 @@
 package com.github.lindenb.jvarkit.tools.vcfmerge;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -54,4 +56,17 @@ public void testRegion() throws IOException
 	final Interval interval = support.randomIntervalsFromDict(Paths.get(support.resource("rotavirus_rf.fa")),1,1000).get(0);
 	basetest("--region "+interval.getContig()+":"+interval.getStart()+"-"+interval.getEnd());
 	}
+
+@Test
+public void testStreaming() throws IOException
+	{
+	for(final String args: new String[] {"","-hr","--region RF02:100-2000"}) {
+		final Path out1 = basetest(args);
+		final Path out2 = basetest(args+" --streaming");
+		final Path out3 = basetest(args+" --streaming --threads 3");
+		final List<String> expect = Files.lines(out1).filter(L->!L.startsWith("##")).collect(Collectors.toList());
+		Assert.assertEquals(Files.lines(out2).filter(L->!L.startsWith("##")).collect(Collectors.toList()), expect);
+		Assert.assertEquals(Files.lines(out3).filter(L->!L.startsWith("##")).collect(Collectors.toList()), expect);
+		}
+	}
 }
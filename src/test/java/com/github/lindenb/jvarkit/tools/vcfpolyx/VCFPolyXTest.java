@@ -2,6 +2,8 @@ package com.github.lindenb.jvarkit.tools.vcfpolyx;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
@@ -43,4 +45,31 @@ public class VCFPolyXTest {
 			support.removeTmpFiles();
 			}
 		}
+	
+	@Test(dataProvider="src1")
+	public void testThreads(final String vcf,final String ref,int n) throws IOException {
+		try {
+			final Path out1 = support.createTmpPath(".vcf");
+			Assert.assertEquals( new VCFPolyX().instanceMain(new String[] {
+						"-o",out1.toString(),
+						"-R",ref,
+						vcf
+				}),0);
+			final Path out2 = support.createTmpPath(".vcf");
+			Assert.assertEquals( new VCFPolyX().instanceMain(new String[] {
+						"-o",out2.toString(),
+						"-R",ref,
+						"--threads","3",
+						"--threads-batch-size","2",
+						vcf
+				}),0);
+			support.assertIsVcf(out2);
+			final List<String> L1 = support.variantStream(out1).map(V->V.toStringDecodeGenotypes()).collect(Collectors.toList());
+			final List<String> L2 = support.variantStream(out2).map(V->V.toStringDecodeGenotypes()).collect(Collectors.toList());
+			Assert.assertEquals(L1,L2);
+			}
+		finally {
+			support.removeTmpFiles();
+			}
+		}
 }
@@ -1,6 +1,7 @@
 package com.github.lindenb.jvarkit.tools.vcfstats;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
@@ -50,4 +51,28 @@ public class VcfStatsTest  {
 			support.removeTmpFiles();
 		}
 		}
+	
+	@DataProvider(name = "src2")
+	public Object[][] createData2() {
+		return new Object[][] {
+			{"S1.vcf.gz"},
+			{"rotavirus_rf.vcf.gz"},
+			{"gnomad_v2_sv.sites.vcf.gz"}
+			};
+		}
+	
+	@Test(dataProvider="src2")
+	public void testThreads(final String vcf) throws IOException {
+		try {
+			final String inputFile = support.resource(vcf);
+			final Path output1 = support.createTmpPath(".R");
+			Assert.assertEquals(0,new VcfStats().instanceMain(new String[] {"-o",output1.toString(),inputFile}));
+			final Path output2 = support.createTmpPath(".R");
+			Assert.assertEquals(0,new VcfStats().instanceMain(new String[] {"-o",output2.toString(),"--threads","3","--chunk-size","1000000",inputFile}));
+			Assert.assertEquals(Files.readAllLines(output2),Files.readAllLines(output1));
+			}
+		finally {
+			support.removeTmpFiles();
+			}
+		}
 	}
@@ -1,9 +1,16 @@
 package com.github.lindenb.jvarkit.tools.vcfvcf;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
 
 import com.github.lindenb.jvarkit.tests.AlsoTest;
 import com.github.lindenb.jvarkit.tools.tests.TestSupport;
@@ -11,6 +18,7 @@ import com.github.lindenb.jvarkit.util.jcommander.LauncherTest;
 import com.github.lindenb.jvarkit.variant.vcf.VCFReaderFactory;
 
 import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.samtools.util.IOUtil;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFConstants;
 import htsjdk.variant.vcf.VCFReader;
@@ -159,4 +167,69 @@ public void testAF02()
 			}
 		}
 
+
+@DataProvider(name="src_store")
+public Object[][] createStoreParams() {
+	return new Object[][] {
+		{"ACAN",false},
+		{"ACAN",true},
+		{"AF",false},
+		{"AF",true}
+		};
+	}
+
+@Test(dataProvider="src_store")
+public void testColumnStore(final String peeker,final boolean noAlt)
+		throws IOException
+		{
+		Path storeDir = null;
+		try {
+			final String vcfin = support.resource("ExAC.r1.sites.vep.vcf.gz");
+			storeDir = Files.createTempDirectory("tmp.");
+			final List<String> args = new ArrayList<>(Arrays.asList(
+					"--peeker",peeker,
+					"--treshold","0.001",
+					"--filter","HIGH_AF",
+					"--tag","PEEKAF",
+					"--database",vcfin
+					));
+			if(noAlt) args.add("--no-alt");
+
+			final Path out1=support.createTmpPath(".vcf");
+			final List<String> args1 = new ArrayList<>(args);
+			args1.addAll(Arrays.asList("-o",out1.toString(),vcfin));
+			Assert.assertEquals(new VcfPeekAf().instanceMain(args1),0);
+			support.assertIsVcf(out1);
+
+			/* twice: compile the store, then re-use it */
+			for(int i=0;i< 2;i++) {
+				final Path out2=support.createTmpPath(".vcf");
+				final List<String> args2 = new ArrayList<>(args);
+				args2.addAll(Arrays.asList("--column-store",storeDir.toString(),"-o",out2.toString(),vcfin));
+				Assert.assertEquals(new VcfPeekAf().instanceMain(args2),0);
+				support.assertIsVcf(out2);
+
+				final List<VariantContext> L1 = support.variantStream(out1).collect(Collectors.toList());
+				final List<VariantContext> L2 = support.variantStream(out2).collect(Collectors.toList());
+				Assert.assertEquals(L1.size(), L2.size());
+				for(int j=0;j< L1.size();j++) {
+					final VariantContext v1 = L1.get(j);
+					final VariantContext v2 = L2.get(j);
+					Assert.assertEquals(v1.getStart(), v2.getStart());
+					Assert.assertEquals(v1.getFilters(), v2.getFilters());
+					final List<Double> af1 = v1.getAttributeAsDoubleList("PEEKAF",-1.0);
+					final List<Double> af2 = v2.getAttributeAsDoubleList("PEEKAF",-1.0);
+					Assert.assertEquals(af1.size(), af2.size());
+					for(int k=0;k< af1.size();k++) {
+						Assert.assertEquals(af1.get(k), af2.get(k),1E-6);
+						}
+					}
+				}
+			}
+		finally {
+			if(storeDir!=null) IOUtil.deleteDirectoryTree(storeDir.toFile());
+			support.removeTmpFiles();
+			}
+		}
+
 }
@@ -0,0 +1,112 @@
+package com.github.lindenb.jvarkit.util.bio.structure;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.lindenb.jvarkit.tools.tests.TestSupport;
+
+import htsjdk.samtools.util.Interval;
+import htsjdk.samtools.util.Locatable;
+
+public class GeneModelIndexTest {
+	private final TestSupport support = new TestSupport();
+
+	private static int distance(final Locatable a,final Locatable b) {
+		if(a.overlaps(b)) return 0;
+		return a.getEnd() < b.getStart() ? b.getStart() - a.getEnd() : a.getStart() - b.getEnd();
+		}
+	
+	private static List<Interval> sorted(final List<Interval> L) {
+		return L.stream().sorted(Comparator.comparing(Interval::getContig).
+				thenComparingInt(Interval::getStart).
+				thenComparingInt(Interval::getEnd).
+				thenComparing(Interval::getName)).
+				collect(Collectors.toList());
+		}
+	
+	@Test
+	public void testRandom() {
+		final Random rand = new Random(0L);
+		for(int n: new int[] {0,1,2,7,16,100,1000}) {
+			final List<Interval> features = new ArrayList<>(n);
+			for(int i=0;i< n;i++) {
+				final String contig = rand.nextBoolean()?"chr1":"chr2";
+				final int start = 1 + rand.nextInt(10_000);
+				final int len = rand.nextInt(10)==0 ? rand.nextInt(5_000) : rand.nextInt(100);
+				features.add(new Interval(contig, start, start + len, false, "f"+i));
+				}
+			final GeneModelIndex<Interval> index = GeneModelIndex.of(features);
+			Assert.assertEquals(index.size(), n);
+			for(int q=0;q< 500;q++) {
+				final int start = 1 + rand.nextInt(11_000);
+				final Interval query = new Interval(rand.nextBoolean()?"chr1":"chr3", start, start + rand.nextInt(200));
+				final List<Interval> expect = features.stream().filter(F->F.overlaps(query)).collect(Collectors.toList());
+				Assert.assertEquals(sorted(index.getOverlapping(query)), sorted(expect));
+				Assert.assertEquals(index.countOverlapping(query), expect.size());
+				Assert.assertEquals(index.containsOverlapping(query), !expect.isEmpty());
+				
+				final Optional<Interval> nearest = index.getNearest(query);
+				final int best = features.stream().filter(F->F.contigsMatch(query)).mapToInt(F->distance(F, query)).min().orElse(-1);
+				if(best < 0) {
+					Assert.assertFalse(nearest.isPresent());
+					}
+				else
+					{
+					Assert.assertTrue(nearest.isPresent());
+					Assert.assertEquals(distance(nearest.get(), query), best);
+					}
+				}
+			}
+		}
+	
+	@Test
+	public void testNestedQueries() {
+		final Random rand = new Random(1L);
+		final List<Interval> features = new ArrayList<>();
+		for(int i=0;i< 1000;i++) {
+			final int start = 1 + rand.nextInt(10_000);
+			features.add(new Interval("chr1", start, start + rand.nextInt(500), false, "f"+i));
+			}
+		final GeneModelIndex<Interval> index1 = GeneModelIndex.of(features);
+		final GeneModelIndex<Interval> index2 = GeneModelIndex.of(features.subList(0, 500));
+		final Interval query = new Interval("chr1", 2_000, 6_000);
+		final List<Interval> outer = new ArrayList<>();
+		index1.forEachOverlapping(query, F->{
+			outer.add(F);
+			/* queries from the consumer must not alter the outer traversal */
+			Assert.assertEquals(sorted(index1.getOverlapping(F)), sorted(features.stream().filter(X->X.overlaps(F)).collect(Collectors.toList())));
+			index2.countOverlapping(F);
+			});
+		Assert.assertEquals(sorted(outer), sorted(features.stream().filter(F->F.overlaps(query)).collect(Collectors.toList())));
+		final List<Interval> L = index1.getOverlapping(query);
+		for(int i=1;i< L.size();i++) {
+			Assert.assertTrue(L.get(i-1).getStart() <= L.get(i).getStart());
+			}
+		}
+	
+	@Test
+	public void testGtf() throws IOException {
+		final List<Gene> genes;
+		try(GtfReader gtfReader = new GtfReader(support.resource("Homo_sapiens.GRCh37.87.gtf.gz"))) {
+			genes = gtfReader.getAllGenes();
+			}
+		final Interval query = new Interval("1", 120535404, 120535404);
+		Assert.assertEquals(GeneModelIndex.ofGenes(genes).getOverlapping(query).stream().map(G->G.getId()).collect(Collectors.toList()),
+				java.util.Collections.singletonList("ENSG00000134250"));
+		final List<String> transcripts = GeneModelIndex.ofTranscripts(genes).getOverlapping(query).stream().map(T->T.getId()).sorted().collect(Collectors.toList());
+		Assert.assertEquals(transcripts, genes.stream().flatMap(G->G.getTranscripts().stream()).filter(T->T.overlaps(query)).map(T->T.getId()).sorted().collect(Collectors.toList()));
+		Assert.assertTrue(transcripts.contains("ENST00000602566"));
+		final GeneModelIndex<Exon> exons = GeneModelIndex.ofExons(genes);
+		Assert.assertTrue(exons.getOverlapping(query).stream().allMatch(E->E.overlaps(query)));
+		Assert.assertEquals(GeneModelIndex.ofGenes(genes).getNearest(new Interval("1", 1, 1)).get().getId(), "ENSG00000134250");
+		Assert.assertFalse(GeneModelIndex.ofGenes(genes).getNearest(new Interval("X", 1, 1)).isPresent());
+		}
+	}
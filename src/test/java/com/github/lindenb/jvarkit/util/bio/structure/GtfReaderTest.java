@@ -1,7 +1,14 @@
 package com.github.lindenb.jvarkit.util.bio.structure;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
 import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -43,4 +50,50 @@ void test01() throws IOException {
 		
 		}
 	}
+
+@Test
+void testGeneModelCache() throws IOException {
+	try {
+		final Path gtf = support.createTmpPath(".gtf.gz");
+		Files.copy(Paths.get(support.resource("Homo_sapiens.GRCh37.87.gtf.gz")), gtf, StandardCopyOption.REPLACE_EXISTING);
+		final List<Gene> expect;
+		try(GtfReader gf = new GtfReader(gtf)) {
+			expect = gf.setUseGeneModelCache(false).getAllGenes();
+			}
+		final Path cachePath = GeneModelCache.getDefaultCachePath(gtf);
+		support.deleteOnExit(cachePath);
+		for(int i=0;i< 2;i++) {
+			final List<Gene> genes;
+			try(GtfReader gf = new GtfReader(gtf)) {
+				genes = gf.setUseGeneModelCache(true).getAllGenes();
+				}
+			Assert.assertTrue(Files.exists(cachePath));
+			Assert.assertEquals(dump(genes), dump(expect));
+			}
+		try(GtfReader gf = new GtfReader(gtf)) {
+			gf.setContigNameConverter(C->C.equals("1")?"chr1":null);
+			final List<Gene> genes = gf.setUseGeneModelCache(true).getAllGenes();
+			Assert.assertFalse(genes.isEmpty());
+			Assert.assertTrue(genes.stream().allMatch(G->G.getContig().equals("chr1")));
+			}
+		}
+	finally
+		{
+		support.removeTmpFiles();
+		}
+	}
+
+private static String dump(final List<Gene> genes) {
+	return genes.stream().
+		sorted(Comparator.comparing(G->G.getId())).
+		map(G->G.getId()+" "+G.getContig()+":"+G.getStart()+"-"+G.getEnd()+G.getStrand()+" "+new TreeMap<>(G.getProperties())+"\n"+
+			G.getTranscripts().stream().map(T->T.getId()+" "+T.getStart()+"-"+T.getEnd()+T.getStrand()+
+				" coding:"+T.isCoding()+
+				" start:"+T.getCodonStart().map(C->C.getStart()+"/"+C.getEnd()).orElse(".")+
+				" stop:"+T.getCodonStop().map(C->C.getStart()+"/"+C.getEnd()).orElse(".")+
+				" exons:"+T.getExons().stream().map(E->E.getStart()+"-"+E.getEnd()).collect(Collectors.joining(","))+
+				" "+new TreeMap<>(T.getProperties())).
+				collect(Collectors.joining("\n"))).
+		collect(Collectors.joining("\n"));
+	}
 }
@@ -0,0 +1,138 @@
+package com.github.lindenb.jvarkit.util.picard;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.github.lindenb.jvarkit.io.IOUtils;
+
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.samtools.util.IOUtil;
+
+public class ParallelSortingCollectionTest {
+	private static class IntCodec extends AbstractDataCodec<Integer> {
+		@Override
+		public Integer decode(final DataInputStream dis) throws IOException {
+			return dis.readInt();
+			}
+		@Override
+		public void encode(final DataOutputStream dos, final Integer object) throws IOException {
+			dos.writeInt(object);
+			}
+		@Override
+		public IntCodec clone() {
+			return new IntCodec();
+			}
+		}
+	private static class LongCodec extends AbstractDataCodec<Long> {
+		@Override
+		public Long decode(final DataInputStream dis) throws IOException {
+			return dis.readLong();
+			}
+		@Override
+		public void encode(final DataOutputStream dos, final Long object) throws IOException {
+			dos.writeLong(object);
+			}
+		@Override
+		public LongCodec clone() {
+			return new LongCodec();
+			}
+		}
+	
+	@DataProvider(name="src1")
+	public Object[][] testData() {
+		return new Object[][] {
+			{0,10,1},
+			{5,10,3},
+			{10_000,100_000,3},
+			{10_000,100,1},
+			{10_000,100,3},
+			{12_345,70,4},
+			};
+		}
+	
+	@Test(dataProvider="src1")
+	public void testSort(final int n,final int maxRecordsInRam,final int nThreads) throws IOException {
+		final Path tmpDir = Files.createTempDirectory(IOUtils.getDefaultTmpDir().toPath(), "tmp.");
+		try {
+			final Random rand = new Random(n);
+			final List<Integer> expect = new ArrayList<>(n);
+			final ExternalSorter<Integer> sorter = ParallelSortingCollection.newInstance(Integer.class, new IntCodec(), Integer::compare, maxRecordsInRam, nThreads, tmpDir);
+			for(int i=0;i< n;i++) {
+				final int v = rand.nextInt(1000);
+				expect.add(v);
+				sorter.add(v);
+				}
+			sorter.doneAdding();
+			Collections.sort(expect);
+			final List<Integer> got = new ArrayList<>(n);
+			try(CloseableIterator<Integer> iter = sorter.iterator()) {
+				while(iter.hasNext()) got.add(iter.next());
+				}
+			Assert.assertEquals(got, expect);
+			sorter.cleanup();
+			Assert.assertEquals(Files.list(tmpDir).count(), 0L);
+			}
+		finally {
+			IOUtil.recursiveDelete(tmpDir);
+			}
+		}
+	
+	@Test
+	public void testEarlyClose() throws IOException {
+		final Path tmpDir = Files.createTempDirectory(IOUtils.getDefaultTmpDir().toPath(), "tmp.");
+		try {
+			final ExternalSorter<Integer> sorter = ParallelSortingCollection.newInstance(Integer.class, new IntCodec(), Integer::compare, 10, 2, tmpDir);
+			sorter.setDestructiveIteration(false);
+			for(int i=5_000;i> 0;i--) sorter.add(i);
+			try(CloseableIterator<Integer> iter = sorter.iterator()) {
+				Assert.assertEquals(iter.stream().limit(5).collect(Collectors.toList()), List.of(1,2,3,4,5));
+				}
+			sorter.cleanup();
+			Assert.assertEquals(Files.list(tmpDir).count(), 0L);
+			}
+		finally {
+			IOUtil.recursiveDelete(tmpDir);
+			}
+		}
+	
+	/** records comparing as equal must be returned in insertion order */
+	@Test(dataProvider="src1")
+	public void testStable(final int n,final int maxRecordsInRam,final int nThreads) throws IOException {
+		final Path tmpDir = Files.createTempDirectory(IOUtils.getDefaultTmpDir().toPath(), "tmp.");
+		try {
+			final Random rand = new Random(n);
+			/* key in the high bits, insertion order in the low bits, only the key is compared */
+			final Comparator<Long> cmp = (A,B)->Long.compare(A>>32, B>>32);
+			final List<Long> expect = new ArrayList<>(n);
+			final ExternalSorter<Long> sorter = ParallelSortingCollection.newInstance(Long.class, new LongCodec(), cmp, maxRecordsInRam, nThreads, tmpDir);
+			for(int i=0;i< n;i++) {
+				final long v = (((long)rand.nextInt(10))<<32) | i;
+				expect.add(v);
+				sorter.add(v);
+				}
+			Collections.sort(expect, cmp);
+			final List<Long> got = new ArrayList<>(n);
+			try(CloseableIterator<Long> iter = sorter.iterator()) {
+				while(iter.hasNext()) got.add(iter.next());
+				}
+			Assert.assertEquals(got, expect);
+			sorter.cleanup();
+			}
+		finally {
+			IOUtil.recursiveDelete(tmpDir);
+			}
+		}
+	}
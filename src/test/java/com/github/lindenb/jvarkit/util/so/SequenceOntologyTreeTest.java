@@ -29,6 +29,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
 
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
@@ -109,6 +113,34 @@ public class SequenceOntologyTreeTest
 		Assert.assertFalse(t3.isChildrenOf(t2));
 
 		}
+	
+	private static void walkDescendants(final SequenceOntologyTree.Term t,final Set<SequenceOntologyTree.Term> set) {
+		if(!set.add(t)) return;
+		for(final SequenceOntologyTree.Term c:t.getChildren()) walkDescendants(c,set);
+		}
+	
+	@Test
+	public void testClosure() {
+		final SequenceOntologyTree tree = SequenceOntologyTree.createDefault();
+		final SequenceOntologyTree.Term pav = tree.getTermByLabel("protein_altering_variant");
+		final Set<SequenceOntologyTree.Term> expect = new HashSet<>();
+		walkDescendants(pav,expect);
+		Assert.assertEquals(pav.getAllDescendants(), expect);
+		for(final SequenceOntologyTree.Term t:tree.getTerms()) {
+			Assert.assertEquals(t.isChildrenOf(pav), expect.contains(t));
+			}
+		final Predicate<SequenceOntologyTree.Term> predicate1 = tree.createTermPredicate(Collections.singleton(pav), true);
+		final Predicate<SequenceOntologyTree.Term> predicate2 = tree.createTermPredicate(Collections.singleton(pav), false);
+		for(final SequenceOntologyTree.Term t:tree.getTerms()) {
+			Assert.assertEquals(predicate1.test(t), expect.contains(t));
+			Assert.assertEquals(predicate2.test(t), t.equals(pav));
+			}
+		/* terms from another tree */
+		final SequenceOntologyTree tree2 = SequenceOntologyTree.createDefault();
+		Assert.assertTrue(predicate1.test(tree2.getTermByLabel("missense_variant")));
+		Assert.assertFalse(predicate1.test(tree2.getTermByLabel("intron_variant")));
+		Assert.assertTrue(tree2.getTermByLabel("missense_variant").isChildrenOf(pav));
+		}
 	 
 
 	}
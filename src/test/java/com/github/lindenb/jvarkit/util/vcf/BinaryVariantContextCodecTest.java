@@ -0,0 +1,110 @@
+package com.github.lindenb.jvarkit.util.vcf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.github.lindenb.jvarkit.tools.tests.TestSupport;
+
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.vcf.VCFEncoder;
+import htsjdk.variant.vcf.VCFFileReader;
+import htsjdk.variant.vcf.VCFHeader;
+
+public class BinaryVariantContextCodecTest {
+	private final TestSupport support = new TestSupport();
+
+	@DataProvider(name = "src1")
+	public Object[][] createData1() {
+		return support.toArrayArray(support.
+				allVcfOrBcf().
+				map(F->new Object[] {F})
+				);
+		}
+
+	private List<VariantContext> roundTrip(final VCFHeader header,final List<VariantContext> variants) {
+		final BinaryVariantContextCodec codec = new BinaryVariantContextCodec(header);
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		codec.setOutputStream(baos);
+		variants.forEach(V->codec.encode(V));
+		final BinaryVariantContextCodec decoder = codec.clone();
+		decoder.setInputStream(new ByteArrayInputStream(baos.toByteArray()));
+		final List<VariantContext> L = new ArrayList<>(variants.size());
+		for(;;) {
+			final VariantContext ctx = decoder.decode();
+			if(ctx==null) break;
+			L.add(ctx);
+			}
+		return L;
+		}
+
+	@Test(dataProvider="src1")
+	public void testRoundTrip(final String path) throws IOException {
+		try(VCFFileReader r = new VCFFileReader(Paths.get(path),false)) {
+			final VCFHeader header = r.getFileHeader();
+			final VCFEncoder encoder = new VCFEncoder(header, true, false);
+			final List<VariantContext> variants = r.iterator().toList();
+			/* also check variants with decoded genotypes */
+			final List<VariantContext> decoded = new ArrayList<>(variants.size());
+			for(int i=0;i< variants.size();i++) {
+				final VariantContext ctx = variants.get(i);
+				if(i%2==0) ctx.getGenotypes().size();
+				decoded.add(ctx);
+				}
+			final List<VariantContext> variants2 = roundTrip(header, decoded);
+			Assert.assertEquals(variants2.size(), variants.size());
+			for(int i=0;i< variants.size();i++) {
+				final VariantContext ctx1 = variants.get(i);
+				final VariantContext ctx2 = variants2.get(i);
+				Assert.assertEquals(ctx2.getContig(), ctx1.getContig());
+				Assert.assertEquals(ctx2.getStart(), ctx1.getStart());
+				Assert.assertEquals(ctx2.getEnd(), ctx1.getEnd());
+				Assert.assertEquals(ctx2.getAlleles(), ctx1.getAlleles());
+				Assert.assertEquals(encoder.encode(ctx2), encoder.encode(ctx1));
+				Assert.assertEquals(ctx2.getNSamples(), ctx1.getNSamples());
+				}
+			}
+		}
+
+	@Test
+	public void testTypedAttributes() {
+		final VCFHeader header = new VCFHeader();
+		final VariantContext ctx = new VariantContextBuilder(null, "chr1", 10, 11, Arrays.asList(
+				Allele.create("AC", true),
+				Allele.create("<DEL>", false)
+				)).
+				attribute("I", 1).
+				attribute("D", 0.5).
+				attribute("L", Arrays.asList("a","b")).
+				attribute("A", new int[] {1,2}).
+				attribute("F", Boolean.TRUE).
+				filter("LowQual").
+				id("rs1").
+				log10PError(-2.0).
+				make();
+		final VariantContext ctx2 = roundTrip(header, Arrays.asList(ctx)).get(0);
+		Assert.assertEquals(ctx2.getContig(), "chr1");
+		Assert.assertEquals(ctx2.getStart(), 10);
+		Assert.assertEquals(ctx2.getEnd(), 11);
+		Assert.assertEquals(ctx2.getID(), "rs1");
+		Assert.assertEquals(ctx2.getAlleles(), ctx.getAlleles());
+		Assert.assertEquals(ctx2.getPhredScaledQual(), 20.0);
+		Assert.assertEquals(ctx2.getFilters(), ctx.getFilters());
+		Assert.assertEquals(ctx2.getAttribute("I"), 1);
+		Assert.assertEquals(ctx2.getAttribute("D"), 0.5);
+		Assert.assertEquals(ctx2.getAttribute("L"), Arrays.asList("a","b"));
+		Assert.assertEquals(ctx2.getAttribute("A"), Arrays.asList(1,2));
+		Assert.assertEquals(ctx2.getAttribute("F"), Boolean.TRUE);
+		Assert.assertFalse(ctx2.hasGenotypes());
+		}
+	}
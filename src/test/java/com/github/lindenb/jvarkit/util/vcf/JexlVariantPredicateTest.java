@@ -3,16 +3,27 @@ package com.github.lindenb.jvarkit.util.vcf;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiPredicate;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import com.github.lindenb.jvarkit.tools.tests.TestSupport;
 import com.github.lindenb.jvarkit.variant.vcf.VCFReaderFactory;
 
+import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextUtils;
+import htsjdk.variant.variantcontext.VariantContextUtils.JexlVCMatchExp;
+import htsjdk.variant.vcf.VCFIterator;
+import htsjdk.variant.vcf.VCFIteratorBuilder;
 
 public class JexlVariantPredicateTest {
 	private final TestSupport support = new TestSupport();
@@ -38,4 +49,58 @@ public void test01(final String inputFile,final String expr)
 	r.close();
 	}
 
+
+private static Boolean matchOrNull(final List<JexlVCMatchExp> exps,final VariantContext ctx,final Genotype gt) {
+	try {
+		return VariantContextUtils.match(ctx, gt, exps).values().stream().anyMatch(B->B.booleanValue());
+		}
+	catch(final Throwable err) {
+		return null;
+		}
+	}
+
+private static <T> Boolean testOrNull(final Predicate<T> pred,final T t) {
+	try {
+		return pred.test(t);
+		}
+	catch(final Throwable err) {
+		return null;
+		}
+	}
+
+@DataProvider(name = "src2")
+public Object[][] createData2() {
+	return support.allVcfOrBcf().map(F->new Object[] {F}).toArray(Object[][]::new);
+	}
+
+private static List<String> names(final List<String> exprs) {
+	return IntStream.range(0, exprs.size()).mapToObj(i->"e"+i).collect(Collectors.toList());
+	}
+
+@Test(dataProvider="src2")
+public void testSameAsHtsjdk(final String inputFile) 
+	throws IOException
+	{
+	final List<String> variantExprs = Arrays.asList("QUAL > 30","CHROM == \"RF02\" && POS > 100","DP > 10 || FILTER == \"1\"","N_ALLELES > 2","vc.isSNP()","hetCount > 0","NOT_A_KEY > 1");
+	final List<String> genotypeExprs = Arrays.asList("isHet == \"1\"","GQ > 20","DP > 10","isPassFT == \"1\" && isCalled == \"1\"","g.isHomVar()","NOT_A_KEY > 1");
+	try(VCFIterator r = new VCFIteratorBuilder().open(inputFile)) {
+		final List<JexlVCMatchExp> vexps = VariantContextUtils.initializeMatchExps(names(variantExprs), variantExprs);
+		final List<JexlVCMatchExp> gexps = VariantContextUtils.initializeMatchExps(names(genotypeExprs), genotypeExprs);
+		final Predicate<VariantContext> vpred = JexlVariantPredicate.create(variantExprs);
+		final BiPredicate<VariantContext,Genotype> gpred = JexlGenotypePredicate.create(genotypeExprs);
+		int n = 0;
+		while(r.hasNext() && n < 1000) {
+			final VariantContext ctx = r.next();
+			Assert.assertEquals(testOrNull(vpred, ctx), matchOrNull(vexps, ctx, null));
+			for(final String expr : variantExprs) {
+				Assert.assertEquals(testOrNull(JexlVariantPredicate.create(expr), ctx),
+					matchOrNull(VariantContextUtils.initializeMatchExps(Collections.singletonList("v"), Collections.singletonList(expr)), ctx, null));
+				}
+			for(final Genotype gt : ctx.getGenotypes()) {
+				Assert.assertEquals(testOrNull(G->gpred.test(ctx, G), gt), matchOrNull(gexps, ctx, gt));
+				}
+			n++;
+			}
+		}
+	}
 }
@@ -0,0 +1,97 @@
+package com.github.lindenb.jvarkit.util.vcf.predictions;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.lindenb.jvarkit.lang.CharSplitter;
+import com.github.lindenb.jvarkit.tools.tests.TestSupport;
+import com.github.lindenb.jvarkit.util.so.SequenceOntologyTree;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFFileReader;
+import htsjdk.variant.vcf.VCFHeader;
+
+public class PredictionParsersTest {
+	private final TestSupport support = new TestSupport();
+
+	@Test
+	public void testDelimitedFields() {
+		for(final String s: new String[] {"A|B||D","A|B||D||","|","","A","||A"}) {
+			final DelimitedFields fields = new DelimitedFields(s, '|');
+			final String[] expect = CharSplitter.PIPE.split(s);
+			Assert.assertEquals(fields.toArray(), expect, s);
+			for(int i=0;i< expect.length;i++) {
+				Assert.assertEquals(fields.get(i), expect[i]);
+				Assert.assertEquals(DelimitedFields.get(s, '|', i), expect[i]);
+				Assert.assertEquals(fields.isEmpty(i), expect[i].isEmpty());
+				}
+			Assert.assertNull(fields.get(expect.length));
+			Assert.assertNull(DelimitedFields.get(s, '|', expect.length));
+			Assert.assertTrue(fields.isEmpty(expect.length));
+			}
+		}
+
+	@Test
+	public void testAnn() throws IOException {
+		try(VCFFileReader r = new VCFFileReader(Paths.get(support.resource("rotavirus_rf.ann.vcf.gz")),false)) {
+			final AnnPredictionParser parser = new AnnPredictionParserFactory().header(r.getFileHeader()).get();
+			Assert.assertTrue(parser.isValid());
+			for(final VariantContext ctx : r) {
+				final Set<SequenceOntologyTree.Term> terms = parser.getPredictions(ctx).stream().
+						flatMap(P->P.getSOTerms().stream()).
+						collect(Collectors.toSet());
+				Assert.assertEquals(parser.getSOTerms(ctx), terms);
+				Assert.assertEquals(parser.getSOTermsStrings(ctx), parser.getPredictions(ctx).stream().
+						flatMap(P->P.getSOTermsStrings().stream()).
+						collect(Collectors.toSet()));
+				for(final SequenceOntologyTree.Term t: terms) {
+					Assert.assertTrue(parser.anySOTermMatches(ctx, T->T.equals(t)));
+					}
+				Assert.assertFalse(parser.anySOTermMatches(ctx, T->false));
+				}
+			}
+		}
+
+	@Test
+	public void testVep() throws IOException {
+		try(VCFFileReader r = new VCFFileReader(Paths.get(support.resource("ExAC.r1.sites.vep.vcf.gz")),false)) {
+			final VCFHeader header = r.getFileHeader();
+			final VepPredictionParser parser = new VepPredictionParserFactory().header(header).get();
+			Assert.assertTrue(parser.isValid());
+			for(final VariantContext ctx : r) {
+				final Set<SequenceOntologyTree.Term> terms = new HashSet<>();
+				for(final VepPredictionParser.VepPrediction pred: parser.getPredictions(ctx)) {
+					terms.addAll(pred.getSOTerms());
+					final String[] tokens = CharSplitter.PIPE.split(pred.getOriginalAttributeAsString());
+					final String gene = pred.getGene();
+					Assert.assertTrue(gene==null || Arrays.asList(tokens).contains(gene));
+					Assert.assertNotEquals(pred.getByCol("Allele"), "-");
+					}
+				Assert.assertEquals(parser.getSOTerms(ctx), terms);
+				Assert.assertEquals(parser.anySOTermMatches(ctx, T->true), !terms.isEmpty());
+				}
+			}
+		}
+
+	@Test
+	public void testBcfTools() throws IOException {
+		try(VCFFileReader r = new VCFFileReader(Paths.get(support.resource("roxan.hs37d5.csq.vcf.gz")),false)) {
+			final BcfToolsPredictionParser parser = new BcfToolsPredictionParserFactory().header(r.getFileHeader()).get();
+			Assert.assertTrue(parser.isValid());
+			for(final VariantContext ctx : r) {
+				final Set<SequenceOntologyTree.Term> terms = parser.getPredictions(ctx).stream().
+						flatMap(P->P.getSOTerms().stream()).
+						collect(Collectors.toSet());
+				Assert.assertEquals(parser.getSOTerms(ctx), terms);
+				Assert.assertEquals(parser.anySOTermMatches(ctx, T->true), !terms.isEmpty());
+				}
+			}
+		}
+	}
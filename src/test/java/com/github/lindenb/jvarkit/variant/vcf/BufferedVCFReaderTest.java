@@ -0,0 +1,61 @@
+package com.github.lindenb.jvarkit.variant.vcf;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.github.lindenb.jvarkit.tools.tests.TestSupport;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFReader;
+
+public class BufferedVCFReaderTest {
+	private final TestSupport support  = new TestSupport();
+
+	@DataProvider(name = "src1")
+	public Object[][] createData1() {
+		return new Object[][]{
+			{support.resource("gnomad_v2_sv.sites.vcf.gz"),100},
+			{support.resource("gnomad_v2_sv.sites.vcf.gz"),100_000},
+			{support.resource("rotavirus_rf.vcf.gz"),10},
+			{support.resource("rotavirus_rf.vcf.gz"),1_000}
+			};
+		}
+
+	private static List<String> toList(final CloseableIterator<VariantContext> iter) {
+		final List<String> L = new ArrayList<>();
+		while(iter.hasNext()) {
+			final VariantContext ctx = iter.next();
+			L.add(ctx.getContig()+":"+ctx.getStart()+":"+ctx.getEnd()+":"+ctx.getID());
+			}
+		iter.close();
+		return L;
+		}
+
+	@Test(dataProvider="src1")
+	public void testQueries(final String vcf,final int buffSize) throws IOException {
+		try(VCFReader r1 = VCFReaderFactory.makeDefault().open(vcf, true)) {
+			try(BufferedVCFReader r2 = new BufferedVCFReader(VCFReaderFactory.makeDefault().open(vcf, true), buffSize)) {
+				final SAMSequenceDictionary dict = r1.getHeader().getSequenceDictionary();
+				for(SAMSequenceRecord ssr: dict.getSequences()) {
+					int start = 1;
+					for(int i=0;i< 100 && start < ssr.getSequenceLength();i++) {
+						start += support.random.nextInt(1+ssr.getSequenceLength()/50);
+						final int end = start + support.random.nextInt(1_000);
+						Assert.assertEquals(
+							toList(r2.query(ssr.getSequenceName(), start, end)),
+							toList(r1.query(ssr.getSequenceName(), start, end))
+							);
+						}
+					}
+				}
+			}
+		}
+}
@@ -0,0 +1,58 @@
+package com.github.lindenb.jvarkit.variant.vcf;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.lindenb.jvarkit.tools.tests.TestSupport;
+
+import htsjdk.samtools.util.IOUtil;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.vcf.VCFReader;
+
+public class VariantColumnStoreTest {
+	private final TestSupport support  = new TestSupport();
+
+	/** AGCGTCAT and CTGGTCAA have the same 32-bit hash */
+	@Test
+	public void testHashCollision() throws IOException {
+		final Allele a1 = Allele.create("AGCGTCAT", false);
+		final Allele a2 = Allele.create("CTGGTCAA", false);
+		Assert.assertEquals(VariantColumnStore.hash(a1), VariantColumnStore.hash(a2));
+		final Path storeDir = Files.createTempDirectory(support.createTmpPath(".tmp").getParent(), "store.");
+		try {
+			final Path vcf = support.createTmpPath(".vcf");
+			try(PrintWriter pw = new PrintWriter(Files.newBufferedWriter(vcf))) {
+				pw.println("##fileformat=VCFv4.2");
+				pw.println("##INFO=<ID=AF,Number=A,Type=Float,Description=\"AF\">");
+				pw.println("##contig=<ID=chr1,length=1000>");
+				pw.println("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO");
+				pw.println("chr1\t100\trs1\tA\tAGCGTCAT\t.\t.\tAF=0.1");
+				pw.println("chr1\t200\trs2\tAGCGTCAT\tA\t.\t.\tAF=0.2");
+				}
+			try(VCFReader r = VCFReaderFactory.makeDefault().open(vcf, false)) {
+				try(VariantColumnStore store = VariantColumnStore.openOrCompile(storeDir, vcf, r, Arrays.asList("AF"))) {
+					final VariantColumnStore.Contig contig = store.getContig("chr1");
+					Assert.assertEquals(contig.size(), 2);
+					Assert.assertTrue(contig.altMatches(0, VariantColumnStore.hash(a1), a1));
+					Assert.assertTrue(contig.altMatches(0, VariantColumnStore.hash(a1), Allele.create("agcgtcat", false)));
+					Assert.assertFalse(contig.altMatches(0, VariantColumnStore.hash(a2), a2));
+					final Allele r1 = Allele.create("AGCGTCAT", true);
+					final Allele r2 = Allele.create("CTGGTCAA", true);
+					Assert.assertTrue(contig.refMatches(1, VariantColumnStore.hash(r1), r1));
+					Assert.assertFalse(contig.refMatches(1, VariantColumnStore.hash(r2), r2));
+					Assert.assertEquals(contig.getValue(1, 0), 0.2f);
+					}
+				}
+			}
+		finally {
+			IOUtil.recursiveDelete(storeDir);
+			support.removeTmpFiles();
+			}
+		}
+	}
@@ -0,0 +1,59 @@
+package com.github.lindenb.jvarkit.variant.vcf;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.github.lindenb.jvarkit.tools.tests.TestSupport;
+
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFIterator;
+import htsjdk.variant.vcf.VCFReader;
+
+public class VcfShardsTest {
+	private final TestSupport support  = new TestSupport();
+
+	@DataProvider(name = "src1")
+	public Object[][] createData1() {
+		return support.combine2(
+			support.allVcfOrBcf().filter(F->VcfShards.isShardable(Paths.get(F))),
+			java.util.stream.Stream.of(1,3,10)
+			);
+		}
+	
+	private static void add(final List<String> L,final CloseableIterator<VariantContext> iter) {
+		while(iter.hasNext()) {
+			final VariantContext ctx = iter.next();
+			L.add(ctx.getContig()+":"+ctx.getStart()+":"+ctx.getEnd()+":"+ctx.getAlleles());
+			}
+		iter.close();
+		}
+
+	@Test(dataProvider="src1")
+	public void testConcatShardsIsInput(final String vcf,final Integer nShards) throws IOException {
+		final Path path = Paths.get(vcf);
+		try(VCFReader r = VCFReaderFactory.makeDefault().open(path, true)) {
+			final List<String> expect = new ArrayList<>();
+			add(expect,r.iterator());
+			for(int windowSize : new int[] {100,VcfShards.DEFAULT_WINDOW_SIZE}) {
+				final VcfShards shards = VcfShards.split(path, r.getHeader().getSequenceDictionary(), nShards, windowSize);
+				Assert.assertTrue(shards.size()>=1);
+				Assert.assertTrue(shards.size()<=nShards);
+				final List<String> L = new ArrayList<>();
+				for(int i=0;i< shards.size();i++) {
+					try(VCFIterator iter = shards.open(r, i)) {
+						add(L,iter);
+						}
+					}
+				Assert.assertEquals(L, expect);
+				}
+			}
+		}
+}